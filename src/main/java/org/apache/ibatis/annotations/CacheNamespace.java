@@ -49,6 +49,24 @@ public @interface CacheNamespace {
   /** 是否阻塞 */
   boolean blocking() default false;
 
+  /**
+   * 条目写入后的存活时间（毫秒）
+   * Time to live of each entry in milliseconds (0 means no per entry expiration).
+   */
+  long timeToLive() default 0;
+
+  /**
+   * 条目的空闲存活时间（毫秒）
+   * Time to idle of each entry in milliseconds (0 means no per entry expiration).
+   */
+  long timeToIdle() default 0;
+
+  /**
+   * 条目过期前提前刷新的时间（毫秒）
+   * Period before the expiration of an entry in which a read triggers its reload.
+   */
+  long refreshAhead() default 0;
+
   /**
    *  properties 数组
    * Property values for a implementation object.
@@ -0,0 +1,310 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+
+/**
+ * A {@link ParamMap} whose keys are known in advance, built for every call of a mapper method
+ * without copying the arguments.
+ * <p>
+ * The keys of a mapper method (parameter names and generic names param1, param2...) are laid out once
+ * per method in a {@link Layout}, with a hash table sized so that the known keys do not collide.
+ * Lookups read the arguments array through the layout. Any other operation (put, iteration...)
+ * first copies the entries into the underlying HashMap, so the map behaves like a regular ParamMap.
+ *
+ * 固定键布局的参数 Map：按方法预先计算键的位置，读取时直接访问参数数组，修改或遍历时才复制到 HashMap 中
+ */
+public class FixedParamMap extends ParamMap<Object> {
+
+  private static final long serialVersionUID = 2370651493476524317L;
+
+  private final transient Layout layout;
+  private final transient Object[] args;
+  private boolean inflated;
+
+  public FixedParamMap(Layout layout, Object[] args) {
+    this.layout = layout;
+    this.args = args;
+  }
+
+  @Override
+  public Object get(Object key) {
+    if (!inflated) {
+      int slot = layout.indexOf(key);
+      if (slot >= 0) {
+        return args[layout.argIndexes[slot]];
+      }
+      // 复制后由 ParamMap 报告可用的参数
+      inflate();
+    }
+    return super.get(key);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return inflated ? super.containsKey(key) : layout.indexOf(key) >= 0;
+  }
+
+  @Override
+  public int size() {
+    return inflated ? super.size() : layout.keys.length;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    inflate();
+    return super.put(key, value);
+  }
+
+  @Override
+  public void putAll(Map<? extends String, ?> m) {
+    inflate();
+    super.putAll(m);
+  }
+
+  @Override
+  public Object remove(Object key) {
+    inflate();
+    return super.remove(key);
+  }
+
+  @Override
+  public void clear() {
+    inflate();
+    super.clear();
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    inflate();
+    return super.containsValue(value);
+  }
+
+  @Override
+  public Set<String> keySet() {
+    inflate();
+    return super.keySet();
+  }
+
+  @Override
+  public Collection<Object> values() {
+    inflate();
+    return super.values();
+  }
+
+  @Override
+  public Set<Map.Entry<String, Object>> entrySet() {
+    inflate();
+    return super.entrySet();
+  }
+
+  @Override
+  public Object getOrDefault(Object key, Object defaultValue) {
+    inflate();
+    return super.getOrDefault(key, defaultValue);
+  }
+
+  @Override
+  public Object putIfAbsent(String key, Object value) {
+    inflate();
+    return super.putIfAbsent(key, value);
+  }
+
+  @Override
+  public boolean remove(Object key, Object value) {
+    inflate();
+    return super.remove(key, value);
+  }
+
+  @Override
+  public boolean replace(String key, Object oldValue, Object newValue) {
+    inflate();
+    return super.replace(key, oldValue, newValue);
+  }
+
+  @Override
+  public Object replace(String key, Object value) {
+    inflate();
+    return super.replace(key, value);
+  }
+
+  @Override
+  public Object computeIfAbsent(String key, Function<? super String, ?> mappingFunction) {
+    inflate();
+    return super.computeIfAbsent(key, mappingFunction);
+  }
+
+  @Override
+  public Object computeIfPresent(String key, BiFunction<? super String, ? super Object, ?> remappingFunction) {
+    inflate();
+    return super.computeIfPresent(key, remappingFunction);
+  }
+
+  @Override
+  public Object compute(String key, BiFunction<? super String, ? super Object, ?> remappingFunction) {
+    inflate();
+    return super.compute(key, remappingFunction);
+  }
+
+  @Override
+  public Object merge(String key, Object value, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+    inflate();
+    return super.merge(key, value, remappingFunction);
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super String, ? super Object> action) {
+    inflate();
+    super.forEach(action);
+  }
+
+  @Override
+  public void replaceAll(BiFunction<? super String, ? super Object, ?> function) {
+    inflate();
+    super.replaceAll(function);
+  }
+
+  @Override
+  public Object clone() {
+    inflate();
+    return super.clone();
+  }
+
+  private void inflate() {
+    if (!inflated) {
+      inflated = true;
+      for (int i = 0; i < layout.keys.length; i++) {
+        super.put(layout.keys[i], args[layout.argIndexes[i]]);
+      }
+    }
+  }
+
+  /**
+   * 序列化为普通的 ParamMap
+   */
+  private Object writeReplace() {
+    inflate();
+    ParamMap<Object> paramMap = new ParamMap<>();
+    paramMap.putAll(new HashMap<>(this));
+    return paramMap;
+  }
+
+  /**
+   * The keys of the parameters of a mapper method and the index of the argument of each key.
+   */
+  public static final class Layout {
+
+    private static final int MAX_PERFECT_TABLE_SIZE = 1 << 10;
+
+    private final String[] keys;
+    private final int[] argIndexes;
+    private final String[] table;
+    private final int[] tableSlots;
+    private final int mask;
+
+    /**
+     * @param keys The keys, in the order they would be put in a ParamMap
+     * @param argIndexes The index of the argument of each key
+     */
+    public Layout(List<String> keys, List<Integer> argIndexes) {
+      this.keys = keys.toArray(new String[0]);
+      this.argIndexes = new int[argIndexes.size()];
+      for (int i = 0; i < this.argIndexes.length; i++) {
+        this.argIndexes[i] = argIndexes.get(i);
+      }
+      // 寻找使所有键都不冲突的最小表长；找不到时退化为线性探测
+      int size = tableSizeFor(this.keys.length * 2);
+      int perfectSize = size;
+      while (perfectSize <= MAX_PERFECT_TABLE_SIZE && !isPerfect(perfectSize)) {
+        perfectSize <<= 1;
+      }
+      if (perfectSize <= MAX_PERFECT_TABLE_SIZE) {
+        size = perfectSize;
+      }
+      this.table = new String[size];
+      this.tableSlots = new int[size];
+      this.mask = size - 1;
+      for (int slot = 0; slot < this.keys.length; slot++) {
+        int index = hash(this.keys[slot]) & mask;
+        while (table[index] != null) {
+          index = (index + 1) & mask;
+        }
+        table[index] = this.keys[slot];
+        tableSlots[index] = slot;
+      }
+    }
+
+    public int size() {
+      return keys.length;
+    }
+
+    int indexOf(Object key) {
+      if (!(key instanceof String)) {
+        return -1;
+      }
+      int index = hash((String) key) & mask;
+      String current;
+      while ((current = table[index]) != null) {
+        if (current == key || current.equals(key)) {
+          return tableSlots[index];
+        }
+        index = (index + 1) & mask;
+      }
+      return -1;
+    }
+
+    private boolean isPerfect(int size) {
+      boolean[] used = new boolean[size];
+      for (String key : keys) {
+        int index = hash(key) & (size - 1);
+        if (used[index]) {
+          return false;
+        }
+        used[index] = true;
+      }
+      return true;
+    }
+
+    private static int hash(String key) {
+      int h = key.hashCode();
+      return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+      int size = 2;
+      while (size < capacity) {
+        size <<= 1;
+      }
+      return size;
+    }
+  }
+
+}
@@ -0,0 +1,47 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import org.apache.ibatis.session.SqlSession;
+
+/**
+ * Base class of the mapper implementations generated by {@link MapperClassGenerator}.
+ * <p>
+ * Each generated method calls {@link #executeMapperMethod(int, Object[])} with the index of the method,
+ * which runs the MapperMethod bound to that index by the {@link MapperProxyFactory}.
+ *
+ * 生成的 Mapper 实现类的父类
+ */
+public abstract class GeneratedMapper {
+
+  private final SqlSession sqlSession;
+  private final MapperProxyFactory<?> mapperProxyFactory;
+
+  protected GeneratedMapper(SqlSession sqlSession, MapperProxyFactory<?> mapperProxyFactory) {
+    this.sqlSession = sqlSession;
+    this.mapperProxyFactory = mapperProxyFactory;
+  }
+
+  protected final Object executeMapperMethod(int index, Object[] args) {
+    return mapperProxyFactory.getMapperMethod(index, sqlSession.getConfiguration()).execute(sqlSession, args);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getName() + "@" + Integer.toHexString(hashCode());
+  }
+
+}
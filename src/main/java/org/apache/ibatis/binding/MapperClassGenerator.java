@@ -0,0 +1,180 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtConstructor;
+import javassist.CtMethod;
+import javassist.LoaderClassPath;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.SqlSession;
+
+/**
+ * Generates with Javassist a class implementing a mapper interface, used instead of a JDK proxy when
+ * {@code useGeneratedMapperClasses} is enabled.
+ * <p>
+ * Each abstract method of the interface is implemented by a call to the MapperMethod bound to its index,
+ * so invoking a mapper does not go through {@link java.lang.reflect.InvocationHandler}, nor hashes the
+ * {@link Method} to find its MapperMethod. Default methods are inherited from the interface.
+ * The class is generated once per interface and defined in the class loader of the interface.
+ *
+ * 使用 Javassist 生成 Mapper 接口的实现类，代替 JDK 动态代理
+ */
+public final class MapperClassGenerator {
+
+  private static final Log log = LogFactory.getLog(MapperClassGenerator.class);
+
+  private static final String CLASS_SUFFIX = "$$MyBatisMapper";
+  private static final boolean MODULES_SUPPORTED = isModulesSupported();
+
+  // ClassValue 不会阻止接口被回收；生成失败时缓存 null，使用 JDK 动态代理
+  private static final ClassValue<GeneratedClass> generatedClasses = new ClassValue<GeneratedClass>() {
+    @Override
+    protected GeneratedClass computeValue(Class<?> mapperInterface) {
+      try {
+        return generate(mapperInterface);
+      } catch (Throwable e) {
+        log.warn("Could not generate an implementation of " + mapperInterface.getName() + ", a proxy is used instead. Cause: " + e);
+        return null;
+      }
+    }
+  };
+
+  private MapperClassGenerator() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * @return The generated class of the mapper interface, or null if it could not be generated
+   */
+  public static GeneratedClass get(Class<?> mapperInterface) {
+    return generatedClasses.get(mapperInterface);
+  }
+
+  private static GeneratedClass generate(Class<?> mapperInterface) throws Exception {
+    // 已有默认实现（包括子接口中覆盖的默认方法）的方法不生成
+    Set<String> defaultMethods = new HashSet<>();
+    for (Method method : mapperInterface.getMethods()) {
+      if (method.isDefault()) {
+        defaultMethods.add(method.getName() + Arrays.toString(method.getParameterTypes()));
+      }
+    }
+    List<Method> methods = new ArrayList<>();
+    Set<String> signatures = new HashSet<>();
+    for (Method method : mapperInterface.getMethods()) {
+      String signature = method.getName() + Arrays.toString(method.getParameterTypes());
+      if (!method.isDefault() && !Modifier.isStatic(method.getModifiers()) && !isObjectMethod(method)
+          && !defaultMethods.contains(signature) && signatures.add(signature + method.getReturnType().getName())) {
+        methods.add(method);
+      }
+    }
+    ClassPool pool = new ClassPool(true);
+    pool.appendClassPath(new LoaderClassPath(mapperInterface.getClassLoader()));
+    pool.appendClassPath(new ClassClassPath(GeneratedMapper.class));
+    CtClass ctClass = pool.makeClass(mapperInterface.getName() + CLASS_SUFFIX, pool.get(GeneratedMapper.class.getName()));
+    ctClass.addInterface(pool.get(mapperInterface.getName()));
+    CtConstructor constructor = new CtConstructor(
+        new CtClass[] { pool.get(SqlSession.class.getName()), pool.get(MapperProxyFactory.class.getName()) }, ctClass);
+    constructor.setBody("super($1, $2);");
+    ctClass.addConstructor(constructor);
+    for (int i = 0; i < methods.size(); i++) {
+      Method method = methods.get(i);
+      Class<?>[] parameterTypes = method.getParameterTypes();
+      CtClass[] ctParameterTypes = new CtClass[parameterTypes.length];
+      for (int j = 0; j < parameterTypes.length; j++) {
+        ctParameterTypes[j] = pool.get(parameterTypes[j].getName());
+      }
+      CtMethod ctMethod = new CtMethod(pool.get(method.getReturnType().getName()), method.getName(), ctParameterTypes, ctClass);
+      // $args 为装箱后的参数数组，($r) 转换为方法的返回类型（包括拆箱）
+      String call = "executeMapperMethod(" + i + ", $args);";
+      ctMethod.setBody(void.class.equals(method.getReturnType()) ? "{ " + call + " }" : "{ return ($r) " + call + " }");
+      ctClass.addMethod(ctMethod);
+    }
+    try {
+      // 定义在接口所在的类加载器和包中；Java 9 以上使用 Lookup，Java 8 使用 ClassLoader.defineClass
+      Class<?> type = MODULES_SUPPORTED ? ctClass.toClass(mapperInterface)
+          : ctClass.toClass(mapperInterface.getClassLoader(), mapperInterface.getProtectionDomain());
+      return new GeneratedClass(type.getConstructor(SqlSession.class, MapperProxyFactory.class), methods.toArray(new Method[0]));
+    } finally {
+      ctClass.detach();
+    }
+  }
+
+  private static boolean isModulesSupported() {
+    try {
+      Class.class.getMethod("getModule");
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  private static boolean isObjectMethod(Method method) {
+    try {
+      Object.class.getMethod(method.getName(), method.getParameterTypes());
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * A generated mapper class and the interface methods it implements, by index.
+   */
+  public static final class GeneratedClass {
+    private final Constructor<?> constructor;
+    private final Method[] methods;
+
+    private GeneratedClass(Constructor<?> constructor, Method[] methods) {
+      this.constructor = constructor;
+      this.methods = methods;
+    }
+
+    public Method[] getMethods() {
+      return methods.clone();
+    }
+
+    Method getMethod(int index) {
+      return methods[index];
+    }
+
+    int getMethodCount() {
+      return methods.length;
+    }
+
+    Object newInstance(SqlSession sqlSession, MapperProxyFactory<?> mapperProxyFactory) {
+      try {
+        return constructor.newInstance(sqlSession, mapperProxyFactory);
+      } catch (Exception e) {
+        throw new BindingException("Error creating generated mapper " + constructor.getDeclaringClass().getName() + ". Cause: " + e, e);
+      }
+    }
+  }
+
+}
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.binding;
 
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSession;
 
 import java.lang.reflect.Method;
@@ -32,6 +33,9 @@ public class MapperProxyFactory<T> {
   private final Class<T> mapperInterface;
   /** Mapper方法缓存 */
   private final Map<Method, MapperMethod> methodCache = new ConcurrentHashMap<>();
+  /** 生成的实现类，及按方法下标绑定的 MapperMethod */
+  private volatile MapperClassGenerator.GeneratedClass generatedClass;
+  private volatile MapperMethod[] boundMethods;
 
   public MapperProxyFactory(Class<T> mapperInterface) {
     this.mapperInterface = mapperInterface;
@@ -45,6 +49,18 @@ public class MapperProxyFactory<T> {
     return methodCache;
   }
 
+  /**
+   * 清除方法缓存，包括生成的实现类已绑定的 MapperMethod
+   * @since 3.5.2
+   */
+  public void clearMethodCache() {
+    methodCache.clear();
+    MapperMethod[] methods = boundMethods;
+    if (methods != null) {
+      boundMethods = new MapperMethod[methods.length];
+    }
+  }
+
   /**
    * jdk 动态代理创建代理对象
    * @param mapperProxy
@@ -61,8 +77,60 @@ public class MapperProxyFactory<T> {
    * @return
    */
   public T newInstance(SqlSession sqlSession) {
+    if (sqlSession.getConfiguration().isUseGeneratedMapperClasses()) {
+      T mapper = newGeneratedInstance(sqlSession);
+      if (mapper != null) {
+        return mapper;
+      }
+    }
     final MapperProxy<T> mapperProxy = new MapperProxy<>(sqlSession, mapperInterface, methodCache);
     return newInstance(mapperProxy);
   }
 
+  /**
+   * 创建生成的实现类的实例；首次创建时预先绑定所有方法的 MapperMethod
+   * @return 无法生成实现类时返回 null
+   */
+  @SuppressWarnings("unchecked")
+  private T newGeneratedInstance(SqlSession sqlSession) {
+    MapperClassGenerator.GeneratedClass generated = generatedClass;
+    if (generated == null) {
+      generated = MapperClassGenerator.get(mapperInterface);
+      if (generated == null) {
+        return null;
+      }
+      generatedClass = generated;
+    }
+    if (boundMethods == null) {
+      MapperMethod[] methods = new MapperMethod[generated.getMethodCount()];
+      for (int i = 0; i < methods.length; i++) {
+        try {
+          methods[i] = cachedMapperMethod(generated.getMethod(i), sqlSession.getConfiguration());
+        } catch (BindingException e) {
+          // 与代理一样，在调用该方法时再报告错误
+        }
+      }
+      boundMethods = methods;
+    }
+    return (T) generated.newInstance(sqlSession, this);
+  }
+
+  /**
+   * @param index The index of a method of the generated class
+   * @return The MapperMethod bound to the method
+   */
+  MapperMethod getMapperMethod(int index, Configuration configuration) {
+    MapperMethod[] methods = boundMethods;
+    MapperMethod mapperMethod = methods[index];
+    if (mapperMethod == null) {
+      mapperMethod = cachedMapperMethod(generatedClass.getMethod(index), configuration);
+      methods[index] = mapperMethod;
+    }
+    return mapperMethod;
+  }
+
+  private MapperMethod cachedMapperMethod(Method method, Configuration configuration) {
+    return methodCache.computeIfAbsent(method, k -> new MapperMethod(mapperInterface, method, configuration));
+  }
+
 }
@@ -21,6 +21,7 @@ import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSession;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Mapper 注册表
@@ -33,7 +34,7 @@ public class MapperRegistry {
   /** 配置类 */
   private final Configuration config;
   /** 已注册的Mapper工厂代理 */
-  private final Map<Class<?>, MapperProxyFactory<?>> knownMappers = new HashMap<>();
+  private final Map<Class<?>, MapperProxyFactory<?>> knownMappers = new ConcurrentHashMap<>();
 
   public MapperRegistry(Configuration config) {
     this.config = config;
@@ -81,10 +82,15 @@ public class MapperRegistry {
         // otherwise the binding may automatically be attempted by the
         // mapper parser. If the type is already known, it won't try.
 
-        // Mapper 注解构造器
-        MapperAnnotationBuilder parser = new MapperAnnotationBuilder(config, type);
-        // 解析为 statement
-        parser.parse();
+        if (config.isLazyMapperLoading()) {
+          // 延迟模式：首次使用该命名空间时再解析注解和 xml
+          config.addLazyMapper(type.getName(), () -> new MapperAnnotationBuilder(config, type).parse());
+        } else {
+          // Mapper 注解构造器
+          MapperAnnotationBuilder parser = new MapperAnnotationBuilder(config, type);
+          // 解析为 statement
+          parser.parse();
+        }
         loadCompleted = true;
       } finally {
         if (!loadCompleted) {
@@ -94,6 +100,17 @@ public class MapperRegistry {
     }
   }
 
+  /**
+   * 清除指定 Mapper 的方法缓存，已创建的代理也会在下次调用时重新解析语句
+   * @since 3.5.2
+   */
+  public void clearMethodCache(Class<?> type) {
+    MapperProxyFactory<?> mapperProxyFactory = knownMappers.get(type);
+    if (mapperProxyFactory != null) {
+      mapperProxyFactory.clearMethodCache();
+    }
+  }
+
   /**
    * 获得 knownMappers
    * @since 3.2.2
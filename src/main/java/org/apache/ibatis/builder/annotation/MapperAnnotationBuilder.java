@@ -24,6 +24,7 @@ import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.builder.CacheRefResolver;
 import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.builder.xml.ConfigurationSnapshot;
 import org.apache.ibatis.builder.xml.XMLMapperBuilder;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
@@ -33,6 +34,7 @@ import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.*;
 import org.apache.ibatis.parsing.PropertyParser;
+import org.apache.ibatis.parsing.XPathParser;
 import org.apache.ibatis.reflection.TypeParameterResolver;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.session.Configuration;
@@ -158,7 +160,19 @@ public class MapperAnnotationBuilder {
       }
       // 如果存在Mapper.xml 文件， 则解析 Mapper.xml 文件
       if (inputStream != null) {
-        XMLMapperBuilder xmlParser = new XMLMapperBuilder(inputStream, assistant.getConfiguration(), xmlResource, configuration.getSqlFragments(), type.getName());
+        XPathParser parser;
+        ConfigurationSnapshot snapshot = configuration.getConfigurationSnapshot();
+        if (snapshot != null) {
+          // 从快照中还原文档
+          try {
+            parser = snapshot.createParser(xmlResource, inputStream, configuration.getVariables(), configuration.isUseStaxMapperParser());
+          } catch (IOException e) {
+            throw new BuilderException("Error reading " + xmlResource + ". Cause: " + e, e);
+          }
+        } else {
+          parser = XMLMapperBuilder.createParser(inputStream, configuration);
+        }
+        XMLMapperBuilder xmlParser = new XMLMapperBuilder(parser, assistant.getConfiguration(), xmlResource, configuration.getSqlFragments(), type.getName());
         xmlParser.parse();
       }
     }
@@ -172,8 +186,12 @@ public class MapperAnnotationBuilder {
     if (cacheDomain != null) {
       Integer size = cacheDomain.size() == 0 ? null : cacheDomain.size();
       Long flushInterval = cacheDomain.flushInterval() == 0 ? null : cacheDomain.flushInterval();
+      Long timeToLive = cacheDomain.timeToLive() == 0 ? null : cacheDomain.timeToLive();
+      Long timeToIdle = cacheDomain.timeToIdle() == 0 ? null : cacheDomain.timeToIdle();
+      Long refreshAhead = cacheDomain.refreshAhead() == 0 ? null : cacheDomain.refreshAhead();
       Properties props = convertToProperties(cacheDomain.properties());
-      assistant.useNewCache(cacheDomain.implementation(), cacheDomain.eviction(), flushInterval, size, cacheDomain.readWrite(), cacheDomain.blocking(), props);
+      assistant.useNewCache(cacheDomain.implementation(), cacheDomain.eviction(), flushInterval, size, cacheDomain.readWrite(), cacheDomain.blocking(), props,
+          timeToLive, timeToIdle, refreshAhead);
     }
   }
 
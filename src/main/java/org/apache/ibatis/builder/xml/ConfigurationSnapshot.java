@@ -0,0 +1,340 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.parsing.StaxDocumentBuilder;
+import org.apache.ibatis.parsing.XPathParser;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * A binary snapshot of the configuration and mapper XML documents, used to skip XML parsing and
+ * DTD validation at startup.
+ * <p>
+ * The snapshot is usually recorded at build time by building a SqlSessionFactory with an empty snapshot
+ * and writing it, then shipped with the application and read back at startup:
+ * <pre>
+ * ConfigurationSnapshot snapshot = new ConfigurationSnapshot();
+ * new SqlSessionFactoryBuilder().build(inputStream, snapshot);
+ * snapshot.write(outputStream);
+ * ...
+ * SqlSessionFactory factory = new SqlSessionFactoryBuilder().build(inputStream, ConfigurationSnapshot.read(snapshotStream));
+ * </pre>
+ * Each document is stored with the CRC32 checksum of its source. A document whose source has changed
+ * since the snapshot was recorded is parsed again and replaced in the snapshot (see {@link #isModified()}).
+ * Properties placeholders are kept in the documents, so the same snapshot can be used with different properties.
+ * <p>
+ * Only the XML parsing and DTD validation of the documents is skipped: the sources are still read to compute
+ * their checksums, and the configuration (type aliases, result maps, mapped statements, ...) is still built
+ * from the restored documents at startup. The built {@link org.apache.ibatis.session.Configuration} itself is
+ * not snapshotted because it holds live, non serializable objects (type handlers, plugins, data source, proxies).
+ * {@link #getRestoredCount()} and {@link #getParsedCount()} tell how many documents were restored or parsed.
+ *
+ * 配置文件及 mapper xml 文档的二进制快照，启动时根据校验和直接还原文档，跳过 xml 解析和 DTD 校验
+ */
+public class ConfigurationSnapshot {
+
+  /**
+   * Name of the main configuration document in the snapshot.
+   */
+  public static final String CONFIGURATION = "mybatis-config.xml";
+
+  private static final int MAGIC = 0x4D425353;
+  private static final int VERSION = 1;
+
+  private static final byte ELEMENT = 1;
+  private static final byte TEXT = 2;
+  private static final byte CDATA = 3;
+  private static final byte END = 0;
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private volatile boolean modified;
+  private final AtomicInteger restoredCount = new AtomicInteger();
+  private final AtomicInteger parsedCount = new AtomicInteger();
+
+  /**
+   * Reads a snapshot written by {@link #write(OutputStream)}.
+   */
+  public static ConfigurationSnapshot read(InputStream inputStream) throws IOException {
+    DataInputStream in = new DataInputStream(new InflaterInputStream(inputStream));
+    if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+      throw new BuilderException("Invalid or incompatible configuration snapshot");
+    }
+    ConfigurationSnapshot snapshot = new ConfigurationSnapshot();
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      String location = in.readUTF();
+      long checksum = in.readLong();
+      byte[] data = new byte[in.readInt()];
+      in.readFully(data);
+      snapshot.entries.put(location, new Entry(checksum, data));
+    }
+    return snapshot;
+  }
+
+  /**
+   * Writes the documents of the snapshot in a compressed binary form.
+   */
+  public void write(OutputStream outputStream) throws IOException {
+    DeflaterOutputStream deflater = new DeflaterOutputStream(outputStream);
+    DataOutputStream out = new DataOutputStream(deflater);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    Map<String, Entry> copy = new HashMap<>(entries);
+    out.writeInt(copy.size());
+    for (Map.Entry<String, Entry> entry : copy.entrySet()) {
+      out.writeUTF(entry.getKey());
+      out.writeLong(entry.getValue().checksum);
+      out.writeInt(entry.getValue().data.length);
+      out.write(entry.getValue().data);
+    }
+    out.flush();
+    deflater.finish();
+    modified = false;
+  }
+
+  /**
+   * @return true if documents have been added or replaced since the snapshot was read or last written
+   */
+  public boolean isModified() {
+    return modified;
+  }
+
+  /**
+   * @return The number of documents restored from the snapshot without being parsed
+   */
+  public int getRestoredCount() {
+    return restoredCount.get();
+  }
+
+  /**
+   * @return The number of documents parsed from their source because they were missing or had changed
+   */
+  public int getParsedCount() {
+    return parsedCount.get();
+  }
+
+  /**
+   * @return The locations of the documents in the snapshot
+   */
+  public List<String> getLocations() {
+    return new ArrayList<>(entries.keySet());
+  }
+
+  /**
+   * Creates a parser for an XML document, restored from the snapshot when its checksum matches the source,
+   * otherwise parsed from the source and added to the snapshot.
+   *
+   * @param location The resource or url of the document
+   * @param inputStream The source of the document, closed by this method
+   * @param variables The properties used to replace the placeholders
+   */
+  public XPathParser createParser(String location, InputStream inputStream, Properties variables) throws IOException {
+    return createParser(location, inputStream, variables, false);
+  }
+
+  /**
+   * @param stax Parse the documents missing from the snapshot with the streaming StAX parser (without DTD validation)
+   *
+   * @see #createParser(String, InputStream, Properties)
+   */
+  public XPathParser createParser(String location, InputStream inputStream, Properties variables, boolean stax) throws IOException {
+    byte[] source;
+    try {
+      source = readFully(inputStream);
+    } finally {
+      inputStream.close();
+    }
+    long checksum = checksum(source);
+    Entry entry = entries.get(location);
+    if (entry != null && entry.checksum == checksum) {
+      restoredCount.incrementAndGet();
+      return new XPathParser(decode(entry.data), true, variables, new XMLMapperEntityResolver());
+    }
+    XPathParser parser = stax
+        ? new XPathParser(StaxDocumentBuilder.parse(new ByteArrayInputStream(source)), false, variables, new XMLMapperEntityResolver())
+        : new XPathParser(new ByteArrayInputStream(source), true, variables, new XMLMapperEntityResolver());
+    entries.put(location, new Entry(checksum, encode((Document) parser.evalNode("/").getNode())));
+    parsedCount.incrementAndGet();
+    modified = true;
+    return parser;
+  }
+
+  private static byte[] readFully(InputStream inputStream) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int n;
+    while ((n = inputStream.read(buffer)) > 0) {
+      out.write(buffer, 0, n);
+    }
+    return out.toByteArray();
+  }
+
+  private static long checksum(byte[] data) {
+    CRC32 crc = new CRC32();
+    crc.update(data, 0, data.length);
+    return crc.getValue();
+  }
+
+  private static byte[] encode(Document document) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    encodeNode(document.getDocumentElement(), out, new HashMap<>());
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private static void encodeNode(Node node, DataOutputStream out, Map<String, Integer> names) throws IOException {
+    switch (node.getNodeType()) {
+      case Node.ELEMENT_NODE:
+        out.writeByte(ELEMENT);
+        writeName(node.getNodeName(), out, names);
+        NamedNodeMap attributes = node.getAttributes();
+        out.writeShort(attributes.getLength());
+        for (int i = 0; i < attributes.getLength(); i++) {
+          Attr attribute = (Attr) attributes.item(i);
+          writeName(attribute.getName(), out, names);
+          writeString(attribute.getValue(), out);
+        }
+        NodeList children = node.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+          encodeNode(children.item(i), out, names);
+        }
+        out.writeByte(END);
+        break;
+      case Node.CDATA_SECTION_NODE:
+        out.writeByte(CDATA);
+        writeString(node.getNodeValue(), out);
+        break;
+      case Node.TEXT_NODE:
+        out.writeByte(TEXT);
+        writeString(node.getNodeValue(), out);
+        break;
+      default:
+        // 注释、处理指令等节点不影响配置
+        break;
+    }
+  }
+
+  private static Document decode(byte[] data) {
+    try {
+      Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+      if (in.readByte() != ELEMENT) {
+        throw new BuilderException("Invalid configuration snapshot document");
+      }
+      document.appendChild(decodeElement(document, in, new ArrayList<>()));
+      return document;
+    } catch (IOException | ParserConfigurationException e) {
+      throw new BuilderException("Error restoring document from configuration snapshot. Cause: " + e, e);
+    }
+  }
+
+  private static Element decodeElement(Document document, DataInputStream in, List<String> names) throws IOException {
+    Element element = document.createElement(readName(in, names));
+    int attributes = in.readUnsignedShort();
+    for (int i = 0; i < attributes; i++) {
+      element.setAttribute(readName(in, names), readString(in));
+    }
+    byte type;
+    while ((type = in.readByte()) != END) {
+      if (type == ELEMENT) {
+        element.appendChild(decodeElement(document, in, names));
+      } else if (type == TEXT) {
+        element.appendChild(document.createTextNode(readString(in)));
+      } else if (type == CDATA) {
+        element.appendChild(document.createCDATASection(readString(in)));
+      } else {
+        throw new BuilderException("Invalid configuration snapshot document");
+      }
+    }
+    return element;
+  }
+
+  /**
+   * Element and attribute names are written once, then referenced by their index.
+   */
+  private static void writeName(String name, DataOutputStream out, Map<String, Integer> names) throws IOException {
+    Integer index = names.get(name);
+    if (index != null) {
+      out.writeShort(index);
+    } else {
+      out.writeShort(names.size() | 0x8000);
+      names.put(name, names.size());
+      writeString(name, out);
+    }
+  }
+
+  private static String readName(DataInputStream in, List<String> names) throws IOException {
+    int index = in.readUnsignedShort();
+    if ((index & 0x8000) == 0) {
+      return names.get(index);
+    }
+    String name = readString(in);
+    names.add(name);
+    return name;
+  }
+
+  private static void writeString(String value, DataOutputStream out) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static class Entry {
+    private final long checksum;
+    private final byte[] data;
+
+    private Entry(long checksum, byte[] data) {
+      this.checksum = checksum;
+      this.data = data;
+    }
+  }
+
+}
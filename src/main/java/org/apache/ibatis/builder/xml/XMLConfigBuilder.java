@@ -17,6 +17,7 @@ package org.apache.ibatis.builder.xml;
 
 import org.apache.ibatis.builder.BaseBuilder;
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.cache.CacheInvalidationBroadcaster;
 import org.apache.ibatis.datasource.DataSourceFactory;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.loader.ProxyFactory;
@@ -25,6 +26,8 @@ import org.apache.ibatis.io.VFS;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.mapping.DatabaseIdProvider;
 import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.metrics.MetricsRegistry;
+import org.apache.ibatis.parsing.StaxDocumentBuilder;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.parsing.XPathParser;
 import org.apache.ibatis.plugin.Interceptor;
@@ -38,9 +41,15 @@ import org.apache.ibatis.transaction.TransactionFactory;
 import org.apache.ibatis.type.JdbcType;
 
 import javax.sql.DataSource;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  *
@@ -90,6 +99,15 @@ public class XMLConfigBuilder extends BaseBuilder {
     this(new XPathParser(inputStream, true, props, new XMLMapperEntityResolver()), environment, props);
   }
 
+  /**
+   * Restores the configuration and mapper documents from the snapshot when they have not changed,
+   * and records in it the documents that had to be parsed.
+   */
+  public XMLConfigBuilder(InputStream inputStream, String environment, Properties props, ConfigurationSnapshot snapshot) {
+    this(createParser(snapshot, ConfigurationSnapshot.CONFIGURATION, inputStream, props), environment, props);
+    this.configuration.setConfigurationSnapshot(snapshot);
+  }
+
   /**
    * 构造方法
    * @param parser
@@ -145,6 +163,10 @@ public class XMLConfigBuilder extends BaseBuilder {
       objectWrapperFactoryElement(root.evalNode("objectWrapperFactory"));
       // 解析 <reflectorFactory> 标签
       reflectorFactoryElement(root.evalNode("reflectorFactory"));
+      // 解析 <cacheInvalidationBroadcaster> 标签
+      cacheInvalidationBroadcasterElement(root.evalNode("cacheInvalidationBroadcaster"));
+      // 解析 <metricsRegistry> 标签
+      metricsRegistryElement(root.evalNode("metricsRegistry"));
       // 设置 <settings> 值到 configuration 中
       settingsElement(settings);
       // read it after objectFactory and objectWrapperFactory issue #631
@@ -369,6 +391,46 @@ public class XMLConfigBuilder extends BaseBuilder {
     }
   }
 
+  /**
+   * 解析 <cacheInvalidationBroadcaster></cacheInvalidationBroadcaster> 标签
+   *
+   *   <cacheInvalidationBroadcaster type="UDP">
+   *     <property name="peers" value="node2:45588,node3:45588"/>
+   *   </cacheInvalidationBroadcaster>
+   *
+   * @param context
+   * @throws Exception
+   */
+  private void cacheInvalidationBroadcasterElement(XNode context) throws Exception {
+    if (context != null) {
+      String type = context.getStringAttribute("type");
+      Properties properties = context.getChildrenAsProperties();
+      CacheInvalidationBroadcaster broadcaster = (CacheInvalidationBroadcaster) resolveClass(type).newInstance();
+      broadcaster.setProperties(properties);
+      configuration.setCacheInvalidationBroadcaster(broadcaster);
+    }
+  }
+
+  /**
+   * 解析 <metricsRegistry></metricsRegistry> 标签
+   *
+   *   <metricsRegistry type="METRICS">
+   *     <property name="slowQueryThreshold" value="500"/>
+   *   </metricsRegistry>
+   *
+   * @param context
+   * @throws Exception
+   */
+  private void metricsRegistryElement(XNode context) throws Exception {
+    if (context != null) {
+      String type = context.getStringAttribute("type");
+      Properties properties = context.getChildrenAsProperties();
+      MetricsRegistry registry = (MetricsRegistry) resolveClass(type).newInstance();
+      registry.setProperties(properties);
+      configuration.setMetricsRegistry(registry);
+    }
+  }
+
   /**
    * 解析指定节点下的元素
    *
@@ -439,6 +501,20 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setCallSettersOnNulls(booleanValueOf(props.getProperty("callSettersOnNulls"), false));
     configuration.setUseActualParamName(booleanValueOf(props.getProperty("useActualParamName"), true));
     configuration.setReturnInstanceForEmptyRow(booleanValueOf(props.getProperty("returnInstanceForEmptyRow"), false));
+    configuration.setTableBasedCacheInvalidation(booleanValueOf(props.getProperty("tableBasedCacheInvalidation"), false));
+    configuration.setParallelMapperLoading(booleanValueOf(props.getProperty("parallelMapperLoading"), false));
+    configuration.setUseStaxMapperParser(booleanValueOf(props.getProperty("useStaxMapperParser"), false));
+    configuration.setLazyMapperLoading(booleanValueOf(props.getProperty("lazyMapperLoading"), false));
+    configuration.setFreezeAfterBuild(booleanValueOf(props.getProperty("freezeAfterBuild"), false));
+    configuration.setUseGeneratedMapperClasses(booleanValueOf(props.getProperty("useGeneratedMapperClasses"), false));
+    configuration.setSqlLogSampleRate(integerValueOf(props.getProperty("sqlLogSampleRate"), 0));
+    configuration.setSqlLogSlowThreshold(integerValueOf(props.getProperty("sqlLogSlowThreshold"), 0));
+    configuration.setAsyncSqlLog(booleanValueOf(props.getProperty("asyncSqlLog"), false));
+    configuration.setCacheStatisticsEnabled(booleanValueOf(props.getProperty("cacheStatisticsEnabled"), false));
+    configuration.setAdaptiveFetchSizeMin(integerValueOf(props.getProperty("adaptiveFetchSizeMin"), 10));
+    configuration.setAdaptiveFetchSizeMax(integerValueOf(props.getProperty("adaptiveFetchSizeMax"), 1000));
+    configuration.setAdaptiveFetchSize(booleanValueOf(props.getProperty("adaptiveFetchSize"), false));
+    configuration.setCompactResultMaps(booleanValueOf(props.getProperty("compactResultMaps"), false));
     configuration.setLogPrefix(props.getProperty("logPrefix"));
     configuration.setConfigurationFactory(resolveClass(props.getProperty("configurationFactory")));
   }
@@ -598,7 +674,14 @@ public class XMLConfigBuilder extends BaseBuilder {
    */
   private void mapperElement(XNode parent) throws Exception {
     if (parent != null) {
-      for (XNode child : parent.getChildren()) {
+      List<XNode> children = parent.getChildren();
+      // 并行加载模式：先并行解析所有 mapper xml 文档，再按声明顺序依次构建
+      // 延迟加载模式：只读取命名空间，首次使用时再构建
+      boolean lazy = configuration.isLazyMapperLoading();
+      List<CompletableFuture<XPathParser>> documents = configuration.isParallelMapperLoading() && !lazy ? parseMapperDocuments(children) : null;
+      XMLMapperBuilder lastMapperParser = null;
+      for (int i = 0; i < children.size(); i++) {
+        XNode child = children.get(i);
         if ("package".equals(child.getName())) {
           String mapperPackage = child.getStringAttribute("name");
           configuration.addMappers(mapperPackage);
@@ -608,14 +691,28 @@ public class XMLConfigBuilder extends BaseBuilder {
           String mapperClass = child.getStringAttribute("class");
           if (resource != null && url == null && mapperClass == null) {
             ErrorContext.instance().resource(resource);
-            InputStream inputStream = Resources.getResourceAsStream(resource);
-            XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments());
-            mapperParser.parse();
+            if (lazy) {
+              addLazyMapper(resource, false);
+            } else if (documents != null) {
+              lastMapperParser = new XMLMapperBuilder(getDocument(documents.get(i)), configuration, resource, configuration.getSqlFragments());
+              lastMapperParser.parseWithoutPendingElements();
+            } else {
+              InputStream inputStream = Resources.getResourceAsStream(resource);
+              XMLMapperBuilder mapperParser = new XMLMapperBuilder(createMapperParser(configuration, resource, inputStream), configuration, resource, configuration.getSqlFragments());
+              mapperParser.parse();
+            }
           } else if (resource == null && url != null && mapperClass == null) {
             ErrorContext.instance().resource(url);
-            InputStream inputStream = Resources.getUrlAsStream(url);
-            XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, url, configuration.getSqlFragments());
-            mapperParser.parse();
+            if (lazy) {
+              addLazyMapper(url, true);
+            } else if (documents != null) {
+              lastMapperParser = new XMLMapperBuilder(getDocument(documents.get(i)), configuration, url, configuration.getSqlFragments());
+              lastMapperParser.parseWithoutPendingElements();
+            } else {
+              InputStream inputStream = Resources.getUrlAsStream(url);
+              XMLMapperBuilder mapperParser = new XMLMapperBuilder(createMapperParser(configuration, url, inputStream), configuration, url, configuration.getSqlFragments());
+              mapperParser.parse();
+            }
           } else if (resource == null && url == null && mapperClass != null) {
             Class<?> mapperInterface = Resources.classForName(mapperClass);
             configuration.addMapper(mapperInterface);
@@ -624,6 +721,112 @@ public class XMLConfigBuilder extends BaseBuilder {
           }
         }
       }
+      if (lastMapperParser != null) {
+        // 所有 mapper 解析完成后，一次性按依赖顺序解析待定的元素
+        lastMapperParser.parsePendingElements();
+      }
+    }
+  }
+
+  /**
+   * Reads and parses the XML documents of the resource and url mappers in parallel.
+   * The documents are applied to the configuration afterwards, one at a time and in the declared order,
+   * so that the result does not depend on the parsing order.
+   *
+   * @return The documents at the index of their mapper element, null for the other elements
+   */
+  private List<CompletableFuture<XPathParser>> parseMapperDocuments(List<XNode> children) {
+    List<CompletableFuture<XPathParser>> documents = new ArrayList<>(children.size());
+    ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    try {
+      for (XNode child : children) {
+        String resource = child.getStringAttribute("resource");
+        String url = child.getStringAttribute("url");
+        String mapperClass = child.getStringAttribute("class");
+        if ("package".equals(child.getName()) || mapperClass != null || (resource == null) == (url == null)) {
+          documents.add(null);
+          continue;
+        }
+        documents.add(CompletableFuture.supplyAsync(() -> {
+          Thread.currentThread().setContextClassLoader(classLoader);
+          ErrorContext.instance().resource(resource != null ? resource : url);
+          try (InputStream inputStream = resource != null ? Resources.getResourceAsStream(resource) : Resources.getUrlAsStream(url)) {
+            return createMapperParser(configuration, resource != null ? resource : url, inputStream);
+          } catch (IOException e) {
+            throw new BuilderException("Error reading mapper " + (resource != null ? resource : url) + ". Cause: " + e, e);
+          } finally {
+            ErrorContext.instance().reset();
+          }
+        }, pool));
+      }
+    } finally {
+      // 已提交的任务仍会执行完成
+      pool.shutdown();
+    }
+    return documents;
+  }
+
+  /**
+   * Registers a resource or url mapper that is built the first time its namespace is used.
+   * Only the namespace is read from the document at startup.
+   */
+  private void addLazyMapper(String location, boolean url) throws IOException {
+    String namespace;
+    try (InputStream inputStream = openMapper(location, url)) {
+      namespace = StaxDocumentBuilder.readRootAttribute(inputStream, "namespace");
+    }
+    Configuration config = configuration;
+    Runnable loader = () -> loadMapper(config, location, url);
+    if (namespace == null || namespace.isEmpty()) {
+      // 没有命名空间时无法按需定位，立即构建（会报告缺少命名空间的错误）
+      loader.run();
+    } else {
+      configuration.addLazyMapper(namespace, loader);
+    }
+  }
+
+  private static void loadMapper(Configuration configuration, String location, boolean url) {
+    ErrorContext.instance().resource(location);
+    try (InputStream inputStream = openMapper(location, url)) {
+      XMLMapperBuilder mapperParser = new XMLMapperBuilder(createMapperParser(configuration, location, inputStream), configuration, location, configuration.getSqlFragments());
+      mapperParser.parse();
+    } catch (IOException e) {
+      throw new BuilderException("Error reading mapper " + location + ". Cause: " + e, e);
+    }
+  }
+
+  private static InputStream openMapper(String location, boolean url) throws IOException {
+    return url ? Resources.getUrlAsStream(location) : Resources.getResourceAsStream(location);
+  }
+
+  /**
+   * Creates the parser of a mapper document, restored from the configuration snapshot if there is one.
+   */
+  private static XPathParser createMapperParser(Configuration configuration, String location, InputStream inputStream) throws IOException {
+    ConfigurationSnapshot snapshot = configuration.getConfigurationSnapshot();
+    if (snapshot != null) {
+      return snapshot.createParser(location, inputStream, configuration.getVariables(), configuration.isUseStaxMapperParser());
+    }
+    return XMLMapperBuilder.createParser(inputStream, configuration);
+  }
+
+  private static XPathParser createParser(ConfigurationSnapshot snapshot, String location, InputStream inputStream, Properties props) {
+    try {
+      return snapshot.createParser(location, inputStream, props);
+    } catch (IOException e) {
+      throw new BuilderException("Error reading " + location + ". Cause: " + e, e);
+    }
+  }
+
+  private XPathParser getDocument(CompletableFuture<XPathParser> document) {
+    try {
+      return document.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new BuilderException("Error parsing mapper. Cause: " + e.getCause(), e.getCause());
     }
   }
 
@@ -115,6 +115,8 @@ public class XMLIncludeTransformer {
     refid = PropertyParser.parse(refid, variables);
     // 加上命名空间
     refid = builderAssistant.applyCurrentNamespace(refid, true);
+    // 延迟模式下先构建该 sql 片段所在的 mapper
+    configuration.loadLazyMapper(refid);
     try {
       // 获得复用的sql
       XNode nodeToInclude = configuration.getSqlFragments().get(refid);
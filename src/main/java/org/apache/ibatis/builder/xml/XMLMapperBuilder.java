@@ -21,6 +21,7 @@ import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.*;
 import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.parsing.StaxDocumentBuilder;
 import org.apache.ibatis.parsing.XPathParser;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.session.Configuration;
@@ -69,7 +70,23 @@ public class XMLMapperBuilder extends BaseBuilder {
         configuration, resource, sqlFragments);
   }
 
-  private XMLMapperBuilder(XPathParser parser, Configuration configuration, String resource, Map<String, XNode> sqlFragments) {
+  /**
+   * Creates the parser of a mapper document, with the streaming StAX parser when enabled by the configuration,
+   * otherwise with the validating DOM parser.
+   */
+  public static XPathParser createParser(InputStream inputStream, Configuration configuration) {
+    if (configuration.isUseStaxMapperParser()) {
+      return new XPathParser(StaxDocumentBuilder.parse(inputStream), false, configuration.getVariables(), new XMLMapperEntityResolver());
+    }
+    return new XPathParser(inputStream, true, configuration.getVariables(), new XMLMapperEntityResolver());
+  }
+
+  public XMLMapperBuilder(XPathParser parser, Configuration configuration, String resource, Map<String, XNode> sqlFragments, String namespace) {
+    this(parser, configuration, resource, sqlFragments);
+    this.builderAssistant.setCurrentNamespace(namespace);
+  }
+
+  public XMLMapperBuilder(XPathParser parser, Configuration configuration, String resource, Map<String, XNode> sqlFragments) {
     super(configuration);
     this.builderAssistant = new MapperBuilderAssistant(configuration, resource);
     this.parser = parser;
@@ -83,6 +100,21 @@ public class XMLMapperBuilder extends BaseBuilder {
    * loadedResources；
    */
   public void parse() {
+    parseWithoutPendingElements();
+    // 解析待定的 ResultMaps 集合
+    parsePendingResultMaps();
+    // 解析待定的 CacheRefs 集合
+    parsePendingCacheRefs();
+    // 解析待定的 statement 集合
+    parsePendingStatements();
+  }
+
+  /**
+   * Parses the mapper without retrying the pending elements of the mappers loaded so far.
+   * Used when many mappers are loaded at once, {@link #parsePendingElements()} is then called
+   * a single time after all of them have been parsed.
+   */
+  public void parseWithoutPendingElements() {
     // 是否已经加载该资源
     if (!configuration.isResourceLoaded(resource)) {
       // 解析 <mapper></mapper> 标签
@@ -92,12 +124,27 @@ public class XMLMapperBuilder extends BaseBuilder {
       // 绑定 mapperRegistry 集合
       bindMapperForNamespace();
     }
-    // 解析待定的 ResultMaps 集合
-    parsePendingResultMaps();
-    // 解析待定的 CacheRefs 集合
-    parsePendingCacheRefs();
-    // 解析待定的 statement 集合
-    parsePendingStatements();
+  }
+
+  /**
+   * Retries the pending elements of all the loaded mappers until none of them can be resolved anymore.
+   * Result maps are resolved first (they may extend each other), then cache refs and finally statements,
+   * which depend on both.
+   */
+  public void parsePendingElements() {
+    boolean resolved;
+    do {
+      resolved = false;
+      while (parsePendingResultMaps()) {
+        resolved = true;
+      }
+      while (parsePendingCacheRefs()) {
+        resolved = true;
+      }
+      while (parsePendingStatements()) {
+        resolved = true;
+      }
+    } while (resolved);
   }
 
   public XNode getSqlFragment(String refid) {
@@ -177,10 +224,11 @@ public class XMLMapperBuilder extends BaseBuilder {
   /**
    * 解析前面待定的 ResultMaps 集合
    */
-  private void parsePendingResultMaps() {
+  private boolean parsePendingResultMaps() {
     // 待定 ResultMaps 集合
     Collection<ResultMapResolver> incompleteResultMaps = configuration.getIncompleteResultMaps();
     // 加锁， 解析
+    boolean resolved = false;
     synchronized (incompleteResultMaps) {
       Iterator<ResultMapResolver> iter = incompleteResultMaps.iterator();
       while (iter.hasNext()) {
@@ -188,36 +236,42 @@ public class XMLMapperBuilder extends BaseBuilder {
           // 解析
           iter.next().resolve();
           iter.remove();
+          resolved = true;
         } catch (IncompleteElementException e) {
           // ResultMap is still missing a resource...
         }
       }
     }
+    return resolved;
   }
 
   /**
    * 解析待定的 CacheRefs 集合
    */
-  private void parsePendingCacheRefs() {
+  private boolean parsePendingCacheRefs() {
     Collection<CacheRefResolver> incompleteCacheRefs = configuration.getIncompleteCacheRefs();
+    boolean resolved = false;
     synchronized (incompleteCacheRefs) {
       Iterator<CacheRefResolver> iter = incompleteCacheRefs.iterator();
       while (iter.hasNext()) {
         try {
           iter.next().resolveCacheRef();
           iter.remove();
+          resolved = true;
         } catch (IncompleteElementException e) {
           // Cache ref is still missing a resource...
         }
       }
     }
+    return resolved;
   }
 
   /**
    * 解析待定的 Statements 集合
    */
-  private void parsePendingStatements() {
+  private boolean parsePendingStatements() {
     Collection<XMLStatementBuilder> incompleteStatements = configuration.getIncompleteStatements();
+    boolean resolved = false;
     synchronized (incompleteStatements) {
       Iterator<XMLStatementBuilder> iter = incompleteStatements.iterator();
       while (iter.hasNext()) {
@@ -225,11 +279,13 @@ public class XMLMapperBuilder extends BaseBuilder {
           // 执行解析 select|update|insert|delete 标签
           iter.next().parseStatementNode();
           iter.remove();
+          resolved = true;
         } catch (IncompleteElementException e) {
           // Statement is still missing a resource...
         }
       }
     }
+    return resolved;
   }
 
   /**
@@ -270,10 +326,15 @@ public class XMLMapperBuilder extends BaseBuilder {
       Integer size = context.getIntAttribute("size");
       boolean readWrite = !context.getBooleanAttribute("readOnly", false);
       boolean blocking = context.getBooleanAttribute("blocking", false);
+      // 按条目过期的相关属性
+      Long timeToLive = context.getLongAttribute("timeToLive");
+      Long timeToIdle = context.getLongAttribute("timeToIdle");
+      Long refreshAhead = context.getLongAttribute("refreshAhead");
       // 获得<cache> 标签内的 <properties> 属性
       Properties props = context.getChildrenAsProperties();
       // 根据 mapper.xml 创建缓存对象
-      builderAssistant.useNewCache(typeClass, evictionClass, flushInterval, size, readWrite, blocking, props);
+      builderAssistant.useNewCache(typeClass, evictionClass, flushInterval, size, readWrite, blocking, props,
+          timeToLive, timeToIdle, refreshAhead);
     }
   }
 
@@ -0,0 +1,231 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.xml;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.annotation.MapperAnnotationBuilder;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.parsing.XPathParser;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Reloads mapper XML files when they change, without rebuilding the configuration.
+ * <p>
+ * Only the namespace of a changed file is parsed again, and its statements, result maps, parameter maps,
+ * key generators, sql fragments and cache are swapped in the configuration (see
+ * {@link Configuration#reloadNamespace(String, String, Runnable)}). The method cache of the bound mapper
+ * interface is cleared, so existing mapper proxies pick up the new statements. Queries that are running
+ * keep using the previous statements.
+ * <p>
+ * Resources are watched with a {@link WatchService}, so only the mappers that are plain files
+ * (not packaged in a jar) can be watched. This is meant for development and for applications whose
+ * mappers are edited at runtime.
+ * <pre>
+ * XMLMapperReloader reloader = new XMLMapperReloader(sqlSessionFactory.getConfiguration());
+ * reloader.watchLoadedResources();
+ * </pre>
+ *
+ * mapper xml 热加载器：监听 xml 文件变化，只重新解析变化的命名空间
+ */
+public class XMLMapperReloader implements Closeable {
+
+  private static final Log log = LogFactory.getLog(XMLMapperReloader.class);
+
+  private final Configuration configuration;
+  private final Map<Path, String> watchedFiles = new ConcurrentHashMap<>(); // 文件 -> 资源
+  private final Set<Path> watchedDirectories = ConcurrentHashMap.newKeySet();
+  private WatchService watchService;
+  private Thread watcher;
+  private volatile boolean closed;
+
+  public XMLMapperReloader(Configuration configuration) {
+    this.configuration = configuration;
+    configuration.enableMapperReloading();
+  }
+
+  /**
+   * Watches all the XML mapper resources and urls loaded by the configuration.
+   */
+  public void watchLoadedResources() throws IOException {
+    Set<String> resources = new LinkedHashSet<>();
+    for (String resource : configuration.getLoadedResources()) {
+      if (resource.endsWith(".xml") && !resource.startsWith("namespace:")) {
+        resources.add(resource);
+      }
+    }
+    watch(resources);
+  }
+
+  public void watch(String... resources) throws IOException {
+    watch(Arrays.asList(resources));
+  }
+
+  /**
+   * Watches the given mapper resources or urls. The ones that are not files are ignored.
+   */
+  public synchronized void watch(Collection<String> resources) throws IOException {
+    if (closed) {
+      throw new IllegalStateException("The mapper reloader is closed");
+    }
+    for (String resource : resources) {
+      Path file = toFile(resource);
+      if (file == null) {
+        log.debug("Mapper " + resource + " is not a file and cannot be watched");
+        continue;
+      }
+      if (watchService == null) {
+        watchService = FileSystems.getDefault().newWatchService();
+        watcher = new Thread(this::watchFiles, "mybatis-mapper-reloader");
+        watcher.setDaemon(true);
+        watcher.start();
+      }
+      Path directory = file.getParent();
+      if (watchedDirectories.add(directory)) {
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+      }
+      watchedFiles.put(file, resource);
+    }
+  }
+
+  /**
+   * Parses a mapper again and swaps its namespace in the configuration.
+   * The document is parsed before the namespace is locked, so lookups only wait while the objects are built.
+   *
+   * @param resource A mapper resource or url, as declared in the configuration
+   */
+  public void reload(String resource) {
+    ErrorContext.instance().resource(resource);
+    try {
+      XPathParser parser;
+      try (InputStream inputStream = open(resource)) {
+        parser = XMLMapperBuilder.createParser(inputStream, configuration);
+      }
+      String namespace = parser.evalNode("/mapper").getStringAttribute("namespace");
+      if (namespace == null || namespace.isEmpty()) {
+        throw new BuilderException("Mapper's namespace cannot be empty");
+      }
+      Class<?> boundType = resolveBoundType(namespace);
+      configuration.reloadNamespace(namespace, resource, () -> {
+        new XMLMapperBuilder(parser, configuration, resource, configuration.getSqlFragments()).parse();
+        if (boundType != null) {
+          // 接口已注册，xml 不会再次绑定，这里重新加载接口上的注解语句
+          new MapperAnnotationBuilder(configuration, boundType).parse();
+        }
+      });
+      if (boundType != null) {
+        configuration.getMapperRegistry().clearMethodCache(boundType);
+      }
+      log.debug("Reloaded mapper " + resource);
+    } catch (IOException e) {
+      throw new BuilderException("Error reading mapper " + resource + ". Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    closed = true;
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException e) {
+        // ignore
+      }
+    }
+  }
+
+  private void watchFiles() {
+    while (!closed) {
+      WatchKey key;
+      try {
+        key = watchService.take();
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        return;
+      }
+      // 编辑器保存一次文件可能产生多个事件，只重新加载一次
+      Set<String> changed = new LinkedHashSet<>();
+      Path directory = (Path) key.watchable();
+      for (WatchEvent<?> event : key.pollEvents()) {
+        if (event.context() instanceof Path) {
+          String resource = watchedFiles.get(directory.resolve((Path) event.context()));
+          if (resource != null) {
+            changed.add(resource);
+          }
+        }
+      }
+      key.reset();
+      for (String resource : changed) {
+        try {
+          reload(resource);
+        } catch (RuntimeException e) {
+          log.warn("Error reloading mapper " + resource + ", the previous version is kept. Cause: " + e);
+        }
+      }
+    }
+  }
+
+  private Class<?> resolveBoundType(String namespace) {
+    try {
+      Class<?> boundType = Resources.classForName(namespace);
+      return configuration.hasMapper(boundType) ? boundType : null;
+    } catch (ClassNotFoundException e) {
+      // ignore, bound type is not required
+      return null;
+    }
+  }
+
+  private static InputStream open(String resource) throws IOException {
+    return isUrl(resource) ? Resources.getUrlAsStream(resource) : Resources.getResourceAsStream(resource);
+  }
+
+  private static Path toFile(String resource) {
+    try {
+      URL url = isUrl(resource) ? new URL(resource) : Resources.getResourceURL(resource);
+      return "file".equals(url.getProtocol()) ? Paths.get(url.toURI()).toAbsolutePath() : null;
+    } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static boolean isUrl(String resource) {
+    return resource.indexOf(':') > 1;
+  }
+
+}
@@ -0,0 +1,69 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.Properties;
+
+/**
+ * Publishes the 2nd level cache invalidations of this node to the other nodes of a cluster.
+ * <p>
+ * Each node keeps its own in-process caches, so a write committed on one node would leave stale entries
+ * on the others. When a broadcaster is configured, every namespace cleared and every tag invalidated on
+ * commit is published, and the invalidations received from the other nodes are applied locally
+ * (without being published again).
+ * Delivery is best effort: a broadcaster must not fail the commit that published the invalidation.
+ *
+ * 二级缓存失效消息的广播器，用于多个节点之间同步失效本地缓存
+ *
+ * @see org.apache.ibatis.cache.impl.LoopbackCacheInvalidationBroadcaster
+ * @see org.apache.ibatis.cache.impl.UdpCacheInvalidationBroadcaster
+ */
+public interface CacheInvalidationBroadcaster extends Closeable {
+
+  /**
+   * Sets the properties declared in the configuration, called before {@link #start}.
+   */
+  default void setProperties(Properties properties) {
+    // NOP
+  }
+
+  /**
+   * Starts receiving the invalidations published by the other nodes.
+   *
+   * @param listener Applies the received invalidations to the local caches
+   */
+  void start(CacheInvalidationListener listener);
+
+  /**
+   * @param cacheId The id (namespace) of a cache that has been cleared
+   */
+  void publishClear(String cacheId);
+
+  /**
+   * @param tags The tags (table names) that have been invalidated
+   */
+  void publishInvalidate(Collection<String> tags);
+
+  /**
+   * Stops receiving invalidations and releases the resources of the broadcaster.
+   * Called by {@link org.apache.ibatis.session.Configuration#close()} or when the broadcaster is replaced.
+   */
+  @Override
+  void close();
+
+}
@@ -0,0 +1,39 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.Collection;
+
+/**
+ * Receives the 2nd level cache invalidations published by other nodes.
+ *
+ * 接收其它节点发布的二级缓存失效消息
+ *
+ * @see CacheInvalidationBroadcaster
+ */
+public interface CacheInvalidationListener {
+
+  /**
+   * @param cacheId The id (namespace) of a cache cleared on another node
+   */
+  void onClear(String cacheId);
+
+  /**
+   * @param tags The tags (table names) invalidated on another node
+   */
+  void onInvalidate(Collection<String> tags);
+
+}
@@ -0,0 +1,208 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import org.apache.ibatis.metrics.Histogram;
+
+/**
+ * Statistics of a 2nd level cache, collected by {@link org.apache.ibatis.cache.decorators.StatisticsCache}.
+ * <p>
+ * The counters are striped ({@link LongAdder}) so concurrent sessions do not contend on them.
+ *
+ * 二级缓存统计：命中、未命中、写入、淘汰、清空及失效次数，加载时间和（加权）大小
+ *
+ * @since 3.5.2
+ */
+public class CacheStatistics {
+
+  private final String id;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder puts = new LongAdder();
+  private final LongAdder removals = new LongAdder();
+  private final LongAdder delegateRemovals = new LongAdder();
+  private final LongAdder clears = new LongAdder();
+  private final LongAdder staleReads = new LongAdder();
+  private final Histogram loadTime = new Histogram();
+  private volatile IntSupplier size;
+  private volatile LongSupplier weightedSize;
+
+  public CacheStatistics(String id) {
+    this.id = id;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public double getHitRatio() {
+    long h = hits.sum();
+    long requests = h + misses.sum();
+    return requests == 0 ? 0 : (double) h / requests;
+  }
+
+  public long getPuts() {
+    return puts.sum();
+  }
+
+  /**
+   * @return The number of entries removed on request (not by the cache itself)
+   */
+  public long getRemovals() {
+    return removals.sum();
+  }
+
+  /**
+   * @return The number of entries removed by the cache itself: evicted by the eviction policy or expired
+   */
+  public long getEvictions() {
+    return Math.max(0, delegateRemovals.sum() - removals.sum());
+  }
+
+  /**
+   * @return The number of times the whole cache has been cleared (flushes of the namespace)
+   */
+  public long getClears() {
+    return clears.sum();
+  }
+
+  /**
+   * @return The number of entries found in the cache but discarded because a table they were read from has been
+   *         modified since (see the tableBasedCacheInvalidation setting). They are counted as misses.
+   */
+  public long getStaleReads() {
+    return staleReads.sum();
+  }
+
+  /**
+   * @return The times (in nanoseconds) spent loading from the database the results that were missing in the cache
+   */
+  public Histogram getLoadTime() {
+    return loadTime;
+  }
+
+  /**
+   * @return The number of entries, or -1 if unknown
+   */
+  public int getSize() {
+    IntSupplier supplier = size;
+    return supplier == null ? -1 : supplier.getAsInt();
+  }
+
+  /**
+   * @return The estimated weight of the entries, or -1 if the cache is not weighted
+   */
+  public long getWeightedSize() {
+    LongSupplier supplier = weightedSize;
+    return supplier == null ? -1 : supplier.getAsLong();
+  }
+
+  public void setSizeSupplier(IntSupplier size) {
+    this.size = size;
+  }
+
+  public void setWeightedSizeSupplier(LongSupplier weightedSize) {
+    this.weightedSize = weightedSize;
+  }
+
+  public void recordHit() {
+    hits.increment();
+  }
+
+  public void recordMiss() {
+    misses.increment();
+  }
+
+  public void recordPut() {
+    puts.increment();
+  }
+
+  public void recordRemoval() {
+    removals.increment();
+  }
+
+  /**
+   * Records a removal that reached the underlying cache, either requested or made by the eviction policy.
+   */
+  public void recordDelegateRemoval() {
+    delegateRemovals.increment();
+  }
+
+  public void recordClear() {
+    clears.increment();
+  }
+
+  /**
+   * Records an entry that has been read (and counted as a hit) but is discarded because it is stale: the read is
+   * counted as a miss instead.
+   */
+  public void recordStaleRead() {
+    staleReads.increment();
+    // 读取时已计为命中，改为未命中
+    hits.decrement();
+    misses.increment();
+  }
+
+  public void recordLoad(long nanos) {
+    loadTime.record(nanos);
+  }
+
+  public void reset() {
+    hits.reset();
+    misses.reset();
+    puts.reset();
+    removals.reset();
+    delegateRemovals.reset();
+    clears.reset();
+    staleReads.reset();
+    loadTime.reset();
+  }
+
+  /**
+   * @return The counters, the sizes and the load times (in microseconds)
+   */
+  public Map<String, Long> toSummary() {
+    Map<String, Long> summary = new LinkedHashMap<>();
+    summary.put("hits", getHits());
+    summary.put("misses", getMisses());
+    summary.put("puts", getPuts());
+    summary.put("removals", getRemovals());
+    summary.put("evictions", getEvictions());
+    summary.put("clears", getClears());
+    summary.put("staleReads", getStaleReads());
+    summary.put("size", (long) getSize());
+    summary.put("weightedSize", getWeightedSize());
+    for (Map.Entry<String, Long> entry : loadTime.toTimingSummary().entrySet()) {
+      summary.put("loadTime." + entry.getKey(), entry.getValue());
+    }
+    return summary;
+  }
+
+}
@@ -0,0 +1,45 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.Map;
+
+/**
+ * JMX view of a {@link CacheStatisticsRegistry}.
+ *
+ * 二级缓存统计的 JMX 接口
+ *
+ * @since 3.5.2
+ */
+public interface CacheStatisticsMXBean {
+
+  /**
+   * @return The ids (namespaces) of the caches with statistics
+   */
+  String[] getCacheIds();
+
+  /**
+   * @return The summary of the statistics of a cache (load times in microseconds), or null if unknown
+   * @see CacheStatistics#toSummary()
+   */
+  Map<String, Long> getCacheSummary(String cacheId);
+
+  /**
+   * Clears the statistics of all the caches.
+   */
+  void reset();
+
+}
@@ -0,0 +1,92 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.ObjectName;
+
+import org.apache.ibatis.metrics.MBeanRegistrar;
+
+/**
+ * Holds the {@link CacheStatistics} of the 2nd level caches of a configuration, by cache id (namespace).
+ * Statistics are only collected when the {@code cacheStatisticsEnabled} setting is set.
+ *
+ * 二级缓存统计注册表，按缓存 id（命名空间）保存统计信息，可注册为 JMX MBean
+ *
+ * @since 3.5.2
+ */
+public class CacheStatisticsRegistry implements CacheStatisticsMXBean {
+
+  private final Map<String, CacheStatistics> statistics = new ConcurrentHashMap<>();
+  private ObjectName objectName;
+
+  /**
+   * @return The statistics of a cache, created if needed
+   */
+  public CacheStatistics register(String cacheId) {
+    return statistics.computeIfAbsent(cacheId, CacheStatistics::new);
+  }
+
+  /**
+   * @return The statistics of a cache, or null if statistics are not collected for this cache
+   */
+  public CacheStatistics getStatistics(String cacheId) {
+    return statistics.get(cacheId);
+  }
+
+  public Map<String, CacheStatistics> getAllStatistics() {
+    return Collections.unmodifiableMap(statistics);
+  }
+
+  @Override
+  public String[] getCacheIds() {
+    return statistics.keySet().toArray(new String[0]);
+  }
+
+  @Override
+  public Map<String, Long> getCacheSummary(String cacheId) {
+    CacheStatistics cacheStatistics = statistics.get(cacheId);
+    return cacheStatistics == null ? null : cacheStatistics.toSummary();
+  }
+
+  @Override
+  public void reset() {
+    for (CacheStatistics cacheStatistics : statistics.values()) {
+      cacheStatistics.reset();
+    }
+  }
+
+  /**
+   * Registers this registry in the platform MBean server as {@code org.apache.ibatis:type=CacheStatistics,name=<name>}.
+   */
+  public synchronized ObjectName registerMBean(String name) {
+    unregisterMBean();
+    objectName = MBeanRegistrar.register(this, "CacheStatistics", name);
+    return objectName;
+  }
+
+  public synchronized void unregisterMBean() {
+    try {
+      MBeanRegistrar.unregister(objectName);
+    } finally {
+      objectName = null;
+    }
+  }
+
+}
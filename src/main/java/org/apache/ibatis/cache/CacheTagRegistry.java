@@ -0,0 +1,155 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps a version number for each cache tag (usually a table name) to support table based invalidation
+ * of the 2nd level cache.
+ * <p>
+ * Cached entries are stored along with the versions of their tags read before the query was executed.
+ * A write increments the versions of the tags it affects, so any entry tagged with one of them becomes
+ * stale and is treated as a miss, while the entries tagged with other tables are kept.
+ * One registry is shared by all the namespaces of a configuration, so a write in one namespace
+ * invalidates the entries of every namespace that read the same tables.
+ *
+ * 缓存标签（通常是表名）的版本号注册表，用于基于表的二级缓存失效
+ * 缓存条目保存查询前各标签的版本号；写操作递增相关标签的版本号，使对应的条目失效
+ */
+public class CacheTagRegistry {
+
+  private static final int MAX_PARSED_SQLS = 1024;
+
+  private static final String KEYWORDS = "(?:where|join|inner|left|right|full|outer|cross|natural|on|using|set|values"
+      + "|select|group|order|having|limit|offset|fetch|union|except|intersect|minus|for|with|returning|window)\\b";
+  private static final String TABLE = "[\\w$.\"`\\[\\]]+(?:\\s+(?:as\\s+)?(?!" + KEYWORDS + ")\\w+)?";
+  private static final Pattern TABLE_PATTERN = Pattern.compile(
+      "\\b(?:from|join|into|update|using)\\s+(" + TABLE + "(?:\\s*,\\s*" + TABLE + ")*)", Pattern.CASE_INSENSITIVE);
+  private static final Pattern ALIAS_PATTERN = Pattern.compile("\\s+(?:as\\s+)?\\w+$", Pattern.CASE_INSENSITIVE);
+  private static final String[] NO_TABLES = new String[0];
+
+  private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+  private final Map<String, String[]> parsedSqls = new ConcurrentHashMap<>();
+
+  /**
+   * @param tags The tags of an entry that is about to be loaded
+   * @return The current versions of the tags, in the same order
+   */
+  public long[] getVersions(String[] tags) {
+    long[] result = new long[tags.length];
+    for (int i = 0; i < tags.length; i++) {
+      result[i] = getVersion(tags[i]).get();
+    }
+    return result;
+  }
+
+  /**
+   * @param entry A cached entry
+   * @return true if none of the tags of the entry has been invalidated since it was loaded
+   */
+  public boolean isCurrent(TaggedCacheEntry entry) {
+    String[] tags = entry.getTags();
+    long[] entryVersions = entry.getVersions();
+    for (int i = 0; i < tags.length; i++) {
+      AtomicLong version = versions.get(tags[i]);
+      if (version != null && version.get() != entryVersions[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Makes stale all the entries tagged with any of the given tags.
+   */
+  public void invalidate(Collection<String> tags) {
+    for (String tag : tags) {
+      getVersion(tag).incrementAndGet();
+    }
+  }
+
+  /**
+   * Extracts the names of the tables referenced by a SQL statement.
+   *
+   * @param sql The SQL statement
+   * @return The lower cased table names (without schema), or null if no table could be found
+   */
+  public String[] extractTables(String sql) {
+    String[] tables = parsedSqls.get(sql);
+    if (tables == null) {
+      tables = parseTables(sql);
+      if (parsedSqls.size() >= MAX_PARSED_SQLS) {
+        parsedSqls.clear();
+      }
+      parsedSqls.put(sql, tables);
+    }
+    return tables.length == 0 ? null : tables;
+  }
+
+  /**
+   * Normalizes the table names declared by a statement (lower case, without schema and quotes).
+   */
+  public static String[] normalizeTables(String[] tables) {
+    if (tables == null) {
+      return null;
+    }
+    Set<String> result = new LinkedHashSet<>();
+    for (String table : tables) {
+      String name = normalizeTable(table);
+      if (!name.isEmpty()) {
+        result.add(name);
+      }
+    }
+    return result.isEmpty() ? null : result.toArray(new String[0]);
+  }
+
+  private AtomicLong getVersion(String tag) {
+    return versions.computeIfAbsent(tag, k -> new AtomicLong());
+  }
+
+  private static String[] parseTables(String sql) {
+    Set<String> tables = new LinkedHashSet<>();
+    Matcher matcher = TABLE_PATTERN.matcher(sql);
+    while (matcher.find()) {
+      for (String table : matcher.group(1).split(",")) {
+        String name = normalizeTable(ALIAS_PATTERN.matcher(table.trim()).replaceFirst(""));
+        if (!name.isEmpty()) {
+          tables.add(name);
+        }
+      }
+    }
+    return tables.isEmpty() ? NO_TABLES : tables.toArray(new String[0]);
+  }
+
+  private static String normalizeTable(String table) {
+    String name = table.trim();
+    int dot = name.lastIndexOf('.');
+    if (dot >= 0) {
+      name = name.substring(dot + 1);
+    }
+    return name.replaceAll("[\"`\\[\\]]", "").toLowerCase(Locale.ENGLISH);
+  }
+
+}
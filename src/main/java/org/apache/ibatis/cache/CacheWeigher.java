@@ -0,0 +1,34 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * Estimates the retained size (in bytes) of a cache entry.
+ * <p>
+ * Used by weight based eviction decorators instead of counting entries.
+ *
+ * 缓存条目的权重（估算占用的字节数）计算接口
+ */
+public interface CacheWeigher {
+
+  /**
+   * @param key The key, usually a {@link CacheKey}
+   * @param value The cached value, usually the List returned by a select
+   * @return The estimated weight of the entry, never negative
+   */
+  long weigh(Object key, Object value);
+
+}
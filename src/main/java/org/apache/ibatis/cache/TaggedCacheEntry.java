@@ -0,0 +1,53 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.io.Serializable;
+
+/**
+ * A 2nd level cache value tagged with the tables it was read from.
+ *
+ * 带有表标签及其版本号的二级缓存值
+ *
+ * @see CacheTagRegistry
+ */
+public class TaggedCacheEntry implements Serializable {
+
+  private static final long serialVersionUID = -1284398546932744380L;
+
+  private final Object value;
+  private final String[] tags;
+  private final long[] versions;
+
+  public TaggedCacheEntry(Object value, String[] tags, long[] versions) {
+    this.value = value;
+    this.tags = tags;
+    this.versions = versions;
+  }
+
+  public Object getValue() {
+    return value;
+  }
+
+  public String[] getTags() {
+    return tags;
+  }
+
+  public long[] getVersions() {
+    return versions;
+  }
+
+}
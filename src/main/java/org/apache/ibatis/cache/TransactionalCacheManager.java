@@ -17,8 +17,11 @@ package org.apache.ibatis.cache;
 
 import org.apache.ibatis.cache.decorators.TransactionalCache;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 事务缓存管理器
@@ -28,11 +31,48 @@ public class TransactionalCacheManager {
 
   // 缓存事务缓存集合
   private final Map<Cache, TransactionalCache> transactionalCaches = new HashMap<>();
+  // 提交事务后需要失效的标签（表名）集合
+  private final Set<String> tagsToInvalidateOnCommit = new HashSet<>();
+  private CacheTagRegistry tagRegistry;
+  // 集群缓存失效广播器，可能为 null
+  private final CacheInvalidationBroadcaster broadcaster;
+
+  public TransactionalCacheManager() {
+    this(null);
+  }
+
+  public TransactionalCacheManager(CacheInvalidationBroadcaster broadcaster) {
+    this.broadcaster = broadcaster;
+  }
 
   public void clear(Cache cache) {
     getTransactionalCache(cache).clear();
   }
 
+  /**
+   * Invalidates on commit all the entries tagged with any of the given tags, in every namespace.
+   */
+  public void invalidate(CacheTagRegistry tagRegistry, String... tags) {
+    this.tagRegistry = tagRegistry;
+    tagsToInvalidateOnCommit.addAll(Arrays.asList(tags));
+  }
+
+  /**
+   * @return true if any of the tags will be invalidated when this session commits,
+   *     entries tagged with them must not be used until then
+   */
+  public boolean isInvalidated(String[] tags) {
+    if (tagsToInvalidateOnCommit.isEmpty()) {
+      return false;
+    }
+    for (String tag : tags) {
+      if (tagsToInvalidateOnCommit.contains(tag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   public Object getObject(Cache cache, CacheKey key) {
     return getTransactionalCache(cache).getObject(key);
   }
@@ -48,6 +88,13 @@ public class TransactionalCacheManager {
     for (TransactionalCache txCache : transactionalCaches.values()) {
       txCache.commit();
     }
+    if (!tagsToInvalidateOnCommit.isEmpty()) {
+      tagRegistry.invalidate(tagsToInvalidateOnCommit);
+      if (broadcaster != null) {
+        broadcaster.publishInvalidate(tagsToInvalidateOnCommit);
+      }
+      tagsToInvalidateOnCommit.clear();
+    }
   }
 
   /**
@@ -57,6 +104,7 @@ public class TransactionalCacheManager {
     for (TransactionalCache txCache : transactionalCaches.values()) {
       txCache.rollback();
     }
+    tagsToInvalidateOnCommit.clear();
   }
 
   /**
@@ -66,7 +114,7 @@ public class TransactionalCacheManager {
    * @return
    */
   private TransactionalCache getTransactionalCache(Cache cache) {
-    return transactionalCaches.computeIfAbsent(cache, TransactionalCache::new);
+    return transactionalCaches.computeIfAbsent(cache, c -> new TransactionalCache(c, broadcaster));
   }
 
 }
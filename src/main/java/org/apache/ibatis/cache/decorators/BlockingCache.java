@@ -18,11 +18,12 @@ package org.apache.ibatis.cache.decorators;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Simple blocking decorator
@@ -31,24 +32,30 @@ import java.util.concurrent.locks.ReentrantLock;
  * 如果获取的缓存不存在，则会阻塞后续的其它线程去获取该缓存；
  * 避免线程A获取不到，添加值到缓存中时， B,C 也同样去添加值到缓存中；
  *
- * 实现原理：使用ReentrantLock 锁同步 获取缓存方法和设置缓存方法
+ * 实现原理：第一个未命中的线程登记一个 CompletableFuture（single-flight），
+ * 其它线程等待该 future，并直接使用第一个线程加载的结果；future 完成后即从集合中删除
  *
  * Simple and inefficient version of EhCache's BlockingCache decorator.
- * It sets a lock over a cache key when the element is not found in cache.
- * This way, other threads will wait until this element is filled instead of hitting the database.
+ * It registers an in-flight load over a cache key when the element is not found in cache.
+ * This way, other threads will wait until this element is filled instead of hitting the database,
+ * and will read the loaded value as soon as it is put. The in-flight load is removed as soon as the value is put
+ * (or the load is abandoned), so the in-flight table only holds the keys being loaded.
  *
  * @author Eduardo Macarron
  *
  */
 public class BlockingCache implements Cache {
 
+  // 检查负责加载的线程是否存活的间隔（毫秒）
+  private static final long OWNER_CHECK_INTERVAL = 1000;
+
   private long timeout;                                             // 超时时间
   private final Cache delegate;                                     // 装饰者 cache 类
-  private final ConcurrentHashMap<Object, ReentrantLock> locks;     // 锁集合
+  private final ConcurrentHashMap<Object, InFlightLoad> loads;      // 正在加载的键集合
 
   public BlockingCache(Cache delegate) {
     this.delegate = delegate;
-    this.locks = new ConcurrentHashMap<>();
+    this.loads = new ConcurrentHashMap<>();
   }
 
   @Override
@@ -66,7 +73,7 @@ public class BlockingCache implements Cache {
     try {
       delegate.putObject(key, value);
     } finally {
-      releaseLock(key);
+      completeLoad(key, value);
     }
   }
 
@@ -77,21 +84,47 @@ public class BlockingCache implements Cache {
    */
   @Override
   public Object getObject(Object key) {
-    // 获取锁
-    acquireLock(key);
-    // 获取值
-    Object value = delegate.getObject(key);
-    // 释放锁
-    if (value != null) {
-      releaseLock(key);
+    InFlightLoad load = loads.get(key);
+    if (load == null) {
+      // 快速路径：命中时不需要登记
+      Object value = delegate.getObject(key);
+      if (value != null) {
+        return value;
+      }
+    }
+    InFlightLoad ownLoad = null;
+    while (true) {
+      if (load == null) {
+        if (ownLoad == null) {
+          ownLoad = new InFlightLoad();
+        }
+        load = loads.putIfAbsent(key, ownLoad);
+        if (load == null) {
+          // 当前线程负责加载。不再重新读取被装饰的 cache：
+          // 提前刷新（refreshAhead）的未命中只会返回一次，再次读取会拿到旧值而不去加载
+          return null;
+        }
+      }
+      if (load.owner == Thread.currentThread()) {
+        // 同一线程再次查询，不能等待自己
+        return delegate.getObject(key);
+      }
+      if (awaitLoad(key, load) != null) {
+        // 从被装饰的 cache 中读取，可读写的缓存因此仍然返回副本
+        Object value = delegate.getObject(key);
+        if (value != null) {
+          return value;
+        }
+      }
+      // 加载被放弃（回滚），重新尝试
+      load = loads.get(key);
     }
-    return value;
   }
 
   @Override
   public Object removeObject(Object key) {
     // despite of its name, this method is called only to release locks
-    releaseLock(key);
+    completeLoad(key, null);
     return null;
   }
 
@@ -106,48 +139,54 @@ public class BlockingCache implements Cache {
   }
 
   /**
-   * 设置并获取锁
+   * 等待其它线程加载完成
    * @param key
-   * @return
+   * @param load
+   * @return 加载的值，加载被放弃时返回 null
    */
-  private ReentrantLock getLockForKey(Object key) {
-    return locks.computeIfAbsent(key, k -> new ReentrantLock());
-  }
-
-  /**
-   * 获取锁
-   * @param key
-   */
-  private void acquireLock(Object key) {
-    // 获取锁
-    Lock lock = getLockForKey(key);
-    // 是否设置类超时时间
-    if (timeout > 0) {
-      try {
-        // 调用超时时间到获取锁方法
-        boolean acquired = lock.tryLock(timeout, TimeUnit.MILLISECONDS);
-        if (!acquired) {
+  private Object awaitLoad(Object key, InFlightLoad load) {
+    final long deadline = timeout > 0 ? System.currentTimeMillis() + timeout : Long.MAX_VALUE;
+    try {
+      while (true) {
+        if (!load.owner.isAlive()) {
+          // 负责加载的线程已经结束，清除该加载（与是否设置超时无关）
+          abandonLoad(key, load);
+          return null;
+        }
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
           throw new CacheException("Couldn't get a lock in " + timeout + " for the key " +  key + " at the cache " + delegate.getId());
         }
-      } catch (InterruptedException e) {
-        throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
+        try {
+          return load.future.get(Math.min(remaining, OWNER_CHECK_INTERVAL), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+          // 继续等待，并再次检查负责加载的线程
+        }
       }
-    } else {
-      // 获取锁
-      lock.lock();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
+    } catch (ExecutionException e) {
+      throw new CacheException("Error while waiting for the value of key " + key, e.getCause());
     }
   }
 
   /**
-   * 释放锁
+   * 完成加载，唤醒等待的线程
    * @param key
+   * @param value
    */
-  private void releaseLock(Object key) {
-    ReentrantLock lock = locks.get(key);
-    // 查询当前线程是否保持此锁
-    if (lock.isHeldByCurrentThread()) {
-      // 释放锁
-      lock.unlock();
+  private void completeLoad(Object key, Object value) {
+    InFlightLoad load = loads.get(key);
+    // 只完成当前线程负责的加载，其它线程的加载由其自己完成
+    if (load != null && load.owner == Thread.currentThread() && loads.remove(key, load)) {
+      load.future.complete(value);
+    }
+  }
+
+  private void abandonLoad(Object key, InFlightLoad load) {
+    if (loads.remove(key, load)) {
+      load.future.complete(null);
     }
   }
 
@@ -158,4 +197,9 @@ public class BlockingCache implements Cache {
   public void setTimeout(long timeout) {
     this.timeout = timeout;
   }
+
+  private static class InFlightLoad {
+    private final Thread owner = Thread.currentThread();                    // 负责加载的线程
+    private final CompletableFuture<Object> future = new CompletableFuture<>();
+  }
 }
@@ -0,0 +1,329 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.LongSupplier;
+
+import org.apache.ibatis.cache.Cache;
+
+/**
+ * Per entry expiring cache decorator.
+ * <p>
+ * Unlike {@link ScheduledCache}, which clears the whole namespace when the flush interval elapses,
+ * this decorator expires each entry on its own:
+ * <ul>
+ * <li>{@code timeToLive}: maximum time an entry is kept since it was written.</li>
+ * <li>{@code timeToIdle}: maximum time an entry is kept since it was last read.</li>
+ * <li>{@code refreshAhead}: when an entry is read within this period before it expires, the read is
+ * reported as a miss to that single caller so it reloads the entry from the database, while the
+ * other callers keep getting the current value (or wait for the reload when the cache is blocking).</li>
+ * </ul>
+ * Expired entries are checked on access and are also swept in the background by a hashed timing wheel,
+ * so they do not stay in the cache until they are touched again.
+ *
+ * 按条目过期的 Cache 实现类
+ * 实现原理：每个条目记录过期时间，访问时检查；后台线程按时间轮定期清除过期条目
+ */
+public class ExpiringCache implements Cache {
+
+  private static final int WHEEL_SIZE = 512;
+
+  private final Cache delegate;
+  private final Map<Object, Expiry> expiries;   // 键 -> 过期信息
+  @SuppressWarnings("unchecked")
+  private final Set<Object>[] wheel = new Set[WHEEL_SIZE]; // 时间轮，每个槽位保存该时间段内过期的键
+  private long timeToLive;                      // 写入后存活时间
+  private long timeToIdle;                      // 空闲存活时间
+  private long refreshAhead;                    // 提前刷新时间
+  private long tick;                            // 时间轮的刻度
+  private long lastSweep;                       // 最后清除的时间（按刻度对齐）
+  private LongSupplier clock;                   // 当前时间（毫秒）
+  private ScheduledFuture<?> sweeper;
+
+  public ExpiringCache(Cache delegate) {
+    this.delegate = delegate;
+    this.expiries = new HashMap<>();
+    this.tick = 1000;
+    this.clock = System::currentTimeMillis;
+    this.lastSweep = clock.getAsLong() / tick;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public synchronized int getSize() {
+    return delegate.getSize();
+  }
+
+  public long getTimeToLive() {
+    return timeToLive;
+  }
+
+  public void setTimeToLive(long timeToLive) {
+    this.timeToLive = timeToLive;
+  }
+
+  public long getTimeToIdle() {
+    return timeToIdle;
+  }
+
+  public void setTimeToIdle(long timeToIdle) {
+    this.timeToIdle = timeToIdle;
+  }
+
+  public long getRefreshAhead() {
+    return refreshAhead;
+  }
+
+  public void setRefreshAhead(long refreshAhead) {
+    this.refreshAhead = refreshAhead;
+  }
+
+  public long getTick() {
+    return tick;
+  }
+
+  public synchronized void setTick(long tick) {
+    if (tick <= 0) {
+      throw new IllegalArgumentException("The tick of an expiring cache must be positive");
+    }
+    this.tick = tick;
+    this.lastSweep = clock.getAsLong() / tick;
+    if (sweeper != null) {
+      sweeper.cancel(false);
+      sweeper = null;
+    }
+  }
+
+  /**
+   * Sets the source of the current time, in milliseconds, used to expire the entries.
+   * Defaults to {@link System#currentTimeMillis()}.
+   */
+  public synchronized void setClock(LongSupplier clock) {
+    this.clock = clock;
+    this.lastSweep = clock.getAsLong() / tick;
+  }
+
+  @Override
+  public synchronized void putObject(Object key, Object value) {
+    long now = clock.getAsLong();
+    delegate.putObject(key, value);
+    Expiry expiry = expiries.get(key);
+    if (expiry == null) {
+      expiry = new Expiry();
+      expiries.put(key, expiry);
+    }
+    expiry.writtenAt = now;
+    expiry.lastAccess = now;
+    expiry.refreshing = false;
+    schedule(key, expiry);
+  }
+
+  @Override
+  public synchronized Object getObject(Object key) {
+    Expiry expiry = expiries.get(key);
+    if (expiry == null) {
+      return delegate.getObject(key);
+    }
+    long now = clock.getAsLong();
+    long expireAt = expiry.expireAt();
+    if (expireAt <= now) {
+      remove(key);
+      return null;
+    }
+    Object value = delegate.getObject(key);
+    if (value == null) {
+      return null;
+    }
+    if (refreshAhead > 0 && !expiry.refreshing && expireAt - now <= refreshAhead) {
+      // 只让一个调用者重新加载，其它调用者继续使用当前值
+      expiry.refreshing = true;
+      return null;
+    }
+    expiry.lastAccess = now;
+    return value;
+  }
+
+  @Override
+  public synchronized Object removeObject(Object key) {
+    expiries.remove(key);
+    return delegate.removeObject(key);
+  }
+
+  @Override
+  public synchronized void clear() {
+    expiries.clear();
+    for (Set<Object> slot : wheel) {
+      if (slot != null) {
+        slot.clear();
+      }
+    }
+    delegate.clear();
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  /**
+   * Removes all the entries whose time to live or time to idle has elapsed.
+   * <p>
+   * Called periodically by a background thread, only the time wheel slots elapsed since the last
+   * call are visited.
+   */
+  public synchronized void expireEntries() {
+    long now = clock.getAsLong();
+    long currentTick = now / tick;
+    long ticks = Math.min(currentTick - lastSweep, WHEEL_SIZE - 1);
+    for (long t = currentTick - ticks; t <= currentTick; t++) {
+      Set<Object> slot = wheel[(int) (t % WHEEL_SIZE)];
+      if (slot == null || slot.isEmpty()) {
+        continue;
+      }
+      Iterator<Object> keys = slot.iterator();
+      while (keys.hasNext()) {
+        Object key = keys.next();
+        Expiry expiry = expiries.get(key);
+        if (expiry == null) {
+          keys.remove();
+          continue;
+        }
+        long expireAt = expiry.expireAt();
+        if (expireAt <= now) {
+          keys.remove();
+          remove(key);
+        } else if (slotOf(expireAt) != expiry.slot) {
+          // 空闲时间被延长，移动到新的槽位
+          keys.remove();
+          schedule(key, expiry);
+        }
+      }
+    }
+    lastSweep = currentTick;
+  }
+
+  private void remove(Object key) {
+    Expiry expiry = expiries.remove(key);
+    if (expiry != null && wheel[expiry.slot] != null) {
+      wheel[expiry.slot].remove(key);
+    }
+    delegate.removeObject(key);
+  }
+
+  private void schedule(Object key, Expiry expiry) {
+    long expireAt = expiry.expireAt();
+    if (expireAt == Long.MAX_VALUE) {
+      return;
+    }
+    if (wheel[expiry.slot] != null) {
+      wheel[expiry.slot].remove(key);
+    }
+    expiry.slot = slotOf(expireAt);
+    Set<Object> slot = wheel[expiry.slot];
+    if (slot == null) {
+      slot = new HashSet<>();
+      wheel[expiry.slot] = slot;
+    }
+    slot.add(key);
+    if (sweeper == null) {
+      sweeper = ExpirySweeper.schedule(this, tick);
+    }
+  }
+
+  private int slotOf(long time) {
+    return (int) ((time / tick) % WHEEL_SIZE);
+  }
+
+  private class Expiry {
+    private long writtenAt;
+    private long lastAccess;
+    private boolean refreshing;
+    private int slot;
+
+    private long expireAt() {
+      long expireAt = Long.MAX_VALUE;
+      if (timeToLive > 0) {
+        expireAt = writtenAt + timeToLive;
+      }
+      if (timeToIdle > 0) {
+        expireAt = Math.min(expireAt, lastAccess + timeToIdle);
+      }
+      return expireAt;
+    }
+  }
+
+  /**
+   * Shared daemon thread that sweeps the time wheels of all expiring caches.
+   * Caches are weakly referenced so they can be garbage collected with their configuration.
+   */
+  private static class ExpirySweeper implements Runnable {
+
+    private static final ScheduledExecutorService EXECUTOR;
+
+    static {
+      ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "mybatis-cache-expiry");
+        thread.setDaemon(true);
+        return thread;
+      });
+      executor.setRemoveOnCancelPolicy(true);
+      EXECUTOR = executor;
+    }
+
+    private final WeakReference<ExpiringCache> cache;
+    private volatile ScheduledFuture<?> future;
+
+    private ExpirySweeper(ExpiringCache cache) {
+      this.cache = new WeakReference<>(cache);
+    }
+
+    static ScheduledFuture<?> schedule(ExpiringCache cache, long tick) {
+      ExpirySweeper sweeper = new ExpirySweeper(cache);
+      sweeper.future = EXECUTOR.scheduleWithFixedDelay(sweeper, tick, tick, TimeUnit.MILLISECONDS);
+      return sweeper.future;
+    }
+
+    @Override
+    public void run() {
+      ExpiringCache expiringCache = cache.get();
+      if (expiringCache == null) {
+        // 缓存已被回收，取消任务
+        ScheduledFuture<?> scheduled = future;
+        if (scheduled != null) {
+          scheduled.cancel(false);
+        }
+        return;
+      }
+      expiringCache.expireEntries();
+    }
+  }
+
+}
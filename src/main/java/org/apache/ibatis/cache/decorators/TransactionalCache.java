@@ -16,6 +16,7 @@
 package org.apache.ibatis.cache.decorators;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheInvalidationBroadcaster;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 
@@ -45,12 +46,19 @@ public class TransactionalCache implements Cache {
 
   // ms.getCache() -二级缓存 ； 委托给cache， 进行 事务结果 都缓存缓存操作
   private final Cache delegate;
+  // 集群缓存失效广播器，可能为 null
+  private final CacheInvalidationBroadcaster broadcaster;
   private boolean clearOnCommit;                          // 是否提交事务后清除缓存
   private final Map<Object, Object> entriesToAddOnCommit; // 提交的事务对象的集合
   private final Set<Object> entriesMissedInCache;         // 没有命中缓存的集合
 
   public TransactionalCache(Cache delegate) {
+    this(delegate, null);
+  }
+
+  public TransactionalCache(Cache delegate, CacheInvalidationBroadcaster broadcaster) {
     this.delegate = delegate;
+    this.broadcaster = broadcaster;
     this.clearOnCommit = false;
     this.entriesToAddOnCommit = new HashMap<>();
     this.entriesMissedInCache = new HashSet<>();
@@ -113,6 +121,10 @@ public class TransactionalCache implements Cache {
     // 是否清空
     if (clearOnCommit) {
       delegate.clear();
+      // 通知其它节点清空同一命名空间的缓存
+      if (broadcaster != null) {
+        broadcaster.publishClear(delegate.getId());
+      }
     }
     // 刷新需要缓存的事务到缓存中
     flushPendingEntries();
@@ -0,0 +1,158 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheWeigher;
+import org.apache.ibatis.cache.impl.DefaultCacheWeigher;
+
+/**
+ * Weighted (size-aware) LRU cache decorator.
+ * <p>
+ * Entries are evicted in least recently used order when the total weight reported by the
+ * {@link CacheWeigher} goes beyond {@code maxWeight}, so a list of 50k rows counts for much more
+ * than a list with a single row. The {@code size} attribute is honored as an upper bound of entries.
+ *
+ * 基于权重（估算字节数）的最少使用淘汰机制缓存
+ *
+ */
+public class WeightedCache implements Cache {
+
+  public static final long DEFAULT_MAX_WEIGHT = 64L * 1024 * 1024;
+
+  private final Cache delegate;
+  private final LinkedHashMap<Object, Long> keyWeights; // 键 -> 权重，按访问顺序排序
+  private CacheWeigher weigher;
+  private long maxWeight;                               // 权重上限
+  private int size;                                     // 条目数上限
+  private long weightedSize;                            // 当前总权重
+  private long evictionCount;                           // 淘汰次数
+
+  public WeightedCache(Cache delegate) {
+    this.delegate = delegate;
+    this.keyWeights = new LinkedHashMap<>(256, .75F, true);
+    this.weigher = new DefaultCacheWeigher();
+    this.maxWeight = DEFAULT_MAX_WEIGHT;
+    this.size = Integer.MAX_VALUE;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  public void setSize(int size) {
+    this.size = size;
+  }
+
+  public long getMaxWeight() {
+    return maxWeight;
+  }
+
+  public void setMaxWeight(long maxWeight) {
+    this.maxWeight = maxWeight;
+  }
+
+  public CacheWeigher getWeigher() {
+    return weigher;
+  }
+
+  public void setWeigher(CacheWeigher weigher) {
+    this.weigher = weigher;
+  }
+
+  /**
+   * @return The sum of the weights of the entries currently held by this cache.
+   */
+  public long getWeightedSize() {
+    return weightedSize;
+  }
+
+  /**
+   * @return The number of entries evicted because of the weight or size limits.
+   */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    long weight = Math.max(0, weigher.weigh(key, value));
+    if (weight > maxWeight) {
+      // 单个条目已超出上限，不缓存
+      removeObject(key);
+      evictionCount++;
+      return;
+    }
+    delegate.putObject(key, value);
+    Long previous = keyWeights.put(key, weight);
+    if (previous != null) {
+      weightedSize -= previous;
+    }
+    weightedSize += weight;
+    evictEntries();
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    keyWeights.get(key); // touch
+    return delegate.getObject(key);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Long weight = keyWeights.remove(key);
+    if (weight != null) {
+      weightedSize -= weight;
+    }
+    return delegate.removeObject(key);
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+    keyWeights.clear();
+    weightedSize = 0;
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  // 从最老的元素开始淘汰，直到总权重和条目数都不超出上限
+  private void evictEntries() {
+    Iterator<Map.Entry<Object, Long>> iterator = keyWeights.entrySet().iterator();
+    while ((weightedSize > maxWeight || keyWeights.size() > size) && iterator.hasNext()) {
+      Map.Entry<Object, Long> eldest = iterator.next();
+      iterator.remove();
+      weightedSize -= eldest.getValue();
+      delegate.removeObject(eldest.getKey());
+      evictionCount++;
+    }
+  }
+
+}
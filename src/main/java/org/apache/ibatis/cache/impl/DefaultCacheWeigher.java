@@ -0,0 +1,229 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.cache.CacheWeigher;
+
+/**
+ * Default weigher that estimates the retained size of cached query results.
+ * <p>
+ * Large collections are not walked completely: the first {@code sampleSize} elements are
+ * weighed and the result is extrapolated to the whole collection, so weighing a list of 50k rows
+ * costs the same as weighing a list of a few rows.
+ *
+ * 默认的权重计算实现：估算缓存的查询结果占用的字节数
+ * 对于大集合只采样前 sampleSize 个元素，再按集合大小推算整体大小
+ */
+public class DefaultCacheWeigher implements CacheWeigher {
+
+  private static final int OBJECT_HEADER = 16;
+  private static final int REFERENCE = 8;
+  private static final int ARRAY_HEADER = 16;
+  private static final int MAP_ENTRY = 32;
+
+  private static final Map<Class<?>, Field[]> FIELDS_CACHE = new ConcurrentHashMap<>();
+
+  private int sampleSize = 16;  // 集合采样个数
+  private int maxDepth = 4;     // 对象图最大遍历深度，避免循环引用
+
+  public int getSampleSize() {
+    return sampleSize;
+  }
+
+  public void setSampleSize(int sampleSize) {
+    this.sampleSize = sampleSize;
+  }
+
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  public void setMaxDepth(int maxDepth) {
+    this.maxDepth = maxDepth;
+  }
+
+  @Override
+  public long weigh(Object key, Object value) {
+    return estimate(value, 0);
+  }
+
+  protected long estimate(Object value, int depth) {
+    if (value == null) {
+      return 0;
+    }
+    Class<?> type = value.getClass();
+    if (value instanceof String) {
+      return OBJECT_HEADER + ARRAY_HEADER + 2L * ((String) value).length();
+    } else if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+      if (value instanceof BigDecimal || value instanceof BigInteger) {
+        return OBJECT_HEADER * 3;
+      }
+      return OBJECT_HEADER + REFERENCE;
+    } else if (value instanceof Date || type.isEnum()) {
+      return OBJECT_HEADER + REFERENCE;
+    } else if (type.isArray()) {
+      return estimateArray(value, depth);
+    } else if (depth >= maxDepth) {
+      return OBJECT_HEADER;
+    } else if (value instanceof Collection) {
+      return estimateCollection((Collection<?>) value, depth);
+    } else if (value instanceof Map) {
+      return estimateMap((Map<?, ?>) value, depth);
+    } else if (isPlatformType(type)) {
+      // JDK 的值类型（java.time、UUID 等）不遍历字段，JDK 16+ 不允许反射访问其私有字段
+      return OBJECT_HEADER * 3;
+    }
+    return estimateBean(value, depth);
+  }
+
+  private long estimateArray(Object array, int depth) {
+    int length = Array.getLength(array);
+    Class<?> componentType = array.getClass().getComponentType();
+    if (componentType.isPrimitive()) {
+      return ARRAY_HEADER + (long) length * primitiveSize(componentType);
+    }
+    long weight = ARRAY_HEADER + (long) length * REFERENCE;
+    if (depth >= maxDepth || length == 0) {
+      return weight;
+    }
+    int sampled = Math.min(length, sampleSize);
+    long sampleWeight = 0;
+    for (int i = 0; i < sampled; i++) {
+      sampleWeight += estimate(Array.get(array, i), depth + 1);
+    }
+    return weight + extrapolate(sampleWeight, sampled, length);
+  }
+
+  private long estimateCollection(Collection<?> collection, int depth) {
+    int size = collection.size();
+    long weight = OBJECT_HEADER + ARRAY_HEADER + (long) size * REFERENCE;
+    if (size == 0) {
+      return weight;
+    }
+    int sampled = 0;
+    long sampleWeight = 0;
+    if (collection instanceof List) {
+      List<?> list = (List<?>) collection;
+      sampled = Math.min(size, sampleSize);
+      for (int i = 0; i < sampled; i++) {
+        sampleWeight += estimate(list.get(i), depth + 1);
+      }
+    } else {
+      Iterator<?> iterator = collection.iterator();
+      while (sampled < sampleSize && iterator.hasNext()) {
+        sampleWeight += estimate(iterator.next(), depth + 1);
+        sampled++;
+      }
+    }
+    return weight + extrapolate(sampleWeight, sampled, size);
+  }
+
+  private long estimateMap(Map<?, ?> map, int depth) {
+    int size = map.size();
+    long weight = OBJECT_HEADER + ARRAY_HEADER + (long) size * MAP_ENTRY;
+    if (size == 0) {
+      return weight;
+    }
+    int sampled = 0;
+    long sampleWeight = 0;
+    Iterator<? extends Map.Entry<?, ?>> iterator = map.entrySet().iterator();
+    while (sampled < sampleSize && iterator.hasNext()) {
+      Map.Entry<?, ?> entry = iterator.next();
+      sampleWeight += estimate(entry.getKey(), depth + 1) + estimate(entry.getValue(), depth + 1);
+      sampled++;
+    }
+    return weight + extrapolate(sampleWeight, sampled, size);
+  }
+
+  private long estimateBean(Object bean, int depth) {
+    Field[] fields = getInstanceFields(bean.getClass());
+    long weight = OBJECT_HEADER;
+    for (Field field : fields) {
+      Class<?> fieldType = field.getType();
+      if (fieldType.isPrimitive()) {
+        weight += primitiveSize(fieldType);
+      } else {
+        weight += REFERENCE;
+        try {
+          weight += estimate(field.get(bean), depth + 1);
+        } catch (IllegalAccessException e) {
+          // ignore, only the reference is counted
+        }
+      }
+    }
+    return weight;
+  }
+
+  private static long extrapolate(long sampleWeight, int sampled, int total) {
+    if (sampled == 0) {
+      return 0;
+    }
+    return sampled == total ? sampleWeight : sampleWeight / sampled * total;
+  }
+
+  private static boolean isPlatformType(Class<?> type) {
+    String name = type.getName();
+    return name.startsWith("java.") || name.startsWith("javax.");
+  }
+
+  private static Field[] getInstanceFields(Class<?> type) {
+    return FIELDS_CACHE.computeIfAbsent(type, DefaultCacheWeigher::resolveInstanceFields);
+  }
+
+  private static Field[] resolveInstanceFields(Class<?> type) {
+    List<Field> fields = new ArrayList<>();
+    for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+      for (Field field : current.getDeclaredFields()) {
+        if (Modifier.isStatic(field.getModifiers())) {
+          continue;
+        }
+        try {
+          field.setAccessible(true);
+          fields.add(field);
+        } catch (RuntimeException e) {
+          // SecurityException, or InaccessibleObjectException on JDK 9+
+          // ignore, the field will not be weighed
+        }
+      }
+    }
+    return fields.toArray(new Field[0]);
+  }
+
+  private static int primitiveSize(Class<?> type) {
+    if (type == long.class || type == double.class) {
+      return 8;
+    } else if (type == int.class || type == float.class) {
+      return 4;
+    } else if (type == short.class || type == char.class) {
+      return 2;
+    }
+    return 1;
+  }
+
+}
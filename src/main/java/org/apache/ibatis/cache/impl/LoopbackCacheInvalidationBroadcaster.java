@@ -0,0 +1,103 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.apache.ibatis.cache.CacheInvalidationBroadcaster;
+import org.apache.ibatis.cache.CacheInvalidationListener;
+
+/**
+ * Delivers the invalidations to the other broadcasters of the same group running in this JVM.
+ * <p>
+ * Useful when several SqlSessionFactory instances share a database inside one process, and to test
+ * cluster invalidation locally. The group is set with the {@code group} property.
+ *
+ * 同一个 JVM 内的缓存失效广播器，按 group 分组，同步投递给同组的其它广播器
+ */
+public class LoopbackCacheInvalidationBroadcaster implements CacheInvalidationBroadcaster {
+
+  private static final Map<String, Set<LoopbackCacheInvalidationBroadcaster>> groups = new ConcurrentHashMap<>();
+
+  private String group = "default";
+  private volatile CacheInvalidationListener listener;
+
+  @Override
+  public void setProperties(Properties properties) {
+    group = properties.getProperty("group", group);
+  }
+
+  public String getGroup() {
+    return group;
+  }
+
+  public void setGroup(String group) {
+    this.group = group;
+  }
+
+  @Override
+  public void start(CacheInvalidationListener listener) {
+    this.listener = listener;
+    groups.computeIfAbsent(group, k -> new CopyOnWriteArraySet<>()).add(this);
+  }
+
+  @Override
+  public void publishClear(String cacheId) {
+    for (LoopbackCacheInvalidationBroadcaster member : members()) {
+      member.listener.onClear(cacheId);
+    }
+  }
+
+  @Override
+  public void publishInvalidate(Collection<String> tags) {
+    if (tags.isEmpty()) {
+      return;
+    }
+    // 复制一份，调用者在发布后可能会清空集合
+    Collection<String> copy = new ArrayList<>(tags);
+    for (LoopbackCacheInvalidationBroadcaster member : members()) {
+      member.listener.onInvalidate(copy);
+    }
+  }
+
+  @Override
+  public void close() {
+    Set<LoopbackCacheInvalidationBroadcaster> members = groups.get(group);
+    if (members != null) {
+      members.remove(this);
+    }
+  }
+
+  private Collection<LoopbackCacheInvalidationBroadcaster> members() {
+    Collection<LoopbackCacheInvalidationBroadcaster> result = new ArrayList<>();
+    Set<LoopbackCacheInvalidationBroadcaster> members = groups.get(group);
+    if (members != null) {
+      for (LoopbackCacheInvalidationBroadcaster member : members) {
+        if (member != this) {
+          result.add(member);
+        }
+      }
+    }
+    return result;
+  }
+
+}
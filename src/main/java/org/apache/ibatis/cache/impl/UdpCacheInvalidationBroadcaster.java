@@ -0,0 +1,288 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheInvalidationBroadcaster;
+import org.apache.ibatis.cache.CacheInvalidationListener;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Publishes the invalidations to the other nodes with UDP datagrams.
+ * <p>
+ * By default the invalidations are sent to a multicast group ({@code address}, {@code port} and {@code ttl}
+ * properties). When the network does not route multicast, the nodes can be listed with the {@code peers}
+ * property ({@code host:port} separated by commas), the invalidations are then sent to each of them and
+ * received on {@code port}. Messages sent by this node are ignored when they are received back.
+ *
+ * 基于 UDP（组播或点对点）的缓存失效广播器
+ */
+public class UdpCacheInvalidationBroadcaster implements CacheInvalidationBroadcaster {
+
+  private static final Log log = LogFactory.getLog(UdpCacheInvalidationBroadcaster.class);
+
+  private static final int MAGIC = 0x4D424349;
+  private static final byte CLEAR = 1;
+  private static final byte INVALIDATE = 2;
+  // 超过该大小的消息拆分成多个数据报
+  private static final int MAX_PAYLOAD = 8192;
+  // 关闭时等待接收线程退出的最长时间
+  private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+  private final String nodeId = UUID.randomUUID().toString();
+  private String address = "239.255.27.1";
+  private int port = 45588;
+  private int ttl = 1;
+  private volatile List<SocketAddress> peers = Collections.emptyList();
+
+  private DatagramSocket socket;
+  private InetSocketAddress group;
+  private Thread receiver;
+  private volatile boolean closed;
+
+  @Override
+  public void setProperties(Properties properties) {
+    address = properties.getProperty("address", address);
+    port = Integer.parseInt(properties.getProperty("port", String.valueOf(port)));
+    ttl = Integer.parseInt(properties.getProperty("ttl", String.valueOf(ttl)));
+    String value = properties.getProperty("peers");
+    if (value != null) {
+      setPeers(value);
+    }
+  }
+
+  public void setAddress(String address) {
+    this.address = address;
+  }
+
+  public void setPort(int port) {
+    this.port = port;
+  }
+
+  public void setTtl(int ttl) {
+    this.ttl = ttl;
+  }
+
+  /**
+   * @param peers The nodes to send the invalidations to ({@code host:port} separated by commas),
+   *     instead of the multicast group
+   */
+  public void setPeers(String peers) {
+    List<SocketAddress> result = new ArrayList<>();
+    for (String peer : peers.split(",")) {
+      peer = peer.trim();
+      if (peer.isEmpty()) {
+        continue;
+      }
+      int colon = peer.lastIndexOf(':');
+      if (colon < 0) {
+        throw new CacheException("Invalid cache invalidation peer '" + peer + "', expected host:port");
+      }
+      result.add(new InetSocketAddress(peer.substring(0, colon), Integer.parseInt(peer.substring(colon + 1))));
+    }
+    this.peers = result;
+  }
+
+  /**
+   * @return The port the invalidations are received on (useful when {@code port} is 0)
+   */
+  public int getLocalPort() {
+    return socket == null ? -1 : socket.getLocalPort();
+  }
+
+  @Override
+  public synchronized void start(CacheInvalidationListener listener) {
+    if (socket != null) {
+      throw new CacheException("Cache invalidation broadcaster already started");
+    }
+    try {
+      if (peers.isEmpty()) {
+        MulticastSocket multicastSocket = new MulticastSocket(port);
+        group = new InetSocketAddress(InetAddress.getByName(address), port);
+        multicastSocket.setTimeToLive(ttl);
+        // 网络接口为 null 时使用默认接口
+        multicastSocket.joinGroup(group, null);
+        socket = multicastSocket;
+      } else {
+        socket = new DatagramSocket(port);
+      }
+    } catch (IOException e) {
+      throw new CacheException("Error starting the cache invalidation broadcaster. Cause: " + e, e);
+    }
+    receiver = new Thread(() -> receive(listener), "mybatis-cache-invalidation");
+    receiver.setDaemon(true);
+    receiver.start();
+  }
+
+  @Override
+  public void publishClear(String cacheId) {
+    send(CLEAR, Collections.singletonList(cacheId));
+  }
+
+  @Override
+  public void publishInvalidate(Collection<String> tags) {
+    send(INVALIDATE, tags);
+  }
+
+  /**
+   * Leaves the multicast group, closes the socket and waits for the receiver thread to stop.
+   */
+  @Override
+  public void close() {
+    Thread thread;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (socket == null) {
+        return;
+      }
+      if (socket instanceof MulticastSocket) {
+        try {
+          ((MulticastSocket) socket).leaveGroup(group, null);
+        } catch (IOException e) {
+          log.debug("Error leaving the cache invalidation group. Cause: " + e);
+        }
+      }
+      // 关闭 socket 使阻塞在 receive 上的接收线程退出
+      socket.close();
+      thread = receiver;
+    }
+    if (thread != null && thread != Thread.currentThread()) {
+      try {
+        thread.join(CLOSE_TIMEOUT_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * @return true if the receiver thread has been started and has not stopped yet
+   */
+  public boolean isReceiving() {
+    Thread thread = receiver;
+    return thread != null && thread.isAlive();
+  }
+
+  private void send(byte type, Collection<String> names) {
+    if (socket == null || closed || names.isEmpty()) {
+      return;
+    }
+    try {
+      List<String> batch = new ArrayList<>();
+      int size = 0;
+      for (String name : names) {
+        batch.add(name);
+        size += name.length() * 3 + 2;
+        if (size >= MAX_PAYLOAD) {
+          sendPacket(encode(type, batch));
+          batch.clear();
+          size = 0;
+        }
+      }
+      if (!batch.isEmpty()) {
+        sendPacket(encode(type, batch));
+      }
+    } catch (IOException e) {
+      // 广播失败不能影响事务提交，其它节点的缓存将在过期后刷新
+      log.warn("Error publishing cache invalidation of " + names + ". Cause: " + e);
+    }
+  }
+
+  private void sendPacket(byte[] data) throws IOException {
+    List<SocketAddress> targets = peers;
+    if (targets.isEmpty()) {
+      socket.send(new DatagramPacket(data, data.length, group));
+    } else {
+      for (SocketAddress target : targets) {
+        socket.send(new DatagramPacket(data, data.length, target));
+      }
+    }
+  }
+
+  private byte[] encode(byte type, List<String> names) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(MAGIC);
+    out.writeUTF(nodeId);
+    out.writeByte(type);
+    out.writeShort(names.size());
+    for (String name : names) {
+      out.writeUTF(name);
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private void receive(CacheInvalidationListener listener) {
+    byte[] buffer = new byte[65535];
+    while (!closed) {
+      DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+      try {
+        socket.receive(packet);
+        dispatch(listener, new DataInputStream(new ByteArrayInputStream(packet.getData(), 0, packet.getLength())));
+      } catch (IOException e) {
+        if (!closed) {
+          log.warn("Error receiving cache invalidation. Cause: " + e);
+        }
+      } catch (RuntimeException e) {
+        log.warn("Error applying cache invalidation. Cause: " + e);
+      }
+    }
+  }
+
+  private void dispatch(CacheInvalidationListener listener, DataInputStream in) throws IOException {
+    if (in.readInt() != MAGIC || nodeId.equals(in.readUTF())) {
+      // 不是失效消息，或者是本节点发出的消息
+      return;
+    }
+    byte type = in.readByte();
+    int count = in.readUnsignedShort();
+    List<String> names = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      names.add(in.readUTF());
+    }
+    if (type == CLEAR) {
+      for (String name : names) {
+        listener.onClear(name);
+      }
+    } else if (type == INVALIDATE) {
+      listener.onInvalidate(names);
+    }
+  }
+
+}
@@ -0,0 +1,152 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.ibatis.metrics.Histogram;
+
+/**
+ * Metrics of a {@link PooledDataSource}.
+ * <p>
+ * Unlike the averages of {@link PoolState}, the checkout wait times and durations are recorded in lock free
+ * histograms (in nanoseconds), so their tail latency can be observed.
+ *
+ * 连接池统计：获取连接的等待时间及连接占用时长的直方图、等待线程数及连接泄漏检测
+ *
+ * @since 3.5.2
+ */
+public class PoolMetrics implements PoolMetricsMXBean {
+
+  private final PooledDataSource dataSource;
+  private final Histogram checkoutWaitTime = new Histogram();
+  private final Histogram checkoutDuration = new Histogram();
+  private final AtomicInteger pendingRequests = new AtomicInteger();
+  private final LongAdder leakedConnections = new LongAdder();
+
+  PoolMetrics(PooledDataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  /**
+   * @return The times spent to check out a connection (including the waits for a connection to be returned)
+   */
+  public Histogram getCheckoutWaitTime() {
+    return checkoutWaitTime;
+  }
+
+  /**
+   * @return The times the connections have been kept checked out
+   */
+  public Histogram getCheckoutDuration() {
+    return checkoutDuration;
+  }
+
+  @Override
+  public int getActiveConnectionCount() {
+    return dataSource.getPoolState().getActiveConnectionCount();
+  }
+
+  @Override
+  public int getIdleConnectionCount() {
+    return dataSource.getPoolState().getIdleConnectionCount();
+  }
+
+  @Override
+  public int getPendingRequestCount() {
+    return pendingRequests.get();
+  }
+
+  @Override
+  public long getRequestCount() {
+    return dataSource.getPoolState().getRequestCount();
+  }
+
+  @Override
+  public long getBadConnectionCount() {
+    return dataSource.getPoolState().getBadConnectionCount();
+  }
+
+  @Override
+  public Map<String, Long> getCheckoutWaitTimeSummary() {
+    return checkoutWaitTime.toTimingSummary();
+  }
+
+  @Override
+  public Map<String, Long> getCheckoutDurationSummary() {
+    return checkoutDuration.toTimingSummary();
+  }
+
+  @Override
+  public long getLeakedConnectionCount() {
+    return leakedConnections.sum();
+  }
+
+  @Override
+  public String[] getLeakSuspects() {
+    int threshold = dataSource.getPoolLeakDetectionThreshold();
+    List<String> suspects = new ArrayList<>();
+    if (threshold > 0) {
+      PoolState state = dataSource.getPoolState();
+      synchronized (state) {
+        for (PooledConnection conn : state.activeConnections) {
+          if (conn.getCheckoutTime() > threshold) {
+            suspects.add(describeLeak(conn));
+          }
+        }
+      }
+    }
+    return suspects.toArray(new String[0]);
+  }
+
+  @Override
+  public void reset() {
+    checkoutWaitTime.reset();
+    checkoutDuration.reset();
+    leakedConnections.reset();
+  }
+
+  void waiting() {
+    pendingRequests.incrementAndGet();
+  }
+
+  void doneWaiting() {
+    pendingRequests.decrementAndGet();
+  }
+
+  void leaked() {
+    leakedConnections.increment();
+  }
+
+  static String describeLeak(PooledConnection conn) {
+    StringBuilder builder = new StringBuilder();
+    builder.append("Connection ").append(conn.getRealHashCode()).append(" has been checked out for ")
+        .append(conn.getCheckoutTime()).append(" ms");
+    Throwable checkoutStack = conn.getCheckoutStack();
+    if (checkoutStack != null) {
+      builder.append(", checked out at:");
+      for (StackTraceElement element : checkoutStack.getStackTrace()) {
+        builder.append("\n\tat ").append(element);
+      }
+    }
+    return builder.toString();
+  }
+
+}
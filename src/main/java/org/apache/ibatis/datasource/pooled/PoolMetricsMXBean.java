@@ -0,0 +1,68 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.util.Map;
+
+/**
+ * JMX view of the metrics of a {@link PooledDataSource}.
+ *
+ * 连接池统计的 JMX 接口，耗时单位为微秒
+ *
+ * @since 3.5.2
+ */
+public interface PoolMetricsMXBean {
+
+  int getActiveConnectionCount();
+
+  int getIdleConnectionCount();
+
+  /**
+   * @return The number of threads waiting for a connection
+   */
+  int getPendingRequestCount();
+
+  long getRequestCount();
+
+  long getBadConnectionCount();
+
+  /**
+   * @return The count, mean, median, 99th percentile and max of the time to check out a connection
+   */
+  Map<String, Long> getCheckoutWaitTimeSummary();
+
+  /**
+   * @return The count, mean, median, 99th percentile and max of the time connections are kept checked out
+   */
+  Map<String, Long> getCheckoutDurationSummary();
+
+  /**
+   * @return The number of connections that have been kept checked out longer than the leak detection threshold
+   */
+  long getLeakedConnectionCount();
+
+  /**
+   * @return The connections currently checked out longer than the leak detection threshold,
+   *         with the stack trace of their checkout
+   */
+  String[] getLeakSuspects();
+
+  /**
+   * Clears the histograms and the leak count.
+   */
+  void reset();
+
+}
@@ -43,6 +43,9 @@ class PooledConnection implements InvocationHandler {
   private long createdTimestamp;                        // 创建时间戳
   private long lastUsedTimestamp;                       // 最后更新时间戳
   private int connectionTypeCode;                       // 连接的标识
+  private long checkoutNanoTime;                        // 从连接池中获取走的时间（纳秒，用于统计）
+  private Throwable checkoutStack;                      // 获取连接时的调用栈（启用泄漏检测时记录）
+  private boolean leakReported;                         // 是否已报告泄漏
   private boolean valid;                                // 是否可用
 
   /**
@@ -205,6 +208,30 @@ class PooledConnection implements InvocationHandler {
     this.checkoutTimestamp = timestamp;
   }
 
+  long getCheckoutNanoTime() {
+    return checkoutNanoTime;
+  }
+
+  void setCheckoutNanoTime(long checkoutNanoTime) {
+    this.checkoutNanoTime = checkoutNanoTime;
+  }
+
+  Throwable getCheckoutStack() {
+    return checkoutStack;
+  }
+
+  void setCheckoutStack(Throwable checkoutStack) {
+    this.checkoutStack = checkoutStack;
+  }
+
+  boolean isLeakReported() {
+    return leakReported;
+  }
+
+  void setLeakReported(boolean leakReported) {
+    this.leakReported = leakReported;
+  }
+
   /**
    * Getter for the time that this connection has been checked out.
    *
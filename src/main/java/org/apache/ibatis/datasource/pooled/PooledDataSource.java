@@ -18,7 +18,9 @@ package org.apache.ibatis.datasource.pooled;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.metrics.MBeanRegistrar;
 
+import javax.management.ObjectName;
 import javax.sql.DataSource;
 import java.io.PrintWriter;
 import java.lang.reflect.InvocationHandler;
@@ -43,6 +45,11 @@ public class PooledDataSource implements DataSource {
   // 记录池化的状态  重要
   private final PoolState state = new PoolState(this);
 
+  // 连接池统计
+  private final PoolMetrics metrics = new PoolMetrics(this);
+  private String jmxName;
+  private ObjectName objectName;
+
   // 非池化的数据源
   private final UnpooledDataSource dataSource;
 
@@ -55,6 +62,7 @@ public class PooledDataSource implements DataSource {
   protected String poolPingQuery = "NO PING QUERY SET";               // 用于检测连接是否正常的侦测语句，
   protected boolean poolPingEnabled;                                  // 是否开启 侦测语句
   protected int poolPingConnectionsNotUsedFor;                        // 配置 poolPingQuery的频率，可以设置为和数据库超时时间一样，来避免不必要的侦测 默认为 0
+  protected int poolLeakDetectionThreshold;                           // 连接被占用超过该时长（毫秒）时报告可能的泄漏，0 表示不检测
 
   private int expectedConnectionTypeCode;                             // 期望 Connection 的类型编码
 
@@ -244,6 +252,34 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /**
+   * Connections kept checked out longer than this number of milliseconds are reported as possible leaks,
+   * with the stack trace of their checkout. 0 (the default) disables the detection, and the capture of the
+   * checkout stack traces.
+   *
+   * @param milliseconds the leak detection threshold
+   * @since 3.5.2
+   */
+  public void setPoolLeakDetectionThreshold(int milliseconds) {
+    this.poolLeakDetectionThreshold = milliseconds;
+  }
+
+  /**
+   * Registers the {@link PoolMetrics} of this data source in the platform MBean server as
+   * {@code org.apache.ibatis:type=PooledDataSource,name=<jmxName>}, or unregisters them when null.
+   *
+   * @param jmxName the name of the MBean
+   * @since 3.5.2
+   */
+  public synchronized void setJmxName(String jmxName) {
+    MBeanRegistrar.unregister(objectName);
+    objectName = null;
+    this.jmxName = jmxName;
+    if (jmxName != null) {
+      objectName = MBeanRegistrar.register(metrics, "PooledDataSource", jmxName);
+    }
+  }
+
   public String getDriver() {
     return dataSource.getDriver();
   }
@@ -304,6 +340,20 @@ public class PooledDataSource implements DataSource {
     return poolPingConnectionsNotUsedFor;
   }
 
+  /**
+   * @since 3.5.2
+   */
+  public int getPoolLeakDetectionThreshold() {
+    return poolLeakDetectionThreshold;
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public String getJmxName() {
+    return jmxName;
+  }
+
   /**
    * 关闭所有的连接
    * Closes all active and idle connections in the pool.
@@ -359,6 +409,13 @@ public class PooledDataSource implements DataSource {
     return state;
   }
 
+  /**
+   * @since 3.5.2
+   */
+  public PoolMetrics getPoolMetrics() {
+    return metrics;
+  }
+
   private int assembleConnectionTypeCode(String url, String username, String password) {
     return ("" + url + username + password).hashCode();
   }
@@ -380,6 +437,7 @@ public class PooledDataSource implements DataSource {
         if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode) {
           // 统计连接使用时间
           state.accumulatedCheckoutTime += conn.getCheckoutTime();
+          recordCheckoutDuration(conn);
           // 连接是否自动提交； 手动回滚事务
           if (!conn.getRealConnection().getAutoCommit()) {
             conn.getRealConnection().rollback();
@@ -404,6 +462,7 @@ public class PooledDataSource implements DataSource {
         else {
           // 统计连接使用时长
           state.accumulatedCheckoutTime += conn.getCheckoutTime();
+          recordCheckoutDuration(conn);
           // 是否自动提交
           if (!conn.getRealConnection().getAutoCommit()) {
             conn.getRealConnection().rollback();
@@ -440,6 +499,7 @@ public class PooledDataSource implements DataSource {
     boolean countedWait = false;
     PooledConnection conn = null;
     long t = System.currentTimeMillis();
+    long requestStart = System.nanoTime();
     // 错误连接总数
     int localBadConnectionCount = 0;
 
@@ -480,6 +540,7 @@ public class PooledDataSource implements DataSource {
               // 超时时间统计
               state.accumulatedCheckoutTimeOfOverdueConnections += longestCheckoutTime;
               state.accumulatedCheckoutTime += longestCheckoutTime;
+              recordCheckoutDuration(oldestActiveConnection);
               // 删除超时的连接
               state.activeConnections.remove(oldestActiveConnection);
               // 超时连接是否自动提交事务
@@ -526,7 +587,12 @@ public class PooledDataSource implements DataSource {
                 }
                 long wt = System.currentTimeMillis();
                 // 等待直到超时， 或pingConnection 方法中归还连接时的唤醒
-                state.wait(poolTimeToWait);
+                metrics.waiting();
+                try {
+                  state.wait(poolTimeToWait);
+                } finally {
+                  metrics.doneWaiting();
+                }
                 // 统计等待时间
                 state.accumulatedWaitTime += System.currentTimeMillis() - wt;
               } catch (InterruptedException e) {
@@ -550,6 +616,12 @@ public class PooledDataSource implements DataSource {
             conn.setCheckoutTimestamp(System.currentTimeMillis());
             // 设置最后使用时间
             conn.setLastUsedTimestamp(System.currentTimeMillis());
+            conn.setCheckoutNanoTime(System.nanoTime());
+            if (poolLeakDetectionThreshold > 0) {
+              // 记录获取连接的调用栈，并检查其它连接是否泄漏
+              conn.setCheckoutStack(new Throwable("Connection checked out"));
+              detectLeaks();
+            }
             // 把创建的连接添加到活动连接中
             state.activeConnections.add(conn);
             // 统计连接请求总数
@@ -588,9 +660,27 @@ public class PooledDataSource implements DataSource {
       throw new SQLException("PooledDataSource: Unknown severe error condition.  The connection pool returned a null connection.");
     }
 
+    metrics.getCheckoutWaitTime().record(conn.getCheckoutNanoTime() - requestStart);
     return conn;
   }
 
+  private void recordCheckoutDuration(PooledConnection conn) {
+    metrics.getCheckoutDuration().record(System.nanoTime() - conn.getCheckoutNanoTime());
+  }
+
+  /**
+   * 报告占用时间超过泄漏检测阈值的连接，每个连接只报告一次；调用时必须持有 state 锁
+   */
+  private void detectLeaks() {
+    for (PooledConnection active : state.activeConnections) {
+      if (!active.isLeakReported() && active.getCheckoutTime() > poolLeakDetectionThreshold) {
+        active.setLeakReported(true);
+        metrics.leaked();
+        log.warn("Possible connection leak. " + PoolMetrics.describeLeak(active));
+      }
+    }
+  }
+
   /**
    * Method to check to see if a connection is still usable
    *
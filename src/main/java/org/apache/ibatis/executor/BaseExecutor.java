@@ -23,6 +23,8 @@ import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.logging.jdbc.ConnectionLogger;
 import org.apache.ibatis.mapping.*;
+import org.apache.ibatis.metrics.ExecutionPhase;
+import org.apache.ibatis.metrics.MetricsRegistry;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.Configuration;
@@ -468,6 +470,23 @@ public abstract class BaseExecutor implements Executor {
     return list;
   }
 
+  /**
+   * 获取连接，配置了统计注册表时记录获取连接的耗时
+   * @param ms
+   * @return
+   * @throws SQLException
+   */
+  protected Connection getConnection(MappedStatement ms) throws SQLException {
+    MetricsRegistry metricsRegistry = configuration.getMetricsRegistry();
+    if (metricsRegistry == null) {
+      return getConnection(ms.getStatementLog());
+    }
+    long start = System.nanoTime();
+    Connection connection = getConnection(ms.getStatementLog());
+    metricsRegistry.recordPhase(ms.getId(), ExecutionPhase.CONNECTION_ACQUIRE, System.nanoTime() - start);
+    return connection;
+  }
+
   /**
    *
    * @param statementLog
@@ -476,7 +495,8 @@ public abstract class BaseExecutor implements Executor {
    */
   protected Connection getConnection(Log statementLog) throws SQLException {
     Connection connection = transaction.getConnection();
-    if (statementLog.isDebugEnabled()) {
+    // 启用无代理的 SQL 日志时不再创建 JDBC 日志代理
+    if (statementLog.isDebugEnabled() && configuration.getSqlLogger() == null) {
       return ConnectionLogger.newInstance(connection, statementLog, queryStack);
     } else {
       return connection;
@@ -16,11 +16,17 @@
 package org.apache.ibatis.executor;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheInvalidationBroadcaster;
 import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.cache.CacheTagRegistry;
+import org.apache.ibatis.cache.TaggedCacheEntry;
 import org.apache.ibatis.cache.TransactionalCacheManager;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.mapping.*;
+import org.apache.ibatis.metrics.MetricsRegistry;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
@@ -46,10 +52,18 @@ public class CachingExecutor implements Executor {
   // 包装器
   private final Executor delegate;
   // 事务管理器
-  private final TransactionalCacheManager tcm = new TransactionalCacheManager();
+  private final TransactionalCacheManager tcm;
 
   public CachingExecutor(Executor delegate) {
+    this(delegate, null);
+  }
+
+  /**
+   * @param broadcaster Publishes the invalidations committed by this executor to the other nodes, may be null
+   */
+  public CachingExecutor(Executor delegate, CacheInvalidationBroadcaster broadcaster) {
     this.delegate = delegate;
+    this.tcm = new TransactionalCacheManager(broadcaster);
     delegate.setExecutorWrapper(this);
   }
 
@@ -80,7 +94,7 @@ public class CachingExecutor implements Executor {
   @Override
   public int update(MappedStatement ms, Object parameterObject) throws SQLException {
     // 刷新缓存
-    flushCacheIfRequired(ms);
+    flushCacheIfRequired(ms, parameterObject, null);
     return delegate.update(ms, parameterObject);
   }
 
@@ -95,7 +109,7 @@ public class CachingExecutor implements Executor {
   @Override
   public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
     // 刷新缓存
-    flushCacheIfRequired(ms);
+    flushCacheIfRequired(ms, parameter, null);
     return delegate.queryCursor(ms, parameter, rowBounds);
   }
 
@@ -118,14 +132,18 @@ public class CachingExecutor implements Executor {
     Cache cache = ms.getCache();
     if (cache != null) {
       // 刷新二级缓存
-      flushCacheIfRequired(ms);
+      flushCacheIfRequired(ms, parameterObject, boundSql);
       // 使用缓存
       if (ms.isUseCache() && resultHandler == null) {
         ensureNoOutParams(ms, boundSql);
+        if (ms.getConfiguration().isTableBasedCacheInvalidation()) {
+          return queryTagged(ms, parameterObject, rowBounds, key, boundSql, cache);
+        }
         @SuppressWarnings("unchecked")
         List<E> list = (List<E>) tcm.getObject(cache, key);
+        recordCacheAccess(ms, list != null);
         if (list == null) {
-          list = delegate.query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+          list = load(ms, cache, parameterObject, rowBounds, key, boundSql);
           // 缓存事务
           tcm.putObject(cache, key, list); // issue #578 and #116
         }
@@ -135,6 +153,66 @@ public class CachingExecutor implements Executor {
     return delegate.query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
   }
 
+  /**
+   * 基于表标签的缓存查询：缓存值带有查询前各表的版本号，表被修改后缓存值失效
+   */
+  private <E> List<E> queryTagged(MappedStatement ms, Object parameterObject, RowBounds rowBounds, CacheKey key, BoundSql boundSql, Cache cache)
+      throws SQLException {
+    CacheTagRegistry tagRegistry = ms.getConfiguration().getCacheTagRegistry();
+    Object cached = tcm.getObject(cache, key);
+    if (cached instanceof TaggedCacheEntry) {
+      TaggedCacheEntry entry = (TaggedCacheEntry) cached;
+      if (!tcm.isInvalidated(entry.getTags()) && tagRegistry.isCurrent(entry)) {
+        @SuppressWarnings("unchecked")
+        List<E> list = (List<E>) entry.getValue();
+        recordCacheAccess(ms, true);
+        return list;
+      }
+      CacheStatistics statistics = getCacheStatistics(ms, cache);
+      if (statistics != null) {
+        statistics.recordStaleRead();
+      }
+    }
+    recordCacheAccess(ms, false);
+    String[] tags = resolveTables(ms, parameterObject, boundSql);
+    if (tags == null) {
+      // 无法确定读取的表，使用命名空间作为标签
+      tags = new String[] { cache.getId() };
+    }
+    // 必须在查询数据库之前获取版本号
+    long[] versions = tagRegistry.getVersions(tags);
+    List<E> list = load(ms, cache, parameterObject, rowBounds, key, boundSql);
+    tcm.putObject(cache, key, new TaggedCacheEntry(list, tags, versions));
+    return list;
+  }
+
+  /**
+   * 从数据库加载缓存中缺失的结果，启用缓存统计时记录加载时间
+   */
+  private <E> List<E> load(MappedStatement ms, Cache cache, Object parameterObject, RowBounds rowBounds, CacheKey key, BoundSql boundSql)
+      throws SQLException {
+    CacheStatistics statistics = getCacheStatistics(ms, cache);
+    if (statistics == null) {
+      return delegate.query(ms, parameterObject, rowBounds, null, key, boundSql);
+    }
+    long start = System.nanoTime();
+    List<E> list = delegate.query(ms, parameterObject, rowBounds, null, key, boundSql);
+    statistics.recordLoad(System.nanoTime() - start);
+    return list;
+  }
+
+  private CacheStatistics getCacheStatistics(MappedStatement ms, Cache cache) {
+    Configuration configuration = ms.getConfiguration();
+    return configuration.isCacheStatisticsEnabled() ? configuration.getCacheStatisticsRegistry().getStatistics(cache.getId()) : null;
+  }
+
+  private void recordCacheAccess(MappedStatement ms, boolean hit) {
+    MetricsRegistry metricsRegistry = ms.getConfiguration().getMetricsRegistry();
+    if (metricsRegistry != null) {
+      metricsRegistry.recordCacheAccess(ms.getId(), hit);
+    }
+  }
+
   @Override
   public List<BatchResult> flushStatements() throws SQLException {
     return delegate.flushStatements();
@@ -203,13 +281,39 @@ public class CachingExecutor implements Executor {
    * 刷新缓存
    * @param ms
    */
-  private void flushCacheIfRequired(MappedStatement ms) {
+  private void flushCacheIfRequired(MappedStatement ms, Object parameterObject, BoundSql boundSql) {
     Cache cache = ms.getCache();
+    if (ms.isFlushCacheRequired() && ms.getConfiguration().isTableBasedCacheInvalidation()) {
+      String[] tables = resolveTables(ms, parameterObject, boundSql);
+      if (tables != null) {
+        // 只失效读取了这些表的缓存值（包括其它命名空间），以及本命名空间无法确定表的缓存值
+        CacheTagRegistry tagRegistry = ms.getConfiguration().getCacheTagRegistry();
+        tcm.invalidate(tagRegistry, tables);
+        if (cache != null) {
+          tcm.invalidate(tagRegistry, cache.getId());
+        }
+        return;
+      }
+    }
     if (cache != null && ms.isFlushCacheRequired()) {
       tcm.clear(cache);
     }
   }
 
+  /**
+   * 获取语句读写的表：优先使用声明的表，否则从 SQL 中解析；无法确定时返回 null
+   */
+  private String[] resolveTables(MappedStatement ms, Object parameterObject, BoundSql boundSql) {
+    if (ms.getTables() != null) {
+      return ms.getTables();
+    }
+    if (ms.getStatementType() == StatementType.CALLABLE) {
+      return null;
+    }
+    String sql = boundSql != null ? boundSql.getSql() : ms.getBoundSql(parameterObject).getSql();
+    return ms.getConfiguration().getCacheTagRegistry().extractTables(sql);
+  }
+
   @Override
   public void setExecutorWrapper(Executor executor) {
     throw new UnsupportedOperationException("This method should not be called");
@@ -16,8 +16,8 @@
 package org.apache.ibatis.executor;
 
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.statement.FetchSizeAdvisor;
 import org.apache.ibatis.executor.statement.StatementHandler;
-import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.Configuration;
@@ -50,7 +50,7 @@ public class ReuseExecutor extends BaseExecutor {
   public int doUpdate(MappedStatement ms, Object parameter) throws SQLException {
     Configuration configuration = ms.getConfiguration();
     StatementHandler handler = configuration.newStatementHandler(this, ms, parameter, RowBounds.DEFAULT, null, null);
-    Statement stmt = prepareStatement(handler, ms.getStatementLog());
+    Statement stmt = prepareStatement(handler, ms);
     return handler.update(stmt);
   }
 
@@ -58,7 +58,7 @@ public class ReuseExecutor extends BaseExecutor {
   public <E> List<E> doQuery(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
     Configuration configuration = ms.getConfiguration();
     StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, rowBounds, resultHandler, boundSql);
-    Statement stmt = prepareStatement(handler, ms.getStatementLog());
+    Statement stmt = prepareStatement(handler, ms);
     return handler.query(stmt, resultHandler);
   }
 
@@ -66,7 +66,7 @@ public class ReuseExecutor extends BaseExecutor {
   protected <E> Cursor<E> doQueryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds, BoundSql boundSql) throws SQLException {
     Configuration configuration = ms.getConfiguration();
     StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, rowBounds, null, boundSql);
-    Statement stmt = prepareStatement(handler, ms.getStatementLog());
+    Statement stmt = prepareStatement(handler, ms);
     return handler.queryCursor(stmt);
   }
 
@@ -84,11 +84,11 @@ public class ReuseExecutor extends BaseExecutor {
   /**
    * 预占符语句
    * @param handler
-   * @param statementLog
+   * @param ms
    * @return
    * @throws SQLException
    */
-  private Statement prepareStatement(StatementHandler handler, Log statementLog) throws SQLException {
+  private Statement prepareStatement(StatementHandler handler, MappedStatement ms) throws SQLException {
     Statement stmt;
     // sql
     BoundSql boundSql = handler.getBoundSql();
@@ -98,10 +98,11 @@ public class ReuseExecutor extends BaseExecutor {
       // 申请一个有超时时间的事务
       stmt = getStatement(sql);
       applyTransactionTimeout(stmt);
+      applyAdvisedFetchSize(stmt, ms);
     }
     // 没有缓存， 获取连接再缓存
     else {
-      Connection connection = getConnection(statementLog);
+      Connection connection = getConnection(ms);
       stmt = handler.prepare(connection, transaction.getTimeout());
       putStatement(sql, stmt);
     }
@@ -110,6 +111,19 @@ public class ReuseExecutor extends BaseExecutor {
     return stmt;
   }
 
+  /**
+   * 复用的语句在创建时已设置 fetchSize，之后自适应调整的建议值需要重新设置
+   */
+  private void applyAdvisedFetchSize(Statement stmt, MappedStatement ms) throws SQLException {
+    FetchSizeAdvisor fetchSizeAdvisor = configuration.getFetchSizeAdvisor();
+    if (fetchSizeAdvisor != null && ms.getFetchSize() == null) {
+      Integer fetchSize = fetchSizeAdvisor.getFetchSize(ms.getId());
+      if (fetchSize != null) {
+        stmt.setFetchSize(fetchSize);
+      }
+    }
+  }
+
   private boolean hasStatementFor(String sql) {
     try {
       return statementMap.keySet().contains(sql) && !statementMap.get(sql).getConnection().isClosed();
@@ -0,0 +1,427 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.io.Serializable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.PrimitiveTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * A result set read column by column into primitive arrays.
+ * <p>
+ * When a statement has this class as result type (e.g. a mapper method returning {@code ColumnarFrame}, or
+ * {@code resultType="columnar"}), all the rows are read into a single frame instead of creating an object per
+ * row: integer columns are stored in {@code int[]}/{@code long[]}, floating point columns in {@code double[]},
+ * character columns are dictionary encoded (an {@code int[]} of codes plus the distinct values) and the other
+ * columns are read by their type handler into an {@code Object[]}. A numeric column whose type handler
+ * overrides {@code getNullableResult} (and so cannot be read as a primitive) is also read into an
+ * {@code Object[]} through that handler. Result mappings are ignored, every column of the result set is read.
+ * Columnar statements cannot be read through a {@link org.apache.ibatis.cursor.Cursor}.
+ *
+ * 列式结果：将结果集按列读取到基本类型数组中，不为每行创建结果对象
+ *
+ * @since 3.5.2
+ */
+public class ColumnarFrame implements Serializable {
+
+  private static final long serialVersionUID = 4238702465377195340L;
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final List<Column> columns;
+  private int rowCount;
+
+  private ColumnarFrame(List<Column> columns) {
+    this.columns = columns;
+  }
+
+  static ColumnarFrame forResultSet(ResultSetWrapper rsw) {
+    List<String> columnNames = rsw.getColumnNames();
+    List<Column> columns = new ArrayList<>(columnNames.size());
+    for (int i = 0; i < columnNames.size(); i++) {
+      columns.add(createColumn(rsw, columnNames.get(i), rsw.getJdbcTypes().get(i)));
+    }
+    return new ColumnarFrame(Collections.unmodifiableList(columns));
+  }
+
+  private static Column createColumn(ResultSetWrapper rsw, String name, JdbcType jdbcType) {
+    TypeHandler<?> typeHandler = null;
+    if (jdbcType != null) {
+      switch (jdbcType) {
+        case TINYINT:
+        case SMALLINT:
+        case INTEGER:
+          typeHandler = rsw.getTypeHandler(Integer.class, name);
+          if (typeHandler instanceof PrimitiveTypeHandler.OfInt
+              && PrimitiveResultSetter.readsPrimitive(typeHandler, PrimitiveResultSetter.INT, int.class)) {
+            return new IntColumn(name, (PrimitiveTypeHandler.OfInt) typeHandler);
+          }
+          break;
+        case BIGINT:
+          typeHandler = rsw.getTypeHandler(Long.class, name);
+          if (typeHandler instanceof PrimitiveTypeHandler.OfLong
+              && PrimitiveResultSetter.readsPrimitive(typeHandler, PrimitiveResultSetter.LONG, int.class)) {
+            return new LongColumn(name, (PrimitiveTypeHandler.OfLong) typeHandler);
+          }
+          break;
+        case REAL:
+        case FLOAT:
+        case DOUBLE:
+          typeHandler = rsw.getTypeHandler(Double.class, name);
+          if (typeHandler instanceof PrimitiveTypeHandler.OfDouble
+              && PrimitiveResultSetter.readsPrimitive(typeHandler, PrimitiveResultSetter.DOUBLE, int.class)) {
+            return new DoubleColumn(name, (PrimitiveTypeHandler.OfDouble) typeHandler);
+          }
+          break;
+        case CHAR:
+        case VARCHAR:
+        case NCHAR:
+        case NVARCHAR:
+        case LONGVARCHAR:
+        case LONGNVARCHAR:
+          return new StringColumn(name, rsw.getTypeHandler(String.class, name));
+        default:
+          break;
+      }
+    }
+    // 类型处理器不能按基本类型读取时（如子类覆盖了 getNullableResult），仍然通过它读取对象
+    return new ObjectColumn(name, typeHandler != null ? typeHandler : rsw.getTypeHandler(Object.class, name));
+  }
+
+  void readRow(ResultSet rs) throws SQLException {
+    for (int i = 0; i < columns.size(); i++) {
+      columns.get(i).read(rs, i + 1, rowCount);
+    }
+    rowCount++;
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public List<Column> getColumns() {
+    return columns;
+  }
+
+  public Column getColumn(int index) {
+    return columns.get(index);
+  }
+
+  /**
+   * @param name The column name (or label), case insensitive
+   * @return The column, or null if the result set has no such column
+   */
+  public Column getColumn(String name) {
+    for (Column column : columns) {
+      if (column.getName().equalsIgnoreCase(name)) {
+        return column;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param name The column name (or label), case insensitive
+   * @param type The expected column type, e.g. {@code IntColumn.class}
+   * @return The column, or null if the result set has no such column
+   */
+  public <C extends Column> C getColumn(String name, Class<C> type) {
+    return type.cast(getColumn(name));
+  }
+
+  private static int grow(int length) {
+    return length + (length >> 1) + 1;
+  }
+
+  /**
+   * A column of the frame. Null values are tracked in a bit set allocated on the first null.
+   */
+  public abstract static class Column implements Serializable {
+
+    private static final long serialVersionUID = -5016436478298016591L;
+
+    private final String name;
+    private BitSet nulls;
+
+    Column(String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public boolean isNull(int row) {
+      return nulls != null && nulls.get(row);
+    }
+
+    /**
+     * @return The value of the row, boxed if the column is primitive
+     */
+    public abstract Object get(int row);
+
+    abstract void read(ResultSet rs, int columnIndex, int row) throws SQLException;
+
+    void setNull(int row) {
+      if (nulls == null) {
+        nulls = new BitSet();
+      }
+      nulls.set(row);
+    }
+  }
+
+  public static class IntColumn extends Column {
+
+    private static final long serialVersionUID = 3160961829093592412L;
+
+    private final transient PrimitiveTypeHandler.OfInt typeHandler;
+    private int[] values = new int[INITIAL_CAPACITY];
+    private int size;
+
+    IntColumn(String name, PrimitiveTypeHandler.OfInt typeHandler) {
+      super(name);
+      this.typeHandler = typeHandler;
+    }
+
+    @Override
+    void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, grow(size));
+      }
+      values[size++] = typeHandler.getInt(rs, columnIndex);
+      if (rs.wasNull()) {
+        setNull(row);
+      }
+    }
+
+    /**
+     * @return The value of the row, 0 if it is null
+     */
+    public int getInt(int row) {
+      return values[row];
+    }
+
+    @Override
+    public Object get(int row) {
+      return isNull(row) ? null : values[row];
+    }
+
+    public int[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+
+  public static class LongColumn extends Column {
+
+    private static final long serialVersionUID = -8730160851470637547L;
+
+    private final transient PrimitiveTypeHandler.OfLong typeHandler;
+    private long[] values = new long[INITIAL_CAPACITY];
+    private int size;
+
+    LongColumn(String name, PrimitiveTypeHandler.OfLong typeHandler) {
+      super(name);
+      this.typeHandler = typeHandler;
+    }
+
+    @Override
+    void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, grow(size));
+      }
+      values[size++] = typeHandler.getLong(rs, columnIndex);
+      if (rs.wasNull()) {
+        setNull(row);
+      }
+    }
+
+    /**
+     * @return The value of the row, 0 if it is null
+     */
+    public long getLong(int row) {
+      return values[row];
+    }
+
+    @Override
+    public Object get(int row) {
+      return isNull(row) ? null : values[row];
+    }
+
+    public long[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+
+  public static class DoubleColumn extends Column {
+
+    private static final long serialVersionUID = 1920346617259519853L;
+
+    private final transient PrimitiveTypeHandler.OfDouble typeHandler;
+    private double[] values = new double[INITIAL_CAPACITY];
+    private int size;
+
+    DoubleColumn(String name, PrimitiveTypeHandler.OfDouble typeHandler) {
+      super(name);
+      this.typeHandler = typeHandler;
+    }
+
+    @Override
+    void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, grow(size));
+      }
+      values[size++] = typeHandler.getDouble(rs, columnIndex);
+      if (rs.wasNull()) {
+        setNull(row);
+      }
+    }
+
+    /**
+     * @return The value of the row, 0 if it is null
+     */
+    public double getDouble(int row) {
+      return values[row];
+    }
+
+    @Override
+    public Object get(int row) {
+      return isNull(row) ? null : values[row];
+    }
+
+    public double[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+
+  /**
+   * A dictionary encoded character column: each row holds the code of its value in the dictionary of
+   * distinct values, or -1 when it is null.
+   */
+  public static class StringColumn extends Column {
+
+    private static final long serialVersionUID = -2410567339839071447L;
+
+    private final transient TypeHandler<?> typeHandler;
+    private final List<String> dictionary = new ArrayList<>();
+    private final Map<String, Integer> codes = new HashMap<>();
+    private int[] values = new int[INITIAL_CAPACITY];
+    private int size;
+
+    StringColumn(String name, TypeHandler<?> typeHandler) {
+      super(name);
+      this.typeHandler = typeHandler;
+    }
+
+    @Override
+    void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, grow(size));
+      }
+      Object value = typeHandler.getResult(rs, columnIndex);
+      if (value == null) {
+        values[size++] = -1;
+        setNull(row);
+        return;
+      }
+      String string = value.toString();
+      Integer code = codes.get(string);
+      if (code == null) {
+        code = dictionary.size();
+        dictionary.add(string);
+        codes.put(string, code);
+      }
+      values[size++] = code;
+    }
+
+    public String getString(int row) {
+      int code = values[row];
+      return code < 0 ? null : dictionary.get(code);
+    }
+
+    @Override
+    public Object get(int row) {
+      return getString(row);
+    }
+
+    /**
+     * @return The dictionary code of the value of the row, -1 if it is null
+     */
+    public int getCode(int row) {
+      return values[row];
+    }
+
+    public int[] getCodes() {
+      return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * @return The distinct values of the column, indexed by their code
+     */
+    public List<String> getDictionary() {
+      return Collections.unmodifiableList(dictionary);
+    }
+  }
+
+  /**
+   * A column whose values are read by its type handler, for the types without a primitive representation.
+   */
+  public static class ObjectColumn extends Column {
+
+    private static final long serialVersionUID = 6577427340417426398L;
+
+    private final transient TypeHandler<?> typeHandler;
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int size;
+
+    ObjectColumn(String name, TypeHandler<?> typeHandler) {
+      super(name);
+      this.typeHandler = typeHandler;
+    }
+
+    @Override
+    void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, grow(size));
+      }
+      Object value = typeHandler.getResult(rs, columnIndex);
+      values[size++] = value;
+      if (value == null) {
+        setNull(row);
+      }
+    }
+
+    @Override
+    public Object get(int row) {
+      return values[row];
+    }
+
+    public Object[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+
+}
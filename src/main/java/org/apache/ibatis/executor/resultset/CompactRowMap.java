@@ -0,0 +1,302 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A row of a {@code resultType="map"} statement when the {@code compactResultMaps} setting is enabled.
+ * <p>
+ * All the rows of a result set share the same immutable {@link Schema} mapping the column names to slots, and
+ * each row only holds its values in an array, instead of a {@link HashMap} with its own entries per row.
+ * Like a {@link HashMap} filled by auto-mapping, the columns whose value is null are absent unless
+ * {@code callSettersOnNulls} is enabled, and other keys can be added. The entries are iterated in column order.
+ *
+ * 紧凑的行 Map：同一结果集的所有行共享列名索引，每行只用数组保存列值
+ *
+ * @since 3.5.2
+ */
+public class CompactRowMap extends AbstractMap<String, Object> implements Serializable {
+
+  private static final long serialVersionUID = -3365286853412924016L;
+
+  // 标记列不存在（区别于值为 null）
+  private static final Object ABSENT = new Object();
+
+  private final Schema schema;
+  private transient Object[] values;
+  // 不在索引中的其它键
+  private Map<String, Object> extra;
+
+  public CompactRowMap(Schema schema) {
+    this.schema = schema;
+    this.values = new Object[schema.keys.length];
+    Arrays.fill(values, ABSENT);
+  }
+
+  public Schema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Sets the value of a slot of the schema, without looking up its key.
+   */
+  void set(int slot, Object value) {
+    values[slot] = value;
+  }
+
+  @Override
+  public int size() {
+    int size = extra == null ? 0 : extra.size();
+    for (Object value : values) {
+      if (value != ABSENT) {
+        size++;
+      }
+    }
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    int slot = schema.slotOf(key);
+    if (slot >= 0) {
+      return values[slot] != ABSENT;
+    }
+    return extra != null && extra.containsKey(key);
+  }
+
+  @Override
+  public Object get(Object key) {
+    int slot = schema.slotOf(key);
+    if (slot >= 0) {
+      Object value = values[slot];
+      return value == ABSENT ? null : value;
+    }
+    return extra == null ? null : extra.get(key);
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    int slot = schema.slotOf(key);
+    if (slot >= 0) {
+      Object previous = values[slot];
+      values[slot] = value;
+      return previous == ABSENT ? null : previous;
+    }
+    if (extra == null) {
+      extra = new LinkedHashMap<>();
+    }
+    return extra.put(key, value);
+  }
+
+  @Override
+  public Object remove(Object key) {
+    int slot = schema.slotOf(key);
+    if (slot >= 0) {
+      Object previous = values[slot];
+      values[slot] = ABSENT;
+      return previous == ABSENT ? null : previous;
+    }
+    return extra == null ? null : extra.remove(key);
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(values, ABSENT);
+    extra = null;
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return new AbstractSet<Entry<String, Object>>() {
+      @Override
+      public Iterator<Entry<String, Object>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return CompactRowMap.this.size();
+      }
+    };
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    for (Object value : values) {
+      boolean present = value != ABSENT;
+      out.writeBoolean(present);
+      if (present) {
+        out.writeObject(value);
+      }
+    }
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    values = new Object[schema.keys.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = in.readBoolean() ? in.readObject() : ABSENT;
+    }
+  }
+
+  private class EntryIterator implements Iterator<Entry<String, Object>> {
+    private int next = advance(0);
+    private int last = -1;
+    private Iterator<Entry<String, Object>> extraIterator;
+
+    private int advance(int slot) {
+      while (slot < values.length && values[slot] == ABSENT) {
+        slot++;
+      }
+      return slot;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next < values.length) {
+        return true;
+      }
+      if (extraIterator == null && extra != null) {
+        extraIterator = extra.entrySet().iterator();
+      }
+      return extraIterator != null && extraIterator.hasNext();
+    }
+
+    @Override
+    public Entry<String, Object> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      if (next < values.length) {
+        last = next;
+        next = advance(next + 1);
+        return new SlotEntry(last);
+      }
+      last = -1;
+      return extraIterator.next();
+    }
+
+    @Override
+    public void remove() {
+      if (last >= 0) {
+        values[last] = ABSENT;
+        last = -1;
+      } else if (extraIterator != null) {
+        extraIterator.remove();
+      } else {
+        throw new IllegalStateException();
+      }
+    }
+  }
+
+  private class SlotEntry implements Entry<String, Object> {
+    private final int slot;
+
+    private SlotEntry(int slot) {
+      this.slot = slot;
+    }
+
+    @Override
+    public String getKey() {
+      return schema.keys[slot];
+    }
+
+    @Override
+    public Object getValue() {
+      Object value = values[slot];
+      return value == ABSENT ? null : value;
+    }
+
+    @Override
+    public Object setValue(Object value) {
+      Object previous = getValue();
+      values[slot] = value;
+      return previous;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> e = (Entry<?, ?>) o;
+      return Objects.equals(getKey(), e.getKey()) && Objects.equals(getValue(), e.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+
+  /**
+   * The immutable index of the keys of the rows of a result set.
+   */
+  public static final class Schema implements Serializable {
+
+    private static final long serialVersionUID = 7146352436530129453L;
+
+    private final String[] keys;
+    private final Map<String, Integer> slots;
+
+    public Schema(List<String> columnNames) {
+      Map<String, Integer> slots = new HashMap<>();
+      for (String columnName : columnNames) {
+        // 重复的列名共享同一个位置，与 HashMap 的行为一致
+        slots.putIfAbsent(columnName, slots.size());
+      }
+      this.keys = new String[slots.size()];
+      for (Map.Entry<String, Integer> entry : slots.entrySet()) {
+        keys[entry.getValue()] = entry.getKey();
+      }
+      this.slots = slots;
+    }
+
+    /**
+     * @return The slot of the key, or -1 if it is not part of the schema
+     */
+    public int slotOf(Object key) {
+      Integer slot = slots.get(key);
+      return slot == null ? -1 : slot;
+    }
+
+    public List<String> getKeys() {
+      return Collections.unmodifiableList(Arrays.asList(keys));
+    }
+  }
+
+}
@@ -23,6 +23,7 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -42,6 +43,7 @@ import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.executor.result.DefaultResultHandler;
 import org.apache.ibatis.executor.result.ResultMapException;
+import org.apache.ibatis.executor.statement.FetchSizeAdvisor;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.Discriminator;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -49,6 +51,8 @@ import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.metrics.ExecutionPhase;
+import org.apache.ibatis.metrics.MetricsRegistry;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ReflectorFactory;
@@ -57,10 +61,12 @@ import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultContext;
 import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.ReusableResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.apache.ibatis.type.UnknownTypeHandler;
 
 /**
  * @author Clinton Begin
@@ -72,6 +78,19 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private static final Object DEFERRED = new Object();
 
+  private static final Map<Class<?>, Object> PRIMITIVE_DEFAULTS = new HashMap<>();
+
+  static {
+    PRIMITIVE_DEFAULTS.put(boolean.class, false);
+    PRIMITIVE_DEFAULTS.put(byte.class, (byte) 0);
+    PRIMITIVE_DEFAULTS.put(short.class, (short) 0);
+    PRIMITIVE_DEFAULTS.put(char.class, '\0');
+    PRIMITIVE_DEFAULTS.put(int.class, 0);
+    PRIMITIVE_DEFAULTS.put(long.class, 0L);
+    PRIMITIVE_DEFAULTS.put(float.class, 0F);
+    PRIMITIVE_DEFAULTS.put(double.class, 0D);
+  }
+
   private final Executor executor;
   private final Configuration configuration;
   private final MappedStatement mappedStatement;
@@ -82,6 +101,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private final TypeHandlerRegistry typeHandlerRegistry;
   private final ObjectFactory objectFactory;
   private final ReflectorFactory reflectorFactory;
+  private final MetricsRegistry metricsRegistry;
+  private final FetchSizeAdvisor fetchSizeAdvisor;
 
   // nested resultmaps
   private final Map<CacheKey, Object> nestedResultObjects = new HashMap<>();
@@ -95,9 +116,25 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // Cached Automappings
   private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<>();
 
+  // Cached primitive setters of property mappings (null when the mapping cannot be applied without boxing)
+  private final Map<ResultMapping, PrimitiveResultSetter> primitiveSetters = new IdentityHashMap<>();
+
   // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
   private boolean useConstructorMappings;
 
+  // Reused result objects of a ReusableResultHandler (null when the result map cannot be reused)
+  private final Map<ResultMap, MetaObject> reusableRowValues = new IdentityHashMap<>();
+  // temporary marking flag that indicate refilling a reused result object
+  private boolean reusingRowValue;
+
+  // metrics (only collected when a MetricsRegistry or a FetchSizeAdvisor is configured)
+  private long fetchNanos;
+  private long fetchedRows;
+  private long handlingNanos;
+  // rows of the largest and width of the widest result set (for the FetchSizeAdvisor)
+  private long resultSetRows;
+  private int rowWidth;
+
   private static class PendingRelation {
     public MetaObject metaObject;
     public ResultMapping propertyMapping;
@@ -108,12 +145,27 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     private final String property;
     private final TypeHandler<?> typeHandler;
     private final boolean primitive;
+    private final PrimitiveResultSetter primitiveSetter;
+    // 紧凑 Map 的列索引及位置（仅当结果对象为 CompactRowMap 时）
+    private final CompactRowMap.Schema schema;
+    private final int columnIndex;
+    private final int slot;
+
+    public UnMappedColumnAutoMapping(String column, String property, TypeHandler<?> typeHandler, boolean primitive,
+        PrimitiveResultSetter primitiveSetter) {
+      this(column, property, typeHandler, primitive, primitiveSetter, null, -1, -1);
+    }
 
-    public UnMappedColumnAutoMapping(String column, String property, TypeHandler<?> typeHandler, boolean primitive) {
+    UnMappedColumnAutoMapping(String column, String property, TypeHandler<?> typeHandler, boolean primitive,
+        PrimitiveResultSetter primitiveSetter, CompactRowMap.Schema schema, int columnIndex, int slot) {
       this.column = column;
       this.property = property;
       this.typeHandler = typeHandler;
       this.primitive = primitive;
+      this.primitiveSetter = primitiveSetter;
+      this.schema = schema;
+      this.columnIndex = columnIndex;
+      this.slot = slot;
     }
   }
 
@@ -129,6 +181,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     this.objectFactory = configuration.getObjectFactory();
     this.reflectorFactory = configuration.getReflectorFactory();
     this.resultHandler = resultHandler;
+    this.metricsRegistry = configuration.getMetricsRegistry();
+    this.fetchSizeAdvisor = configuration.getFetchSizeAdvisor();
   }
 
   //
@@ -179,6 +233,39 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
   @Override
   public List<Object> handleResultSets(Statement stmt) throws SQLException {
+    if (metricsRegistry == null && fetchSizeAdvisor == null) {
+      return handleResultSetsInternal(stmt);
+    }
+    long start = System.nanoTime();
+    fetchNanos = 0;
+    fetchedRows = 0;
+    resultSetRows = 0;
+    rowWidth = 0;
+    List<Object> results = handleResultSetsInternal(stmt);
+    handlingNanos = System.nanoTime() - start;
+    String statementId = mappedStatement.getId();
+    if (fetchSizeAdvisor != null && rowWidth > 0) {
+      fetchSizeAdvisor.record(statementId, resultSetRows, rowWidth);
+    }
+    if (metricsRegistry == null) {
+      return results;
+    }
+    metricsRegistry.recordPhase(statementId, ExecutionPhase.FETCH, fetchNanos);
+    metricsRegistry.recordPhase(statementId, ExecutionPhase.MAPPING, handlingNanos - fetchNanos);
+    metricsRegistry.recordRows(statementId, fetchedRows);
+    return results;
+  }
+
+  /**
+   * @return The time spent in the last call to {@link #handleResultSets(Statement)} when a
+   *         {@link MetricsRegistry} or a {@link FetchSizeAdvisor} is configured, 0 otherwise
+   * @since 3.5.2
+   */
+  public long getHandlingNanos() {
+    return handlingNanos;
+  }
+
+  private List<Object> handleResultSetsInternal(Statement stmt) throws SQLException {
     ErrorContext.instance().activity("handling results").object(mappedStatement.getId());
 
     final List<Object> multipleResults = new ArrayList<>();
@@ -191,7 +278,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     validateResultMapsCount(rsw, resultMapCount);
     while (rsw != null && resultMapCount > resultSetCount) {
       ResultMap resultMap = resultMaps.get(resultSetCount);
+      long rowsBefore = fetchedRows;
       handleResultSet(rsw, resultMap, multipleResults, null);
+      recordResultSetShape(rsw, fetchedRows - rowsBefore);
       rsw = getNextResultSet(stmt);
       cleanUpAfterHandlingResultSet();
       resultSetCount++;
@@ -204,7 +293,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         if (parentMapping != null) {
           String nestedResultMapId = parentMapping.getNestedResultMapId();
           ResultMap resultMap = configuration.getResultMap(nestedResultMapId);
+          long rowsBefore = fetchedRows;
           handleResultSet(rsw, resultMap, null, parentMapping);
+          recordResultSetShape(rsw, fetchedRows - rowsBefore);
         }
         rsw = getNextResultSet(stmt);
         cleanUpAfterHandlingResultSet();
@@ -215,6 +306,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return collapseSingleResultList(multipleResults);
   }
 
+  /**
+   * 每个结果集都按语句的 fetchSize 读取，按行数最多和行最宽的结果集给出建议
+   */
+  private void recordResultSetShape(ResultSetWrapper rsw, long rows) {
+    if (fetchSizeAdvisor != null) {
+      resultSetRows = Math.max(resultSetRows, rows);
+      rowWidth = Math.max(rowWidth, FetchSizeAdvisor.estimateRowWidth(rsw.getJdbcTypes()));
+    }
+  }
+
   @Override
   public <E> Cursor<E> handleCursorResultSets(Statement stmt) throws SQLException {
     ErrorContext.instance().activity("handling cursor results").object(mappedStatement.getId());
@@ -230,6 +331,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
 
     ResultMap resultMap = resultMaps.get(0);
+    if (resultMap.getType() == ColumnarFrame.class) {
+      // 列式结果一次读取所有行，不能逐行通过游标读取
+      closeResultSet(rsw == null ? null : rsw.getResultSet());
+      throw new ExecutorException("Columnar results cannot be read through a Cursor (mapped statement '"
+          + mappedStatement.getId() + "'). Return a ColumnarFrame, which holds all the rows, instead.");
+    }
     return new DefaultCursor<>(this, resultMap, rsw, rowBounds);
   }
 
@@ -320,7 +427,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
 
   public void handleRowValues(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping) throws SQLException {
-    if (resultMap.hasNestedResultMaps()) {
+    if (parentMapping == null && resultMap.getType() == ColumnarFrame.class) {
+      handleRowValuesForColumnarFrame(rsw, resultHandler, rowBounds);
+    } else if (resultMap.hasNestedResultMaps()) {
       ensureNoRowBounds();
       checkResultHandler();
       handleRowValuesForNestedResultMap(rsw, resultMap, resultHandler, rowBounds, parentMapping);
@@ -348,14 +457,28 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       throws SQLException {
     DefaultResultContext<Object> resultContext = new DefaultResultContext<>();
     ResultSet resultSet = rsw.getResultSet();
+    final boolean reuseRowValues = parentMapping == null && resultHandler instanceof ReusableResultHandler;
     skipRows(resultSet, rowBounds);
-    while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
+    while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && nextRow(resultSet)) {
       ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
-      Object rowValue = getRowValue(rsw, discriminatedResultMap, null);
+      Object rowValue = reuseRowValues ? getReusableRowValue(rsw, discriminatedResultMap) : getRowValue(rsw, discriminatedResultMap, null);
       storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
     }
   }
 
+  /**
+   * 将所有行按列读取到一个 ColumnarFrame 中，不为每行创建结果对象
+   */
+  private void handleRowValuesForColumnarFrame(ResultSetWrapper rsw, ResultHandler<?> resultHandler, RowBounds rowBounds) throws SQLException {
+    ColumnarFrame frame = ColumnarFrame.forResultSet(rsw);
+    ResultSet resultSet = rsw.getResultSet();
+    skipRows(resultSet, rowBounds);
+    while (frame.getRowCount() < rowBounds.getLimit() && !resultSet.isClosed() && nextRow(resultSet)) {
+      frame.readRow(resultSet);
+    }
+    callResultHandler(resultHandler, new DefaultResultContext<>(), frame);
+  }
+
   private void storeObject(ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext, Object rowValue, ResultMapping parentMapping, ResultSet rs) throws SQLException {
     if (parentMapping != null) {
       linkToParents(rs, parentMapping, rowValue);
@@ -370,6 +493,26 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     ((ResultHandler<Object>) resultHandler).handleResult(resultContext);
   }
 
+  private boolean nextRow(ResultSet resultSet) throws SQLException {
+    if (metricsRegistry == null) {
+      if (fetchSizeAdvisor == null) {
+        return resultSet.next();
+      }
+      boolean next = resultSet.next();
+      if (next) {
+        fetchedRows++;
+      }
+      return next;
+    }
+    long start = System.nanoTime();
+    boolean next = resultSet.next();
+    fetchNanos += System.nanoTime() - start;
+    if (next) {
+      fetchedRows++;
+    }
+    return next;
+  }
+
   private boolean shouldProcessMoreRows(ResultContext<?> context, RowBounds rowBounds) {
     return !context.isStopped() && context.getResultCount() < rowBounds.getLimit();
   }
@@ -408,6 +551,57 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return rowValue;
   }
 
+  /**
+   * 复用同一个结果对象（及其 MetaObject），逐行重新填充，供 {@link ReusableResultHandler} 使用
+   */
+  private Object getReusableRowValue(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    MetaObject metaObject = reusableRowValues.get(resultMap);
+    if (metaObject == null) {
+      if (reusableRowValues.containsKey(resultMap) || !canReuseRowValue(rsw, resultMap)) {
+        reusableRowValues.put(resultMap, null);
+        return getRowValue(rsw, resultMap, null);
+      }
+      Object rowValue = createResultObject(rsw, resultMap, new ResultLoaderMap(), null);
+      metaObject = configuration.newMetaObject(rowValue);
+      reusableRowValues.put(resultMap, metaObject);
+    }
+    boolean foundValues = false;
+    reusingRowValue = true;
+    try {
+      if (shouldApplyAutomaticMappings(resultMap, false)) {
+        foundValues = applyAutomaticMappings(rsw, resultMap, metaObject, null);
+      }
+      // 没有嵌套查询，不会用到延迟加载
+      foundValues = applyPropertyMappings(rsw, resultMap, metaObject, null, null) || foundValues;
+    } finally {
+      reusingRowValue = false;
+    }
+    return foundValues || configuration.isReturnInstanceForEmptyRow() ? metaObject.getOriginalObject() : null;
+  }
+
+  private boolean canReuseRowValue(ResultSetWrapper rsw, ResultMap resultMap) {
+    final Class<?> resultType = resultMap.getType();
+    if (!resultMap.getConstructorResultMappings().isEmpty() || hasTypeHandlerForResultObject(rsw, resultType)
+        || !(resultType.isInterface() || MetaClass.forClass(resultType, reflectorFactory).hasDefaultConstructor())) {
+      return false;
+    }
+    for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+      if (propertyMapping.getNestedQueryId() != null || propertyMapping.getNestedResultMapId() != null
+          || propertyMapping.getResultSet() != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * 复用结果对象时，将值为 NULL 的属性重置为 null 或基本类型的默认值
+   */
+  private void resetValue(MetaObject metaObject, String property) {
+    Class<?> setterType = metaObject.getSetterType(property);
+    metaObject.setValue(property, setterType.isPrimitive() ? PRIMITIVE_DEFAULTS.get(setterType) : null);
+  }
+
   private boolean shouldApplyAutomaticMappings(ResultMap resultMap, boolean isNested) {
     if (resultMap.getAutoMapping() != null) {
       return resultMap.getAutoMapping();
@@ -438,7 +632,17 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       if (propertyMapping.isCompositeResult()
           || (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH)))
           || propertyMapping.getResultSet() != null) {
-        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix);
+        final PrimitiveResultSetter primitiveSetter = getPrimitiveSetter(metaObject, propertyMapping);
+        if (primitiveSetter != null && primitiveSetter.supports(metaObject.getOriginalObject())) {
+          // 基本类型属性，不装箱直接调用 setter
+          if (primitiveSetter.apply(rsw.getResultSet(), column, metaObject.getOriginalObject())) {
+            foundValues = true;
+          } else if (reusingRowValue) {
+            resetValue(metaObject, propertyMapping.getProperty());
+          }
+          continue;
+        }
+        Object value = getPropertyMappingValue(rsw, metaObject, propertyMapping, lazyLoader, columnPrefix);
         // issue #541 make property optional
         final String property = propertyMapping.getProperty();
         if (property == null) {
@@ -453,26 +657,50 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         if (value != null || (configuration.isCallSettersOnNulls() && !metaObject.getSetterType(property).isPrimitive())) {
           // gcode issue #377, call setter on nulls (value is not 'found')
           metaObject.setValue(property, value);
+        } else if (reusingRowValue) {
+          resetValue(metaObject, property);
         }
       }
     }
     return foundValues;
   }
 
-  private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
+  private PrimitiveResultSetter getPrimitiveSetter(MetaObject metaObject, ResultMapping propertyMapping) {
+    PrimitiveResultSetter primitiveSetter = primitiveSetters.get(propertyMapping);
+    if (primitiveSetter == null && !primitiveSetters.containsKey(propertyMapping)) {
+      if (propertyMapping.getProperty() != null && propertyMapping.getNestedQueryId() == null
+          && propertyMapping.getNestedResultMapId() == null && propertyMapping.getResultSet() == null
+          && !propertyMapping.isCompositeResult() && metaObject.hasSetter(propertyMapping.getProperty())
+          && metaObject.getSetterType(propertyMapping.getProperty()).isPrimitive()) {
+        primitiveSetter = PrimitiveResultSetter.forProperty(metaObject, propertyMapping.getProperty(), propertyMapping.getTypeHandler());
+      }
+      primitiveSetters.put(propertyMapping, primitiveSetter);
+    }
+    return primitiveSetter;
+  }
+
+  private Object getPropertyMappingValue(ResultSetWrapper rsw, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
       throws SQLException {
     if (propertyMapping.getNestedQueryId() != null) {
-      return getNestedQueryMappingValue(rs, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
+      return getNestedQueryMappingValue(rsw.getResultSet(), metaResultObject, propertyMapping, lazyLoader, columnPrefix);
     } else if (propertyMapping.getResultSet() != null) {
-      addPendingChildRelation(rs, metaResultObject, propertyMapping);   // TODO is that OK?
+      addPendingChildRelation(rsw.getResultSet(), metaResultObject, propertyMapping);   // TODO is that OK?
       return DEFERRED;
     } else {
-      final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
       final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-      return typeHandler.getResult(rs, column);
+      final TypeHandler<?> typeHandler = getTypeHandler(rsw, propertyMapping, column);
+      return typeHandler.getResult(rsw.getResultSet(), column);
     }
   }
 
+  /**
+   * 获得读取列值的 TypeHandler，映射未指定 Java 类型（UnknownTypeHandler）时使用结果集按列元数据解析并缓存的 TypeHandler
+   */
+  private TypeHandler<?> getTypeHandler(ResultSetWrapper rsw, ResultMapping mapping, String column) {
+    final TypeHandler<?> typeHandler = mapping.getTypeHandler();
+    return typeHandler instanceof UnknownTypeHandler ? rsw.getUnknownTypeHandler(column) : typeHandler;
+  }
+
   private List<UnMappedColumnAutoMapping> createAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
     final String mapKey = resultMap.getId() + ":" + columnPrefix;
     List<UnMappedColumnAutoMapping> autoMapping = autoMappingsCache.get(mapKey);
@@ -498,7 +726,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           final Class<?> propertyType = metaObject.getSetterType(property);
           if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
             final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
-            autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive()));
+            final PrimitiveResultSetter primitiveSetter = propertyType.isPrimitive()
+                ? PrimitiveResultSetter.forProperty(metaObject, property, typeHandler) : null;
+            if (metaObject.getOriginalObject() instanceof CompactRowMap && property.indexOf('.') < 0 && property.indexOf('[') < 0) {
+              // 紧凑 Map 按列序号读取，按位置直接写入
+              final CompactRowMap.Schema schema = ((CompactRowMap) metaObject.getOriginalObject()).getSchema();
+              autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, false, null,
+                  schema, rsw.getColumnNames().indexOf(columnName) + 1, schema.slotOf(property)));
+            } else {
+              autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive(), primitiveSetter));
+            }
           } else {
             configuration.getAutoMappingUnknownColumnBehavior()
                 .doAction(mappedStatement, columnName, property, propertyType);
@@ -517,7 +754,28 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     List<UnMappedColumnAutoMapping> autoMapping = createAutomaticMappings(rsw, resultMap, metaObject, columnPrefix);
     boolean foundValues = false;
     if (!autoMapping.isEmpty()) {
+      final Object rowValue = metaObject.getOriginalObject();
+      final CompactRowMap rowMap = rowValue instanceof CompactRowMap ? (CompactRowMap) rowValue : null;
       for (UnMappedColumnAutoMapping mapping : autoMapping) {
+        if (rowMap != null && mapping.slot >= 0 && mapping.schema == rowMap.getSchema()) {
+          final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.columnIndex);
+          if (value != null) {
+            foundValues = true;
+          }
+          if (value != null || configuration.isCallSettersOnNulls() || reusingRowValue) {
+            rowMap.set(mapping.slot, value);
+          }
+          continue;
+        }
+        if (mapping.primitiveSetter != null && mapping.primitiveSetter.supports(metaObject.getOriginalObject())) {
+          // 基本类型属性，不装箱直接调用 setter
+          if (mapping.primitiveSetter.apply(rsw.getResultSet(), mapping.column, metaObject.getOriginalObject())) {
+            foundValues = true;
+          } else if (reusingRowValue) {
+            resetValue(metaObject, mapping.property);
+          }
+          continue;
+        }
         final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
         if (value != null) {
           foundValues = true;
@@ -525,6 +783,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         if (value != null || (configuration.isCallSettersOnNulls() && !mapping.primitive)) {
           // gcode issue #377, call setter on nulls (value is not 'found')
           metaObject.setValue(mapping.property, value);
+        } else if (reusingRowValue) {
+          resetValue(metaObject, mapping.property);
         }
       }
     }
@@ -589,15 +849,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     final List<Class<?>> constructorArgTypes = new ArrayList<>();
     final List<Object> constructorArgs = new ArrayList<>();
     Object resultObject = createResultObject(rsw, resultMap, constructorArgTypes, constructorArgs, columnPrefix);
-    if (resultObject != null && !hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
-      final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
-      for (ResultMapping propertyMapping : propertyMappings) {
-        // issue gcode #109 && issue #149
-        if (propertyMapping.getNestedQueryId() != null && propertyMapping.isLazy()) {
-          resultObject = configuration.getProxyFactory().createProxy(resultObject, lazyLoader, configuration, objectFactory, constructorArgTypes, constructorArgs);
-          break;
-        }
-      }
+    // issue gcode #109 && issue #149
+    if (resultObject != null && !hasTypeHandlerForResultObject(rsw, resultMap.getType()) && hasLazyNestedQueries(resultMap)) {
+      resultObject = configuration.getProxyFactory().createProxy(resultObject, lazyLoader, configuration, objectFactory, constructorArgTypes, constructorArgs);
     }
     this.useConstructorMappings = resultObject != null && !constructorArgTypes.isEmpty(); // set current mapping result
     return resultObject;
@@ -612,6 +866,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       return createPrimitiveResultObject(rsw, resultMap, columnPrefix);
     } else if (!constructorMappings.isEmpty()) {
       return createParameterizedResultObject(rsw, resultType, constructorMappings, constructorArgTypes, constructorArgs, columnPrefix);
+    } else if (resultType == Map.class && configuration.isCompactResultMaps() && !hasLazyNestedQueries(resultMap)) {
+      // 需要延迟加载代理的结果对象由代理工厂复制，不能使用紧凑 Map
+      return new CompactRowMap(rsw.getRowMapSchema());
     } else if (resultType.isInterface() || metaType.hasDefaultConstructor()) {
       return objectFactory.create(resultType);
     } else if (shouldApplyAutomaticMappings(resultMap, false)) {
@@ -620,6 +877,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     throw new ExecutorException("Do not know how to create an instance of " + resultType);
   }
 
+  private boolean hasLazyNestedQueries(ResultMap resultMap) {
+    for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+      if (propertyMapping.getNestedQueryId() != null && propertyMapping.isLazy()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   Object createParameterizedResultObject(ResultSetWrapper rsw, Class<?> resultType, List<ResultMapping> constructorMappings,
                                          List<Class<?>> constructorArgTypes, List<Object> constructorArgs, String columnPrefix) {
     boolean foundValues = false;
@@ -634,8 +900,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           final ResultMap resultMap = configuration.getResultMap(constructorMapping.getNestedResultMapId());
           value = getRowValue(rsw, resultMap, getColumnPrefix(columnPrefix, constructorMapping));
         } else {
-          final TypeHandler<?> typeHandler = constructorMapping.getTypeHandler();
-          value = typeHandler.getResult(rsw.getResultSet(), prependPrefix(column, columnPrefix));
+          final String prefixedColumn = prependPrefix(column, columnPrefix);
+          final TypeHandler<?> typeHandler = getTypeHandler(rsw, constructorMapping, prefixedColumn);
+          value = typeHandler.getResult(rsw.getResultSet(), prefixedColumn);
         }
       } catch (ResultMapException | SQLException e) {
         throw new ExecutorException("Could not process result for mapping: " + constructorMapping, e);
@@ -855,7 +1122,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     ResultSet resultSet = rsw.getResultSet();
     skipRows(resultSet, rowBounds);
     Object rowValue = previousRowValue;
-    while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
+    while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && nextRow(resultSet)) {
       final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
       final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
       Object partialObject = nestedResultObjects.get(rowKey);
@@ -1055,10 +1322,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
             prependPrefix(resultMapping.getColumnPrefix(), columnPrefix));
       } else if (resultMapping.getNestedQueryId() == null) {
         final String column = prependPrefix(resultMapping.getColumn(), columnPrefix);
-        final TypeHandler<?> th = resultMapping.getTypeHandler();
         List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
         // Issue #114
         if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
+          final TypeHandler<?> th = getTypeHandler(rsw, resultMapping, column);
           final Object value = th.getResult(rsw.getResultSet(), column);
           if (value != null || configuration.isReturnInstanceForEmptyRow()) {
             cacheKey.update(column);
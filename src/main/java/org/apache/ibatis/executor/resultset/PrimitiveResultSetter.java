@@ -0,0 +1,207 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.ibatis.executor.result.ResultMapException;
+import org.apache.ibatis.lang.UsesJava7;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.wrapper.BeanWrapper;
+import org.apache.ibatis.type.PrimitiveTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Maps a column to a primitive bean property without boxing: the value is read through a
+ * {@link PrimitiveTypeHandler} and passed to the setter through a method handle.
+ *
+ * 基本类型属性的映射：通过 PrimitiveTypeHandler 读取列值，再通过方法句柄调用 setter，避免装箱
+ *
+ * @since 3.5.2
+ */
+final class PrimitiveResultSetter {
+
+  static final int INT = 0;
+  static final int LONG = 1;
+  static final int DOUBLE = 2;
+  private static final int FLOAT = 3;
+  private static final int SHORT = 4;
+  private static final int BYTE = 5;
+  private static final int BOOLEAN = 6;
+
+  private final Class<?> targetType;
+  private final String property;
+  private final TypeHandler<?> typeHandler;
+  private final MethodHandle setter;
+  private final int kind;
+
+  private PrimitiveResultSetter(Class<?> targetType, String property, TypeHandler<?> typeHandler, MethodHandle setter, int kind) {
+    this.targetType = targetType;
+    this.property = property;
+    this.typeHandler = typeHandler;
+    this.setter = setter;
+    this.kind = kind;
+  }
+
+  /**
+   * @return The setter, or null if the property is not a primitive property of a bean that the type handler
+   *         can read without boxing
+   */
+  static PrimitiveResultSetter forProperty(MetaObject metaObject, String property, TypeHandler<?> typeHandler) {
+    if (!(typeHandler instanceof PrimitiveTypeHandler) || !(metaObject.getObjectWrapper() instanceof BeanWrapper)
+        || property.indexOf('.') >= 0 || property.indexOf('[') >= 0) {
+      return null;
+    }
+    Class<?> targetType = metaObject.getOriginalObject().getClass();
+    Reflector reflector = metaObject.getReflectorFactory().findForClass(targetType);
+    if (!reflector.hasSetter(property)) {
+      return null;
+    }
+    int kind = kindOf(reflector.getSetterType(property), typeHandler);
+    if (kind < 0 || !readsPrimitive(typeHandler, kind, String.class)) {
+      return null;
+    }
+    MethodHandle setter = reflector.getSetterHandle(property);
+    return setter == null ? null : new PrimitiveResultSetter(targetType, property, typeHandler, setter, kind);
+  }
+
+  /**
+   * @return true if the setter can be applied to the object (the result objects of a result map may have
+   *         different classes, e.g. lazy loading proxies)
+   */
+  boolean supports(Object target) {
+    return target.getClass() == targetType;
+  }
+
+  /**
+   * Reads the column and sets the property unless the column is null.
+   *
+   * @return true if a non null value was found
+   */
+  @UsesJava7 // 签名多态的 invokeExact 调用无法通过 API 签名检查
+  boolean apply(ResultSet rs, String column, Object target) throws SQLException {
+    try {
+      switch (kind) {
+        case INT: {
+          int value = ((PrimitiveTypeHandler.OfInt) typeHandler).getInt(rs, column);
+          if (rs.wasNull()) {
+            return false;
+          }
+          setter.invokeExact(target, value);
+          return true;
+        }
+        case LONG: {
+          long value = ((PrimitiveTypeHandler.OfLong) typeHandler).getLong(rs, column);
+          if (rs.wasNull()) {
+            return false;
+          }
+          setter.invokeExact(target, value);
+          return true;
+        }
+        case DOUBLE: {
+          double value = ((PrimitiveTypeHandler.OfDouble) typeHandler).getDouble(rs, column);
+          if (rs.wasNull()) {
+            return false;
+          }
+          setter.invokeExact(target, value);
+          return true;
+        }
+        case FLOAT: {
+          float value = ((PrimitiveTypeHandler.OfFloat) typeHandler).getFloat(rs, column);
+          if (rs.wasNull()) {
+            return false;
+          }
+          setter.invokeExact(target, value);
+          return true;
+        }
+        case SHORT: {
+          short value = ((PrimitiveTypeHandler.OfShort) typeHandler).getShort(rs, column);
+          if (rs.wasNull()) {
+            return false;
+          }
+          setter.invokeExact(target, value);
+          return true;
+        }
+        case BYTE: {
+          byte value = ((PrimitiveTypeHandler.OfByte) typeHandler).getByte(rs, column);
+          if (rs.wasNull()) {
+            return false;
+          }
+          setter.invokeExact(target, value);
+          return true;
+        }
+        default: {
+          boolean value = ((PrimitiveTypeHandler.OfBoolean) typeHandler).getBoolean(rs, column);
+          if (rs.wasNull()) {
+            return false;
+          }
+          setter.invokeExact(target, value);
+          return true;
+        }
+      }
+    } catch (SQLException e) {
+      throw new ResultMapException("Error attempting to get column '" + column + "' from result set.  Cause: " + e, e);
+    } catch (Throwable t) {
+      throw new ReflectionException("Could not set property '" + property + "' of '" + target.getClass() + "' Cause: " + t.toString(), t);
+    }
+  }
+
+  private static int kindOf(Class<?> propertyType, TypeHandler<?> typeHandler) {
+    if (propertyType == int.class && typeHandler instanceof PrimitiveTypeHandler.OfInt) {
+      return INT;
+    } else if (propertyType == long.class && typeHandler instanceof PrimitiveTypeHandler.OfLong) {
+      return LONG;
+    } else if (propertyType == double.class && typeHandler instanceof PrimitiveTypeHandler.OfDouble) {
+      return DOUBLE;
+    } else if (propertyType == float.class && typeHandler instanceof PrimitiveTypeHandler.OfFloat) {
+      return FLOAT;
+    } else if (propertyType == short.class && typeHandler instanceof PrimitiveTypeHandler.OfShort) {
+      return SHORT;
+    } else if (propertyType == byte.class && typeHandler instanceof PrimitiveTypeHandler.OfByte) {
+      return BYTE;
+    } else if (propertyType == boolean.class && typeHandler instanceof PrimitiveTypeHandler.OfBoolean) {
+      return BOOLEAN;
+    }
+    return -1;
+  }
+
+  /**
+   * 子类覆盖了 getNullableResult 时不能绕过它（ColumnarFrame 也使用这个判断）
+   */
+  static boolean readsPrimitive(TypeHandler<?> typeHandler, int kind, Class<?> columnType) {
+    String[] names = { "getInt", "getLong", "getDouble", "getFloat", "getShort", "getByte", "getBoolean" };
+    Class<?> handlerType = typeHandler.getClass();
+    try {
+      Method primitiveRead = handlerType.getMethod(names[kind], ResultSet.class, columnType);
+      Method boxedRead;
+      try {
+        boxedRead = handlerType.getMethod("getNullableResult", ResultSet.class, columnType);
+      } catch (NoSuchMethodException e) {
+        // 没有继承 BaseTypeHandler
+        boxedRead = handlerType.getMethod("getResult", ResultSet.class, columnType);
+      }
+      return boxedRead.getDeclaringClass() == primitiveRead.getDeclaringClass();
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+}
@@ -46,8 +46,11 @@ public class ResultSetWrapper {
   private final List<String> classNames = new ArrayList<>();
   private final List<JdbcType> jdbcTypes = new ArrayList<>();
   private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<>();
+  // 映射中未知类型（UnknownTypeHandler）的列，按列元数据解析出的 TypeHandler
+  private final Map<String, TypeHandler<?>> unknownTypeHandlerMap = new HashMap<>();
   private final Map<String, List<String>> mappedColumnNamesMap = new HashMap<>();
   private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<>();
+  private CompactRowMap.Schema rowMapSchema;
 
   public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
     super();
@@ -78,6 +81,17 @@ public class ResultSetWrapper {
     return jdbcTypes;
   }
 
+  /**
+   * @return The column name index shared by the compact row maps of this result set
+   * @since 3.5.2
+   */
+  public CompactRowMap.Schema getRowMapSchema() {
+    if (rowMapSchema == null) {
+      rowMapSchema = new CompactRowMap.Schema(columnNames);
+    }
+    return rowMapSchema;
+  }
+
   public JdbcType getJdbcType(String columnName) {
     for (int i = 0 ; i < columnNames.size(); i++) {
       if (columnNames.get(i).equalsIgnoreCase(columnName)) {
@@ -129,6 +143,46 @@ public class ResultSetWrapper {
     return handler;
   }
 
+  /**
+   * Gets the type handler to read a column mapped with the {@link UnknownTypeHandler} (the Java type of the
+   * property is not known). The handler is resolved from the column metadata once for this result set,
+   * instead of for every row.
+   *
+   * @param columnName The column to read
+   * @return The type handler matching the column class and JDBC type, or an ObjectTypeHandler
+   * @since 3.5.2
+   */
+  public TypeHandler<?> getUnknownTypeHandler(String columnName) {
+    TypeHandler<?> handler = unknownTypeHandlerMap.get(columnName);
+    if (handler == null) {
+      handler = resolveUnknownTypeHandler(columnName);
+      unknownTypeHandlerMap.put(columnName, handler);
+    }
+    return handler;
+  }
+
+  private TypeHandler<?> resolveUnknownTypeHandler(String columnName) {
+    TypeHandler<?> handler = null;
+    for (int i = 0; i < columnNames.size(); i++) {
+      if (columnNames.get(i).equalsIgnoreCase(columnName)) {
+        final Class<?> javaType = resolveClass(classNames.get(i));
+        final JdbcType jdbcType = jdbcTypes.get(i);
+        if (javaType != null && jdbcType != null) {
+          handler = typeHandlerRegistry.getTypeHandler(javaType, jdbcType);
+        } else if (javaType != null) {
+          handler = typeHandlerRegistry.getTypeHandler(javaType);
+        } else if (jdbcType != null) {
+          handler = typeHandlerRegistry.getTypeHandler(jdbcType);
+        }
+        break;
+      }
+    }
+    if (handler == null || handler instanceof UnknownTypeHandler) {
+      handler = new ObjectTypeHandler();
+    }
+    return handler;
+  }
+
   private Class<?> resolveClass(String className) {
     try {
       // #699 className could be null
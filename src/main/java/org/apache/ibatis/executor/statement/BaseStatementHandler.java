@@ -151,6 +151,15 @@ public abstract class BaseStatementHandler implements StatementHandler {
       stmt.setFetchSize(fetchSize);
       return;
     }
+    FetchSizeAdvisor fetchSizeAdvisor = configuration.getFetchSizeAdvisor();
+    if (fetchSizeAdvisor != null) {
+      // 根据历史结果的行数和行宽自适应调整
+      fetchSize = fetchSizeAdvisor.getFetchSize(mappedStatement.getId());
+      if (fetchSize != null) {
+        stmt.setFetchSize(fetchSize);
+        return;
+      }
+    }
     Integer defaultFetchSize = configuration.getDefaultFetchSize();
     if (defaultFetchSize != null) {
       stmt.setFetchSize(defaultFetchSize);
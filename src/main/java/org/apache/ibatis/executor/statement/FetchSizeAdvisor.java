@@ -0,0 +1,178 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.statement;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * Chooses the fetch size of the statements that do not declare one from the shape of their previous results.
+ * <p>
+ * For each mapped statement it keeps a decaying peak of the number of rows returned and an estimate of the
+ * width of a row (from the JDBC types of the columns). The advised fetch size is large enough to read the
+ * expected rows in a single round trip, but never buffers more than about {@value #BUFFER_SIZE} bytes,
+ * and is kept within the configured bounds. Statements without history use the default fetch size.
+ *
+ * 根据语句历史结果的行数和行宽自适应调整 fetchSize
+ *
+ * @since 3.5.2
+ */
+public class FetchSizeAdvisor {
+
+  static final int BUFFER_SIZE = 1024 * 1024;
+
+  private static final int MAX_STATEMENTS = 4096;
+  // 行数峰值每次执行的衰减系数
+  private static final double DECAY = 0.9;
+  // 行宽的指数移动平均系数
+  private static final double ALPHA = 0.2;
+
+  private final int minFetchSize;
+  private final int maxFetchSize;
+  private final Map<String, Shape> shapes = new ConcurrentHashMap<>();
+
+  private FetchSizeAdvisor(int minFetchSize, int maxFetchSize) {
+    this.minFetchSize = minFetchSize;
+    this.maxFetchSize = maxFetchSize;
+  }
+
+  /**
+   * @return A new advisor, or null if adaptive fetch size is disabled
+   */
+  public static FetchSizeAdvisor create(boolean enabled, int minFetchSize, int maxFetchSize) {
+    if (!enabled) {
+      return null;
+    }
+    int min = Math.max(minFetchSize, 1);
+    return new FetchSizeAdvisor(min, Math.max(maxFetchSize, min));
+  }
+
+  public int getMinFetchSize() {
+    return minFetchSize;
+  }
+
+  public int getMaxFetchSize() {
+    return maxFetchSize;
+  }
+
+  /**
+   * @param statementId The id of a mapped statement
+   * @return The advised fetch size, or null if the statement has not returned any result yet
+   */
+  public Integer getFetchSize(String statementId) {
+    Shape shape = shapes.get(statementId);
+    return shape == null ? null : shape.fetchSize;
+  }
+
+  /**
+   * Records the shape of the results returned by an execution of a statement. The fetch size applies to each
+   * result set of the statement, so a statement returning several result sets records the rows of the largest
+   * one and the width of the widest one.
+   *
+   * @param statementId The id of the mapped statement
+   * @param rows The number of rows read from a result set
+   * @param rowWidth The estimated width of a row in bytes
+   */
+  public void record(String statementId, long rows, int rowWidth) {
+    Shape shape = shapes.get(statementId);
+    if (shape == null) {
+      if (shapes.size() >= MAX_STATEMENTS) {
+        shapes.clear();
+      }
+      shape = shapes.computeIfAbsent(statementId, k -> new Shape());
+    }
+    shape.record(rows, rowWidth);
+  }
+
+  /**
+   * Estimates the width in bytes of a row from the JDBC types of its columns.
+   */
+  public static int estimateRowWidth(List<JdbcType> jdbcTypes) {
+    int width = 0;
+    for (JdbcType jdbcType : jdbcTypes) {
+      width += estimateColumnWidth(jdbcType);
+    }
+    return Math.max(width, 1);
+  }
+
+  private static int estimateColumnWidth(JdbcType jdbcType) {
+    if (jdbcType == null) {
+      return 32;
+    }
+    switch (jdbcType) {
+      case BIT:
+      case BOOLEAN:
+      case TINYINT:
+        return 1;
+      case SMALLINT:
+        return 2;
+      case INTEGER:
+      case REAL:
+      case FLOAT:
+      case DATE:
+        return 4;
+      case BIGINT:
+      case DOUBLE:
+      case TIME:
+      case TIMESTAMP:
+        return 8;
+      case DECIMAL:
+      case NUMERIC:
+      case TIME_WITH_TIMEZONE:
+      case TIMESTAMP_WITH_TIMEZONE:
+        return 16;
+      case CHAR:
+      case NCHAR:
+      case VARCHAR:
+      case NVARCHAR:
+        return 64;
+      case LONGVARCHAR:
+      case LONGNVARCHAR:
+      case BINARY:
+      case VARBINARY:
+      case SQLXML:
+        return 1024;
+      case LONGVARBINARY:
+      case BLOB:
+      case CLOB:
+      case NCLOB:
+        // 驱动通常以定位符读取 LOB，但仍按较大宽度估算
+        return 4096;
+      default:
+        return 32;
+    }
+  }
+
+  private class Shape {
+    private double peakRows;
+    private double rowWidth;
+    private volatile Integer fetchSize;
+
+    private synchronized void record(long rows, int width) {
+      peakRows = Math.max(rows, peakRows * DECAY);
+      rowWidth = rowWidth == 0 ? width : rowWidth + ALPHA * (width - rowWidth);
+      // 多取一行，使驱动在同一次往返中得知结果集已结束
+      long wanted = (long) Math.ceil(peakRows) + 1;
+      long affordable = (long) (BUFFER_SIZE / Math.max(rowWidth, 1));
+      long size = Math.min(wanted, affordable);
+      fetchSize = (int) Math.max(minFetchSize, Math.min(maxFetchSize, size));
+    }
+  }
+
+}
@@ -19,8 +19,15 @@ import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.jdbc.SqlLogger;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.metrics.ExecutionPhase;
+import org.apache.ibatis.metrics.MetricsRegistry;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 
@@ -36,9 +43,13 @@ import java.util.List;
 public class RoutingStatementHandler implements StatementHandler {
 
   private final StatementHandler delegate;
+  private final MappedStatement mappedStatement;
+  // 准备阶段的耗时（仅在配置了统计注册表时记录）
+  private long prepareNanos;
 
   //
   public RoutingStatementHandler(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
+    this.mappedStatement = ms;
 
     switch (ms.getStatementType()) {
       case STATEMENT:
@@ -58,12 +69,28 @@ public class RoutingStatementHandler implements StatementHandler {
 
   @Override
   public Statement prepare(Connection connection, Integer transactionTimeout) throws SQLException {
-    return delegate.prepare(connection, transactionTimeout);
+    if (mappedStatement.getConfiguration().getMetricsRegistry() == null) {
+      return delegate.prepare(connection, transactionTimeout);
+    }
+    long start = System.nanoTime();
+    Statement statement = delegate.prepare(connection, transactionTimeout);
+    prepareNanos += System.nanoTime() - start;
+    return statement;
   }
 
   @Override
   public void parameterize(Statement statement) throws SQLException {
-    delegate.parameterize(statement);
+    recordParameterValues();
+    MetricsRegistry metricsRegistry = mappedStatement.getConfiguration().getMetricsRegistry();
+    if (metricsRegistry == null) {
+      delegate.parameterize(statement);
+    } else {
+      // 创建语句（复用时不创建）和设置参数都计入准备阶段
+      long start = System.nanoTime();
+      delegate.parameterize(statement);
+      prepareNanos += System.nanoTime() - start;
+      metricsRegistry.recordPhase(mappedStatement.getId(), ExecutionPhase.PREPARE, prepareNanos);
+    }
   }
 
   @Override
@@ -73,17 +100,66 @@ public class RoutingStatementHandler implements StatementHandler {
 
   @Override
   public int update(Statement statement) throws SQLException {
-    return delegate.update(statement);
+    SqlLogger sqlLogger = mappedStatement.getConfiguration().getSqlLogger();
+    MetricsRegistry metricsRegistry = mappedStatement.getConfiguration().getMetricsRegistry();
+    if (sqlLogger == null && metricsRegistry == null) {
+      return delegate.update(statement);
+    }
+    long start = System.nanoTime();
+    int updates = delegate.update(statement);
+    long elapsedNanos = System.nanoTime() - start;
+    if (metricsRegistry != null) {
+      String statementId = mappedStatement.getId();
+      metricsRegistry.recordPhase(statementId, ExecutionPhase.EXECUTE, elapsedNanos);
+      metricsRegistry.recordRows(statementId, updates);
+      metricsRegistry.recordExecution(statementId, delegate.getBoundSql(), prepareNanos + elapsedNanos);
+    }
+    if (sqlLogger != null) {
+      log(sqlLogger, elapsedNanos, updates, false);
+    }
+    return updates;
   }
 
   @Override
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
-    return delegate.query(statement, resultHandler);
+    SqlLogger sqlLogger = mappedStatement.getConfiguration().getSqlLogger();
+    MetricsRegistry metricsRegistry = mappedStatement.getConfiguration().getMetricsRegistry();
+    if (sqlLogger == null && metricsRegistry == null) {
+      return delegate.query(statement, resultHandler);
+    }
+    long start = System.nanoTime();
+    List<E> results = delegate.query(statement, resultHandler);
+    long elapsedNanos = System.nanoTime() - start;
+    if (metricsRegistry != null) {
+      // 读取和映射结果的耗时由 DefaultResultSetHandler 记录
+      String statementId = mappedStatement.getId();
+      metricsRegistry.recordPhase(statementId, ExecutionPhase.EXECUTE, elapsedNanos - getResultHandlingNanos());
+      metricsRegistry.recordExecution(statementId, delegate.getBoundSql(), prepareNanos + elapsedNanos);
+    }
+    if (sqlLogger != null) {
+      log(sqlLogger, elapsedNanos, resultHandler == null ? results.size() : -1, true);
+    }
+    return results;
   }
 
   @Override
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
-    return delegate.queryCursor(statement);
+    SqlLogger sqlLogger = mappedStatement.getConfiguration().getSqlLogger();
+    MetricsRegistry metricsRegistry = mappedStatement.getConfiguration().getMetricsRegistry();
+    if (sqlLogger == null && metricsRegistry == null) {
+      return delegate.queryCursor(statement);
+    }
+    long start = System.nanoTime();
+    Cursor<E> cursor = delegate.queryCursor(statement);
+    long elapsedNanos = System.nanoTime() - start;
+    if (metricsRegistry != null) {
+      metricsRegistry.recordPhase(mappedStatement.getId(), ExecutionPhase.EXECUTE, elapsedNanos);
+    }
+    if (sqlLogger != null) {
+      // 游标的行是在之后逐行读取的，只记录执行时间
+      log(sqlLogger, elapsedNanos, -1, true);
+    }
+    return cursor;
   }
 
   @Override
@@ -95,4 +171,40 @@ public class RoutingStatementHandler implements StatementHandler {
   public ParameterHandler getParameterHandler() {
     return delegate.getParameterHandler();
   }
+
+  private long getResultHandlingNanos() {
+    if (delegate instanceof BaseStatementHandler) {
+      ResultSetHandler resultSetHandler = ((BaseStatementHandler) delegate).resultSetHandler;
+      if (resultSetHandler instanceof DefaultResultSetHandler) {
+        return ((DefaultResultSetHandler) resultSetHandler).getHandlingNanos();
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * 语句可能被记录日志时，记录设置参数时使用的值，而不是执行后再读取（selectKey AFTER、生成主键可能会修改参数对象）
+   */
+  private void recordParameterValues() {
+    SqlLogger sqlLogger = mappedStatement.getConfiguration().getSqlLogger();
+    if (sqlLogger != null && sqlLogger.mayLog(mappedStatement.getStatementLog())) {
+      ParameterHandler parameterHandler = delegate.getParameterHandler();
+      if (parameterHandler instanceof DefaultParameterHandler) {
+        ((DefaultParameterHandler) parameterHandler).recordParameterValues();
+      }
+    }
+  }
+
+  /**
+   * 按采样率或慢 SQL 阈值记录语句日志
+   */
+  private void log(SqlLogger sqlLogger, long elapsedNanos, int count, boolean query) {
+    Log statementLog = mappedStatement.getStatementLog();
+    if (sqlLogger.isLogged(statementLog, elapsedNanos)) {
+      ParameterHandler parameterHandler = delegate.getParameterHandler();
+      Object[] parameters = parameterHandler instanceof DefaultParameterHandler
+          ? ((DefaultParameterHandler) parameterHandler).getParameterValues() : null;
+      sqlLogger.log(statementLog, delegate.getBoundSql().getSql(), parameters, elapsedNanos, count, query);
+    }
+  }
 }
@@ -0,0 +1,237 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * A build time index of the classes of some packages, consulted by {@link ResolverUtil} before scanning the classpath.
+ * <p>
+ * The index is read from all the {@value #RESOURCE} resources of the class loader. Each one declares the packages
+ * it covers (including their sub packages) and lists their classes with the names of their super types and
+ * annotations, so that {@link ResolverUtil.IsA} and {@link ResolverUtil.AnnotatedWith} tests are answered
+ * without walking directories or jars and without loading the classes that do not match.
+ * Packages that are not covered by any index are still scanned through the {@link VFS}.
+ * <pre>
+ * package org.example.mapper
+ * class org.example.mapper.BlogMapper org.example.mapper.BaseMapper @org.apache.ibatis.annotations.Mapper
+ * </pre>
+ * The index is generated at build time with {@link #write(Writer, ClassLoader, String...)}, it must be regenerated
+ * whenever classes are added to or removed from the indexed packages.
+ *
+ * 类索引：构建时生成，记录指定包下的类及其父类型、注解，用于代替扫描类路径
+ */
+public class ResolverIndex {
+
+  /**
+   * Name of the index resources.
+   */
+  public static final String RESOURCE = "META-INF/mybatis/resolver.index";
+
+  private static final Log log = LogFactory.getLog(ResolverIndex.class);
+
+  private static final Map<ClassLoader, ResolverIndex> indexes = new WeakHashMap<>();
+
+  private final Set<String> packages = new LinkedHashSet<>();
+  private final List<Entry> entries = new ArrayList<>();
+
+  /**
+   * @return The index of all the {@value #RESOURCE} resources of the class loader, read once
+   */
+  public static ResolverIndex getInstance(ClassLoader classLoader) {
+    synchronized (indexes) {
+      ResolverIndex index = indexes.get(classLoader);
+      if (index == null) {
+        index = load(classLoader);
+        indexes.put(classLoader, index);
+      }
+      return index;
+    }
+  }
+
+  private static ResolverIndex load(ClassLoader classLoader) {
+    ResolverIndex index = new ResolverIndex();
+    try {
+      Enumeration<URL> urls = classLoader == null ? ClassLoader.getSystemResources(RESOURCE) : classLoader.getResources(RESOURCE);
+      while (urls.hasMoreElements()) {
+        URL url = urls.nextElement();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+          index.read(reader);
+        }
+        if (log.isDebugEnabled()) {
+          log.debug("Loaded class index " + url);
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Could not read class index, packages will be scanned. Cause: " + e);
+      return new ResolverIndex();
+    }
+    return index;
+  }
+
+  private void read(BufferedReader reader) throws IOException {
+    String line;
+    while ((line = reader.readLine()) != null) {
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      String[] tokens = line.split("\\s+");
+      if ("package".equals(tokens[0]) && tokens.length == 2) {
+        packages.add(tokens[1]);
+      } else if ("class".equals(tokens[0]) && tokens.length >= 2) {
+        Set<String> superTypes = new TreeSet<>();
+        Set<String> annotations = new TreeSet<>();
+        for (int i = 2; i < tokens.length; i++) {
+          if (tokens[i].startsWith("@")) {
+            annotations.add(tokens[i].substring(1));
+          } else {
+            superTypes.add(tokens[i]);
+          }
+        }
+        entries.add(new Entry(tokens[1], superTypes, annotations));
+      }
+    }
+  }
+
+  /**
+   * @param packageName A package name
+   * @return The classes of the package and its sub packages, or null if the package is not covered by the index
+   */
+  public List<Entry> getClasses(String packageName) {
+    if (!isIndexed(packageName)) {
+      return null;
+    }
+    String prefix = packageName + ".";
+    List<Entry> result = new ArrayList<>();
+    for (Entry entry : entries) {
+      if (entry.getClassName().startsWith(prefix)) {
+        result.add(entry);
+      }
+    }
+    return result;
+  }
+
+  private boolean isIndexed(String packageName) {
+    for (String indexed : packages) {
+      if (packageName.equals(indexed) || packageName.startsWith(indexed + ".")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Writes the index of the given packages, found by scanning the classpath.
+   */
+  public static void write(Writer writer, ClassLoader classLoader, String... packageNames) {
+    PrintWriter out = new PrintWriter(writer);
+    out.println("# MyBatis class index, generated at build time");
+    ResolverUtil<Object> resolverUtil = new ResolverUtil<>();
+    resolverUtil.setClassLoader(classLoader);
+    for (String packageName : packageNames) {
+      out.println("package " + packageName);
+      // 扫描前忽略已有的索引
+      resolverUtil.scan(new ResolverUtil.IsA(Object.class), packageName);
+    }
+    Set<String> lines = new TreeSet<>();
+    for (Class<?> type : resolverUtil.getClasses()) {
+      StringBuilder line = new StringBuilder("class ").append(type.getName());
+      Set<String> superTypes = new TreeSet<>();
+      collectSuperTypes(type, superTypes);
+      for (String superType : superTypes) {
+        line.append(' ').append(superType);
+      }
+      for (Annotation annotation : type.getAnnotations()) {
+        line.append(" @").append(annotation.annotationType().getName());
+      }
+      lines.add(line.toString());
+    }
+    for (String line : lines) {
+      out.println(line);
+    }
+    out.flush();
+  }
+
+  private static void collectSuperTypes(Class<?> type, Set<String> superTypes) {
+    Class<?> superclass = type.getSuperclass();
+    if (superclass != null && superclass != Object.class && superTypes.add(superclass.getName())) {
+      collectSuperTypes(superclass, superTypes);
+    }
+    for (Class<?> superInterface : type.getInterfaces()) {
+      if (superTypes.add(superInterface.getName())) {
+        collectSuperTypes(superInterface, superTypes);
+      }
+    }
+  }
+
+  /**
+   * An indexed class.
+   */
+  public static class Entry {
+    private final String className;
+    private final Set<String> superTypes;
+    private final Set<String> annotations;
+
+    Entry(String className, Set<String> superTypes, Set<String> annotations) {
+      this.className = className;
+      this.superTypes = Collections.unmodifiableSet(superTypes);
+      this.annotations = Collections.unmodifiableSet(annotations);
+    }
+
+    public String getClassName() {
+      return className;
+    }
+
+    /**
+     * @return The names of all the super classes (except Object) and interfaces of the class
+     */
+    public Set<String> getSuperTypes() {
+      return superTypes;
+    }
+
+    /**
+     * @return The names of the annotations present on the class, including inherited ones
+     */
+    public Set<String> getAnnotations() {
+      return annotations;
+    }
+
+    public boolean isA(String typeName) {
+      return className.equals(typeName) || Object.class.getName().equals(typeName) || superTypes.contains(typeName);
+    }
+  }
+
+}
@@ -224,12 +224,32 @@ public class ResolverUtil<T> {
    * Each class is offered up to the Test as it is discovered, and if the Test returns
    * true the class is retained.  Accumulated clashses can be fetched by calling
    * {@link #getClasses()}.
+   * <p>
+   * When the package is covered by a {@link ResolverIndex}, the classes are taken from the index
+   * instead of scanning the classpath, and only the classes that may match the test are loaded.
    *
    * @param test an instance of {@link Test} that will be used to filter classes
    * @param packageName the name of the package from which to start scanning for
    *        classes, e.g. {@code net.sourceforge.stripes}
    */
   public ResolverUtil<T> find(Test test, String packageName) {
+    // 优先使用构建时生成的类索引
+    List<ResolverIndex.Entry> indexed = ResolverIndex.getInstance(getClassLoader()).getClasses(packageName);
+    if (indexed != null) {
+      for (ResolverIndex.Entry entry : indexed) {
+        if (mayMatch(test, entry)) {
+          addIfMatching(test, entry.getClassName().replace('.', '/') + ".class");
+        }
+      }
+      return this;
+    }
+    return scan(test, packageName);
+  }
+
+  /**
+   * Scans the classpath for the classes of a package, ignoring the {@link ResolverIndex}.
+   */
+  public ResolverUtil<T> scan(Test test, String packageName) {
     // 根据包名获得包路径  "." -> "/"
     String path = getPackagePath(packageName);
 
@@ -263,6 +283,19 @@ public class ResolverUtil<T> {
     return packageName == null ? null : packageName.replace('.', '/');
   }
 
+  /**
+   * Checks an indexed class against the tests that can be answered from the index, without loading the class.
+   */
+  private boolean mayMatch(Test test, ResolverIndex.Entry entry) {
+    if (test instanceof IsA) {
+      return entry.isA(((IsA) test).parent.getName());
+    }
+    if (test instanceof AnnotatedWith) {
+      return entry.getAnnotations().contains(((AnnotatedWith) test).annotation.getName());
+    }
+    return true;
+  }
+
   /**
    * Add the class designated by the fully qualified class name provided to the set of
    * resolved classes if and only if it is approved by the Test supplied.
@@ -0,0 +1,304 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.logging.jdbc;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.util.StringTokenizer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.reflection.ArrayUtil;
+
+/**
+ * Statement logging without JDBC proxies.
+ * <p>
+ * Unlike {@link ConnectionLogger} and the other proxies, which log every JDBC call when the statement log
+ * is debug enabled, this logger is called once after a statement has been executed and writes a single line
+ * with the SQL, the parameters, the elapsed time and the number of rows:
+ * <ul>
+ * <li>{@code sampleRate}: 1 in N statements is logged at debug level (when the statement log is debug enabled).</li>
+ * <li>{@code slowThreshold}: statements that take longer (in milliseconds) are always logged at warn level.</li>
+ * <li>{@code async}: the lines are formatted and written by a background thread through a bounded ring buffer;
+ * when the buffer is full the lines are dropped and the number of dropped lines is reported later.
+ * The thread is started with the first line and stopped by {@link #shutdown()}.</li>
+ * </ul>
+ * Nothing is formatted for statements that are not logged. For the statements that may be logged (see
+ * {@link #mayLog(Log)}), the parameter handler keeps the values it sets, which are not evaluated again.
+ *
+ * 无代理的 SQL 日志：语句执行后按采样率或慢查询阈值决定是否记录，可以通过环形缓冲区异步写出
+ *
+ * @since 3.5.2
+ */
+public class SqlLogger {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final int sampleRate;
+  private final long slowThresholdNanos;
+  private final boolean async;
+
+  private SqlLogger(int sampleRate, long slowThreshold, boolean async) {
+    this.sampleRate = sampleRate;
+    this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThreshold);
+    this.async = async;
+  }
+
+  /**
+   * @param sampleRate Log 1 in N statements at debug level, 0 to disable sampling
+   * @param slowThreshold Log statements slower than this many milliseconds at warn level, 0 to disable
+   * @param async Write through a background thread
+   * @return The logger, or null if both sampling and slow statement logging are disabled
+   */
+  public static SqlLogger create(int sampleRate, long slowThreshold, boolean async) {
+    if (sampleRate <= 0 && slowThreshold <= 0) {
+      return null;
+    }
+    return new SqlLogger(Math.max(sampleRate, 0), Math.max(slowThreshold, 0), async);
+  }
+
+  public int getSampleRate() {
+    return sampleRate;
+  }
+
+  public long getSlowThreshold() {
+    return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+  }
+
+  public boolean isAsync() {
+    return async;
+  }
+
+  /**
+   * Tells, before a statement is executed, whether it may be logged once its execution time is known.
+   * <p>
+   * 执行前判断语句是否可能被记录，用于决定是否捕获参数值
+   *
+   * @return true if a statement of this log may be logged, depending on its execution time
+   */
+  public boolean mayLog(Log statementLog) {
+    return slowThresholdNanos > 0 || sampleRate > 0 && statementLog.isDebugEnabled();
+  }
+
+  /**
+   * @return true if a statement that took the given time has to be logged
+   */
+  public boolean isLogged(Log statementLog, long elapsedNanos) {
+    if (isSlow(elapsedNanos)) {
+      return true;
+    }
+    return sampleRate > 0 && statementLog.isDebugEnabled()
+        && (sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0);
+  }
+
+  /**
+   * Logs an executed statement, to be called when {@link #isLogged(Log, long)} returned true.
+   *
+   * @param statementLog The log of the mapped statement
+   * @param sql The SQL
+   * @param parameters The parameter values, or null if unknown
+   * @param elapsedNanos The execution time
+   * @param count The number of rows returned (for a query) or updated, or -1 if unknown
+   * @param query true for a query
+   */
+  public void log(Log statementLog, String sql, Object[] parameters, long elapsedNanos, int count, boolean query) {
+    Entry entry = new Entry(statementLog, isSlow(elapsedNanos), sql, parameters, elapsedNanos, count, query);
+    if (async) {
+      AsyncWriter.submit(entry);
+    } else {
+      entry.write();
+    }
+  }
+
+  /**
+   * Writes the pending lines of the asynchronous loggers and stops the background thread, for instance when
+   * the application is undeployed. The thread is started again by the next asynchronous line.
+   * <p>
+   * 写出缓冲区中剩余的日志并停止后台线程
+   *
+   * @param timeout The maximum time to wait for the pending lines to be written, in milliseconds
+   * @return true if the thread has stopped (or was not running)
+   * @throws InterruptedException If interrupted while waiting
+   */
+  public static boolean shutdown(long timeout) throws InterruptedException {
+    return AsyncWriter.shutdown(timeout);
+  }
+
+  private boolean isSlow(long elapsedNanos) {
+    return slowThresholdNanos > 0 && elapsedNanos >= slowThresholdNanos;
+  }
+
+  private static final class Entry {
+    private final Log log;
+    private final boolean slow;
+    private final String sql;
+    private final Object[] parameters;
+    private final long elapsedNanos;
+    private final int count;
+    private final boolean query;
+
+    private Entry(Log log, boolean slow, String sql, Object[] parameters, long elapsedNanos, int count, boolean query) {
+      this.log = log;
+      this.slow = slow;
+      this.sql = sql;
+      this.parameters = parameters;
+      this.elapsedNanos = elapsedNanos;
+      this.count = count;
+      this.query = query;
+    }
+
+    private void write() {
+      if (slow) {
+        log.warn(format());
+      } else {
+        log.debug(format());
+      }
+    }
+
+    private String format() {
+      StringBuilder builder = new StringBuilder(128);
+      builder.append(slow ? "==> Slow statement (" : "==> Executed (");
+      builder.append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos)).append(" ms): ");
+      StringTokenizer whitespaceStripper = new StringTokenizer(sql);
+      while (whitespaceStripper.hasMoreTokens()) {
+        builder.append(whitespaceStripper.nextToken());
+        if (whitespaceStripper.hasMoreTokens()) {
+          builder.append(' ');
+        }
+      }
+      if (parameters != null) {
+        builder.append(" | Parameters: ");
+        for (int i = 0; i < parameters.length; i++) {
+          if (i > 0) {
+            builder.append(", ");
+          }
+          Object value = parameters[i];
+          if (value == null) {
+            builder.append("null");
+          } else {
+            builder.append(objectValueString(value)).append('(').append(value.getClass().getSimpleName()).append(')');
+          }
+        }
+      }
+      if (count >= 0) {
+        builder.append(query ? " | Total: " : " | Updates: ").append(count);
+      }
+      return builder.toString();
+    }
+
+    private static String objectValueString(Object value) {
+      if (value instanceof Array) {
+        try {
+          return ArrayUtil.toString(((Array) value).getArray());
+        } catch (SQLException e) {
+          return value.toString();
+        }
+      }
+      return value.toString();
+    }
+  }
+
+  /**
+   * Shared daemon thread that formats and writes the entries of all asynchronous SQL loggers.
+   */
+  private static final class AsyncWriter implements Runnable {
+
+    private static final BlockingQueue<Entry> BUFFER = new ArrayBlockingQueue<>(BUFFER_SIZE);
+    private static final AtomicLong DROPPED = new AtomicLong();
+
+    // 停止写线程的标记条目，排在已提交的条目之后
+    private static final Entry STOP = new Entry(null, false, null, null, 0, -1, false);
+
+    // 当前的写线程，第一次提交时启动，shutdown 后置空
+    private static volatile AsyncWriter current;
+
+    private final Thread thread;
+
+    private AsyncWriter() {
+      thread = new Thread(this, "mybatis-sql-log");
+      thread.setDaemon(true);
+    }
+
+    static void submit(Entry entry) {
+      if (current == null) {
+        start();
+      }
+      if (!BUFFER.offer(entry)) {
+        // 缓冲区已满，丢弃并计数
+        DROPPED.incrementAndGet();
+      }
+    }
+
+    private static synchronized void start() {
+      if (current == null) {
+        AsyncWriter writer = new AsyncWriter();
+        writer.thread.start();
+        current = writer;
+      }
+    }
+
+    /**
+     * 不中断写线程（可能正在写日志），而是提交一个停止标记，写线程写完之前的条目后退出。
+     * 持有锁期间新的写线程不会启动，所以只有当前的写线程会读到停止标记
+     */
+    static synchronized boolean shutdown(long timeout) throws InterruptedException {
+      AsyncWriter writer = current;
+      if (writer == null) {
+        return true;
+      }
+      current = null;
+      long deadline = System.currentTimeMillis() + timeout;
+      if (!BUFFER.offer(STOP, timeout, TimeUnit.MILLISECONDS)) {
+        return false;
+      }
+      writer.thread.join(Math.max(deadline - System.currentTimeMillis(), 1));
+      return !writer.thread.isAlive();
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        Entry entry;
+        try {
+          entry = BUFFER.take();
+        } catch (InterruptedException e) {
+          return;
+        }
+        if (entry == STOP) {
+          return;
+        }
+        write(entry);
+      }
+    }
+
+    private static void write(Entry entry) {
+      try {
+        long dropped = DROPPED.getAndSet(0);
+        if (dropped > 0) {
+          entry.log.warn("==> " + dropped + " SQL log entries dropped because the log buffer was full");
+        }
+        entry.write();
+      } catch (RuntimeException e) {
+        // 日志失败不能影响后续条目
+      }
+    }
+  }
+
+}
@@ -18,8 +18,11 @@ package org.apache.ibatis.mapping;
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.cache.CacheWeigher;
 import org.apache.ibatis.cache.decorators.*;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
 
@@ -37,10 +40,16 @@ public class CacheBuilder {
   private Class<? extends Cache> implementation;
   private final List<Class<? extends Cache>> decorators;
   private Integer size;
+  private Long maxWeight;
+  private CacheWeigher weigher;
   private Long clearInterval;
+  private Long timeToLive;
+  private Long timeToIdle;
+  private Long refreshAhead;
   private boolean readWrite;
   private Properties properties;
   private boolean blocking;
+  private CacheStatistics statistics;
 
   public CacheBuilder(String id) {
     this.id = id;
@@ -66,12 +75,42 @@ public class CacheBuilder {
     return this;
   }
 
+  /** 设置权重上限（估算的字节数），用于基于权重的淘汰策略 */
+  public CacheBuilder maxWeight(Long maxWeight) {
+    this.maxWeight = maxWeight;
+    return this;
+  }
+
+  /** 设置权重计算器 */
+  public CacheBuilder weigher(CacheWeigher weigher) {
+    this.weigher = weigher;
+    return this;
+  }
+
   /** 设置清除频率 */
   public CacheBuilder clearInterval(Long clearInterval) {
     this.clearInterval = clearInterval;
     return this;
   }
 
+  /** 设置条目写入后的存活时间 */
+  public CacheBuilder timeToLive(Long timeToLive) {
+    this.timeToLive = timeToLive;
+    return this;
+  }
+
+  /** 设置条目的空闲存活时间 */
+  public CacheBuilder timeToIdle(Long timeToIdle) {
+    this.timeToIdle = timeToIdle;
+    return this;
+  }
+
+  /** 设置条目过期前提前刷新的时间 */
+  public CacheBuilder refreshAhead(Long refreshAhead) {
+    this.refreshAhead = refreshAhead;
+    return this;
+  }
+
   public CacheBuilder readWrite(boolean readWrite) {
     this.readWrite = readWrite;
     return this;
@@ -82,6 +121,12 @@ public class CacheBuilder {
     return this;
   }
 
+  /** 设置缓存统计，为 null 时不统计 */
+  public CacheBuilder statistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+    return this;
+  }
+
   public CacheBuilder properties(Properties properties) {
     this.properties = properties;
     return this;
@@ -93,13 +138,24 @@ public class CacheBuilder {
     setCacheProperties(cache);
     // issue #352, do not apply decorators to custom caches
     if (PerpetualCache.class.equals(cache.getClass())) {
+      if (statistics != null) {
+        // 统计淘汰策略删除的条目
+        cache = new StatisticsCache.RemovalCounter(cache, statistics);
+      }
       for (Class<? extends Cache> decorator : decorators) {
         cache = newCacheDecoratorInstance(decorator, cache);
         setCacheProperties(cache);
       }
       cache = setStandardDecorators(cache);
-    } else if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
-      cache = new LoggingCache(cache);
+    } else {
+      boolean logging = LoggingCache.class.isAssignableFrom(cache.getClass());
+      if (statistics != null) {
+        // 自定义缓存只统计访问，淘汰由缓存自己处理，无法统计
+        cache = new StatisticsCache(cache, statistics);
+      }
+      if (!logging) {
+        cache = new LoggingCache(cache);
+      }
     }
     return cache;
   }
@@ -120,6 +176,26 @@ public class CacheBuilder {
       if (size != null && metaCache.hasSetter("size")) {
         metaCache.setValue("size", size);
       }
+      if (maxWeight != null && metaCache.hasSetter("maxWeight")) {
+        metaCache.setValue("maxWeight", maxWeight);
+      }
+      if (weigher != null && metaCache.hasSetter("weigher")) {
+        metaCache.setValue("weigher", weigher);
+      }
+      WeightedCache weightedCache = cache instanceof WeightedCache ? (WeightedCache) cache : null;
+      if (timeToLive != null || timeToIdle != null) {
+        ExpiringCache expiringCache = new ExpiringCache(cache);
+        if (timeToLive != null) {
+          expiringCache.setTimeToLive(timeToLive);
+        }
+        if (timeToIdle != null) {
+          expiringCache.setTimeToIdle(timeToIdle);
+        }
+        if (refreshAhead != null) {
+          expiringCache.setRefreshAhead(refreshAhead);
+        }
+        cache = expiringCache;
+      }
       if (clearInterval != null) {
         cache = new ScheduledCache(cache);
         ((ScheduledCache) cache).setClearInterval(clearInterval);
@@ -127,6 +203,12 @@ public class CacheBuilder {
       if (readWrite) {
         cache = new SerializedCache(cache);
       }
+      if (statistics != null) {
+        if (weightedCache != null) {
+          statistics.setWeightedSizeSupplier(weightedCache::getWeightedSize);
+        }
+        cache = new StatisticsCache(cache, statistics);
+      }
       cache = new LoggingCache(cache);
       cache = new SynchronizedCache(cache);
       if (blocking) {
@@ -173,6 +255,8 @@ public class CacheBuilder {
           } else if (double.class == type
               || Double.class == type) {
             metaCache.setValue(name, Double.valueOf(value));
+          } else if (CacheWeigher.class == type) {
+            metaCache.setValue(name, newCacheWeigherInstance(value));
           } else {
             throw new CacheException("Unsupported property type for cache: '" + name + "' of type " + type);
           }
@@ -189,6 +273,14 @@ public class CacheBuilder {
     }
   }
 
+  private CacheWeigher newCacheWeigherInstance(String className) {
+    try {
+      return (CacheWeigher) Resources.classForName(className).getDeclaredConstructor().newInstance();
+    } catch (Exception e) {
+      throw new CacheException("Could not instantiate cache weigher (" + className + "). Cause: " + e, e);
+    }
+  }
+
   private Cache newBaseCacheInstance(Class<? extends Cache> cacheClass, String id) {
     Constructor<? extends Cache> cacheConstructor = getBaseCacheConstructor(cacheClass);
     try {
@@ -16,6 +16,7 @@
 package org.apache.ibatis.mapping;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheTagRegistry;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
@@ -63,6 +64,8 @@ public final class MappedStatement {
   private Log statementLog;
   private LanguageDriver lang;
   private String[] resultSets;
+  // 语句读写的表，用于基于表的二级缓存失效
+  private String[] tables;
 
   MappedStatement() {
     // constructor disabled
@@ -181,6 +184,11 @@ public final class MappedStatement {
       return this;
     }
 
+    public Builder tables(String tables) {
+      mappedStatement.tables = CacheTagRegistry.normalizeTables(delimitedStringToArray(tables));
+      return this;
+    }
+
     /**
      * @deprecated Use {@link #resultSets}
      */
@@ -292,6 +300,10 @@ public final class MappedStatement {
     return resultSets;
   }
 
+  public String[] getTables() {
+    return tables;
+  }
+
   /**
    * @deprecated Use {@link #getResultSets()}
    */
@@ -0,0 +1,198 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.ObjectName;
+
+import org.apache.ibatis.mapping.BoundSql;
+
+/**
+ * Default {@link MetricsRegistry}, keeps a {@link StatementMetrics} per mapped statement in memory.
+ * <p>
+ * Properties:
+ * <ul>
+ * <li>{@code slowQueryThreshold}: executions that take longer (in milliseconds) are captured with their
+ * {@link BoundSql}, 0 (the default) disables the capture.</li>
+ * <li>{@code maxSlowQueries}: number of slow executions kept, the oldest are discarded (100 by default).</li>
+ * <li>{@code jmxName}: when set, the registry is registered in the platform MBean server as
+ * {@code org.apache.ibatis:type=MetricsRegistry,name=<jmxName>}.</li>
+ * </ul>
+ *
+ * 默认的语句执行统计注册表：按 MappedStatement id 在内存中保存统计信息，记录慢查询，并可注册为 JMX MBean
+ *
+ * @since 3.5.2
+ */
+public class DefaultMetricsRegistry implements MetricsRegistry, MetricsRegistryMXBean {
+
+  private final Map<String, StatementMetrics> statements = new ConcurrentHashMap<>();
+  private final Deque<SlowQuery> slowQueries = new ConcurrentLinkedDeque<>();
+  private final AtomicInteger slowQueryCount = new AtomicInteger();
+  private volatile long slowQueryThresholdNanos;
+  private int maxSlowQueries = 100;
+  private ObjectName objectName;
+
+  @Override
+  public void setProperties(Properties properties) {
+    String threshold = properties.getProperty("slowQueryThreshold");
+    if (threshold != null) {
+      setSlowQueryThreshold(Long.parseLong(threshold));
+    }
+    String max = properties.getProperty("maxSlowQueries");
+    if (max != null) {
+      setMaxSlowQueries(Integer.parseInt(max));
+    }
+    String jmxName = properties.getProperty("jmxName");
+    if (jmxName != null) {
+      registerMBean(jmxName);
+    }
+  }
+
+  @Override
+  public void recordPhase(String statementId, ExecutionPhase phase, long nanos) {
+    getOrCreate(statementId).getPhase(phase).record(nanos);
+  }
+
+  @Override
+  public void recordRows(String statementId, long rows) {
+    getOrCreate(statementId).getRows().record(rows);
+  }
+
+  @Override
+  public void recordCacheAccess(String statementId, boolean hit) {
+    getOrCreate(statementId).recordCacheAccess(hit);
+  }
+
+  @Override
+  public void recordExecution(String statementId, BoundSql boundSql, long elapsedNanos) {
+    getOrCreate(statementId).getExecutions().record(elapsedNanos);
+    long threshold = slowQueryThresholdNanos;
+    if (threshold > 0 && elapsedNanos >= threshold) {
+      slowQueries.addLast(new SlowQuery(statementId, boundSql, elapsedNanos));
+      if (slowQueryCount.incrementAndGet() > maxSlowQueries && slowQueries.pollFirst() != null) {
+        slowQueryCount.decrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * @return The metrics of a statement, or null if it has not been executed
+   */
+  public StatementMetrics getStatementMetrics(String statementId) {
+    return statements.get(statementId);
+  }
+
+  /**
+   * @return The metrics of all the executed statements, by statement id
+   */
+  public Map<String, StatementMetrics> getAllStatementMetrics() {
+    return Collections.unmodifiableMap(statements);
+  }
+
+  /**
+   * @return The last slow executions, oldest first
+   */
+  public List<SlowQuery> getSlowQueries() {
+    return new ArrayList<>(slowQueries);
+  }
+
+  @Override
+  public String[] getStatementIds() {
+    return statements.keySet().toArray(new String[0]);
+  }
+
+  @Override
+  public Map<String, Long> getStatementSummary(String statementId) {
+    StatementMetrics metrics = statements.get(statementId);
+    return metrics == null ? null : metrics.toSummary();
+  }
+
+  @Override
+  public String[] getSlowQueryLog() {
+    List<String> log = new ArrayList<>();
+    for (SlowQuery slowQuery : slowQueries) {
+      log.add(slowQuery.toString());
+    }
+    return log.toArray(new String[0]);
+  }
+
+  @Override
+  public long getSlowQueryThreshold() {
+    return TimeUnit.NANOSECONDS.toMillis(slowQueryThresholdNanos);
+  }
+
+  @Override
+  public void setSlowQueryThreshold(long slowQueryThreshold) {
+    this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(slowQueryThreshold, 0));
+  }
+
+  public int getMaxSlowQueries() {
+    return maxSlowQueries;
+  }
+
+  public void setMaxSlowQueries(int maxSlowQueries) {
+    this.maxSlowQueries = maxSlowQueries;
+  }
+
+  @Override
+  public void reset() {
+    statements.clear();
+    slowQueries.clear();
+    slowQueryCount.set(0);
+  }
+
+  /**
+   * Registers this registry in the platform MBean server.
+   *
+   * @param name The value of the name key of the object name
+   * @return The object name
+   */
+  public synchronized ObjectName registerMBean(String name) {
+    unregisterMBean();
+    objectName = MBeanRegistrar.register(this, "MetricsRegistry", name);
+    return objectName;
+  }
+
+  /**
+   * Removes this registry from the platform MBean server, if it was registered.
+   */
+  public synchronized void unregisterMBean() {
+    try {
+      MBeanRegistrar.unregister(objectName);
+    } finally {
+      objectName = null;
+    }
+  }
+
+  private StatementMetrics getOrCreate(String statementId) {
+    StatementMetrics metrics = statements.get(statementId);
+    if (metrics == null) {
+      metrics = statements.computeIfAbsent(statementId, StatementMetrics::new);
+    }
+    return metrics;
+  }
+
+}
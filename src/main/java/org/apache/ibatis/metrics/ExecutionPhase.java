@@ -0,0 +1,36 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+/**
+ * The phases of the execution of a mapped statement timed by a {@link MetricsRegistry}.
+ *
+ * 语句执行的各个阶段
+ *
+ * @since 3.5.2
+ */
+public enum ExecutionPhase {
+  /** Getting the connection from the transaction (includes the checkout from the pool). */
+  CONNECTION_ACQUIRE,
+  /** Creating the statement (unless reused) and setting its parameters. */
+  PREPARE,
+  /** Executing the statement, until the first result set is available. */
+  EXECUTE,
+  /** Moving through the rows of the result sets ({@code ResultSet.next()}). */
+  FETCH,
+  /** Mapping the rows to result objects. */
+  MAPPING
+}
@@ -0,0 +1,180 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of non negative long values (usually nanoseconds).
+ * <p>
+ * Like an HdrHistogram, values are counted in log-linear buckets: every power of two is split in 32 sub buckets,
+ * so any recorded value is known within about 3% whatever its magnitude. The sub buckets of a power of two are
+ * only allocated when a value of that magnitude is first recorded, so a histogram of timings only holds the few
+ * magnitudes actually seen (a few hundred bytes each) instead of all 59.
+ * Recording is a single atomic increment and can be called concurrently; snapshots are not atomic.
+ *
+ * 无锁的对数线性直方图：每个 2 的幂区间分为 32 个子桶，记录值的相对误差约为 3%；子桶按数量级延迟分配
+ *
+ * @since 3.5.2
+ */
+public class Histogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+  private static final int MAGNITUDE_COUNT = BUCKET_COUNT >> SUB_BUCKET_BITS;
+
+  // 每个数量级的子桶计数，第一次记录该数量级的值时分配
+  private final AtomicReferenceArray<AtomicLongArray> counts = new AtomicReferenceArray<>(MAGNITUDE_COUNT);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder total = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * @param value The value to record, negative values are recorded as 0
+   */
+  public void record(long value) {
+    long v = Math.max(value, 0);
+    int bucket = bucketOf(v);
+    subBuckets(bucket >> SUB_BUCKET_BITS).incrementAndGet(bucket & (SUB_BUCKET_COUNT - 1));
+    count.increment();
+    total.add(v);
+    long current = max.get();
+    while (v > current && !max.compareAndSet(current, v)) {
+      current = max.get();
+    }
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getTotal() {
+    return total.sum();
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  public double getMean() {
+    long n = count.sum();
+    return n == 0 ? 0 : (double) total.sum() / n;
+  }
+
+  /**
+   * @param percentile The percentile, between 0 and 100
+   * @return The highest value of the bucket holding the given percentile (never above the max), or 0 if empty
+   */
+  public long getValueAtPercentile(double percentile) {
+    long[] snapshot = new long[BUCKET_COUNT];
+    long n = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      snapshot[i] = countOf(i);
+      n += snapshot[i];
+    }
+    if (n == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * n));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Math.min(highestValueOf(i), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  /**
+   * @return The count, mean, median, 99th percentile and max of a histogram of nanoseconds, in microseconds
+   */
+  public Map<String, Long> toTimingSummary() {
+    Map<String, Long> summary = new LinkedHashMap<>();
+    summary.put("count", getCount());
+    summary.put("mean", TimeUnit.NANOSECONDS.toMicros((long) getMean()));
+    summary.put("p50", TimeUnit.NANOSECONDS.toMicros(getValueAtPercentile(50)));
+    summary.put("p99", TimeUnit.NANOSECONDS.toMicros(getValueAtPercentile(99)));
+    summary.put("max", TimeUnit.NANOSECONDS.toMicros(getMax()));
+    return summary;
+  }
+
+  public void reset() {
+    for (int i = 0; i < MAGNITUDE_COUNT; i++) {
+      AtomicLongArray subBuckets = counts.get(i);
+      if (subBuckets != null) {
+        for (int j = 0; j < SUB_BUCKET_COUNT; j++) {
+          subBuckets.set(j, 0);
+        }
+      }
+    }
+    count.reset();
+    total.reset();
+    max.set(0);
+  }
+
+  private AtomicLongArray subBuckets(int magnitude) {
+    AtomicLongArray subBuckets = counts.get(magnitude);
+    if (subBuckets == null) {
+      counts.compareAndSet(magnitude, null, new AtomicLongArray(SUB_BUCKET_COUNT));
+      subBuckets = counts.get(magnitude);
+    }
+    return subBuckets;
+  }
+
+  private long countOf(int bucket) {
+    AtomicLongArray subBuckets = counts.get(bucket >> SUB_BUCKET_BITS);
+    return subBuckets == null ? 0 : subBuckets.get(bucket & (SUB_BUCKET_COUNT - 1));
+  }
+
+  /**
+   * @return The number of magnitudes (powers of two) whose sub buckets have been allocated
+   */
+  int getAllocatedMagnitudes() {
+    int allocated = 0;
+    for (int i = 0; i < MAGNITUDE_COUNT; i++) {
+      if (counts.get(i) != null) {
+        allocated++;
+      }
+    }
+    return allocated;
+  }
+
+  static int bucketOf(long value) {
+    if (value < 2 * SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return shift * SUB_BUCKET_COUNT + (int) (value >>> shift);
+  }
+
+  static long highestValueOf(int bucket) {
+    if (bucket < 2 * SUB_BUCKET_COUNT) {
+      return bucket;
+    }
+    int shift = (bucket >> SUB_BUCKET_BITS) - 1;
+    long top = bucket - (long) shift * SUB_BUCKET_COUNT;
+    return ((top + 1) << shift) - 1;
+  }
+
+}
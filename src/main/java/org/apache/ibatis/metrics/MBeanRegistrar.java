@@ -0,0 +1,74 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+
+/**
+ * Registers the MBeans of MyBatis in the platform MBean server, under the {@code org.apache.ibatis} domain.
+ *
+ * 在平台 MBeanServer 中注册 MyBatis 的 MBean
+ *
+ * @since 3.5.2
+ */
+public final class MBeanRegistrar {
+
+  private static final String DOMAIN = "org.apache.ibatis";
+
+  private MBeanRegistrar() {
+    // Prevent Instantiation
+  }
+
+  /**
+   * @param mbean The MBean (or MXBean) to register
+   * @param type The value of the type key of the object name
+   * @param name The value of the name key of the object name (quoted)
+   * @return The object name the MBean has been registered with
+   */
+  public static ObjectName register(Object mbean, String type, String name) {
+    try {
+      ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+      ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, objectName);
+      return objectName;
+    } catch (JMException e) {
+      throw new PersistenceException("Error registering the " + type + " MBean '" + name + "'. Cause: " + e, e);
+    }
+  }
+
+  /**
+   * @param objectName The object name of a registered MBean, ignored if null or no longer registered
+   */
+  public static void unregister(ObjectName objectName) {
+    if (objectName == null) {
+      return;
+    }
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      if (server.isRegistered(objectName)) {
+        server.unregisterMBean(objectName);
+      }
+    } catch (JMException e) {
+      throw new PersistenceException("Error unregistering the MBean " + objectName + ". Cause: " + e, e);
+    }
+  }
+
+}
@@ -0,0 +1,71 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.Properties;
+
+import org.apache.ibatis.mapping.BoundSql;
+
+/**
+ * Receives the execution metrics of the mapped statements.
+ * <p>
+ * When a registry is configured, the executors time each phase of a statement execution and report the timings,
+ * the row counts and the 2nd level cache accesses keyed by the id of the mapped statement.
+ * The methods are called on the execution path by concurrent sessions, so they must be cheap and thread safe.
+ *
+ * 语句执行统计的注册表，配置后执行器会按 MappedStatement id 上报各阶段的耗时、行数及二级缓存命中情况
+ *
+ * @see DefaultMetricsRegistry
+ * @since 3.5.2
+ */
+public interface MetricsRegistry {
+
+  /**
+   * Sets the properties declared in the configuration.
+   */
+  default void setProperties(Properties properties) {
+    // NOP
+  }
+
+  /**
+   * @param statementId The id of the mapped statement
+   * @param phase The phase that has been timed
+   * @param nanos The time spent in the phase
+   */
+  void recordPhase(String statementId, ExecutionPhase phase, long nanos);
+
+  /**
+   * @param statementId The id of the mapped statement
+   * @param rows The number of rows fetched by a query or updated by an update
+   */
+  void recordRows(String statementId, long rows);
+
+  /**
+   * @param statementId The id of the mapped statement
+   * @param hit true if the result has been found in the 2nd level cache
+   */
+  void recordCacheAccess(String statementId, boolean hit);
+
+  /**
+   * Called once per statement execution, after the results have been mapped.
+   *
+   * @param statementId The id of the mapped statement
+   * @param boundSql The executed SQL and its parameters
+   * @param elapsedNanos The time spent preparing and executing the statement and mapping its results
+   */
+  void recordExecution(String statementId, BoundSql boundSql, long elapsedNanos);
+
+}
@@ -0,0 +1,57 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of a {@link DefaultMetricsRegistry}.
+ *
+ * 语句执行统计的 JMX 接口，耗时单位为微秒
+ *
+ * @since 3.5.2
+ */
+public interface MetricsRegistryMXBean {
+
+  /**
+   * @return The ids of the statements that have been executed
+   */
+  String[] getStatementIds();
+
+  /**
+   * @return The summary of the metrics of a statement (timings in microseconds), or null if it has not been executed
+   * @see StatementMetrics#toSummary()
+   */
+  Map<String, Long> getStatementSummary(String statementId);
+
+  /**
+   * @return The last slow executions, oldest first
+   */
+  String[] getSlowQueryLog();
+
+  /**
+   * @return The execution time in milliseconds above which executions are captured, 0 if disabled
+   */
+  long getSlowQueryThreshold();
+
+  void setSlowQueryThreshold(long slowQueryThreshold);
+
+  /**
+   * Clears all the metrics and slow executions.
+   */
+  void reset();
+
+}
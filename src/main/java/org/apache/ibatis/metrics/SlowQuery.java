@@ -0,0 +1,68 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.mapping.BoundSql;
+
+/**
+ * An execution slower than the threshold of a {@link DefaultMetricsRegistry}.
+ *
+ * 慢查询记录
+ *
+ * @since 3.5.2
+ */
+public class SlowQuery {
+
+  private final String statementId;
+  private final BoundSql boundSql;
+  private final long elapsedNanos;
+  private final long timestamp;
+
+  public SlowQuery(String statementId, BoundSql boundSql, long elapsedNanos) {
+    this.statementId = statementId;
+    this.boundSql = boundSql;
+    this.elapsedNanos = elapsedNanos;
+    this.timestamp = System.currentTimeMillis();
+  }
+
+  public String getStatementId() {
+    return statementId;
+  }
+
+  public BoundSql getBoundSql() {
+    return boundSql;
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * @return The time the execution completed, in milliseconds since the epoch
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  @Override
+  public String toString() {
+    return statementId + " (" + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms): "
+        + boundSql.getSql().replaceAll("\\s+", " ").trim();
+  }
+
+}
@@ -0,0 +1,131 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of one mapped statement collected by a {@link DefaultMetricsRegistry}.
+ * <p>
+ * Timings are recorded in nanoseconds.
+ *
+ * 单个 MappedStatement 的执行统计：各阶段耗时直方图、行数及二级缓存命中次数
+ *
+ * @since 3.5.2
+ */
+public class StatementMetrics {
+
+  private final String statementId;
+  private final Histogram[] phases;
+  private final Histogram executions = new Histogram();
+  private final Histogram rows = new Histogram();
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder cacheMisses = new LongAdder();
+
+  public StatementMetrics(String statementId) {
+    this.statementId = statementId;
+    this.phases = new Histogram[ExecutionPhase.values().length];
+    for (int i = 0; i < phases.length; i++) {
+      phases[i] = new Histogram();
+    }
+  }
+
+  public String getStatementId() {
+    return statementId;
+  }
+
+  /**
+   * @return The times spent in the given phase
+   */
+  public Histogram getPhase(ExecutionPhase phase) {
+    return phases[phase.ordinal()];
+  }
+
+  /**
+   * @return The total times of the executions (prepare, execute, fetch and mapping)
+   */
+  public Histogram getExecutions() {
+    return executions;
+  }
+
+  /**
+   * @return The numbers of rows fetched or updated per execution
+   */
+  public Histogram getRows() {
+    return rows;
+  }
+
+  public long getCacheHits() {
+    return cacheHits.sum();
+  }
+
+  public long getCacheMisses() {
+    return cacheMisses.sum();
+  }
+
+  void recordCacheAccess(boolean hit) {
+    if (hit) {
+      cacheHits.increment();
+    } else {
+      cacheMisses.increment();
+    }
+  }
+
+  public void reset() {
+    for (Histogram phase : phases) {
+      phase.reset();
+    }
+    executions.reset();
+    rows.reset();
+    cacheHits.reset();
+    cacheMisses.reset();
+  }
+
+  /**
+   * @return The count, mean, median, 99th percentile and max of each timing (in microseconds),
+   *         the row counts and the cache accesses
+   */
+  public Map<String, Long> toSummary() {
+    Map<String, Long> summary = new LinkedHashMap<>();
+    addTimings(summary, "execution", executions);
+    for (ExecutionPhase phase : ExecutionPhase.values()) {
+      addTimings(summary, toCamelCase(phase.name()), getPhase(phase));
+    }
+    summary.put("rows.total", rows.getTotal());
+    summary.put("rows.max", rows.getMax());
+    summary.put("cache.hits", getCacheHits());
+    summary.put("cache.misses", getCacheMisses());
+    return summary;
+  }
+
+  private static void addTimings(Map<String, Long> summary, String name, Histogram histogram) {
+    for (Map.Entry<String, Long> entry : histogram.toTimingSummary().entrySet()) {
+      summary.put(name + "." + entry.getKey(), entry.getValue());
+    }
+  }
+
+  private static String toCamelCase(String name) {
+    StringBuilder builder = new StringBuilder();
+    for (String word : name.toLowerCase(Locale.ENGLISH).split("_")) {
+      builder.append(builder.length() == 0 ? word : Character.toUpperCase(word.charAt(0)) + word.substring(1));
+    }
+    return builder.toString();
+  }
+
+}
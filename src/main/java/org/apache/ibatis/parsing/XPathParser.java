@@ -31,8 +31,12 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.regex.Pattern;
 
 /**
  * 解析不同类型； 如：Integer、Double、Long、Float、String 等
@@ -41,6 +45,22 @@ import java.util.Properties;
  */
 public class XPathParser {
 
+  // 简单路径表达式，如 /mapper/resultMap、cache、select|insert|update|delete
+  private static final Pattern SIMPLE_PATH = Pattern.compile("/?[A-Za-z_][\\w.-]*(/[A-Za-z_][\\w.-]*)*|[A-Za-z_][\\w.-]*(\\|[A-Za-z_][\\w.-]*)+");
+  // 最多缓存的表达式数量，按最近最少使用淘汰
+  private static final int MAX_SIMPLE_PATHS = 256;
+  // 表达式 -> 解析后的简单路径，非简单路径为 NOT_SIMPLE
+  private static final Map<String, SimplePath> simplePaths = Collections.synchronizedMap(
+      new LinkedHashMap<String, SimplePath>(64, .75F, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SimplePath> eldest) {
+          return size() > MAX_SIMPLE_PATHS;
+        }
+      });
+  private static final SimplePath NOT_SIMPLE = new SimplePath(false, new String[0][]);
+
   /**
    * Xml document对象
    */
@@ -230,6 +250,14 @@ public class XPathParser {
    */
   public List<XNode> evalNodes(Object root, String expression) {
     List<XNode> xnodes = new ArrayList<>();
+    SimplePath path = simplePath(expression);
+    if (path != NOT_SIMPLE && root instanceof Node) {
+      // 简单路径直接遍历子元素，不使用 XPath
+      for (Node node : path.select((Node) root, false)) {
+        xnodes.add(new XNode(this, node, variables));
+      }
+      return xnodes;
+    }
     // 获得 node 数组
     NodeList nodes = (NodeList) evaluate(expression, root, XPathConstants.NODESET);
 
@@ -249,7 +277,14 @@ public class XPathParser {
   }
 
   public XNode evalNode(Object root, String expression) {
-    Node node = (Node) evaluate(expression, root, XPathConstants.NODE);
+    SimplePath path = simplePath(expression);
+    Node node;
+    if (path != NOT_SIMPLE && root instanceof Node) {
+      List<Node> nodes = path.select((Node) root, true);
+      node = nodes.isEmpty() ? null : nodes.get(0);
+    } else {
+      node = (Node) evaluate(expression, root, XPathConstants.NODE);
+    }
     if (node == null) {
       return null;
     }
@@ -267,6 +302,10 @@ public class XPathParser {
    */
   private Object evaluate(String expression, Object root, QName returnType) {
     try {
+      if (xpath == null) {
+        // 只在需要时创建，简单路径不需要 XPath
+        xpath = XPathFactory.newInstance().newXPath();
+      }
       return xpath.evaluate(expression, root, returnType);
     } catch (Exception e) {
       throw new BuilderException("Error evaluating XPath.  Cause: " + e, e);
@@ -323,8 +362,93 @@ public class XPathParser {
     this.validation = validation;
     this.entityResolver = entityResolver;
     this.variables = variables;
-    XPathFactory factory = XPathFactory.newInstance();
-    this.xpath = factory.newXPath();
+  }
+
+  /**
+   * Returns the parsed form of an expression. The most recently used expressions are kept, up to
+   * {@value #MAX_SIMPLE_PATHS}, so that expressions built at runtime do not grow the cache without bound.
+   */
+  private static SimplePath simplePath(String expression) {
+    SimplePath path = simplePaths.get(expression);
+    if (path == null) {
+      path = SimplePath.parse(expression);
+      simplePaths.put(expression, path);
+    }
+    return path;
+  }
+
+  static int getCachedSimplePathCount() {
+    return simplePaths.size();
+  }
+
+  /**
+   * A location path made only of child element names, evaluated by walking the DOM
+   * instead of compiling an XPath expression.
+   * <p>
+   * Either an absolute or relative path of names ({@code /mapper/resultMap}, {@code cache}),
+   * or a union of names ({@code select|insert|update|delete}), which is a single step matching any of them.
+   */
+  private static class SimplePath {
+    private final boolean absolute;
+    // 每一步可匹配的元素名
+    private final String[][] steps;
+
+    private SimplePath(boolean absolute, String[][] steps) {
+      this.absolute = absolute;
+      this.steps = steps;
+    }
+
+    private static SimplePath parse(String expression) {
+      if ("/".equals(expression)) {
+        return new SimplePath(true, new String[0][]);
+      }
+      if (!SIMPLE_PATH.matcher(expression).matches()) {
+        return NOT_SIMPLE;
+      }
+      if (expression.indexOf('|') >= 0) {
+        return new SimplePath(false, new String[][] { expression.split("\\|") });
+      }
+      boolean absolute = expression.startsWith("/");
+      String[] names = (absolute ? expression.substring(1) : expression).split("/");
+      String[][] steps = new String[names.length][];
+      for (int i = 0; i < names.length; i++) {
+        steps[i] = new String[] { names[i] };
+      }
+      return new SimplePath(absolute, steps);
+    }
+
+    private List<Node> select(Node root, boolean first) {
+      Node start = root;
+      if (absolute && root.getNodeType() != Node.DOCUMENT_NODE) {
+        start = root.getOwnerDocument();
+      }
+      List<Node> current = Collections.singletonList(start);
+      for (int i = 0; i < steps.length && !current.isEmpty(); i++) {
+        boolean last = i == steps.length - 1;
+        List<Node> next = new ArrayList<>();
+        for (Node node : current) {
+          for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE && matches(steps[i], child.getNodeName())) {
+              next.add(child);
+              if (first && last) {
+                return next;
+              }
+            }
+          }
+        }
+        current = next;
+      }
+      return current;
+    }
+
+    private static boolean matches(String[] names, String name) {
+      for (String candidate : names) {
+        if (candidate.equals(name)) {
+          return true;
+        }
+      }
+      return false;
+    }
   }
 
 }
@@ -76,6 +76,14 @@ public class MetaClass {
     return findProperty(name);
   }
 
+  /**
+   * @see Reflector#getCompiledPath(String, ReflectorFactory)
+   * @since 3.5.2
+   */
+  public CompiledPropertyPath getCompiledPath(String name) {
+    return reflector.getCompiledPath(name, reflectorFactory);
+  }
+
   public String[] getGetterNames() {
     return reflector.getGetablePropertyNames();
   }
@@ -144,6 +144,13 @@ public class MetaObject {
    * @return
    */
   public Object getValue(String name) {
+    CompiledPropertyPath path = getCompiledPath(name);
+    if (path != null) {
+      Object value = path.getValue(originalObject);
+      if (value != CompiledPropertyPath.UNRESOLVED) {
+        return value;
+      }
+    }
     PropertyTokenizer prop = new PropertyTokenizer(name);
     if (prop.hasNext()) {
       MetaObject metaValue = metaObjectForProperty(prop.getIndexedName());
@@ -166,6 +173,10 @@ public class MetaObject {
    * @param value
    */
   public void setValue(String name, Object value) {
+    CompiledPropertyPath path = getCompiledPath(name);
+    if (path != null && path.setValue(originalObject, value)) {
+      return;
+    }
     PropertyTokenizer prop = new PropertyTokenizer(name);
     if (prop.hasNext()) {
       // 获取指定属性的值
@@ -188,6 +199,16 @@ public class MetaObject {
     }
   }
 
+  /**
+   * 根对象为 JavaBean 且没有自定义的对象包装器时，使用预编译的属性路径
+   */
+  private CompiledPropertyPath getCompiledPath(String name) {
+    if (objectWrapper instanceof BeanWrapper && objectWrapperFactory.getClass() == DefaultObjectWrapperFactory.class) {
+      return ((BeanWrapper) objectWrapper).getCompiledPath(name);
+    }
+    return null;
+  }
+
   // 创建指定属性的MetaObject 对象
   public MetaObject metaObjectForProperty(String name) {
     // 获取指定属性的值
@@ -16,14 +16,16 @@
 package org.apache.ibatis.reflection;
 
 import org.apache.ibatis.annotations.Param;
-import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.binding.FixedParamMap;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -54,6 +56,9 @@ public class ParamNameResolver {
   // 是否有@param 注解
   private boolean hasParamAnnotation;
 
+  // 参数 Map 的键布局（参数名及通用名称 param1, param2...），每个方法只计算一次
+  private final FixedParamMap.Layout layout;
+
   public ParamNameResolver(Configuration config, Method method) {
     // 获取参数类型
     final Class<?>[] paramTypes = method.getParameterTypes();
@@ -100,6 +105,24 @@ public class ParamNameResolver {
     }
     // 设置为不可修改的 map 集合
     names = Collections.unmodifiableSortedMap(map);
+    layout = createLayout();
+  }
+
+  private FixedParamMap.Layout createLayout() {
+    // 与逐个 put 的顺序和覆盖规则保持一致
+    final Map<String, Integer> keys = new LinkedHashMap<>();
+    int i = 0;
+    for (Map.Entry<Integer, String> entry : names.entrySet()) {
+      keys.put(entry.getValue(), entry.getKey());
+      // add generic param names (param1, param2, ...)
+      final String genericParamName = GENERIC_NAME_PREFIX + String.valueOf(i + 1);
+      // ensure not to overwrite parameter named with @Param
+      if (!names.containsValue(genericParamName)) {
+        keys.put(genericParamName, entry.getKey());
+      }
+      i++;
+    }
+    return new FixedParamMap.Layout(new ArrayList<>(keys.keySet()), new ArrayList<>(keys.values()));
   }
 
   private String getActualParamName(Method method, int paramIndex) {
@@ -149,23 +172,9 @@ public class ParamNameResolver {
        * 集合
        * 组合1：key:参数名，value:参数值
        * 组合2：key:GENERIC_NAME_PREFIX + 参数顺序（1，2，3。。。）, value:参数值
+       * 键的布局已在构造时计算好，这里直接包装参数数组
        */
-      final Map<String, Object> param = new ParamMap<>();
-      int i = 0;
-      // 遍历 names 集合
-      for (Map.Entry<Integer, String> entry : names.entrySet()) {
-        // 组合1，添加到param 集合中
-        param.put(entry.getValue(), args[entry.getKey()]);
-        // add generic param names (param1, param2, ...)
-        // 组合2，添加到param 集合中 (param1, param2, ...)
-        final String genericParamName = GENERIC_NAME_PREFIX + String.valueOf(i + 1);
-        // ensure not to overwrite parameter named with @Param
-        // 确认没有去覆盖 @param 中的参数名， 才进行put 操作
-        if (!names.containsValue(genericParamName)) {
-          param.put(genericParamName, args[entry.getKey()]);
-        }
-        i++;
-      }
+      final Map<String, Object> param = new FixedParamMap(layout, args);
       return param;
     }
   }
@@ -21,9 +21,13 @@ import org.apache.ibatis.reflection.invoker.MethodInvoker;
 import org.apache.ibatis.reflection.invoker.SetFieldInvoker;
 import org.apache.ibatis.reflection.property.PropertyNamer;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 反射器
@@ -68,6 +72,17 @@ public class Reflector {
    */
   private Map<String, String> caseInsensitivePropertyMap = new HashMap<>();
 
+  /**
+   * 属性对应的 setter 方法句柄，按需创建
+   */
+  private final Map<String, Optional<MethodHandle>> setterHandles = new ConcurrentHashMap<>();
+
+  /**
+   * 预编译的属性路径，数量有上限，达到上限后新的表达式不再编译
+   */
+  private final Map<String, Optional<CompiledPropertyPath>> compiledPaths = new ConcurrentHashMap<>();
+  private static final int MAX_COMPILED_PATHS = 256;
+
   public Reflector(Class<?> clazz) {
     type = clazz;
     addDefaultConstructor(clazz);// 初始化添加无参构造器
@@ -477,6 +492,84 @@ public class Reflector {
     return method;
   }
 
+  /**
+   * Gets a method handle that sets a property, typed {@code (Object, setter type)void} so it can be
+   * invoked with an unboxed primitive value.
+   *
+   * 获取属性的 setter 方法句柄，可以直接传入基本类型的值，避免装箱
+   *
+   * @param propertyName - the name of the property
+   * @return The handle, or null if the setter cannot be accessed through a method handle
+   * @since 3.5.2
+   */
+  public MethodHandle getSetterHandle(String propertyName) {
+    Invoker invoker = getSetInvoker(propertyName);
+    return setterHandles.computeIfAbsent(propertyName, k -> unreflectSetter(invoker)).orElse(null);
+  }
+
+  private static Optional<MethodHandle> unreflectSetter(Invoker invoker) {
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    MethodHandle handle;
+    try {
+      if (invoker instanceof MethodInvoker) {
+        Method method = ((MethodInvoker) invoker).getMethod();
+        try {
+          handle = lookup.unreflect(method);
+        } catch (IllegalAccessException e) {
+          if (!canControlMemberAccessible()) {
+            return Optional.empty();
+          }
+          method.setAccessible(true);
+          handle = lookup.unreflect(method);
+        }
+      } else if (invoker instanceof SetFieldInvoker) {
+        Field field = ((SetFieldInvoker) invoker).getField();
+        try {
+          handle = lookup.unreflectSetter(field);
+        } catch (IllegalAccessException e) {
+          if (!canControlMemberAccessible()) {
+            return Optional.empty();
+          }
+          field.setAccessible(true);
+          handle = lookup.unreflectSetter(field);
+        }
+      } else {
+        return Optional.empty();
+      }
+    } catch (IllegalAccessException | RuntimeException e) {
+      // 无法访问（例如模块未开放），调用方退回到 Invoker
+      return Optional.empty();
+    }
+    return Optional.of(handle.asType(MethodType.methodType(void.class, Object.class, invoker.getType())));
+  }
+
+  /**
+   * Gets the compiled form of a property expression evaluated against instances of this class.
+   * <p>
+   * Compiled paths are kept by this reflector, so they are only reused when the reflector is cached by
+   * the factory ({@link ReflectorFactory#isClassCacheEnabled()}); otherwise no path is compiled.
+   * At most 256 expressions are kept per class; once that many have been seen,
+   * other expressions are not compiled either. In both cases the caller evaluates the expression with a
+   * {@link org.apache.ibatis.reflection.property.PropertyTokenizer}.
+   *
+   * @param expression - the property expression (e.g. {@code author.address.city})
+   * @param reflectorFactory - the factory of the reflectors of the intermediate properties
+   * @return The compiled path, or null if the expression is not compiled
+   * @since 3.5.2
+   */
+  public CompiledPropertyPath getCompiledPath(String expression, ReflectorFactory reflectorFactory) {
+    Optional<CompiledPropertyPath> path = compiledPaths.get(expression);
+    if (path == null) {
+      if (!reflectorFactory.isClassCacheEnabled() || compiledPaths.size() >= MAX_COMPILED_PATHS) {
+        // 编译结果无法保留时不编译，调用方按原来的方式逐级解析
+        return null;
+      }
+      path = Optional.ofNullable(CompiledPropertyPath.compile(this, reflectorFactory, expression));
+      compiledPaths.put(expression, path);
+    }
+    return path.orElse(null);
+  }
+
   public Invoker getGetInvoker(String propertyName) {
     Invoker method = getMethods.get(propertyName);
     if (method == null) {
@@ -60,4 +60,11 @@ public class MethodInvoker implements Invoker {
   public Class<?> getType() {
     return type;
   }
+
+  /**
+   * @since 3.5.2
+   */
+  public Method getMethod() {
+    return method;
+  }
 }
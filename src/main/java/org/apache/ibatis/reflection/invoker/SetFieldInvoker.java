@@ -48,4 +48,11 @@ public class SetFieldInvoker implements Invoker {
   public Class<?> getType() {
     return field.getType();
   }
+
+  /**
+   * @since 3.5.2
+   */
+  public Field getField() {
+    return field;
+  }
 }
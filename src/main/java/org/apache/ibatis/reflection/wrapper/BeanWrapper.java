@@ -74,6 +74,14 @@ public class BeanWrapper extends BaseWrapper {
     }
   }
 
+  /**
+   * @see MetaClass#getCompiledPath(String)
+   * @since 3.5.2
+   */
+  public CompiledPropertyPath getCompiledPath(String name) {
+    return metaClass.getCompiledPath(name);
+  }
+
   @Override
   public String findProperty(String name, boolean useCamelCaseMapping) {
     return metaClass.findProperty(name, useCamelCaseMapping);
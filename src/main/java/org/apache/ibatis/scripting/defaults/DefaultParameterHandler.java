@@ -30,6 +30,7 @@ import org.apache.ibatis.type.TypeHandlerRegistry;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -49,6 +50,10 @@ public class DefaultParameterHandler implements ParameterHandler {
   private final BoundSql boundSql;
   // 全局配置对象
   private final Configuration configuration;
+  // 参数对象的 MetaObject，所有参数共用
+  private MetaObject metaObject;
+  // 设置参数时记录的参数值（仅在调用 recordParameterValues 后记录，用于日志）
+  private List<Object> parameterValues;
 
   public DefaultParameterHandler(MappedStatement mappedStatement, Object parameterObject, BoundSql boundSql) {
     this.mappedStatement = mappedStatement;
@@ -73,30 +78,17 @@ public class DefaultParameterHandler implements ParameterHandler {
     ErrorContext.instance().activity("setting parameters").object(mappedStatement.getParameterMap().getId());
     // 获得 变量表达式 列表
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    if (parameterValues != null) {
+      parameterValues.clear();
+    }
     if (parameterMappings != null) {
       for (int i = 0; i < parameterMappings.size(); i++) {
         ParameterMapping parameterMapping = parameterMappings.get(i);
         // 输入类型参数
         if (parameterMapping.getMode() != ParameterMode.OUT) {
-          Object value;
-          // 配置属性名称
-          String propertyName = parameterMapping.getProperty();
-          // 是否是附加属性
-          if (boundSql.hasAdditionalParameter(propertyName)) { // issue #448 ask first for additional params
-            value = boundSql.getAdditionalParameter(propertyName);
-          }
-          // 参数对象
-          else if (parameterObject == null) {
-            value = null;
-          }
-          // 类型注册器
-          else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
-            value = parameterObject;
-          }
-          // 获得 parameterObject 中字段的值
-          else {
-            MetaObject metaObject = configuration.newMetaObject(parameterObject);
-            value = metaObject.getValue(propertyName);
+          Object value = getParameterValue(parameterMapping.getProperty());
+          if (parameterValues != null) {
+            parameterValues.add(value);
           }
 
           // jdbc类型不存在； JdbcType.OTHER
@@ -116,4 +108,51 @@ public class DefaultParameterHandler implements ParameterHandler {
     }
   }
 
+  /**
+   * Makes {@link #setParameters(PreparedStatement)} keep the values it sets, to be read with
+   * {@link #getParameterValues()}. The values are not evaluated a second time.
+   *
+   * 设置参数时记录参数值，用于日志
+   *
+   * @since 3.5.2
+   */
+  public void recordParameterValues() {
+    if (parameterValues == null) {
+      parameterValues = new ArrayList<>();
+    }
+  }
+
+  /**
+   * Returns the values of the input parameters set by the last call to {@link #setParameters(PreparedStatement)},
+   * in the order of the parameter mappings.
+   *
+   * @return The values, or null if they are not recorded (see {@link #recordParameterValues()})
+   * @since 3.5.2
+   */
+  public Object[] getParameterValues() {
+    return parameterValues == null ? null : parameterValues.toArray();
+  }
+
+  private Object getParameterValue(String propertyName) {
+    // 是否是附加属性
+    if (boundSql.hasAdditionalParameter(propertyName)) { // issue #448 ask first for additional params
+      return boundSql.getAdditionalParameter(propertyName);
+    }
+    // 参数对象
+    else if (parameterObject == null) {
+      return null;
+    }
+    // 类型注册器
+    else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
+      return parameterObject;
+    }
+    // 获得 parameterObject 中字段的值
+    else {
+      if (metaObject == null) {
+        metaObject = configuration.newMetaObject(parameterObject);
+      }
+      return metaObject.getValue(propertyName);
+    }
+  }
+
 }
@@ -20,13 +20,21 @@ import org.apache.ibatis.builder.CacheRefResolver;
 import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.builder.annotation.MethodResolver;
+import org.apache.ibatis.builder.xml.ConfigurationSnapshot;
 import org.apache.ibatis.builder.xml.XMLStatementBuilder;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheInvalidationBroadcaster;
+import org.apache.ibatis.cache.CacheStatisticsRegistry;
+import org.apache.ibatis.cache.CacheInvalidationListener;
+import org.apache.ibatis.cache.CacheTagRegistry;
 import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.decorators.WeightedCache;
+import org.apache.ibatis.cache.impl.LoopbackCacheInvalidationBroadcaster;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.impl.UdpCacheInvalidationBroadcaster;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
@@ -36,13 +44,16 @@ import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.executor.loader.cglib.CglibProxyFactory;
 import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.resultset.ColumnarFrame;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.statement.FetchSizeAdvisor;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.io.VFS;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.logging.jdbc.SqlLogger;
 import org.apache.ibatis.logging.commons.JakartaCommonsLoggingImpl;
 import org.apache.ibatis.logging.jdk14.Jdk14LoggingImpl;
 import org.apache.ibatis.logging.log4j.Log4jImpl;
@@ -51,6 +62,8 @@ import org.apache.ibatis.logging.nologging.NoLoggingImpl;
 import org.apache.ibatis.logging.slf4j.Slf4jImpl;
 import org.apache.ibatis.logging.stdout.StdOutImpl;
 import org.apache.ibatis.mapping.*;
+import org.apache.ibatis.metrics.DefaultMetricsRegistry;
+import org.apache.ibatis.metrics.MetricsRegistry;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.plugin.InterceptorChain;
@@ -74,6 +87,9 @@ import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BiFunction;
 
 /**
@@ -94,6 +110,40 @@ public class Configuration {
   protected boolean callSettersOnNulls;
   protected boolean useActualParamName = true;
   protected boolean returnInstanceForEmptyRow;
+  // 是否基于表标签失效二级缓存
+  protected boolean tableBasedCacheInvalidation;
+  // 是否并行解析 mapper xml 文件
+  protected boolean parallelMapperLoading;
+  // 是否使用 StAX 解析 mapper xml 文件（不校验 DTD）
+  protected boolean useStaxMapperParser;
+  // xml 文档快照，用于跳过 xml 解析
+  protected ConfigurationSnapshot configurationSnapshot;
+  // 是否延迟到首次使用时才构建 mapper 的语句
+  protected boolean lazyMapperLoading;
+  // 构建完成后是否冻结注册表
+  protected boolean freezeAfterBuild;
+  // 是否使用生成的 Mapper 实现类代替 JDK 动态代理
+  protected boolean useGeneratedMapperClasses;
+  // SQL 日志采样率（每 N 条语句记录 1 条），0 表示不采样
+  protected int sqlLogSampleRate;
+  // 慢 SQL 阈值（毫秒），0 表示不记录慢 SQL
+  protected long sqlLogSlowThreshold;
+  // 是否异步写 SQL 日志
+  protected boolean asyncSqlLog;
+  // 无代理的 SQL 日志，未启用时为 null
+  protected SqlLogger sqlLogger;
+  // 是否统计二级缓存的访问情况
+  protected boolean cacheStatisticsEnabled;
+  // 是否根据历史结果自适应调整 fetchSize
+  protected boolean adaptiveFetchSize;
+  // 自适应 fetchSize 的下限
+  protected int adaptiveFetchSizeMin = 10;
+  // 自适应 fetchSize 的上限
+  protected int adaptiveFetchSizeMax = 1000;
+  // 自适应 fetchSize 顾问，未启用时为 null
+  protected FetchSizeAdvisor fetchSizeAdvisor;
+  // resultType="map" 时是否使用共享列名索引的紧凑 Map
+  protected boolean compactResultMaps;
 
   protected String logPrefix;
   protected Class<? extends Log> logImpl;
@@ -129,6 +179,14 @@ public class Configuration {
   // Mapper（dao）接口注册器
   protected final MapperRegistry mapperRegistry = new MapperRegistry(this);
   protected final InterceptorChain interceptorChain = new InterceptorChain();
+  // 二级缓存表标签版本号注册器
+  protected final CacheTagRegistry cacheTagRegistry = new CacheTagRegistry();
+  // 二级缓存统计注册器
+  protected final CacheStatisticsRegistry cacheStatisticsRegistry = new CacheStatisticsRegistry();
+  // 集群二级缓存失效广播器
+  protected CacheInvalidationBroadcaster cacheInvalidationBroadcaster;
+  // 语句执行统计注册表，未配置时为 null
+  protected MetricsRegistry metricsRegistry;
   protected final TypeHandlerRegistry typeHandlerRegistry = new TypeHandlerRegistry();
   protected final TypeAliasRegistry typeAliasRegistry = new TypeAliasRegistry();
   // 数据库语言注册器
@@ -163,6 +221,21 @@ public class Configuration {
    */
   protected final Map<String, String> cacheRefMap = new HashMap<>();
 
+  /*
+   * Mappers registered in lazy mode that have not been built yet. The key is the namespace
+   * and the value holds the loaders of the namespace in the declared order.
+   */
+  protected final Map<String, List<Runnable>> lazyMappers = new ConcurrentHashMap<>();
+  // 构建延迟 mapper 时持有写锁，期间其它线程读取已注册的对象时持有读锁
+  private final ReentrantReadWriteLock lazyMapperLock = new ReentrantReadWriteLock();
+  // 正在构建的命名空间，由写锁保护
+  private final Set<String> loadingMappers = new HashSet<>();
+  // 存在延迟 mapper 或启用了热加载时，查找需要持有读锁
+  private volatile boolean lockedLookups;
+  private volatile boolean mapperReloading;
+  // 冻结后的只读注册表，为 null 表示未冻结
+  private volatile FrozenRegistries frozenRegistries;
+
   public Configuration(Environment environment) {
     this();
     this.environment = environment;
@@ -181,6 +254,12 @@ public class Configuration {
     typeAliasRegistry.registerAlias("LRU", LruCache.class);
     typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
     typeAliasRegistry.registerAlias("WEAK", WeakCache.class);
+    typeAliasRegistry.registerAlias("WEIGHTED", WeightedCache.class);
+
+    typeAliasRegistry.registerAlias("LOOPBACK", LoopbackCacheInvalidationBroadcaster.class);
+    typeAliasRegistry.registerAlias("UDP", UdpCacheInvalidationBroadcaster.class);
+
+    typeAliasRegistry.registerAlias("METRICS", DefaultMetricsRegistry.class);
 
     typeAliasRegistry.registerAlias("DB_VENDOR", VendorDatabaseIdProvider.class);
 
@@ -198,6 +277,8 @@ public class Configuration {
     typeAliasRegistry.registerAlias("CGLIB", CglibProxyFactory.class);
     typeAliasRegistry.registerAlias("JAVASSIST", JavassistProxyFactory.class);
 
+    typeAliasRegistry.registerAlias("columnar", ColumnarFrame.class);
+
     // 初始化语言驱动类
     languageRegistry.setDefaultDriverClass(XMLLanguageDriver.class);
     languageRegistry.register(RawLanguageDriver.class);
@@ -257,6 +338,247 @@ public class Configuration {
     this.returnInstanceForEmptyRow = returnEmptyInstance;
   }
 
+  public boolean isTableBasedCacheInvalidation() {
+    return tableBasedCacheInvalidation;
+  }
+
+  public void setTableBasedCacheInvalidation(boolean tableBasedCacheInvalidation) {
+    this.tableBasedCacheInvalidation = tableBasedCacheInvalidation;
+  }
+
+  public boolean isParallelMapperLoading() {
+    return parallelMapperLoading;
+  }
+
+  public void setParallelMapperLoading(boolean parallelMapperLoading) {
+    this.parallelMapperLoading = parallelMapperLoading;
+  }
+
+  public boolean isUseStaxMapperParser() {
+    return useStaxMapperParser;
+  }
+
+  public void setUseStaxMapperParser(boolean useStaxMapperParser) {
+    this.useStaxMapperParser = useStaxMapperParser;
+  }
+
+  public ConfigurationSnapshot getConfigurationSnapshot() {
+    return configurationSnapshot;
+  }
+
+  public void setConfigurationSnapshot(ConfigurationSnapshot configurationSnapshot) {
+    this.configurationSnapshot = configurationSnapshot;
+  }
+
+  public boolean isLazyMapperLoading() {
+    return lazyMapperLoading;
+  }
+
+  public void setLazyMapperLoading(boolean lazyMapperLoading) {
+    this.lazyMapperLoading = lazyMapperLoading;
+  }
+
+  public boolean isFreezeAfterBuild() {
+    return freezeAfterBuild;
+  }
+
+  public void setFreezeAfterBuild(boolean freezeAfterBuild) {
+    this.freezeAfterBuild = freezeAfterBuild;
+  }
+
+  public boolean isUseGeneratedMapperClasses() {
+    return useGeneratedMapperClasses;
+  }
+
+  public void setUseGeneratedMapperClasses(boolean useGeneratedMapperClasses) {
+    this.useGeneratedMapperClasses = useGeneratedMapperClasses;
+  }
+
+  public int getSqlLogSampleRate() {
+    return sqlLogSampleRate;
+  }
+
+  public void setSqlLogSampleRate(int sqlLogSampleRate) {
+    this.sqlLogSampleRate = sqlLogSampleRate;
+    this.sqlLogger = SqlLogger.create(sqlLogSampleRate, sqlLogSlowThreshold, asyncSqlLog);
+  }
+
+  public long getSqlLogSlowThreshold() {
+    return sqlLogSlowThreshold;
+  }
+
+  public void setSqlLogSlowThreshold(long sqlLogSlowThreshold) {
+    this.sqlLogSlowThreshold = sqlLogSlowThreshold;
+    this.sqlLogger = SqlLogger.create(sqlLogSampleRate, sqlLogSlowThreshold, asyncSqlLog);
+  }
+
+  public boolean isAsyncSqlLog() {
+    return asyncSqlLog;
+  }
+
+  public void setAsyncSqlLog(boolean asyncSqlLog) {
+    this.asyncSqlLog = asyncSqlLog;
+    this.sqlLogger = SqlLogger.create(sqlLogSampleRate, sqlLogSlowThreshold, asyncSqlLog);
+  }
+
+  /**
+   * @return The statement logger used instead of the JDBC logging proxies, or null if
+   *         neither sqlLogSampleRate nor sqlLogSlowThreshold is set
+   * @since 3.5.2
+   */
+  public SqlLogger getSqlLogger() {
+    return sqlLogger;
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public boolean isCacheStatisticsEnabled() {
+    return cacheStatisticsEnabled;
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public void setCacheStatisticsEnabled(boolean cacheStatisticsEnabled) {
+    this.cacheStatisticsEnabled = cacheStatisticsEnabled;
+  }
+
+  /**
+   * @return The statistics of the 2nd level caches, collected when cacheStatisticsEnabled is set
+   * @since 3.5.2
+   */
+  public CacheStatisticsRegistry getCacheStatisticsRegistry() {
+    return cacheStatisticsRegistry;
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public boolean isAdaptiveFetchSize() {
+    return adaptiveFetchSize;
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public void setAdaptiveFetchSize(boolean adaptiveFetchSize) {
+    this.adaptiveFetchSize = adaptiveFetchSize;
+    this.fetchSizeAdvisor = FetchSizeAdvisor.create(adaptiveFetchSize, adaptiveFetchSizeMin, adaptiveFetchSizeMax);
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public int getAdaptiveFetchSizeMin() {
+    return adaptiveFetchSizeMin;
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public void setAdaptiveFetchSizeMin(int adaptiveFetchSizeMin) {
+    this.adaptiveFetchSizeMin = adaptiveFetchSizeMin;
+    this.fetchSizeAdvisor = FetchSizeAdvisor.create(adaptiveFetchSize, adaptiveFetchSizeMin, adaptiveFetchSizeMax);
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public int getAdaptiveFetchSizeMax() {
+    return adaptiveFetchSizeMax;
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public void setAdaptiveFetchSizeMax(int adaptiveFetchSizeMax) {
+    this.adaptiveFetchSizeMax = adaptiveFetchSizeMax;
+    this.fetchSizeAdvisor = FetchSizeAdvisor.create(adaptiveFetchSize, adaptiveFetchSizeMin, adaptiveFetchSizeMax);
+  }
+
+  /**
+   * @return The advisor choosing the fetch size of the statements without one, or null if adaptiveFetchSize is not set
+   * @since 3.5.2
+   */
+  public FetchSizeAdvisor getFetchSizeAdvisor() {
+    return fetchSizeAdvisor;
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public boolean isCompactResultMaps() {
+    return compactResultMaps;
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public void setCompactResultMaps(boolean compactResultMaps) {
+    this.compactResultMaps = compactResultMaps;
+  }
+
+  public CacheTagRegistry getCacheTagRegistry() {
+    return cacheTagRegistry;
+  }
+
+  public CacheInvalidationBroadcaster getCacheInvalidationBroadcaster() {
+    return cacheInvalidationBroadcaster;
+  }
+
+  /**
+   * Sets and starts the broadcaster that publishes the 2nd level cache invalidations to the other nodes.
+   * The invalidations received from the other nodes are applied to the caches of this configuration.
+   */
+  public void setCacheInvalidationBroadcaster(CacheInvalidationBroadcaster cacheInvalidationBroadcaster) {
+    if (this.cacheInvalidationBroadcaster != null) {
+      this.cacheInvalidationBroadcaster.close();
+    }
+    this.cacheInvalidationBroadcaster = cacheInvalidationBroadcaster;
+    if (cacheInvalidationBroadcaster != null) {
+      cacheInvalidationBroadcaster.start(new CacheInvalidationListener() {
+        @Override
+        public void onClear(String cacheId) {
+          if (caches.containsKey(cacheId)) {
+            caches.get(cacheId).clear();
+          }
+        }
+
+        @Override
+        public void onInvalidate(Collection<String> tags) {
+          cacheTagRegistry.invalidate(tags);
+        }
+      });
+    }
+  }
+
+  /**
+   * Releases the resources held by this configuration: stops the cache invalidation broadcaster, if any.
+   * Should be called when the configuration (and the sessions factory built from it) is no longer used.
+   * 关闭配置持有的资源，例如缓存失效广播器的 socket 和接收线程
+   *
+   * @since 3.5.2
+   */
+  public void close() {
+    setCacheInvalidationBroadcaster(null);
+  }
+
+  /**
+   * @return The registry receiving the execution metrics of the statements, or null if none is configured
+   * @since 3.5.2
+   */
+  public MetricsRegistry getMetricsRegistry() {
+    return metricsRegistry;
+  }
+
+  /**
+   * @since 3.5.2
+   */
+  public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+    this.metricsRegistry = metricsRegistry;
+  }
+
   public String getDatabaseId() {
     return databaseId;
   }
@@ -305,6 +627,14 @@ public class Configuration {
     return loadedResources.contains(resource);
   }
 
+  /**
+   * @return The resources, namespaces and mapper interfaces that have been loaded
+   * @since 3.5.2
+   */
+  public Set<String> getLoadedResources() {
+    return Collections.unmodifiableSet(loadedResources);
+  }
+
   public Environment getEnvironment() {
     return environment;
   }
@@ -603,7 +933,7 @@ public class Configuration {
     }
     // mapper.xml 是否开启缓存
     if (cacheEnabled) {
-      executor = new CachingExecutor(executor);
+      executor = new CachingExecutor(executor, cacheInvalidationBroadcaster);
     }
     // 执行插件
     executor = (Executor) interceptorChain.pluginAll(executor);
@@ -611,97 +941,144 @@ public class Configuration {
   }
 
   public void addKeyGenerator(String id, KeyGenerator keyGenerator) {
+    thaw();
     keyGenerators.put(id, keyGenerator);
   }
 
   public Collection<String> getKeyGeneratorNames() {
+    loadAllMappers();
     return keyGenerators.keySet();
   }
 
   public Collection<KeyGenerator> getKeyGenerators() {
+    loadAllMappers();
     return keyGenerators.values();
   }
 
   public KeyGenerator getKeyGenerator(String id) {
-    return keyGenerators.get(id);
+    FrozenRegistries frozen = frozen();
+    if (frozen != null) {
+      return frozen.keyGenerators.get(id);
+    }
+    return lockedLookups ? getLocked(keyGenerators, id) : keyGenerators.get(id);
   }
 
   public boolean hasKeyGenerator(String id) {
-    return keyGenerators.containsKey(id);
+    FrozenRegistries frozen = frozen();
+    if (frozen != null) {
+      return frozen.keyGenerators.containsKey(id);
+    }
+    return lockedLookups ? containsLocked(keyGenerators, id) : keyGenerators.containsKey(id);
   }
 
   public void addCache(Cache cache) {
+    thaw();
     caches.put(cache.getId(), cache);
   }
 
   public Collection<String> getCacheNames() {
+    loadAllMappers();
     return caches.keySet();
   }
 
   public Collection<Cache> getCaches() {
+    loadAllMappers();
     return caches.values();
   }
 
   public Cache getCache(String id) {
-    return caches.get(id);
+    FrozenRegistries frozen = frozen();
+    if (frozen != null) {
+      return frozen.caches.get(id);
+    }
+    return lockedLookups ? getLocked(caches, id) : caches.get(id);
   }
 
   public boolean hasCache(String id) {
-    return caches.containsKey(id);
+    FrozenRegistries frozen = frozen();
+    if (frozen != null) {
+      return frozen.caches.containsKey(id);
+    }
+    return lockedLookups ? containsLocked(caches, id) : caches.containsKey(id);
   }
 
   public void addResultMap(ResultMap rm) {
+    thaw();
     resultMaps.put(rm.getId(), rm);
     checkLocallyForDiscriminatedNestedResultMaps(rm);
     checkGloballyForDiscriminatedNestedResultMaps(rm);
   }
 
   public Collection<String> getResultMapNames() {
+    loadAllMappers();
     return resultMaps.keySet();
   }
 
   public Collection<ResultMap> getResultMaps() {
+    loadAllMappers();
     return resultMaps.values();
   }
 
   public ResultMap getResultMap(String id) {
-    return resultMaps.get(id);
+    FrozenRegistries frozen = frozen();
+    if (frozen != null) {
+      return frozen.resultMaps.get(id);
+    }
+    return lockedLookups ? getLocked(resultMaps, id) : resultMaps.get(id);
   }
 
   public boolean hasResultMap(String id) {
-    return resultMaps.containsKey(id);
+    FrozenRegistries frozen = frozen();
+    if (frozen != null) {
+      return frozen.resultMaps.containsKey(id);
+    }
+    return lockedLookups ? containsLocked(resultMaps, id) : resultMaps.containsKey(id);
   }
 
   public void addParameterMap(ParameterMap pm) {
+    thaw();
     parameterMaps.put(pm.getId(), pm);
   }
 
   public Collection<String> getParameterMapNames() {
+    loadAllMappers();
     return parameterMaps.keySet();
   }
 
   public Collection<ParameterMap> getParameterMaps() {
+    loadAllMappers();
     return parameterMaps.values();
   }
 
   public ParameterMap getParameterMap(String id) {
-    return parameterMaps.get(id);
+    FrozenRegistries frozen = frozen();
+    if (frozen != null) {
+      return frozen.parameterMaps.get(id);
+    }
+    return lockedLookups ? getLocked(parameterMaps, id) : parameterMaps.get(id);
   }
 
   public boolean hasParameterMap(String id) {
-    return parameterMaps.containsKey(id);
+    FrozenRegistries frozen = frozen();
+    if (frozen != null) {
+      return frozen.parameterMaps.containsKey(id);
+    }
+    return lockedLookups ? containsLocked(parameterMaps, id) : parameterMaps.containsKey(id);
   }
 
   public void addMappedStatement(MappedStatement ms) {
+    thaw();
     mappedStatements.put(ms.getId(), ms);
   }
 
   public Collection<String> getMappedStatementNames() {
+    loadAllMappers();
     buildAllStatements();
     return mappedStatements.keySet();
   }
 
   public Collection<MappedStatement> getMappedStatements() {
+    loadAllMappers();
     buildAllStatements();
     return mappedStatements.values();
   }
@@ -743,10 +1120,15 @@ public class Configuration {
   }
 
   public MappedStatement getMappedStatement(String id, boolean validateIncompleteStatements) {
+    FrozenRegistries frozen = frozen();
+    if (frozen != null) {
+      // 冻结时所有语句都已构建完成
+      return frozen.mappedStatements.get(id);
+    }
     if (validateIncompleteStatements) {
       buildAllStatements();
     }
-    return mappedStatements.get(id);
+    return lockedLookups ? getLocked(mappedStatements, id) : mappedStatements.get(id);
   }
 
   public Map<String, XNode> getSqlFragments() {
@@ -770,22 +1152,286 @@ public class Configuration {
   }
 
   public <T> T getMapper(Class<T> type, SqlSession sqlSession) {
+    // 只由 xml 绑定的接口在其 xml 构建后才会注册
+    loadLazyMapper(type.getName());
     return mapperRegistry.getMapper(type, sqlSession);
   }
 
   public boolean hasMapper(Class<?> type) {
+    loadLazyMapper(type.getName());
     return mapperRegistry.hasMapper(type);
   }
 
+  /**
+   * Registers a mapper that will be built the first time one of the objects of its namespace is looked up.
+   * When the namespace is being built the loader is run right away.
+   *
+   * @param namespace The namespace of the mapper
+   * @param loader Builds the statements, result maps, caches... of the namespace
+   * @since 3.5.2
+   */
+  public void addLazyMapper(String namespace, Runnable loader) {
+    Lock lock = lazyMapperLock.writeLock();
+    lock.lock();
+    try {
+      if (loadingMappers.contains(namespace)) {
+        loader.run();
+      } else {
+        lazyMappers.computeIfAbsent(namespace, k -> new ArrayList<>()).add(loader);
+        lockedLookups = true;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return The namespaces of the lazy mappers that have not been built yet
+   * @since 3.5.2
+   */
+  public Set<String> getLazyMapperNamespaces() {
+    return Collections.unmodifiableSet(lazyMappers.keySet());
+  }
+
+  /**
+   * Builds the lazy mapper the given id belongs to, if it has not been built yet.
+   * Ids without namespace can be defined by any mapper, so all the lazy mappers are built.
+   *
+   * @param id A namespace or an id qualified by its namespace
+   * @since 3.5.2
+   */
+  public void loadLazyMapper(String id) {
+    if (lazyMappers.isEmpty() || id == null) {
+      return;
+    }
+    if (id.indexOf('.') < 0 && !lazyMappers.containsKey(id)) {
+      loadAllMappers();
+      return;
+    }
+    String namespace = id;
+    while (!lazyMappers.containsKey(namespace)) {
+      int dot = namespace.lastIndexOf('.');
+      if (dot < 0) {
+        return;
+      }
+      namespace = namespace.substring(0, dot);
+    }
+    loadNamespace(namespace);
+  }
+
+  /**
+   * Builds all the lazy mappers and validates all the statements, like in the eager mode.
+   * It is recommended to call this method in tests when lazy mapper loading is enabled, to fail fast.
+   *
+   * @since 3.5.2
+   */
+  public void loadAllMappers() {
+    if (lazyMappers.isEmpty()) {
+      return;
+    }
+    for (String namespace : new ArrayList<>(lazyMappers.keySet())) {
+      loadNamespace(namespace);
+    }
+    if (loadingMappers.isEmpty()) {
+      buildAllStatements();
+    }
+  }
+
+  private void loadNamespace(String namespace) {
+    Lock lock = lazyMapperLock.writeLock();
+    lock.lock();
+    try {
+      List<Runnable> loaders = lazyMappers.get(namespace);
+      // 已被其它线程构建，或者是当前线程正在构建的命名空间（循环引用）
+      if (loaders == null || !loadingMappers.add(namespace)) {
+        return;
+      }
+      ErrorContext.instance().store();
+      try {
+        for (Runnable loader : loaders) {
+          loader.run();
+        }
+      } finally {
+        loadingMappers.remove(namespace);
+        lazyMappers.remove(namespace);
+        lockedLookups = !lazyMappers.isEmpty() || mapperReloading;
+        ErrorContext.instance().recall();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Allows the namespaces to be reloaded while the configuration is in use.
+   * Lookups are guarded by a read lock from then on, so this should be called before the configuration is shared.
+   *
+   * @see #reloadNamespace(String, String, Runnable)
+   * @since 3.5.2
+   */
+  public void enableMapperReloading() {
+    mapperReloading = true;
+    lockedLookups = true;
+  }
+
+  /**
+   * Replaces the statements, result maps, parameter maps, key generators, sql fragments and cache of a namespace
+   * by the ones built by the given loader.
+   * <p>
+   * The swap is done under the write lock, so lookups never see a partially reloaded namespace, while the
+   * statements already in use keep running with their previous definition. When the loader fails, the previous
+   * objects are restored. Objects of other namespaces that were built with a reference to the reloaded ones
+   * (extended result maps, cache-ref...) keep the previous reference.
+   *
+   * @param namespace The namespace to reload
+   * @param resource The resource the namespace is loaded from, so that it is parsed again
+   * @param loader Builds the namespace, usually with a {@link org.apache.ibatis.builder.xml.XMLMapperBuilder}
+   * @since 3.5.2
+   */
+  @SuppressWarnings("unchecked")
+  public void reloadNamespace(String namespace, String resource, Runnable loader) {
+    Lock lock = lazyMapperLock.writeLock();
+    lock.lock();
+    try {
+      if (lazyMappers.containsKey(namespace)) {
+        // 还未构建，首次使用时会读取新的内容
+        return;
+      }
+      List<Map<String, ?>> maps = Arrays.asList(mappedStatements, caches, resultMaps, parameterMaps, keyGenerators, sqlFragments);
+      List<Map<String, Object>> previous = new ArrayList<>(maps.size());
+      for (Map<String, ?> map : maps) {
+        previous.add(removeNamespace(map, namespace));
+      }
+      String cacheRef = cacheRefMap.remove(namespace);
+      // 绑定的接口已注册，保留 "namespace:" 标记，避免再次加载接口旁的 xml
+      List<String> resources = Arrays.asList(resource, "interface " + namespace);
+      List<String> previousResources = new ArrayList<>();
+      for (String loadedResource : resources) {
+        if (loadedResources.remove(loadedResource)) {
+          previousResources.add(loadedResource);
+        }
+      }
+      try {
+        loader.run();
+      } catch (RuntimeException e) {
+        // 恢复原有的对象
+        for (int i = 0; i < maps.size(); i++) {
+          Map<String, Object> map = (Map<String, Object>) maps.get(i);
+          removeNamespace(map, namespace);
+          // 逐个 put 以便 StrictMap 恢复短名称
+          previous.get(i).forEach(map::put);
+        }
+        if (cacheRef != null) {
+          cacheRefMap.put(namespace, cacheRef);
+        }
+        loadedResources.removeAll(resources);
+        loadedResources.addAll(previousResources);
+        throw e;
+      }
+      if (frozenRegistries != null) {
+        // 构建期间读取者继续使用原有的只读注册表，完成后整体替换
+        frozenRegistries = new FrozenRegistries(this);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Builds all the pending mappers and statements, then switches the lookups of statements, result maps,
+   * parameter maps, key generators and caches to read-only copies of the registries.
+   * <p>
+   * The copies use open addressing, short names are resolved when they are built, and the checks for
+   * incomplete statements are skipped, so lookups are cheaper on the hot path. Adding any of these objects
+   * afterwards (except through {@link #reloadNamespace(String, String, Runnable)}) discards the copies,
+   * freeze must be called again.
+   *
+   * @since 3.5.2
+   */
+  public void freeze() {
+    Lock lock = lazyMapperLock.writeLock();
+    lock.lock();
+    try {
+      loadAllMappers();
+      buildAllStatements();
+      frozenRegistries = new FrozenRegistries(this);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public boolean isFrozen() {
+    return frozenRegistries != null;
+  }
+
+  /**
+   * @return The read-only registries, or null if not frozen or if the current thread is building a namespace
+   */
+  private FrozenRegistries frozen() {
+    FrozenRegistries frozen = frozenRegistries;
+    return frozen == null || lazyMapperLock.isWriteLockedByCurrentThread() ? null : frozen;
+  }
+
+  private void thaw() {
+    if (frozenRegistries != null && !lazyMapperLock.isWriteLockedByCurrentThread()) {
+      frozenRegistries = null;
+    }
+  }
+
+  /**
+   * Removes the objects of a namespace, with their short name entries.
+   *
+   * @return The removed objects by full id
+   */
+  private static Map<String, Object> removeNamespace(Map<String, ?> map, String namespace) {
+    String prefix = namespace + ".";
+    Map<String, Object> removed = new LinkedHashMap<>();
+    for (Map.Entry<String, ?> entry : map.entrySet()) {
+      if (entry.getKey().equals(namespace) || entry.getKey().startsWith(prefix)) {
+        removed.put(entry.getKey(), entry.getValue());
+      }
+    }
+    Set<Object> values = Collections.newSetFromMap(new IdentityHashMap<>());
+    values.addAll(removed.values());
+    map.values().removeIf(values::contains);
+    return removed;
+  }
+
+  private <V> V getLocked(Map<String, V> map, String id) {
+    loadLazyMapper(id);
+    Lock lock = lazyMapperLock.readLock();
+    lock.lock();
+    try {
+      return map.get(id);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean containsLocked(Map<String, ?> map, String id) {
+    loadLazyMapper(id);
+    Lock lock = lazyMapperLock.readLock();
+    lock.lock();
+    try {
+      return map.containsKey(id);
+    } finally {
+      lock.unlock();
+    }
+  }
+
   public boolean hasStatement(String statementName) {
     return hasStatement(statementName, true);
   }
 
   public boolean hasStatement(String statementName, boolean validateIncompleteStatements) {
+    FrozenRegistries frozen = frozen();
+    if (frozen != null) {
+      return frozen.mappedStatements.containsKey(statementName);
+    }
     if (validateIncompleteStatements) {
       buildAllStatements();
     }
-    return mappedStatements.containsKey(statementName);
+    return lockedLookups ? containsLocked(mappedStatements, statementName) : mappedStatements.containsKey(statementName);
   }
 
   public void addCacheRef(String namespace, String referencedNamespace) {
@@ -898,6 +1544,82 @@ public class Configuration {
     }
   }
 
+  /**
+   * Read-only copies of the registries, published all at once.
+   */
+  private static class FrozenRegistries {
+    private final FrozenMap<MappedStatement> mappedStatements;
+    private final FrozenMap<Cache> caches;
+    private final FrozenMap<ResultMap> resultMaps;
+    private final FrozenMap<ParameterMap> parameterMaps;
+    private final FrozenMap<KeyGenerator> keyGenerators;
+
+    private FrozenRegistries(Configuration configuration) {
+      this.mappedStatements = new FrozenMap<>("Mapped Statements collection", configuration.mappedStatements);
+      this.caches = new FrozenMap<>("Caches collection", configuration.caches);
+      this.resultMaps = new FrozenMap<>("Result Maps collection", configuration.resultMaps);
+      this.parameterMaps = new FrozenMap<>("Parameter Maps collection", configuration.parameterMaps);
+      this.keyGenerators = new FrozenMap<>("Key Generators collection", configuration.keyGenerators);
+    }
+  }
+
+  /**
+   * Immutable copy of a {@link StrictMap} with open addressing (linear probing) in two flat arrays.
+   * Lookups behave like the ones of the StrictMap: missing and ambiguous keys throw an IllegalArgumentException.
+   *
+   * 只读的开放寻址表，短名称及其二义性在构建时已确定
+   */
+  protected static final class FrozenMap<V> {
+    private final String name;
+    private final String[] keys;
+    private final Object[] values;
+    private final int mask;
+
+    public FrozenMap(String name, Map<String, ? extends V> map) {
+      this.name = name;
+      int capacity = 2;
+      // 负载因子不超过 0.5，保证探测序列很短
+      while (capacity < map.size() * 2) {
+        capacity <<= 1;
+      }
+      this.keys = new String[capacity];
+      this.values = new Object[capacity];
+      this.mask = capacity - 1;
+      for (Map.Entry<String, ? extends V> entry : map.entrySet()) {
+        int index = indexOf(entry.getKey());
+        keys[index] = entry.getKey();
+        values[index] = entry.getValue();
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(String key) {
+      Object value = key == null ? null : values[indexOf(key)];
+      if (value == null) {
+        throw new IllegalArgumentException(name + " does not contain value for " + key);
+      }
+      if (value instanceof StrictMap.Ambiguity) {
+        throw new IllegalArgumentException(((StrictMap.Ambiguity) value).getSubject() + " is ambiguous in " + name
+            + " (try using the full name including the namespace, or rename one of the entries)");
+      }
+      return (V) value;
+    }
+
+    public boolean containsKey(String key) {
+      return key != null && values[indexOf(key)] != null;
+    }
+
+    private int indexOf(String key) {
+      int hash = key.hashCode();
+      int index = (hash ^ (hash >>> 16)) & mask;
+      String current;
+      while ((current = keys[index]) != null && !current.equals(key)) {
+        index = (index + 1) & mask;
+      }
+      return index;
+    }
+  }
+
   protected static class StrictMap<V> extends HashMap<String, V> {
 
     private static final long serialVersionUID = -4950446264854982944L;
@@ -0,0 +1,41 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+/**
+ * A {@link ResultHandler} that does not keep the result objects once {@link #handleResult(ResultContext)} returns.
+ * <p>
+ * Implementing this interface lets the statements with a simple result map reuse a single result object per
+ * result map (and its {@link org.apache.ibatis.reflection.MetaObject}), which is refilled for each row instead
+ * of being created again. This makes streaming millions of rows through a handler nearly allocation free.
+ * The lifecycle rules are:
+ * <ul>
+ * <li>The result object is only valid during the call to {@code handleResult}: it is overwritten by the next row,
+ * so copy whatever must be kept (do not add the object itself to a collection).</li>
+ * <li>Every mapped property is written for every row: when its column is NULL it is set to null, or to the default
+ * value of a primitive property, regardless of the {@code callSettersOnNulls} setting.</li>
+ * <li>Properties that are not mapped by the statement keep their values between rows.</li>
+ * <li>Results mapped with constructor arguments, nested selects or nested result maps, and results handled by a
+ * type handler (e.g. {@code resultType="int"}), are still created for each row.</li>
+ * </ul>
+ *
+ * 可复用结果对象的 ResultHandler：处理完一行后不再持有结果对象，每行复用同一个结果对象
+ *
+ * @since 3.5.2
+ */
+public interface ReusableResultHandler<T> extends ResultHandler<T> {
+
+}
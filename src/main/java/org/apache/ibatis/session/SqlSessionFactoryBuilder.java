@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.session;
 
+import org.apache.ibatis.builder.xml.ConfigurationSnapshot;
 import org.apache.ibatis.builder.xml.XMLConfigBuilder;
 import org.apache.ibatis.exceptions.ExceptionFactory;
 import org.apache.ibatis.executor.ErrorContext;
@@ -100,8 +101,36 @@ public class SqlSessionFactoryBuilder {
     }
   }
 
+  public SqlSessionFactory build(InputStream inputStream, ConfigurationSnapshot snapshot) {
+    return build(inputStream, null, null, snapshot);
+  }
+
+  /**
+   * 使用 xml 文档快照创建 sqlSessionFactory 对象：未修改的文档直接从快照中还原，其它文档解析后记录到快照中
+   *
+   * @see ConfigurationSnapshot
+   */
+  public SqlSessionFactory build(InputStream inputStream, String environment, Properties properties, ConfigurationSnapshot snapshot) {
+    try {
+      XMLConfigBuilder parser = new XMLConfigBuilder(inputStream, environment, properties, snapshot);
+      return build(parser.parse());
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error building SqlSession.", e);
+    } finally {
+      ErrorContext.instance().reset();
+      try {
+        inputStream.close();
+      } catch (IOException e) {
+        // Intentionally ignore. Prefer previous error.
+      }
+    }
+  }
 
   public SqlSessionFactory build(Configuration config) {
+    // 延迟加载 mapper 时不冻结，否则会在启动时构建所有 mapper
+    if (config.isFreezeAfterBuild() && !config.isLazyMapperLoading()) {
+      config.freeze();
+    }
     return new DefaultSqlSessionFactory(config);
   }
 
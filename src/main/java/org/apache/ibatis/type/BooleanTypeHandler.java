@@ -23,7 +23,7 @@ import java.sql.SQLException;
 /**
  * @author Clinton Begin
  */
-public class BooleanTypeHandler extends BaseTypeHandler<Boolean> {
+public class BooleanTypeHandler extends BaseTypeHandler<Boolean> implements PrimitiveTypeHandler.OfBoolean {
 
   @Override
   public void setNonNullParameter(PreparedStatement ps, int i, Boolean parameter, JdbcType jdbcType)
@@ -34,14 +34,14 @@ public class BooleanTypeHandler extends BaseTypeHandler<Boolean> {
   @Override
   public Boolean getNullableResult(ResultSet rs, String columnName)
       throws SQLException {
-    boolean result = rs.getBoolean(columnName);
+    boolean result = getBoolean(rs, columnName);
     return !result && rs.wasNull() ? null : result;
   }
 
   @Override
   public Boolean getNullableResult(ResultSet rs, int columnIndex)
       throws SQLException {
-    boolean result = rs.getBoolean(columnIndex);
+    boolean result = getBoolean(rs, columnIndex);
     return !result && rs.wasNull() ? null : result;
   }
 
@@ -51,4 +51,14 @@ public class BooleanTypeHandler extends BaseTypeHandler<Boolean> {
     boolean result = cs.getBoolean(columnIndex);
     return !result && cs.wasNull() ? null : result;
   }
+
+  @Override
+  public boolean getBoolean(ResultSet rs, String columnName) throws SQLException {
+    return rs.getBoolean(columnName);
+  }
+
+  @Override
+  public boolean getBoolean(ResultSet rs, int columnIndex) throws SQLException {
+    return rs.getBoolean(columnIndex);
+  }
 }
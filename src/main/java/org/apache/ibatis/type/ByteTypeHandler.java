@@ -23,7 +23,7 @@ import java.sql.SQLException;
 /**
  * @author Clinton Begin
  */
-public class ByteTypeHandler extends BaseTypeHandler<Byte> {
+public class ByteTypeHandler extends BaseTypeHandler<Byte> implements PrimitiveTypeHandler.OfByte {
 
   @Override
   public void setNonNullParameter(PreparedStatement ps, int i, Byte parameter, JdbcType jdbcType)
@@ -34,14 +34,14 @@ public class ByteTypeHandler extends BaseTypeHandler<Byte> {
   @Override
   public Byte getNullableResult(ResultSet rs, String columnName)
       throws SQLException {
-    byte result = rs.getByte(columnName);
+    byte result = getByte(rs, columnName);
     return result == 0 && rs.wasNull() ? null : result;
   }
 
   @Override
   public Byte getNullableResult(ResultSet rs, int columnIndex)
       throws SQLException {
-    byte result = rs.getByte(columnIndex);
+    byte result = getByte(rs, columnIndex);
     return result == 0 && rs.wasNull() ? null : result;
   }
 
@@ -51,4 +51,14 @@ public class ByteTypeHandler extends BaseTypeHandler<Byte> {
     byte result = cs.getByte(columnIndex);
     return result == 0 && cs.wasNull() ? null : result;
   }
+
+  @Override
+  public byte getByte(ResultSet rs, String columnName) throws SQLException {
+    return rs.getByte(columnName);
+  }
+
+  @Override
+  public byte getByte(ResultSet rs, int columnIndex) throws SQLException {
+    return rs.getByte(columnIndex);
+  }
 }
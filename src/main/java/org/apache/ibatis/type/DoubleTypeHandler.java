@@ -23,7 +23,7 @@ import java.sql.SQLException;
 /**
  * @author Clinton Begin
  */
-public class DoubleTypeHandler extends BaseTypeHandler<Double> {
+public class DoubleTypeHandler extends BaseTypeHandler<Double> implements PrimitiveTypeHandler.OfDouble {
 
   @Override
   public void setNonNullParameter(PreparedStatement ps, int i, Double parameter, JdbcType jdbcType)
@@ -34,14 +34,14 @@ public class DoubleTypeHandler extends BaseTypeHandler<Double> {
   @Override
   public Double getNullableResult(ResultSet rs, String columnName)
       throws SQLException {
-    double result = rs.getDouble(columnName);
+    double result = getDouble(rs, columnName);
     return result == 0 && rs.wasNull() ? null : result;
   }
 
   @Override
   public Double getNullableResult(ResultSet rs, int columnIndex)
       throws SQLException {
-    double result = rs.getDouble(columnIndex);
+    double result = getDouble(rs, columnIndex);
     return result == 0 && rs.wasNull() ? null : result;
   }
 
@@ -52,4 +52,13 @@ public class DoubleTypeHandler extends BaseTypeHandler<Double> {
     return result == 0 && cs.wasNull() ? null : result;
   }
 
+  @Override
+  public double getDouble(ResultSet rs, String columnName) throws SQLException {
+    return rs.getDouble(columnName);
+  }
+
+  @Override
+  public double getDouble(ResultSet rs, int columnIndex) throws SQLException {
+    return rs.getDouble(columnIndex);
+  }
 }
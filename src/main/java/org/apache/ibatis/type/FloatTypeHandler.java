@@ -23,7 +23,7 @@ import java.sql.SQLException;
 /**
  * @author Clinton Begin
  */
-public class FloatTypeHandler extends BaseTypeHandler<Float> {
+public class FloatTypeHandler extends BaseTypeHandler<Float> implements PrimitiveTypeHandler.OfFloat {
 
   @Override
   public void setNonNullParameter(PreparedStatement ps, int i, Float parameter, JdbcType jdbcType)
@@ -34,14 +34,14 @@ public class FloatTypeHandler extends BaseTypeHandler<Float> {
   @Override
   public Float getNullableResult(ResultSet rs, String columnName)
       throws SQLException {
-    float result = rs.getFloat(columnName);
+    float result = getFloat(rs, columnName);
     return result == 0 && rs.wasNull() ? null : result;
   }
 
   @Override
   public Float getNullableResult(ResultSet rs, int columnIndex)
       throws SQLException {
-    float result = rs.getFloat(columnIndex);
+    float result = getFloat(rs, columnIndex);
     return result == 0 && rs.wasNull() ? null : result;
   }
 
@@ -51,4 +51,14 @@ public class FloatTypeHandler extends BaseTypeHandler<Float> {
     float result = cs.getFloat(columnIndex);
     return result == 0 && cs.wasNull() ? null : result;
   }
+
+  @Override
+  public float getFloat(ResultSet rs, String columnName) throws SQLException {
+    return rs.getFloat(columnName);
+  }
+
+  @Override
+  public float getFloat(ResultSet rs, int columnIndex) throws SQLException {
+    return rs.getFloat(columnIndex);
+  }
 }
@@ -24,7 +24,7 @@ import java.sql.SQLException;
  * Integer 类型的 TypeHandler 实现类
  * @author Clinton Begin
  */
-public class IntegerTypeHandler extends BaseTypeHandler<Integer> {
+public class IntegerTypeHandler extends BaseTypeHandler<Integer> implements PrimitiveTypeHandler.OfInt {
 
   /**
    * 直接设置 ps 的参数
@@ -51,7 +51,7 @@ public class IntegerTypeHandler extends BaseTypeHandler<Integer> {
   public Integer getNullableResult(ResultSet rs, String columnName)
       throws SQLException {
     // 获得指定字段的值
-    int result = rs.getInt(columnName);
+    int result = getInt(rs, columnName);
     // 返回 result
     return result == 0 && rs.wasNull() ? null : result;
   }
@@ -66,7 +66,7 @@ public class IntegerTypeHandler extends BaseTypeHandler<Integer> {
   @Override
   public Integer getNullableResult(ResultSet rs, int columnIndex)
       throws SQLException {
-    int result = rs.getInt(columnIndex);
+    int result = getInt(rs, columnIndex);
     return result == 0 && rs.wasNull() ? null : result;
   }
 
@@ -83,4 +83,14 @@ public class IntegerTypeHandler extends BaseTypeHandler<Integer> {
     int result = cs.getInt(columnIndex);
     return result == 0 && cs.wasNull() ? null : result;
   }
+
+  @Override
+  public int getInt(ResultSet rs, String columnName) throws SQLException {
+    return rs.getInt(columnName);
+  }
+
+  @Override
+  public int getInt(ResultSet rs, int columnIndex) throws SQLException {
+    return rs.getInt(columnIndex);
+  }
 }
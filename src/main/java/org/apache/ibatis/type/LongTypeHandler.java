@@ -23,7 +23,7 @@ import java.sql.SQLException;
 /**
  * @author Clinton Begin
  */
-public class LongTypeHandler extends BaseTypeHandler<Long> {
+public class LongTypeHandler extends BaseTypeHandler<Long> implements PrimitiveTypeHandler.OfLong {
 
   @Override
   public void setNonNullParameter(PreparedStatement ps, int i, Long parameter, JdbcType jdbcType)
@@ -34,14 +34,14 @@ public class LongTypeHandler extends BaseTypeHandler<Long> {
   @Override
   public Long getNullableResult(ResultSet rs, String columnName)
       throws SQLException {
-    long result = rs.getLong(columnName);
+    long result = getLong(rs, columnName);
     return result == 0 && rs.wasNull() ? null : result;
   }
 
   @Override
   public Long getNullableResult(ResultSet rs, int columnIndex)
       throws SQLException {
-    long result = rs.getLong(columnIndex);
+    long result = getLong(rs, columnIndex);
     return result == 0 && rs.wasNull() ? null : result;
   }
 
@@ -51,4 +51,14 @@ public class LongTypeHandler extends BaseTypeHandler<Long> {
     long result = cs.getLong(columnIndex);
     return result == 0 && cs.wasNull() ? null : result;
   }
+
+  @Override
+  public long getLong(ResultSet rs, String columnName) throws SQLException {
+    return rs.getLong(columnName);
+  }
+
+  @Override
+  public long getLong(ResultSet rs, int columnIndex) throws SQLException {
+    return rs.getLong(columnIndex);
+  }
 }
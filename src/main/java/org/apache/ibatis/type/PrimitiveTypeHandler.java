@@ -0,0 +1,80 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A type handler that can read a column as an unboxed primitive value.
+ * <p>
+ * When the target property of a result mapping is primitive, the result set handler reads the column
+ * through one of the nested interfaces and calls the setter with the primitive value, so no wrapper object
+ * is created for each cell. The methods return the default value of the primitive type for SQL NULL,
+ * the caller has to check {@link ResultSet#wasNull()}.
+ * <p>
+ * The primitive methods are only used when they are declared by the same class as
+ * {@code getNullableResult(ResultSet, String)}, so a subclass that overrides the boxed read is not bypassed.
+ *
+ * 可以直接读取基本类型值的 TypeHandler，用于结果映射时避免装箱
+ *
+ * @since 3.5.2
+ */
+public interface PrimitiveTypeHandler {
+
+  interface OfInt extends PrimitiveTypeHandler {
+    int getInt(ResultSet rs, String columnName) throws SQLException;
+
+    int getInt(ResultSet rs, int columnIndex) throws SQLException;
+  }
+
+  interface OfLong extends PrimitiveTypeHandler {
+    long getLong(ResultSet rs, String columnName) throws SQLException;
+
+    long getLong(ResultSet rs, int columnIndex) throws SQLException;
+  }
+
+  interface OfDouble extends PrimitiveTypeHandler {
+    double getDouble(ResultSet rs, String columnName) throws SQLException;
+
+    double getDouble(ResultSet rs, int columnIndex) throws SQLException;
+  }
+
+  interface OfFloat extends PrimitiveTypeHandler {
+    float getFloat(ResultSet rs, String columnName) throws SQLException;
+
+    float getFloat(ResultSet rs, int columnIndex) throws SQLException;
+  }
+
+  interface OfShort extends PrimitiveTypeHandler {
+    short getShort(ResultSet rs, String columnName) throws SQLException;
+
+    short getShort(ResultSet rs, int columnIndex) throws SQLException;
+  }
+
+  interface OfByte extends PrimitiveTypeHandler {
+    byte getByte(ResultSet rs, String columnName) throws SQLException;
+
+    byte getByte(ResultSet rs, int columnIndex) throws SQLException;
+  }
+
+  interface OfBoolean extends PrimitiveTypeHandler {
+    boolean getBoolean(ResultSet rs, String columnName) throws SQLException;
+
+    boolean getBoolean(ResultSet rs, int columnIndex) throws SQLException;
+  }
+
+}
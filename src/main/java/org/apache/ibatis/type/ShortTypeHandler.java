@@ -23,7 +23,7 @@ import java.sql.SQLException;
 /**
  * @author Clinton Begin
  */
-public class ShortTypeHandler extends BaseTypeHandler<Short> {
+public class ShortTypeHandler extends BaseTypeHandler<Short> implements PrimitiveTypeHandler.OfShort {
 
   @Override
   public void setNonNullParameter(PreparedStatement ps, int i, Short parameter, JdbcType jdbcType)
@@ -34,14 +34,14 @@ public class ShortTypeHandler extends BaseTypeHandler<Short> {
   @Override
   public Short getNullableResult(ResultSet rs, String columnName)
       throws SQLException {
-    short result = rs.getShort(columnName);
+    short result = getShort(rs, columnName);
     return result == 0 && rs.wasNull() ? null : result;
   }
 
   @Override
   public Short getNullableResult(ResultSet rs, int columnIndex)
       throws SQLException {
-    short result = rs.getShort(columnIndex);
+    short result = getShort(rs, columnIndex);
     return result == 0 && rs.wasNull() ? null : result;
   }
 
@@ -51,4 +51,14 @@ public class ShortTypeHandler extends BaseTypeHandler<Short> {
     short result = cs.getShort(columnIndex);
     return result == 0 && cs.wasNull() ? null : result;
   }
+
+  @Override
+  public short getShort(ResultSet rs, String columnName) throws SQLException {
+    return rs.getShort(columnName);
+  }
+
+  @Override
+  public short getShort(ResultSet rs, int columnIndex) throws SQLException {
+    return rs.getShort(columnIndex);
+  }
 }
@@ -70,6 +70,21 @@ public final class TypeHandlerRegistry {
    */
   private static final Map<JdbcType, TypeHandler<?>> NULL_TYPE_HANDLER_MAP = Collections.emptyMap();
 
+  /**
+   * 解析结果缓存
+   * key: java type
+   * value: 按 JdbcType 序号 + 1 索引的 TypeHandler（下标 0 对应 null jdbc type），未找到时为 NO_TYPE_HANDLER
+   * 注册 TypeHandler 时整体替换
+   */
+  private volatile Map<Type, TypeHandler<?>[]> resolvedTypeHandlers = new ConcurrentHashMap<>();
+
+  /**
+   * 表示没有对应 TypeHandler 的缓存值
+   */
+  private static final TypeHandler<?> NO_TYPE_HANDLER = new ObjectTypeHandler();
+
+  private static final int JDBC_TYPE_SLOTS = JdbcType.values().length + 1;
+
   /**
    * 默认枚举类型 TypeHandler 集合
    */
@@ -186,6 +201,7 @@ public final class TypeHandlerRegistry {
    */
   public void setDefaultEnumTypeHandler(Class<? extends TypeHandler> typeHandler) {
     this.defaultEnumTypeHandler = typeHandler;
+    invalidateResolvedTypeHandlers();
   }
 
   public boolean hasTypeHandler(Class<?> javaType) {
@@ -237,7 +253,33 @@ public final class TypeHandlerRegistry {
    */
   @SuppressWarnings("unchecked")
   private <T> TypeHandler<T> getTypeHandler(Type type, JdbcType jdbcType) {
-    if (ParamMap.class.equals(type)) {
+    if (type == null) {
+      return resolveTypeHandler(null, jdbcType);
+    }
+    // 先查解析结果缓存（包括未找到的结果）
+    final Map<Type, TypeHandler<?>[]> resolved = resolvedTypeHandlers;
+    final int slot = jdbcType == null ? 0 : jdbcType.ordinal() + 1;
+    TypeHandler<?>[] handlers = resolved.get(type);
+    if (handlers != null) {
+      TypeHandler<?> handler = handlers[slot];
+      if (handler != null) {
+        return handler == NO_TYPE_HANDLER ? null : (TypeHandler<T>) handler;
+      }
+    } else {
+      handlers = new TypeHandler<?>[JDBC_TYPE_SLOTS];
+      TypeHandler<?>[] existing = resolved.putIfAbsent(type, handlers);
+      if (existing != null) {
+        handlers = existing;
+      }
+    }
+    TypeHandler<T> handler = resolveTypeHandler(type, jdbcType);
+    handlers[slot] = handler == null ? NO_TYPE_HANDLER : handler;
+    return handler;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> TypeHandler<T> resolveTypeHandler(Type type, JdbcType jdbcType) {
+    if (type instanceof Class && ParamMap.class.isAssignableFrom((Class<?>) type)) {
       return null;
     }
     // 获得对应的 jdbcHandlerMap
@@ -284,7 +326,8 @@ public final class TypeHandlerRegistry {
         jdbcHandlerMap = getJdbcHandlerMapForEnumInterfaces(enumClass, enumClass);
         // 为空； 设置默认到enum TypeHandler; 并返回 jdbc - TypeHandler 集合
         if (jdbcHandlerMap == null) {
-          register(enumClass, getInstance(enumClass, defaultEnumTypeHandler));
+          // 该枚举此前没有任何解析结果，无需清空解析结果缓存
+          addTypeHandler(enumClass, getInstance(enumClass, defaultEnumTypeHandler));
           return typeHandlerMap.get(enumClass);
         }
       }
@@ -416,20 +459,25 @@ public final class TypeHandlerRegistry {
   }
 
   private <T> void register(Type javaType, TypeHandler<? extends T> typeHandler) {
+    addTypeHandler(javaType, typeHandler);
+    invalidateResolvedTypeHandlers();
+  }
+
+  private void addTypeHandler(Type javaType, TypeHandler<?> typeHandler) {
     // 获得 jdbc 映射注解; java type 1对多的情况
     MappedJdbcTypes mappedJdbcTypes = typeHandler.getClass().getAnnotation(MappedJdbcTypes.class);
     // 存在注解
     if (mappedJdbcTypes != null) {
       // 获取注解的值
       for (JdbcType handledJdbcType : mappedJdbcTypes.value()) {
-        register(javaType, handledJdbcType, typeHandler);
+        addTypeHandler(javaType, handledJdbcType, typeHandler);
       }
       // 是否设置Null jdbc type
       if (mappedJdbcTypes.includeNullJdbcType()) {
-        register(javaType, null, typeHandler);
+        addTypeHandler(javaType, null, typeHandler);
       }
     } else {
-      register(javaType, null, typeHandler);
+      addTypeHandler(javaType, null, typeHandler);
     }
   }
 
@@ -450,6 +498,19 @@ public final class TypeHandlerRegistry {
    * @param handler
    */
   private void register(Type javaType, JdbcType jdbcType, TypeHandler<?> handler) {
+    addTypeHandler(javaType, jdbcType, handler);
+    invalidateResolvedTypeHandlers();
+  }
+
+  /**
+   * 注册变化后之前的解析结果不再可靠。
+   * 必须在修改注册表之后替换：查询在解析前获取缓存的引用，并发查询只会把旧状态写入被替换的缓存
+   */
+  private void invalidateResolvedTypeHandlers() {
+    resolvedTypeHandlers = new ConcurrentHashMap<>();
+  }
+
+  private void addTypeHandler(Type javaType, JdbcType jdbcType, TypeHandler<?> handler) {
     if (javaType != null) {
       // 获取java type 对应的 jdbc type 集合
       Map<JdbcType, TypeHandler<?>> map = typeHandlerMap.get(javaType);
@@ -0,0 +1,123 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Test;
+
+class FixedParamMapTest {
+
+  interface Mapper {
+    void select(@Param("id") Integer id, RowBounds rowBounds, @Param("name") String name);
+
+    void selectGenericName(@Param("param2") Integer id, @Param("name") String name);
+  }
+
+  private static Object namedParams(String methodName, Object... args) throws Exception {
+    for (Method method : Mapper.class.getMethods()) {
+      if (method.getName().equals(methodName)) {
+        return new ParamNameResolver(new Configuration(), method).getNamedParams(args);
+      }
+    }
+    throw new IllegalArgumentException(methodName);
+  }
+
+  @Test
+  void shouldReadArgumentsThroughLayout() throws Exception {
+    @SuppressWarnings("unchecked")
+    Map<String, Object> params = (Map<String, Object>) namedParams("select", 1, RowBounds.DEFAULT, "a");
+    assertTrue(params instanceof ParamMap);
+    assertEquals(4, params.size());
+    assertEquals(1, params.get("id"));
+    assertEquals("a", params.get("name"));
+    assertEquals(1, params.get("param1"));
+    assertEquals("a", params.get("param2"));
+    assertTrue(params.containsKey("param2"));
+    assertFalse(params.containsKey("param3"));
+    BindingException e = assertThrows(BindingException.class, () -> params.get("param3"));
+    assertTrue(e.getMessage().startsWith("Parameter 'param3' not found."));
+  }
+
+  @Test
+  void shouldNotOverwriteGenericNameGivenWithParam() throws Exception {
+    @SuppressWarnings("unchecked")
+    Map<String, Object> params = (Map<String, Object>) namedParams("selectGenericName", 1, "a");
+    assertEquals(3, params.size());
+    assertEquals(1, params.get("param2"));
+    assertEquals(1, params.get("param1"));
+    assertEquals("a", params.get("name"));
+  }
+
+  @Test
+  void shouldBehaveAsHashMapOnceModified() throws Exception {
+    @SuppressWarnings("unchecked")
+    Map<String, Object> params = (Map<String, Object>) namedParams("select", 1, RowBounds.DEFAULT, "a");
+    Map<String, Object> expected = new HashMap<>();
+    expected.put("id", 1);
+    expected.put("name", "a");
+    expected.put("param1", 1);
+    expected.put("param2", "a");
+    assertEquals(expected, params);
+    params.put("id", 2);
+    params.remove("param2");
+    assertEquals(2, params.get("id"));
+    assertEquals(3, params.size());
+    assertFalse(params.containsKey("param2"));
+    assertThrows(BindingException.class, () -> params.get("param2"));
+  }
+
+  @Test
+  void shouldLookUpKeysWhenHashesCollide() {
+    // "Aa" and "BB" have the same hash code
+    FixedParamMap.Layout layout = new FixedParamMap.Layout(Arrays.asList("Aa", "BB", "c"),
+        Arrays.asList(0, 1, 2));
+    FixedParamMap params = new FixedParamMap(layout, new Object[] { "x", "y", "z" });
+    assertEquals("x", params.get("Aa"));
+    assertEquals("y", params.get("BB"));
+    assertEquals("z", params.get("c"));
+    assertFalse(params.containsKey("C"));
+  }
+
+  @Test
+  void shouldSerializeAsParamMap() throws Exception {
+    Object params = namedParams("select", 1, RowBounds.DEFAULT, "a");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(params);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      Object copy = in.readObject();
+      assertEquals(ParamMap.class, copy.getClass());
+      assertEquals(params, copy);
+    }
+  }
+
+}
@@ -0,0 +1,132 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Blog;
+import org.apache.ibatis.domain.blog.Post;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class GeneratedMapperTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  interface AuthorMapper {
+
+    @Select("select count(*) from author")
+    int countAuthors();
+
+    @Select("select username from author where id = #{id}")
+    String selectUsername(int id);
+
+    @Select("select bio from author where id = #{id}")
+    String selectBio(int id);
+
+    @Update("update author set bio = #{bio} where id = #{id}")
+    void updateBio(@Param("id") int id, @Param("bio") String bio);
+
+    String selectUnbound();
+
+    default String selectUpperCaseUsername(int id) {
+      return selectUsername(id).toUpperCase();
+    }
+
+  }
+
+  @BeforeAll
+  static void setup() throws Exception {
+    DataSource dataSource = BaseDataTest.createBlogDataSource();
+    BaseDataTest.runScript(dataSource, BaseDataTest.BLOG_DDL);
+    BaseDataTest.runScript(dataSource, BaseDataTest.BLOG_DATA);
+    Configuration configuration = new Configuration(new Environment("Production", new JdbcTransactionFactory(), dataSource));
+    configuration.setUseGeneratedMapperClasses(true);
+    configuration.getTypeAliasRegistry().registerAlias(Blog.class);
+    configuration.getTypeAliasRegistry().registerAlias(Post.class);
+    configuration.getTypeAliasRegistry().registerAlias(Author.class);
+    configuration.addMapper(BoundBlogMapper.class);
+    configuration.addMapper(BoundAuthorMapper.class);
+    configuration.addMapper(AuthorMapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  @Test
+  void shouldUseGeneratedImplementation() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      AuthorMapper mapper = session.getMapper(AuthorMapper.class);
+      assertFalse(Proxy.isProxyClass(mapper.getClass()));
+      assertTrue(mapper instanceof GeneratedMapper);
+      assertEquals(2, mapper.countAuthors());
+      assertEquals("jim", mapper.selectUsername(101));
+      assertEquals("JIM", mapper.selectUpperCaseUsername(101));
+      mapper.updateBio(101, "changed");
+      assertEquals("changed", mapper.selectBio(101));
+      session.rollback();
+    }
+  }
+
+  @Test
+  void shouldExecuteXmlStatements() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      BoundAuthorMapper mapper = session.getMapper(BoundAuthorMapper.class);
+      assertEquals("jim", mapper.selectAuthor(101).getUsername());
+      List<Post> posts = mapper.findPostsInList(new ArrayList<>(Arrays.asList(1, 3, 5)));
+      assertEquals(3, posts.size());
+      Blog blog = session.getMapper(BoundBlogMapper.class).selectBlogWithPostsUsingSubSelect(1);
+      assertEquals(2, blog.getPosts().size());
+    }
+  }
+
+  @Test
+  void shouldReportUnboundMethodWhenCalled() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      AuthorMapper mapper = session.getMapper(AuthorMapper.class);
+      BindingException e = assertThrows(BindingException.class, mapper::selectUnbound);
+      assertTrue(e.getMessage().contains("Invalid bound statement (not found)"));
+    }
+  }
+
+  @Test
+  void shouldBindMethodsAgainAfterMethodCacheIsCleared() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      AuthorMapper mapper = session.getMapper(AuthorMapper.class);
+      assertEquals(2, mapper.countAuthors());
+      sqlSessionFactory.getConfiguration().getMapperRegistry().clearMethodCache(AuthorMapper.class);
+      assertEquals(2, mapper.countAuthors());
+      assertEquals("jim", mapper.selectUsername(101));
+    }
+  }
+
+}
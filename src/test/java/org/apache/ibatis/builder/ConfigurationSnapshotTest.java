@@ -0,0 +1,137 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.ibatis.builder.xml.ConfigurationSnapshot;
+import org.apache.ibatis.builder.xml.XMLMapperEntityResolver;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.parsing.XPathParser;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.Test;
+
+class ConfigurationSnapshotTest {
+
+  private static final String RESOURCE = "org/apache/ibatis/builder/MapperConfig.xml";
+
+  @Test
+  void shouldRestoreSameConfigurationFromSnapshot() throws Exception {
+    ConfigurationSnapshot recorded = new ConfigurationSnapshot();
+    Configuration expected = build(recorded);
+    assertTrue(recorded.isModified());
+    assertTrue(recorded.getLocations().contains(ConfigurationSnapshot.CONFIGURATION));
+    assertTrue(recorded.getLocations().contains("org/apache/ibatis/builder/BlogMapper.xml"));
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    recorded.write(bytes);
+    assertFalse(recorded.isModified());
+
+    ConfigurationSnapshot snapshot = ConfigurationSnapshot.read(new ByteArrayInputStream(bytes.toByteArray()));
+    Configuration actual = build(snapshot);
+    assertFalse(snapshot.isModified());
+    // every document is restored, none is parsed again
+    assertEquals(recorded.getParsedCount(), snapshot.getRestoredCount());
+    assertEquals(0, snapshot.getParsedCount());
+
+    assertEquals(sortedNames(expected), sortedNames(actual));
+    assertEquals(expected.getResultMapNames(), actual.getResultMapNames());
+    MappedStatement expectedStatement = expected.getMappedStatement("org.apache.ibatis.domain.blog.mappers.BlogMapper.selectBlogWithPostsUsingSubSelect");
+    MappedStatement actualStatement = actual.getMappedStatement("org.apache.ibatis.domain.blog.mappers.BlogMapper.selectBlogWithPostsUsingSubSelect");
+    assertEquals(expectedStatement.getBoundSql(1).getSql(), actualStatement.getBoundSql(1).getSql());
+    assertEquals(expected.getEnvironment().getId(), actual.getEnvironment().getId());
+  }
+
+  @Test
+  void shouldParseAgainDocumentsThatHaveChanged() throws Exception {
+    ConfigurationSnapshot snapshot = new ConfigurationSnapshot();
+    XPathParser parser = snapshot.createParser("mapper.xml", stream("<mapper namespace=\"a\"/>"), new Properties());
+    assertEquals("a", parser.evalNode("/mapper").getStringAttribute("namespace"));
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    snapshot.write(bytes);
+    snapshot = ConfigurationSnapshot.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+    parser = snapshot.createParser("mapper.xml", stream("<mapper namespace=\"a\"/>"), new Properties());
+    assertEquals("a", parser.evalNode("/mapper").getStringAttribute("namespace"));
+    assertFalse(snapshot.isModified());
+
+    parser = snapshot.createParser("mapper.xml", stream("<mapper namespace=\"b\"/>"), new Properties());
+    assertEquals("b", parser.evalNode("/mapper").getStringAttribute("namespace"));
+    assertTrue(snapshot.isModified());
+  }
+
+  @Test
+  void shouldSkipParsingOfUnchangedDocuments() throws Exception {
+    String mapper = "<mapper namespace=\"a\">";
+    for (int i = 0; i < 500; i++) {
+      mapper += "<select id=\"select" + i + "\" resultType=\"map\">select * from t where id = #{id}</select>";
+    }
+    mapper += "</mapper>";
+    ConfigurationSnapshot recorded = new ConfigurationSnapshot();
+    recorded.createParser("mapper.xml", stream(mapper), new Properties());
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    recorded.write(bytes);
+    ConfigurationSnapshot snapshot = ConfigurationSnapshot.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+    XPathParser restored = snapshot.createParser("mapper.xml", stream(mapper), new Properties());
+    // the unchanged document is restored, not parsed again
+    assertEquals(1, snapshot.getRestoredCount());
+    assertEquals(0, snapshot.getParsedCount());
+    assertFalse(snapshot.isModified());
+
+    // and it is equivalent to the parsed document
+    XPathParser parsed = new XPathParser(stream(mapper), true, new Properties(), new XMLMapperEntityResolver());
+    List<XNode> expected = parsed.evalNodes("/mapper/select");
+    List<XNode> actual = restored.evalNodes("/mapper/select");
+    assertEquals(500, actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getStringAttribute("id"), actual.get(i).getStringAttribute("id"));
+      assertEquals(expected.get(i).getStringAttribute("resultType"), actual.get(i).getStringAttribute("resultType"));
+      assertEquals(expected.get(i).getStringBody(), actual.get(i).getStringBody());
+    }
+  }
+
+  private static Configuration build(ConfigurationSnapshot snapshot) throws Exception {
+    try (InputStream inputStream = Resources.getResourceAsStream(RESOURCE)) {
+      return new SqlSessionFactoryBuilder().build(inputStream, snapshot).getConfiguration();
+    }
+  }
+
+  private static List<String> sortedNames(Configuration configuration) {
+    List<String> names = new ArrayList<>(configuration.getMappedStatementNames());
+    Collections.sort(names);
+    return names;
+  }
+
+  private static InputStream stream(String xml) {
+    xml = "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">" + xml;
+    return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+  }
+
+}
@@ -23,6 +23,7 @@ import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultSetType;
 import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.TypeHandler;
 import org.junit.jupiter.api.Assertions;
@@ -63,6 +64,31 @@ class XmlMapperBuilderTest {
     }
   }
 
+  @Test
+  void shouldLoadSameStatementsWithStaxParser() throws Exception {
+    Configuration domConfiguration = new Configuration();
+    Configuration staxConfiguration = new Configuration();
+    staxConfiguration.setUseStaxMapperParser(true);
+    String resource = "org/apache/ibatis/builder/AuthorMapper.xml";
+    for (Configuration configuration : new Configuration[] { domConfiguration, staxConfiguration }) {
+      try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+        XMLMapperBuilder builder = new XMLMapperBuilder(XMLMapperBuilder.createParser(inputStream, configuration),
+            configuration, resource, configuration.getSqlFragments());
+        builder.parse();
+      }
+    }
+    assertThat(staxConfiguration.getMappedStatementNames()).isEqualTo(domConfiguration.getMappedStatementNames());
+    assertThat(staxConfiguration.getResultMapNames()).isEqualTo(domConfiguration.getResultMapNames());
+    for (String id : domConfiguration.getMappedStatementNames()) {
+      MappedStatement expected = domConfiguration.getMappedStatement(id);
+      MappedStatement actual = staxConfiguration.getMappedStatement(id);
+      assertThat(actual.getSqlSource().getClass()).isEqualTo(expected.getSqlSource().getClass());
+      if (!(expected.getSqlSource() instanceof DynamicSqlSource)) {
+        assertThat(actual.getBoundSql(null).getSql()).isEqualTo(expected.getBoundSql(null).getSql());
+      }
+    }
+  }
+
   @Test
   void parseExpression() {
     BaseBuilder builder = new BaseBuilder(new Configuration()){{}};
@@ -0,0 +1,142 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.ExpiringCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.Test;
+
+class BlockingCacheTest {
+
+  @Test
+  void shouldShareTheValueLoadedByTheFirstMiss() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    assertNull(cache.getObject(0));
+    CompletableFuture<Object> waiter = CompletableFuture.supplyAsync(() -> cache.getObject(0));
+    assertThrows(TimeoutException.class, () -> waiter.get(100, TimeUnit.MILLISECONDS));
+    cache.putObject(0, "value");
+    assertEquals("value", waiter.get(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void shouldLetAnotherThreadLoadWhenTheFirstMissIsReleased() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    assertNull(cache.getObject(0));
+    CompletableFuture<Object> waiter = CompletableFuture.supplyAsync(() -> cache.getObject(0));
+    assertThrows(TimeoutException.class, () -> waiter.get(100, TimeUnit.MILLISECONDS));
+    cache.removeObject(0);
+    assertNull(waiter.get(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void shouldNotBlockTheThreadLoadingTheValue() {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(0));
+    cache.putObject(0, "value");
+    assertEquals("value", cache.getObject(0));
+  }
+
+  @Test
+  void shouldFailWhenTheValueIsNotLoadedInTime() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    cache.setTimeout(50);
+    assertNull(cache.getObject(0));
+    CompletableFuture<Object> waiter = CompletableFuture.supplyAsync(() -> cache.getObject(0));
+    Exception e = assertThrows(Exception.class, () -> waiter.get(1, TimeUnit.SECONDS));
+    assertTrue(e.getCause() instanceof CacheException);
+    cache.removeObject(0);
+  }
+
+  @Test
+  void shouldReleaseLoadOfTerminatedThread() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    cache.setTimeout(50);
+    Thread loader = new Thread(() -> cache.getObject(0));
+    loader.start();
+    loader.join();
+    assertNull(cache.getObject(0));
+    cache.putObject(0, "value");
+    assertEquals("value", cache.getObject(0));
+  }
+
+  @Test
+  void shouldNotReleaseLoadOfAnotherThread() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    assertNull(cache.getObject(0));
+    CompletableFuture<Object> waiter = CompletableFuture.supplyAsync(() -> cache.getObject(0));
+    CompletableFuture.runAsync(() -> cache.removeObject(0)).get(1, TimeUnit.SECONDS);
+    assertThrows(TimeoutException.class, () -> waiter.get(100, TimeUnit.MILLISECONDS));
+    cache.putObject(0, "value");
+    assertEquals("value", waiter.get(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void shouldReleaseLoadOfThreadTerminatedWhileWaitingWithoutTimeout() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    CountDownLatch loaded = new CountDownLatch(1);
+    CountDownLatch terminate = new CountDownLatch(1);
+    Thread loader = new Thread(() -> {
+      cache.getObject(0);
+      loaded.countDown();
+      try {
+        terminate.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    loader.start();
+    loaded.await();
+    CompletableFuture<Object> waiter = CompletableFuture.supplyAsync(() -> cache.getObject(0));
+    assertThrows(TimeoutException.class, () -> waiter.get(100, TimeUnit.MILLISECONDS));
+    terminate.countDown();
+    loader.join();
+    assertNull(waiter.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void shouldReloadRefreshAheadEntry() throws Exception {
+    AtomicLong now = new AtomicLong(1000000);
+    ExpiringCache expiringCache = new ExpiringCache(new PerpetualCache("default"));
+    expiringCache.setClock(now::get);
+    expiringCache.setTimeToLive(200);
+    expiringCache.setRefreshAhead(150);
+    BlockingCache cache = new BlockingCache(expiringCache);
+    cache.putObject(0, "old");
+    now.addAndGet(80);
+    assertNull(cache.getObject(0));
+    CompletableFuture<Object> waiter = CompletableFuture.supplyAsync(() -> cache.getObject(0));
+    assertThrows(TimeoutException.class, () -> waiter.get(20, TimeUnit.MILLISECONDS));
+    cache.putObject(0, "new");
+    assertEquals("new", waiter.get(1, TimeUnit.SECONDS));
+    assertEquals("new", cache.getObject(0));
+    // the refresh signal is given again for the reloaded entry
+    now.addAndGet(80);
+    assertNull(cache.getObject(0));
+    cache.putObject(0, "newer");
+    assertEquals("newer", cache.getObject(0));
+  }
+
+}
@@ -0,0 +1,114 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.impl.LoopbackCacheInvalidationBroadcaster;
+import org.apache.ibatis.cache.impl.UdpCacheInvalidationBroadcaster;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class CacheInvalidationBroadcasterTest {
+
+  @Test
+  void shouldDeliverToOtherMembersOfTheSameGroup() {
+    RecordingListener listener1 = new RecordingListener();
+    RecordingListener listener2 = new RecordingListener();
+    RecordingListener listener3 = new RecordingListener();
+    LoopbackCacheInvalidationBroadcaster node1 = loopback("group1", listener1);
+    LoopbackCacheInvalidationBroadcaster node2 = loopback("group1", listener2);
+    LoopbackCacheInvalidationBroadcaster node3 = loopback("group2", listener3);
+    try {
+      node1.publishClear("namespace");
+      node1.publishInvalidate(Arrays.asList("person", "pet"));
+      assertEquals("clear namespace", listener2.received.poll());
+      assertEquals("invalidate [person, pet]", listener2.received.poll());
+      assertTrue(listener1.received.isEmpty());
+      assertTrue(listener3.received.isEmpty());
+    } finally {
+      node1.close();
+      node2.close();
+      node3.close();
+    }
+  }
+
+  @Test
+  void shouldSendDatagramsToPeers() throws Exception {
+    RecordingListener listener1 = new RecordingListener();
+    RecordingListener listener2 = new RecordingListener();
+    UdpCacheInvalidationBroadcaster node1 = new UdpCacheInvalidationBroadcaster();
+    UdpCacheInvalidationBroadcaster node2 = new UdpCacheInvalidationBroadcaster();
+    node1.setPort(0);
+    node1.setPeers("127.0.0.1:1");
+    node2.setPort(0);
+    node2.setPeers("127.0.0.1:1");
+    node1.start(listener1);
+    node2.start(listener2);
+    try {
+      node1.setPeers("127.0.0.1:" + node2.getLocalPort());
+      node2.setPeers("127.0.0.1:" + node1.getLocalPort());
+      node1.publishClear("namespace");
+      node2.publishInvalidate(Arrays.asList("person", "pet"));
+      assertEquals("clear namespace", listener2.received.poll(5, TimeUnit.SECONDS));
+      assertEquals("invalidate [person, pet]", listener1.received.poll(5, TimeUnit.SECONDS));
+    } finally {
+      node1.close();
+      node2.close();
+    }
+  }
+
+  @Test
+  void shouldStopReceiverThreadWhenConfigurationIsClosed() {
+    UdpCacheInvalidationBroadcaster broadcaster = new UdpCacheInvalidationBroadcaster();
+    broadcaster.setPort(0);
+    broadcaster.setPeers("127.0.0.1:1");
+    Configuration configuration = new Configuration();
+    configuration.setCacheInvalidationBroadcaster(broadcaster);
+    assertTrue(broadcaster.isReceiving());
+    configuration.close();
+    assertFalse(broadcaster.isReceiving());
+    assertNull(configuration.getCacheInvalidationBroadcaster());
+  }
+
+  private static LoopbackCacheInvalidationBroadcaster loopback(String group, CacheInvalidationListener listener) {
+    LoopbackCacheInvalidationBroadcaster broadcaster = new LoopbackCacheInvalidationBroadcaster();
+    broadcaster.setGroup(group);
+    broadcaster.start(listener);
+    return broadcaster;
+  }
+
+  private static class RecordingListener implements CacheInvalidationListener {
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+
+    @Override
+    public void onClear(String cacheId) {
+      received.add("clear " + cacheId);
+    }
+
+    @Override
+    public void onInvalidate(Collection<String> tags) {
+      received.add("invalidate " + tags);
+    }
+  }
+
+}
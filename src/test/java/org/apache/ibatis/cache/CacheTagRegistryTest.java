@@ -0,0 +1,51 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+class CacheTagRegistryTest {
+
+  @Test
+  void shouldExtractTablesFromSql() {
+    CacheTagRegistry registry = new CacheTagRegistry();
+    assertArrayEquals(new String[] { "author" }, registry.extractTables("select * from author where id = ?"));
+    assertArrayEquals(new String[] { "blog", "author", "post" },
+        registry.extractTables("SELECT * FROM blog b JOIN Author a ON a.id = b.author_id left join \"post\" on post.blog_id = b.id"));
+    assertArrayEquals(new String[] { "blog", "author" }, registry.extractTables("select * from blog, app.author as a where a.id = blog.id"));
+    assertArrayEquals(new String[] { "author" }, registry.extractTables("insert into author (id) values (?)"));
+    assertArrayEquals(new String[] { "author" }, registry.extractTables("update author set name = ? where id = ?"));
+    assertArrayEquals(new String[] { "author" }, registry.extractTables("delete from author where id = ?"));
+    assertNull(registry.extractTables("call next_value()"));
+  }
+
+  @Test
+  void shouldMakeTaggedEntriesStaleWhenTheirTagsAreInvalidated() {
+    CacheTagRegistry registry = new CacheTagRegistry();
+    String[] tags = { "author", "blog" };
+    TaggedCacheEntry entry = new TaggedCacheEntry("value", tags, registry.getVersions(tags));
+    TaggedCacheEntry other = new TaggedCacheEntry("value", new String[] { "post" }, registry.getVersions(new String[] { "post" }));
+    assertTrue(registry.isCurrent(entry));
+    registry.invalidate(Collections.singletonList("blog"));
+    assertFalse(registry.isCurrent(entry));
+    assertTrue(registry.isCurrent(other));
+  }
+
+}
@@ -0,0 +1,123 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.ibatis.cache.decorators.ExpiringCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.junit.jupiter.api.Test;
+
+class ExpiringCacheTest {
+
+  private final AtomicLong now = new AtomicLong(1000000);
+
+  @Test
+  void shouldExpireEntriesAfterTimeToLive() {
+    ExpiringCache cache = newCache(new PerpetualCache("default"));
+    cache.setTimeToLive(50);
+    cache.putObject(0, 0);
+    assertEquals(0, cache.getObject(0));
+    now.addAndGet(49);
+    assertEquals(0, cache.getObject(0));
+    now.addAndGet(1);
+    cache.putObject(1, 1);
+    assertNull(cache.getObject(0));
+    assertEquals(1, cache.getObject(1));
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  void shouldExtendEntriesOnAccessWithTimeToIdle() {
+    ExpiringCache cache = newCache(new PerpetualCache("default"));
+    cache.setTimeToIdle(200);
+    cache.putObject(0, 0);
+    cache.putObject(1, 1);
+    for (int i = 0; i < 4; i++) {
+      now.addAndGet(60);
+      assertEquals(0, cache.getObject(0));
+    }
+    assertNull(cache.getObject(1));
+    assertEquals(0, cache.getObject(0));
+  }
+
+  @Test
+  void shouldSweepExpiredEntries() {
+    PerpetualCache delegate = new PerpetualCache("default");
+    ExpiringCache cache = newCache(delegate);
+    cache.setTick(10);
+    cache.setTimeToLive(20);
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    now.addAndGet(10);
+    cache.putObject(5, 5);
+    now.addAndGet(15);
+    cache.expireEntries();
+    assertEquals(1, delegate.getSize());
+    assertEquals(5, delegate.getObject(5));
+    now.addAndGet(10);
+    cache.expireEntries();
+    assertEquals(0, delegate.getSize());
+  }
+
+  @Test
+  void shouldReportMissToOnlyOneCallerWithinRefreshAhead() {
+    ExpiringCache cache = newCache(new PerpetualCache("default"));
+    cache.setTimeToLive(100);
+    cache.setRefreshAhead(80);
+    cache.putObject(0, 0);
+    assertEquals(0, cache.getObject(0));
+    now.addAndGet(40);
+    assertNull(cache.getObject(0));
+    assertEquals(0, cache.getObject(0));
+    cache.putObject(0, 1);
+    assertEquals(1, cache.getObject(0));
+  }
+
+  @Test
+  void shouldRemoveItemOnDemandAndFlushAll() {
+    ExpiringCache cache = newCache(new PerpetualCache("default"));
+    cache.setTimeToLive(60000);
+    cache.putObject(0, 0);
+    cache.putObject(1, 1);
+    cache.removeObject(0);
+    assertNull(cache.getObject(0));
+    cache.clear();
+    assertNull(cache.getObject(1));
+  }
+
+  @Test
+  void shouldBeConfiguredThroughCacheBuilder() {
+    Cache cache = new CacheBuilder("default").timeToLive(50L).timeToIdle(30L).build();
+    while (!(cache instanceof ExpiringCache)) {
+      cache = (Cache) SystemMetaObject.forObject(cache).getValue("delegate");
+    }
+    assertEquals(50L, ((ExpiringCache) cache).getTimeToLive());
+    assertEquals(30L, ((ExpiringCache) cache).getTimeToIdle());
+  }
+
+  private ExpiringCache newCache(Cache delegate) {
+    ExpiringCache cache = new ExpiringCache(delegate);
+    cache.setClock(now::get);
+    return cache;
+  }
+
+}
@@ -0,0 +1,108 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.apache.ibatis.cache.decorators.WeightedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+class StatisticsCacheTest {
+
+  @Test
+  void shouldCountHitsMissesPutsAndEvictions() {
+    CacheStatistics statistics = new CacheStatistics("default");
+    Cache cache = new CacheBuilder("default").size(2).statistics(statistics).build();
+    cache.putObject(0, 0);
+    cache.putObject(1, 1);
+    cache.putObject(2, 2);
+    assertNull(cache.getObject(0));
+    assertEquals(2, cache.getObject(2));
+    cache.removeObject(2);
+    assertEquals(3, statistics.getPuts());
+    assertEquals(1, statistics.getHits());
+    assertEquals(1, statistics.getMisses());
+    assertEquals(0.5, statistics.getHitRatio());
+    assertEquals(1, statistics.getRemovals());
+    assertEquals(1, statistics.getEvictions());
+    assertEquals(1, statistics.getSize());
+    assertEquals(-1, statistics.getWeightedSize());
+    cache.clear();
+    assertEquals(1, statistics.getClears());
+    assertEquals(0, statistics.getSize());
+  }
+
+  @Test
+  void shouldReportWeightedSize() {
+    CacheStatistics statistics = new CacheStatistics("default");
+    Cache cache = new CacheBuilder("default").addDecorator(WeightedCache.class).weigher((key, value) -> 10)
+        .statistics(statistics).build();
+    cache.putObject(0, 0);
+    cache.putObject(1, 1);
+    assertEquals(20, statistics.getWeightedSize());
+  }
+
+  @Test
+  void shouldCountStaleReadsAsMisses() {
+    CacheStatistics statistics = new CacheStatistics("default");
+    Cache cache = new CacheBuilder("default").statistics(statistics).build();
+    cache.putObject(0, 0);
+    assertEquals(0, cache.getObject(0));
+    assertEquals(0, cache.getObject(0));
+    statistics.recordStaleRead();
+    assertEquals(1, statistics.getHits());
+    assertEquals(1, statistics.getMisses());
+    assertEquals(1, statistics.getStaleReads());
+    assertEquals(0.5, statistics.getHitRatio());
+  }
+
+  @Test
+  void shouldCountAccessesOfCustomCaches() {
+    CacheStatistics statistics = new CacheStatistics("custom");
+    Cache cache = new CacheBuilder("custom").implementation(CustomCache.class).statistics(statistics).build();
+    cache.putObject(0, 0);
+    assertEquals(0, cache.getObject(0));
+    assertNull(cache.getObject(1));
+    assertEquals(1, statistics.getPuts());
+    assertEquals(1, statistics.getHits());
+    assertEquals(1, statistics.getMisses());
+    assertEquals(1, statistics.getSize());
+  }
+
+  @Test
+  void shouldExposeSummaryThroughRegistry() {
+    CacheStatisticsRegistry registry = new CacheStatisticsRegistry();
+    Cache cache = new CacheBuilder("users").statistics(registry.register("users")).build();
+    cache.getObject(0);
+    registry.getStatistics("users").recordLoad(2000);
+    assertArrayEquals(new String[] { "users" }, registry.getCacheIds());
+    assertEquals(1L, registry.getCacheSummary("users").get("misses"));
+    assertEquals(1L, registry.getCacheSummary("users").get("loadTime.count"));
+    assertEquals(2L, registry.getCacheSummary("users").get("loadTime.max"));
+    assertNull(registry.getCacheSummary("unknown"));
+    registry.reset();
+    assertEquals(0L, registry.getCacheSummary("users").get("misses"));
+  }
+
+  public static class CustomCache extends PerpetualCache {
+    public CustomCache(String id) {
+      super(id);
+    }
+  }
+
+}
@@ -0,0 +1,143 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.apache.ibatis.cache.decorators.WeightedCache;
+import org.apache.ibatis.cache.impl.DefaultCacheWeigher;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+class WeightedCacheTest {
+
+  @Test
+  void shouldEvictLeastRecentlyUsedItemsBeyondMaxWeight() {
+    WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+    cache.setWeigher((key, value) -> (Integer) value);
+    cache.setMaxWeight(100);
+    cache.putObject(0, 40);
+    cache.putObject(1, 40);
+    assertEquals(40, cache.getObject(0));
+    cache.putObject(2, 40);
+    assertNull(cache.getObject(1));
+    assertEquals(40, cache.getObject(0));
+    assertEquals(80, cache.getWeightedSize());
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  @Test
+  void shouldNotCacheItemHeavierThanMaxWeight() {
+    WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+    cache.setWeigher((key, value) -> (Integer) value);
+    cache.setMaxWeight(100);
+    cache.putObject(0, 10);
+    cache.putObject(1, 500);
+    assertNull(cache.getObject(1));
+    assertEquals(10, cache.getObject(0));
+    assertEquals(10, cache.getWeightedSize());
+  }
+
+  @Test
+  void shouldHonorEntryLimit() {
+    WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+    cache.setSize(5);
+    for (int i = 0; i < 6; i++) {
+      cache.putObject(i, i);
+    }
+    assertNull(cache.getObject(0));
+    assertEquals(5, cache.getSize());
+  }
+
+  @Test
+  void shouldUpdateWeightedSizeOnReplaceRemoveAndClear() {
+    WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+    cache.setWeigher((key, value) -> (Integer) value);
+    cache.putObject(0, 10);
+    cache.putObject(0, 30);
+    cache.putObject(1, 5);
+    assertEquals(35, cache.getWeightedSize());
+    cache.removeObject(1);
+    assertEquals(30, cache.getWeightedSize());
+    cache.clear();
+    assertEquals(0, cache.getWeightedSize());
+    assertNull(cache.getObject(0));
+  }
+
+  @Test
+  void shouldWeighLargeListsMoreThanSmallOnes() {
+    DefaultCacheWeigher weigher = new DefaultCacheWeigher();
+    List<String> small = Collections.singletonList("row");
+    List<String> large = new ArrayList<>();
+    for (int i = 0; i < 50000; i++) {
+      large.add("row");
+    }
+    long smallWeight = weigher.weigh(null, small);
+    long largeWeight = weigher.weigh(null, large);
+    assertTrue(smallWeight > 0);
+    assertTrue(largeWeight > smallWeight * 10000);
+  }
+
+  @Test
+  void shouldWeighBeansWithJdkValueTypes() {
+    WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+    cache.setMaxWeight(100000);
+    List<Event> events = Collections.singletonList(new Event(LocalDateTime.of(2019, 1, 1, 0, 0), UUID.randomUUID()));
+    long weight = new DefaultCacheWeigher().weigh(null, events);
+    assertTrue(weight > 0);
+    cache.putObject(0, events);
+    assertSame(events, cache.getObject(0));
+    assertEquals(weight, cache.getWeightedSize());
+  }
+
+  @Test
+  void shouldBeConfiguredThroughCacheBuilder() {
+    Properties props = new Properties();
+    props.setProperty("maxWeight", "100");
+    Cache cache = new CacheBuilder("default")
+        .addDecorator(WeightedCache.class)
+        .properties(props)
+        .build();
+    cache.putObject(0, Collections.nCopies(1000, "row"));
+    assertNull(cache.getObject(0));
+    cache = new CacheBuilder("default")
+        .addDecorator(WeightedCache.class)
+        .maxWeight(10L)
+        .weigher((key, value) -> 1)
+        .build();
+    cache.putObject(0, Collections.nCopies(1000, "row"));
+    assertNotNull(cache.getObject(0));
+  }
+
+  private static class Event {
+    private final LocalDateTime createdAt;
+    private final UUID id;
+
+    Event(LocalDateTime createdAt, UUID id) {
+      this.createdAt = createdAt;
+      this.id = id;
+    }
+  }
+
+}
@@ -43,7 +43,7 @@ import org.junit.jupiter.api.Test;
 
 class BaseExecutorTest extends BaseDataTest {
   protected final Configuration config;
-  private static DataSource ds;
+  protected static DataSource ds;
 
   @BeforeAll
   static void setup() throws Exception {
@@ -304,6 +304,27 @@ class BaseExecutorTest extends BaseDataTest {
     }
   }
 
+  @Test
+  void shouldAdviseFetchSizeFromLargestResultSet() throws Exception {
+    config.setAdaptiveFetchSize(true);
+    config.setAdaptiveFetchSizeMin(1);
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement selectStatement = ExecutorTestHelper.prepareSelectTwoSetsOfAuthorsProc(config);
+      executor.query(selectStatement, new HashMap<String, Object>() {
+        {
+          put("id1", 101);
+          put("id2", 102);
+        }
+      }, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      // 2 rows in each result set, plus one to see the end of the result set
+      assertEquals(Integer.valueOf(3), config.getFetchSizeAdvisor().getFetchSize("selectTwoSetsOfAuthors"));
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
   @Test
   void shouldSelectAuthorViaOutParams() throws Exception {
 
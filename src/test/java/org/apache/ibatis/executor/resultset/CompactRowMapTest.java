@@ -0,0 +1,96 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class CompactRowMapTest {
+
+  private final CompactRowMap.Schema schema = new CompactRowMap.Schema(Arrays.asList("ID", "NAME", "ID", "AGE"));
+
+  @Test
+  void shouldShareSchemaAndBehaveLikeHashMap() {
+    assertEquals(Arrays.asList("ID", "NAME", "AGE"), schema.getKeys());
+    CompactRowMap row = new CompactRowMap(schema);
+    assertTrue(row.isEmpty());
+    row.set(schema.slotOf("ID"), 1);
+    row.put("NAME", null);
+    row.put("other", "x");
+
+    Map<String, Object> expected = new HashMap<>();
+    expected.put("ID", 1);
+    expected.put("NAME", null);
+    expected.put("other", "x");
+    assertEquals(expected, row);
+    assertEquals(expected.hashCode(), row.hashCode());
+    assertTrue(row.containsKey("NAME"));
+    assertFalse(row.containsKey("AGE"));
+    assertEquals("{ID=1, NAME=null, other=x}", row.toString());
+
+    assertEquals(1, row.remove("ID"));
+    assertNull(row.remove("AGE"));
+    assertEquals(2, row.size());
+    row.clear();
+    assertTrue(row.isEmpty());
+  }
+
+  @Test
+  void shouldRemoveAndUpdateThroughEntries() {
+    CompactRowMap row = new CompactRowMap(schema);
+    row.put("ID", 1);
+    row.put("AGE", 30);
+    row.put("other", "x");
+    Iterator<Map.Entry<String, Object>> entries = row.entrySet().iterator();
+    entries.next().setValue(2);
+    entries.next();
+    entries.remove();
+    entries.next();
+    entries.remove();
+    assertFalse(entries.hasNext());
+    assertEquals(1, row.size());
+    assertEquals(2, row.get("ID"));
+  }
+
+  @Test
+  void shouldSerialize() throws Exception {
+    CompactRowMap row = new CompactRowMap(schema);
+    row.put("ID", 1);
+    row.put("AGE", null);
+    row.put("other", "x");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(row);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      CompactRowMap copy = (CompactRowMap) in.readObject();
+      assertEquals(row, copy);
+      assertFalse(copy.containsKey("NAME"));
+      assertTrue(copy.containsKey("AGE"));
+    }
+  }
+
+}
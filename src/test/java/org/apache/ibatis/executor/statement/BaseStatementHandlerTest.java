@@ -145,4 +145,28 @@ class BaseStatementHandlerTest {
         verify(statement).setQueryTimeout(10);
     }
 
+    @Test
+    void specifyAdaptiveFetchSize() throws SQLException {
+        configuration.setAdaptiveFetchSize(true);
+        configuration.setDefaultFetchSize(50);
+        configuration.getFetchSizeAdvisor().record("id", 200, 16);
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(201); // apply the advised fetch size
+    }
+
+    @Test
+    void specifyMappedStatementFetchSizeAndAdaptiveFetchSize() throws SQLException {
+        configuration.setAdaptiveFetchSize(true);
+        configuration.getFetchSizeAdvisor().record("id", 200, 16);
+        mappedStatementBuilder.fetchSize(30);
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(30); // apply a mapped statement fetch size
+    }
+
 }
@@ -0,0 +1,64 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.Test;
+
+class FetchSizeAdvisorTest {
+
+  @Test
+  void shouldNotBeCreatedWhenDisabled() {
+    assertNull(FetchSizeAdvisor.create(false, 10, 1000));
+    assertNull(FetchSizeAdvisor.create(true, 10, 1000).getFetchSize("unknown"));
+  }
+
+  @Test
+  void shouldKeepFetchSizeWithinBounds() {
+    FetchSizeAdvisor advisor = FetchSizeAdvisor.create(true, 10, 1000);
+    advisor.record("few", 2, 16);
+    assertEquals(10, advisor.getFetchSize("few"));
+    advisor.record("many", 100000, 16);
+    assertEquals(1000, advisor.getFetchSize("many"));
+    advisor.record("some", 300, 16);
+    assertEquals(301, advisor.getFetchSize("some"));
+  }
+
+  @Test
+  void shouldLimitBufferedBytesOfWideRows() {
+    FetchSizeAdvisor advisor = FetchSizeAdvisor.create(true, 10, 1000);
+    int rowWidth = FetchSizeAdvisor.estimateRowWidth(Arrays.asList(JdbcType.INTEGER, JdbcType.BLOB, JdbcType.CLOB));
+    assertEquals(4 + 4096 + 4096, rowWidth);
+    advisor.record("wide", 900, rowWidth);
+    assertEquals(FetchSizeAdvisor.BUFFER_SIZE / rowWidth, advisor.getFetchSize("wide"));
+  }
+
+  @Test
+  void shouldDecayPeakRowCount() {
+    FetchSizeAdvisor advisor = FetchSizeAdvisor.create(true, 1, 1000);
+    advisor.record("id", 500, 16);
+    assertEquals(501, advisor.getFetchSize("id"));
+    for (int i = 0; i < 20; i++) {
+      advisor.record("id", 5, 16);
+    }
+    assertTrue(advisor.getFetchSize("id") < 100);
+  }
+
+}
@@ -0,0 +1,85 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+
+import org.apache.ibatis.domain.blog.DraftPost;
+import org.apache.ibatis.domain.blog.Post;
+import org.apache.ibatis.domain.blog.mappers.BlogMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ResolverIndexTest {
+
+  @Test
+  void shouldWriteClassesWithTheirSuperTypes() {
+    StringWriter writer = new StringWriter();
+    ResolverIndex.write(writer, getClass().getClassLoader(), "org.apache.ibatis.domain.blog");
+    String index = writer.toString();
+    assertTrue(index.contains("package org.apache.ibatis.domain.blog"));
+    assertTrue(index.contains("class " + DraftPost.class.getName() + " " + Post.class.getName()));
+    assertTrue(index.contains("class " + BlogMapper.class.getName()));
+  }
+
+  @Test
+  void shouldFindClassesFromIndexInsteadOfScanning(@TempDir Path dir) throws Exception {
+    Path resource = dir.resolve(ResolverIndex.RESOURCE);
+    Files.createDirectories(resource.getParent());
+    try (Writer writer = Files.newBufferedWriter(resource, StandardCharsets.UTF_8)) {
+      writer.write("package org.apache.ibatis.domain.blog\n");
+      writer.write("class " + Post.class.getName() + "\n");
+      writer.write("class " + DraftPost.class.getName() + " " + Post.class.getName() + "\n");
+    }
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[] { dir.toUri().toURL() }, getClass().getClassLoader())) {
+      ResolverUtil<Object> resolverUtil = new ResolverUtil<>();
+      resolverUtil.setClassLoader(classLoader);
+      resolverUtil.findImplementations(Post.class, "org.apache.ibatis.domain.blog");
+      assertEquals(2, resolverUtil.getClasses().size());
+
+      resolverUtil = new ResolverUtil<>();
+      resolverUtil.setClassLoader(classLoader);
+      resolverUtil.findImplementations(Object.class, "org.apache.ibatis.domain.blog");
+      // only the indexed classes, not the whole package
+      assertEquals(2, resolverUtil.getClasses().size());
+
+      resolverUtil = new ResolverUtil<>();
+      resolverUtil.setClassLoader(classLoader);
+      resolverUtil.findImplementations(Object.class, "org.apache.ibatis.domain.jpetstore");
+      // not indexed, scanned
+      assertFalse(resolverUtil.getClasses().isEmpty());
+    }
+  }
+
+  @Test
+  void shouldNotCoverPackagesWithoutIndex() {
+    ResolverIndex index = ResolverIndex.getInstance(getClass().getClassLoader());
+    assertNull(index.getClasses("org.apache.ibatis.domain.blog"));
+    Set<String> none = Collections.emptySet();
+    assertTrue(new ResolverIndex.Entry("a.B", none, none).isA("java.lang.Object"));
+  }
+
+}
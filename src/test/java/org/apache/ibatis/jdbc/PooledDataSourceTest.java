@@ -17,6 +17,7 @@ package org.apache.ibatis.jdbc;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -26,7 +27,11 @@ import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.TimeUnit;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.pooled.PoolMetrics;
 import org.apache.ibatis.datasource.pooled.PooledDataSource;
 import org.hsqldb.jdbc.JDBCConnection;
 import org.junit.jupiter.api.Disabled;
@@ -136,6 +141,52 @@ class PooledDataSourceTest extends BaseDataTest {
     con.close();
   }
 
+  @Test
+  void shouldRecordCheckoutHistogramsAndDetectLeaks() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolLeakDetectionThreshold(50);
+      PoolMetrics metrics = ds.getPoolMetrics();
+      Connection leaked = ds.getConnection();
+      Connection c = ds.getConnection();
+      c.close();
+      assertEquals(2, metrics.getCheckoutWaitTime().getCount());
+      assertEquals(1, metrics.getCheckoutDuration().getCount());
+      assertEquals(1, metrics.getActiveConnectionCount());
+      assertEquals(1, metrics.getIdleConnectionCount());
+      assertEquals(0, metrics.getLeakSuspects().length);
+      Thread.sleep(100);
+      String[] suspects = metrics.getLeakSuspects();
+      assertEquals(1, suspects.length);
+      assertTrue(suspects[0].contains("shouldRecordCheckoutHistogramsAndDetectLeaks"));
+      ds.getConnection().close();
+      assertEquals(1, metrics.getLeakedConnectionCount());
+      ds.getConnection().close();
+      assertEquals(1, metrics.getLeakedConnectionCount());
+      leaked.close();
+      assertEquals(0, metrics.getLeakSuspects().length);
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldRegisterPoolMetricsMBean() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setJmxName("pooled_data_source_test");
+      ds.getConnection().close();
+      ObjectName name = new ObjectName("org.apache.ibatis:type=PooledDataSource,name=" + ObjectName.quote("pooled_data_source_test"));
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      assertEquals(1, server.getAttribute(name, "IdleConnectionCount"));
+      assertEquals(1L, server.getAttribute(name, "RequestCount"));
+      ds.setJmxName(null);
+      assertFalse(server.isRegistered(name));
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
   private void exexuteQuery(Connection con) throws SQLException {
     try (PreparedStatement st = con.prepareStatement("select 1");
          ResultSet rs = st.executeQuery()) {
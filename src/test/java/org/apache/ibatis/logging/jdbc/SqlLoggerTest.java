@@ -0,0 +1,98 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.logging.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.logging.Log;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SqlLoggerTest {
+
+  @Mock
+  Log log;
+
+  @Test
+  void shouldNotCreateLoggerWhenDisabled() {
+    assertNull(SqlLogger.create(0, 0, false));
+  }
+
+  @Test
+  void shouldLogEveryStatementWithSampleRateOfOne() {
+    when(log.isDebugEnabled()).thenReturn(true);
+    SqlLogger sqlLogger = SqlLogger.create(1, 0, false);
+    assertTrue(sqlLogger.isLogged(log, 0));
+    sqlLogger.log(log, "select *\n  from users where id = ?", new Object[] { 1, null }, 0, 2, true);
+    verify(log).debug("==> Executed (0 ms): select * from users where id = ? | Parameters: 1(Integer), null | Total: 2");
+  }
+
+  @Test
+  void shouldNotSampleWhenDebugIsDisabled() {
+    when(log.isDebugEnabled()).thenReturn(false);
+    SqlLogger sqlLogger = SqlLogger.create(1, 100, false);
+    assertFalse(sqlLogger.isLogged(log, TimeUnit.MILLISECONDS.toNanos(10)));
+  }
+
+  @Test
+  void shouldAlwaysLogSlowStatementsAtWarnLevel() {
+    SqlLogger sqlLogger = SqlLogger.create(0, 100, false);
+    long elapsed = TimeUnit.MILLISECONDS.toNanos(150);
+    assertTrue(sqlLogger.isLogged(log, elapsed));
+    sqlLogger.log(log, "update users set name = ?", new Object[] { "a" }, elapsed, 1, false);
+    verify(log).warn("==> Slow statement (150 ms): update users set name = ? | Parameters: a(String) | Updates: 1");
+    verify(log, never()).debug(anyString());
+  }
+
+  @Test
+  void shouldTellWhetherStatementMayBeLoggedBeforeExecution() {
+    when(log.isDebugEnabled()).thenReturn(false);
+    assertFalse(SqlLogger.create(1, 0, false).mayLog(log));
+    assertTrue(SqlLogger.create(0, 100, false).mayLog(log));
+  }
+
+  @Test
+  void shouldWriteAsynchronously() {
+    SqlLogger sqlLogger = SqlLogger.create(0, 100, true);
+    sqlLogger.log(log, "select 1", null, TimeUnit.MILLISECONDS.toNanos(200), -1, true);
+    verify(log, timeout(5000)).warn("==> Slow statement (200 ms): select 1");
+  }
+
+  @Test
+  void shouldWritePendingLinesOnShutdownAndRestart() throws Exception {
+    SqlLogger sqlLogger = SqlLogger.create(0, 100, true);
+    sqlLogger.log(log, "select 1", null, TimeUnit.MILLISECONDS.toNanos(200), -1, true);
+    assertTrue(SqlLogger.shutdown(5000));
+    verify(log).warn("==> Slow statement (200 ms): select 1");
+    assertTrue(SqlLogger.shutdown(5000));
+
+    sqlLogger.log(log, "select 2", null, TimeUnit.MILLISECONDS.toNanos(200), -1, true);
+    verify(log, timeout(5000)).warn("==> Slow statement (200 ms): select 2");
+  }
+
+}
@@ -0,0 +1,74 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class HistogramTest {
+
+  @Test
+  void shouldMapValuesToContiguousBuckets() {
+    for (long value = 0; value < 100000; value++) {
+      int bucket = Histogram.bucketOf(value);
+      assertTrue(Histogram.highestValueOf(bucket) >= value);
+      assertTrue(bucket == 0 || Histogram.highestValueOf(bucket - 1) < value);
+    }
+    assertTrue(Histogram.highestValueOf(Histogram.bucketOf(Long.MAX_VALUE)) >= Long.MAX_VALUE / 2);
+  }
+
+  @Test
+  void shouldReportPercentilesWithinThreePercent() {
+    Histogram histogram = new Histogram();
+    for (long i = 1; i <= 10000; i++) {
+      histogram.record(i * 1000);
+    }
+    assertEquals(10000, histogram.getCount());
+    assertEquals(10000000, histogram.getMax());
+    assertEquals(5000500, histogram.getMean(), 0.001);
+    assertEquals(5000000, histogram.getValueAtPercentile(50), 5000000 * 0.03);
+    assertEquals(9900000, histogram.getValueAtPercentile(99), 9900000 * 0.03);
+    assertEquals(10000000, histogram.getValueAtPercentile(100));
+  }
+
+  @Test
+  void shouldAllocateOnlyRecordedMagnitudes() {
+    Histogram histogram = new Histogram();
+    assertEquals(0, histogram.getAllocatedMagnitudes());
+    histogram.record(1000);
+    histogram.record(1010);
+    histogram.record(1000000);
+    assertEquals(2, histogram.getAllocatedMagnitudes());
+    assertEquals(1000000, histogram.getValueAtPercentile(100));
+    histogram.record(Long.MAX_VALUE);
+    assertEquals(3, histogram.getAllocatedMagnitudes());
+  }
+
+  @Test
+  void shouldReset() {
+    Histogram histogram = new Histogram();
+    histogram.record(42);
+    histogram.record(-1);
+    assertEquals(2, histogram.getCount());
+    assertEquals(0, histogram.getValueAtPercentile(50));
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0, histogram.getValueAtPercentile(99));
+  }
+
+}
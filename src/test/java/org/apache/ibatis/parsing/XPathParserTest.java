@@ -16,8 +16,11 @@
 package org.apache.ibatis.parsing;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.InputStream;
+import java.util.List;
 
 import org.apache.ibatis.io.Resources;
 import org.junit.jupiter.api.Test;
@@ -44,4 +47,49 @@ class XPathParserTest {
     }
   }
 
+  @Test
+  void shouldEvaluateSimplePathsWithoutXPath() throws Exception {
+    String resource = "resources/nodelet_test.xml";
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      XPathParser parser = new XPathParser(inputStream, false, null, null);
+      XNode birthDate = parser.evalNode("/employee/birth_date");
+      assertEquals("1970", birthDate.evalNode("year").getStringBody());
+      assertEquals("Jim", birthDate.evalNode("/employee/first_name").getStringBody());
+      assertNull(birthDate.evalNode("first_name"));
+      List<XNode> nodes = parser.evalNode("/employee").evalNodes("weight|first_name|height");
+      assertEquals(3, nodes.size());
+      assertEquals("first_name", nodes.get(0).getName());
+      assertEquals("height", nodes.get(1).getName());
+      assertEquals("weight", nodes.get(2).getName());
+      assertEquals("employee", parser.evalNode("/").evalNode("employee").getName());
+    }
+  }
+
+  @Test
+  void shouldBuildSameTreeWithStax() throws Exception {
+    String resource = "resources/nodelet_test.xml";
+    try (InputStream domStream = Resources.getResourceAsStream(resource);
+         InputStream staxStream = Resources.getResourceAsStream(resource)) {
+      XPathParser dom = new XPathParser(domStream, false, null, null);
+      XPathParser stax = new XPathParser(StaxDocumentBuilder.parse(staxStream), false, null, null);
+      assertEquals(dom.evalNode("/employee").toString(), stax.evalNode("/employee").toString());
+      assertEquals((Long) 1970L, stax.evalLong("/employee/birth_date/year"));
+      assertEquals("ft", stax.evalNode("/employee/height").getStringAttribute("units"));
+    }
+  }
+
+  @Test
+  void shouldBoundCachedExpressions() throws Exception {
+    String resource = "resources/nodelet_test.xml";
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      XPathParser parser = new XPathParser(inputStream, false, null, null);
+      for (int i = 0; i < 1000; i++) {
+        assertEquals(String.valueOf(i), parser.evalString("string(" + i + ")"));
+        assertNull(parser.evalNode("/employee/field" + i));
+      }
+      assertTrue(XPathParser.getCachedSimplePathCount() <= 256);
+      assertEquals("Jim", parser.evalNode("/employee/first_name").getStringBody());
+    }
+  }
+
 }
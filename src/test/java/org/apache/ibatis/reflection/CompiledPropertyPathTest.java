@@ -0,0 +1,99 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.apache.ibatis.domain.misc.RichType;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.junit.jupiter.api.Test;
+
+class CompiledPropertyPathTest {
+
+  static class SubRichType extends RichType {
+  }
+
+  @Test
+  void shouldEvaluateNestedPropertiesDirectly() {
+    ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    CompiledPropertyPath path = reflectorFactory.findForClass(RichType.class).getCompiledPath("richType.richField", reflectorFactory);
+    assertNotNull(path);
+    assertSame(path, reflectorFactory.findForClass(RichType.class).getCompiledPath("richType.richField", reflectorFactory));
+
+    RichType rich = new RichType();
+    assertNull(path.getValue(rich));
+    assertFalse(path.setValue(rich, "foo"));
+    rich.setRichType(new RichType());
+    assertTrue(path.setValue(rich, "foo"));
+    assertEquals("foo", path.getValue(rich));
+  }
+
+  @Test
+  void shouldNotCompileIndexedOrMapPaths() {
+    ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    Reflector reflector = reflectorFactory.findForClass(RichType.class);
+    assertNull(reflector.getCompiledPath("richList[0]", reflectorFactory));
+    assertNull(reflector.getCompiledPath("richMap.key", reflectorFactory));
+  }
+
+  @Test
+  void shouldNotCompileWhenPathsCannotBeKept() {
+    ReflectorFactory uncached = new DefaultReflectorFactory();
+    uncached.setClassCacheEnabled(false);
+    assertNull(uncached.findForClass(RichType.class).getCompiledPath("richType.richField", uncached));
+
+    ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    Reflector reflector = reflectorFactory.findForClass(RichType.class);
+    CompiledPropertyPath path = reflector.getCompiledPath("richType.richField", reflectorFactory);
+    for (int i = 0; i < 300; i++) {
+      reflector.getCompiledPath("richList[" + i + "]", reflectorFactory);
+    }
+    assertSame(path, reflector.getCompiledPath("richType.richField", reflectorFactory));
+    assertNull(reflector.getCompiledPath("richType.richProperty", reflectorFactory));
+
+    RichType rich = new RichType();
+    MetaObject meta = MetaObject.forObject(rich, new DefaultObjectFactory(), new DefaultObjectWrapperFactory(), reflectorFactory);
+    meta.setValue("richType.richProperty", "foo");
+    assertEquals("foo", meta.getValue("richType.richProperty"));
+  }
+
+  @Test
+  void shouldNotResolveObjectsOfAnotherClass() {
+    ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    CompiledPropertyPath path = reflectorFactory.findForClass(RichType.class).getCompiledPath("richType.richField", reflectorFactory);
+    RichType rich = new RichType();
+    rich.setRichType(new SubRichType());
+    assertSame(CompiledPropertyPath.UNRESOLVED, path.getValue(rich));
+    assertFalse(path.setValue(rich, "foo"));
+  }
+
+  @Test
+  void shouldFallBackToMetaObjectWhenPathIsUnresolved() {
+    RichType rich = new RichType();
+    MetaObject meta = SystemMetaObject.forObject(rich);
+    // 中间属性为 null 时由 MetaObject 创建
+    meta.setValue("richType.richField", "foo");
+    assertNotNull(rich.getRichType());
+    assertEquals("foo", meta.getValue("richType.richField"));
+    rich.setRichType(new SubRichType());
+    meta.setValue("richType.richField", "bar");
+    assertEquals("bar", meta.getValue("richType.richField"));
+    meta.setValue("richType.richMap.key", "value");
+    assertEquals("value", meta.getValue("richType.richMap.key"));
+  }
+
+}
@@ -218,4 +218,22 @@ class ReflectorTest {
     Reflector reflector = reflectorFactory.findForClass(Bean.class);
     assertTrue((Boolean)reflector.getGetInvoker("bool").invoke(new Bean(), new Byte[0]));
   }
+
+  @Test
+  void shouldSetPrimitivePropertiesThroughMethodHandles() throws Throwable {
+    @SuppressWarnings("unused")
+    class Bean {
+      private int count;
+      private long total;
+      public void setCount(int count) {this.count = count + 1;}
+    }
+    ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    Reflector reflector = reflectorFactory.findForClass(Bean.class);
+    Bean bean = new Bean();
+    reflector.getSetterHandle("count").invokeExact((Object) bean, 41);
+    reflector.getSetterHandle("total").invokeExact((Object) bean, 7L);
+    assertEquals(42, bean.count);
+    assertEquals(7L, bean.total);
+    assertSame(reflector.getSetterHandle("count"), reflector.getSetterHandle("count"));
+  }
 }
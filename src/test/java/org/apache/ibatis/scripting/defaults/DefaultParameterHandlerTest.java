@@ -70,6 +70,31 @@ class DefaultParameterHandlerTest {
 
   }
 
+  @Test
+  void shouldRecordParameterValuesWhenSet() throws SQLException {
+    final MappedStatement mappedStatement = getMappedStatement();
+    final Configuration config = mappedStatement.getConfiguration();
+    final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
+    HashMap<String, Object> parameterObject = new HashMap<>();
+    parameterObject.put("id", 1);
+    parameterObject.put("name", "a");
+    List<ParameterMapping> parameterMappings = new ArrayList<>();
+    parameterMappings.add(new ParameterMapping.Builder(config, "id", registry.getTypeHandler(Integer.class)).build());
+    parameterMappings.add(new ParameterMapping.Builder(config, "name", registry.getTypeHandler(String.class)).build());
+    BoundSql boundSql = new BoundSql(config, "select ?, ?", parameterMappings, parameterObject);
+
+    DefaultParameterHandler notRecording = new DefaultParameterHandler(mappedStatement, parameterObject, boundSql);
+    notRecording.setParameters(mock(PreparedStatement.class));
+    Assertions.assertNull(notRecording.getParameterValues());
+
+    DefaultParameterHandler recording = new DefaultParameterHandler(mappedStatement, parameterObject, boundSql);
+    recording.recordParameterValues();
+    recording.setParameters(mock(PreparedStatement.class));
+    // the values set are kept, later changes of the parameter object are not seen
+    parameterObject.put("id", 2);
+    Assertions.assertArrayEquals(new Object[] { 1, "a" }, recording.getParameterValues());
+  }
+
   MappedStatement getMappedStatement() {
     final Configuration config = new Configuration();
     final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
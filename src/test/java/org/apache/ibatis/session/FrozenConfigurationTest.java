@@ -0,0 +1,98 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.junit.jupiter.api.Test;
+
+class FrozenConfigurationTest {
+
+  @Test
+  void shouldLookupSameObjectsWhenFrozen() throws Exception {
+    Configuration configuration;
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/parallel_mapper_loading/mybatis-config.xml")) {
+      configuration = new SqlSessionFactoryBuilder().build(reader).getConfiguration();
+    }
+    List<String> statementIds = new ArrayList<>(configuration.getMappedStatementNames());
+    List<MappedStatement> statements = new ArrayList<>();
+    for (String id : statementIds) {
+      statements.add(configuration.getMappedStatement(id));
+    }
+    List<String> resultMapIds = new ArrayList<>();
+    List<ResultMap> resultMaps = new ArrayList<>();
+    for (String id : configuration.getResultMapNames()) {
+      if (id.contains(".")) {
+        resultMapIds.add(id);
+        resultMaps.add(configuration.getResultMap(id));
+      }
+    }
+    configuration.freeze();
+    assertTrue(configuration.isFrozen());
+    for (int i = 0; i < statementIds.size(); i++) {
+      assertTrue(configuration.hasStatement(statementIds.get(i)));
+      assertSame(statements.get(i), configuration.getMappedStatement(statementIds.get(i)));
+    }
+    for (int i = 0; i < resultMapIds.size(); i++) {
+      assertTrue(configuration.hasResultMap(resultMapIds.get(i)));
+      assertSame(resultMaps.get(i), configuration.getResultMap(resultMapIds.get(i)));
+    }
+    String pets = "org.apache.ibatis.submitted.parallel_mapper_loading.PetMapper";
+    assertSame(configuration.getCache("org.apache.ibatis.submitted.parallel_mapper_loading.PersonMapper"),
+        configuration.getMappedStatement(pets + ".selectPetsWithOwners").getCache());
+    assertFalse(configuration.hasStatement(pets + ".missing"));
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> configuration.getMappedStatement(pets + ".missing"));
+    assertEquals("Mapped Statements collection does not contain value for " + pets + ".missing", e.getMessage());
+  }
+
+  @Test
+  void shouldReportAmbiguousShortNamesWhenFrozen() {
+    Configuration configuration = new Configuration();
+    configuration.addMappedStatement(newStatement(configuration, "a.select"));
+    configuration.addMappedStatement(newStatement(configuration, "b.select"));
+    configuration.addMappedStatement(newStatement(configuration, "b.insert"));
+    configuration.freeze();
+    assertTrue(configuration.hasStatement("select"));
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> configuration.getMappedStatement("select"));
+    assertTrue(e.getMessage().contains("select is ambiguous"));
+    assertSame(configuration.getMappedStatement("b.insert"), configuration.getMappedStatement("insert"));
+  }
+
+  @Test
+  void shouldUnfreezeWhenStatementIsAdded() {
+    Configuration configuration = new Configuration();
+    configuration.addMappedStatement(newStatement(configuration, "a.select"));
+    configuration.freeze();
+    configuration.addMappedStatement(newStatement(configuration, "a.insert"));
+    assertFalse(configuration.isFrozen());
+    assertTrue(configuration.hasStatement("a.insert"));
+    assertTrue(configuration.hasStatement("a.select"));
+  }
+
+  private static MappedStatement newStatement(Configuration configuration, String id) {
+    return new MappedStatement.Builder(configuration, id, new StaticSqlSource(configuration, "select 1"), SqlCommandType.SELECT).build();
+  }
+
+}
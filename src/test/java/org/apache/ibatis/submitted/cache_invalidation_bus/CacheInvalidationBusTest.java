@@ -0,0 +1,120 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cache_invalidation_bus;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CacheInvalidationBusTest {
+
+  private static final String PERSON_MAPPER = "org.apache.ibatis.submitted.cache_invalidation_bus.PersonMapper.";
+
+  private SqlSessionFactory node1;
+  private SqlSessionFactory node2;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    node1 = build();
+    node2 = build();
+    BaseDataTest.runScript(node1.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cache_invalidation_bus/CreateDB.sql");
+  }
+
+  @AfterEach
+  void tearDown() {
+    node1.getConfiguration().getCacheInvalidationBroadcaster().close();
+    node2.getConfiguration().getCacheInvalidationBroadcaster().close();
+  }
+
+  @Test
+  void shouldClearNamespaceOnOtherNodes() throws Exception {
+    assertEquals("Jane", selectName(node1));
+    assertEquals("Jane", selectName(node2));
+
+    rename(node1, "Janet");
+
+    assertEquals("Janet", selectName(node1));
+    assertEquals("Janet", selectName(node2));
+  }
+
+  @Test
+  void shouldInvalidateTablesOnOtherNodes() throws Exception {
+    node1.getConfiguration().setTableBasedCacheInvalidation(true);
+    node2.getConfiguration().setTableBasedCacheInvalidation(true);
+    assertEquals("Jane", selectName(node1));
+    assertEquals("Jane", selectName(node2));
+
+    rename(node1, "Janet");
+
+    assertEquals("Janet", selectName(node2));
+  }
+
+  @Test
+  void shouldNotInvalidateOtherNodesOnRollback() throws Exception {
+    assertEquals("Jane", selectName(node2));
+    // change the database behind the cache to see if the entry is reloaded
+    try (Connection connection = node1.getConfiguration().getEnvironment().getDataSource().getConnection();
+         Statement statement = connection.createStatement()) {
+      statement.executeUpdate("update person set name = 'Janet' where id = 1");
+    }
+    try (SqlSession sqlSession = node1.openSession()) {
+      sqlSession.update(PERSON_MAPPER + "renamePerson", person("John"));
+      sqlSession.rollback();
+    }
+    assertEquals("Jane", selectName(node2));
+  }
+
+  private static SqlSessionFactory build() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cache_invalidation_bus/mybatis-config.xml")) {
+      return new SqlSessionFactoryBuilder().build(reader);
+    }
+  }
+
+  private static String selectName(SqlSessionFactory node) {
+    try (SqlSession sqlSession = node.openSession()) {
+      return sqlSession.selectOne(PERSON_MAPPER + "selectName", 1);
+    }
+  }
+
+  private static void rename(SqlSessionFactory node, String name) {
+    try (SqlSession sqlSession = node.openSession()) {
+      sqlSession.update(PERSON_MAPPER + "renamePerson", person(name));
+      sqlSession.commit();
+    }
+  }
+
+  private static Map<String, Object> person(String name) {
+    Map<String, Object> person = new HashMap<>();
+    person.put("id", 1);
+    person.put("name", name);
+    return person;
+  }
+
+}
@@ -0,0 +1,122 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.columnar_results;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.resultset.ColumnarFrame;
+import org.apache.ibatis.executor.resultset.ColumnarFrame.DoubleColumn;
+import org.apache.ibatis.executor.resultset.ColumnarFrame.IntColumn;
+import org.apache.ibatis.executor.resultset.ColumnarFrame.LongColumn;
+import org.apache.ibatis.executor.resultset.ColumnarFrame.ObjectColumn;
+import org.apache.ibatis.executor.resultset.ColumnarFrame.StringColumn;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ColumnarResultsTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/columnar_results/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/columnar_results/CreateDB.sql");
+  }
+
+  @Test
+  void shouldReadColumnsIntoPrimitiveArrays() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnarFrame frame = sqlSession.getMapper(Mapper.class).selectAll();
+      assertEquals(4, frame.getRowCount());
+      assertEquals(5, frame.getColumns().size());
+
+      assertArrayEquals(new int[] {1, 2, 3, 4}, frame.getColumn("id", IntColumn.class).toArray());
+
+      LongColumn quantity = frame.getColumn("QUANTITY", LongColumn.class);
+      assertArrayEquals(new long[] {10, 20, 0, 40}, quantity.toArray());
+      assertTrue(quantity.isNull(2));
+      assertNull(quantity.get(2));
+      assertEquals(40L, quantity.get(3));
+
+      DoubleColumn ratio = frame.getColumn("RATIO", DoubleColumn.class);
+      assertEquals(1.5, ratio.getDouble(2));
+      assertTrue(ratio.isNull(1));
+
+      ObjectColumn price = frame.getColumn("PRICE", ObjectColumn.class);
+      assertEquals(new BigDecimal("2.50"), price.get(1));
+      assertNull(price.get(2));
+    }
+  }
+
+  @Test
+  void shouldDictionaryEncodeStrings() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      StringColumn region = sqlSession.getMapper(Mapper.class).selectAll().getColumn("REGION", StringColumn.class);
+      assertEquals(Arrays.asList("North", "South"), region.getDictionary());
+      assertArrayEquals(new int[] {0, 1, 0, -1}, region.getCodes());
+      assertEquals("North", region.getString(2));
+      assertNull(region.getString(3));
+      assertTrue(region.isNull(3));
+    }
+  }
+
+  @Test
+  void shouldApplyRowBoundsAndReturnEmptyFrame() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnarFrame page = sqlSession.<ColumnarFrame>selectList(Mapper.class.getName() + ".selectAll", null, new RowBounds(1, 2)).get(0);
+      assertArrayEquals(new int[] {2, 3}, page.getColumn("ID", IntColumn.class).toArray());
+
+      ColumnarFrame none = sqlSession.getMapper(Mapper.class).selectNone();
+      assertEquals(0, none.getRowCount());
+      assertEquals(0, none.getColumn("ID", IntColumn.class).toArray().length);
+    }
+    assertEquals(ColumnarFrame.class, sqlSessionFactory.getConfiguration().getTypeAliasRegistry().resolveAlias("columnar"));
+  }
+
+  @Test
+  void shouldRejectCursors() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      PersistenceException e = assertThrows(PersistenceException.class, () -> sqlSession.getMapper(Mapper.class).selectCursor());
+      assertTrue(e.getMessage().contains("Columnar results cannot be read through a Cursor"));
+    }
+  }
+
+  @Test
+  void shouldReadThroughTypeHandlerOverridingBoxedRead() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ColumnarFrame frame = sqlSession.getMapper(Mapper.class).selectRatings();
+      assertArrayEquals(new int[] {1, 2}, frame.getColumn("ID", IntColumn.class).toArray());
+      ObjectColumn score = frame.getColumn("SCORE", ObjectColumn.class);
+      assertEquals(103, score.get(0));
+      assertNull(score.get(1));
+    }
+  }
+
+}
@@ -0,0 +1,41 @@
+--
+--    Copyright 2009-2019 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+
+drop table sales if exists;
+
+create table sales (
+  id int,
+  quantity bigint,
+  ratio double,
+  region varchar(20),
+  price decimal(10, 2)
+);
+
+insert into sales values (1, 10, 0.5, 'North', 1.50);
+insert into sales values (2, 20, null, 'South', 2.50);
+insert into sales values (3, null, 1.5, 'North', null);
+insert into sales values (4, 40, 2.0, null, 4.00);
+
+drop table ratings if exists;
+
+create table ratings (
+  id int,
+  score smallint
+);
+
+insert into ratings values (1, 3);
+insert into ratings values (2, null);
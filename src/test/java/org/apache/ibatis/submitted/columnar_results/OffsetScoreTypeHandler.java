@@ -0,0 +1,52 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.columnar_results;
+
+import java.sql.CallableStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedJdbcTypes;
+import org.apache.ibatis.type.MappedTypes;
+
+/**
+ * Overrides the boxed reads only: the primitive reads inherited from {@link IntegerTypeHandler} must not be used.
+ */
+@MappedTypes(Integer.class)
+@MappedJdbcTypes(JdbcType.SMALLINT)
+public class OffsetScoreTypeHandler extends IntegerTypeHandler {
+
+  @Override
+  public Integer getNullableResult(ResultSet rs, String columnName) throws SQLException {
+    return offset(super.getNullableResult(rs, columnName));
+  }
+
+  @Override
+  public Integer getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+    return offset(super.getNullableResult(rs, columnIndex));
+  }
+
+  @Override
+  public Integer getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+    return offset(super.getNullableResult(cs, columnIndex));
+  }
+
+  private static Integer offset(Integer value) {
+    return value == null ? null : value + 100;
+  }
+}
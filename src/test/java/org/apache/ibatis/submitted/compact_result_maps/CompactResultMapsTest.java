@@ -0,0 +1,101 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.compact_result_maps;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.resultset.CompactRowMap;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class CompactResultMapsTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/compact_result_maps/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/compact_result_maps/CreateDB.sql");
+  }
+
+  @Test
+  void shouldShareSchemaBetweenRows() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Map<String, Object>> rows = sqlSession.getMapper(Mapper.class).selectMaps();
+      assertEquals(3, rows.size());
+      CompactRowMap first = (CompactRowMap) rows.get(0);
+      CompactRowMap second = (CompactRowMap) rows.get(1);
+      assertSame(first.getSchema(), second.getSchema());
+      assertEquals(1, first.get("ID"));
+      assertEquals("User1", first.get("NAME"));
+      assertEquals(30, first.get("AGE"));
+      // null columns are absent, like with a HashMap
+      assertEquals(1, second.size());
+      assertFalse(second.containsKey("NAME"));
+      // the other map types are not affected
+      assertEquals(HashMap.class, sqlSession.getMapper(Mapper.class).selectHashMaps().get(0).getClass());
+    }
+  }
+
+  @Test
+  void shouldKeepNullColumnsWithCallSettersOnNulls() {
+    sqlSessionFactory.getConfiguration().setCallSettersOnNulls(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Map<String, Object> row = sqlSession.getMapper(Mapper.class).selectMaps().get(1);
+      assertEquals(3, row.size());
+      assertTrue(row.containsKey("NAME"));
+      assertNull(row.get("NAME"));
+    } finally {
+      sqlSessionFactory.getConfiguration().setCallSettersOnNulls(false);
+    }
+  }
+
+  @Test
+  void shouldAddMappedPropertiesOutsideSchema() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Map<String, Object> row = sqlSession.getMapper(Mapper.class).selectMapsWithMapping().get(0);
+      assertEquals("User1", row.get("userName"));
+      assertEquals(1, row.get("ID"));
+      assertFalse(row.containsKey("NAME"));
+      assertEquals(3, row.size());
+    }
+  }
+
+  @Test
+  void shouldCreateHashMapForLazyNestedSelects() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Map<String, Object> row = sqlSession.getMapper(Mapper.class).selectMapWithLazyName();
+      assertTrue(row instanceof HashMap);
+      // toString is a lazy load trigger method
+      assertNotNull(row.toString());
+      assertEquals("User1", row.get("name"));
+    }
+  }
+
+}
@@ -0,0 +1,51 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.compact_result_maps;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.annotations.One;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.FetchType;
+
+public interface Mapper {
+
+  @Select("select * from users order by id")
+  List<Map<String, Object>> selectMaps();
+
+  @Select("select * from users order by id")
+  List<HashMap<String, Object>> selectHashMaps();
+
+  @Select("select id, name, age from users order by id")
+  @Results({
+    @Result(property = "userName", column = "name")
+  })
+  List<Map<String, Object>> selectMapsWithMapping();
+
+  @Select("select id from users where id = 1")
+  @Results({
+    @Result(property = "name", column = "id", javaType = String.class, one = @One(select = "selectName", fetchType = FetchType.LAZY))
+  })
+  Map<String, Object> selectMapWithLazyName();
+
+  @Select("select name from users where id = #{id}")
+  String selectName(int id);
+
+}
@@ -0,0 +1,122 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.lazy_mapper_loading;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LazyMapperLoadingTest {
+
+  private static final String NAMESPACE = "org.apache.ibatis.submitted.lazy_mapper_loading.";
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/lazy_mapper_loading/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/lazy_mapper_loading/CreateDB.sql");
+  }
+
+  @Test
+  void shouldOnlyRegisterNamespacesAtStartup() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    assertTrue(configuration.isLazyMapperLoading());
+    assertEquals(3, configuration.getLazyMapperNamespaces().size());
+    assertTrue(configuration.getLazyMapperNamespaces().contains(NAMESPACE + "PetMapper"));
+    assertTrue(configuration.hasMapper(PetMapper.class));
+  }
+
+  @Test
+  void shouldBuildOnlyTheNamespacesThatAreUsed() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Map<String, Object>> persons = sqlSession.selectList(NAMESPACE + "PersonMapper.selectPersons");
+      assertEquals(2, persons.size());
+    }
+    assertFalse(configuration.getLazyMapperNamespaces().contains(NAMESPACE + "PersonMapper"));
+    assertTrue(configuration.getLazyMapperNamespaces().contains(NAMESPACE + "OwnerMapper"));
+    assertTrue(configuration.getLazyMapperNamespaces().contains(NAMESPACE + "PetMapper"));
+  }
+
+  @Test
+  void shouldBuildReferencedNamespacesThroughMapperInterface() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Map<String, Object>> owners = sqlSession.getMapper(OwnerMapper.class).selectOwners();
+      assertEquals(1, owners.size());
+      assertEquals("Jane", owners.get(0).get("name"));
+      assertEquals(2, ((List<?>) owners.get(0).get("pets")).size());
+    }
+    assertTrue(configuration.getLazyMapperNamespaces().isEmpty());
+    assertSame(configuration.getCache(NAMESPACE + "PersonMapper"),
+        configuration.getMappedStatement(NAMESPACE + "OwnerMapper.selectOwners").getCache());
+  }
+
+  @Test
+  void shouldBuildAllMappersOnDemand() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.loadAllMappers();
+    assertTrue(configuration.getLazyMapperNamespaces().isEmpty());
+    assertTrue(configuration.getIncompleteResultMaps().isEmpty());
+    assertTrue(configuration.getIncompleteCacheRefs().isEmpty());
+    assertTrue(configuration.getIncompleteStatements().isEmpty());
+    assertTrue(configuration.hasStatement(NAMESPACE + "PetMapper.selectPetsByOwner", false));
+    assertTrue(configuration.hasStatement(NAMESPACE + "OwnerMapper.selectOwners", false));
+  }
+
+  @Test
+  void shouldBuildNamespacesOnceWhenUsedConcurrently() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Callable<Integer>> tasks = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        tasks.add(() -> {
+          try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            int count = sqlSession.getMapper(OwnerMapper.class).selectOwners().size();
+            return count + sqlSession.getMapper(PetMapper.class).selectPetsByOwner(1).size();
+          }
+        });
+      }
+      for (Future<Integer> result : executor.invokeAll(tasks)) {
+        assertEquals(3, result.get().intValue());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertTrue(sqlSessionFactory.getConfiguration().getLazyMapperNamespaces().isEmpty());
+  }
+
+}
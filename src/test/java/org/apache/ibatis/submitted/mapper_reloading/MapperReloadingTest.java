@@ -0,0 +1,139 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.mapper_reloading;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.builder.xml.XMLMapperReloader;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MapperReloadingTest {
+
+  private static final String NAMESPACE = "org.apache.ibatis.submitted.mapper_reloading.PetMapper";
+
+  private SqlSessionFactory sqlSessionFactory;
+  private XMLMapperReloader reloader;
+  private Path mapperFile;
+  private String mapperUrl;
+
+  @BeforeEach
+  void setUp(@TempDir Path directory) throws Exception {
+    mapperFile = directory.resolve("PetMapper.xml");
+    try (InputStream inputStream = Resources.getResourceAsStream("org/apache/ibatis/submitted/mapper_reloading/PetMapper.xml")) {
+      Files.copy(inputStream, mapperFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+    mapperUrl = mapperFile.toUri().toURL().toString();
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/mapper_reloading/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    try (InputStream inputStream = Resources.getUrlAsStream(mapperUrl)) {
+      new XMLMapperBuilder(inputStream, configuration, mapperUrl, configuration.getSqlFragments()).parse();
+    }
+    BaseDataTest.runScript(configuration.getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/mapper_reloading/CreateDB.sql");
+    reloader = new XMLMapperReloader(configuration);
+  }
+
+  @AfterEach
+  void tearDown() {
+    reloader.close();
+  }
+
+  @Test
+  void shouldReloadChangedNamespace() throws Exception {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    Cache previousCache = configuration.getCache(NAMESPACE);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      PetMapper mapper = sqlSession.getMapper(PetMapper.class);
+      assertEquals(Arrays.asList("Rex", "Tom"), mapper.selectPetNames());
+      editMapper("order by id", "order by id desc");
+      reloader.reload(mapperUrl);
+      assertEquals(Arrays.asList("Tom", "Rex"), mapper.selectPetNames());
+      assertEquals(2, mapper.countPets());
+    }
+    assertNotSame(previousCache, configuration.getCache(NAMESPACE));
+    assertSame(configuration.getCache(NAMESPACE), configuration.getMappedStatement(NAMESPACE + ".selectPetNames").getCache());
+  }
+
+  @Test
+  void shouldStayFrozenWhenNamespaceIsReloaded() throws Exception {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.freeze();
+    editMapper("order by id", "order by id desc");
+    reloader.reload(mapperUrl);
+    assertTrue(configuration.isFrozen());
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(Arrays.asList("Tom", "Rex"), sqlSession.getMapper(PetMapper.class).selectPetNames());
+    }
+  }
+
+  @Test
+  void shouldKeepPreviousVersionWhenReloadFails() throws Exception {
+    editMapper("resultType=\"string\"", "resultType=\"org.apache.ibatis.submitted.mapper_reloading.Unknown\"");
+    assertThrows(BuilderException.class, () -> reloader.reload(mapperUrl));
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      PetMapper mapper = sqlSession.getMapper(PetMapper.class);
+      assertEquals(Arrays.asList("Rex", "Tom"), mapper.selectPetNames());
+      assertEquals(2, mapper.countPets());
+    }
+    assertTrue(sqlSessionFactory.getConfiguration().isResourceLoaded(mapperUrl));
+  }
+
+  @Test
+  void shouldReloadWhenFileChanges() throws Exception {
+    reloader.watchLoadedResources();
+    editMapper("order by id", "order by id desc");
+    List<String> names = null;
+    for (int i = 0; i < 100; i++) {
+      try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        names = sqlSession.getMapper(PetMapper.class).selectPetNames();
+      }
+      if ("Tom".equals(names.get(0))) {
+        break;
+      }
+      Thread.sleep(100);
+    }
+    assertEquals(Arrays.asList("Tom", "Rex"), names);
+  }
+
+  private void editMapper(String target, String replacement) throws Exception {
+    String content = new String(Files.readAllBytes(mapperFile), StandardCharsets.UTF_8);
+    Files.write(mapperFile, content.replace(target, replacement).getBytes(StandardCharsets.UTF_8));
+  }
+
+}
@@ -0,0 +1,84 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.parallel_mapper_loading;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ParallelMapperLoadingTest {
+
+  private static final String NAMESPACE = "org.apache.ibatis.submitted.parallel_mapper_loading.";
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/parallel_mapper_loading/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/parallel_mapper_loading/CreateDB.sql");
+  }
+
+  @Test
+  void shouldResolveReferencesToMappersDeclaredLater() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    assertTrue(configuration.isParallelMapperLoading());
+    assertTrue(configuration.getIncompleteResultMaps().isEmpty());
+    assertTrue(configuration.getIncompleteCacheRefs().isEmpty());
+    assertTrue(configuration.getIncompleteStatements().isEmpty());
+    assertSame(configuration.getCache(NAMESPACE + "PersonMapper"),
+        configuration.getMappedStatement(NAMESPACE + "PetMapper.selectPetsWithOwners").getCache());
+  }
+
+  @Test
+  void shouldQueryWithResultMapsOfOtherMappers() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Map<String, Object>> owners = sqlSession.selectList(NAMESPACE + "OwnerMapper.selectOwners");
+      assertEquals(1, owners.size());
+      assertEquals("Jane", owners.get(0).get("name"));
+      assertEquals(2, ((List<?>) owners.get(0).get("pets")).size());
+      assertEquals(1, sqlSession.selectList(NAMESPACE + "PetMapper.selectPetsWithOwners").size());
+    }
+  }
+
+  @Test
+  void shouldReportMissingMapperResource() {
+    String config = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>"
+        + "<!DOCTYPE configuration PUBLIC \"-//mybatis.org//DTD Config 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-config.dtd\">"
+        + "<configuration><settings><setting name=\"parallelMapperLoading\" value=\"true\"/></settings>"
+        + "<mappers><mapper resource=\"org/apache/ibatis/submitted/parallel_mapper_loading/Missing.xml\"/></mappers>"
+        + "</configuration>";
+    PersistenceException e = assertThrows(PersistenceException.class,
+        () -> new SqlSessionFactoryBuilder().build(new StringReader(config)));
+    assertTrue(e.getMessage().contains("Missing.xml"));
+  }
+
+}
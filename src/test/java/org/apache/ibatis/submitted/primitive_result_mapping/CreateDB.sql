@@ -0,0 +1,32 @@
+--
+--    Copyright 2009-2019 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+
+drop table measurements if exists;
+
+create table measurements (
+  id int,
+  total bigint,
+  ratio double,
+  weight real,
+  rank smallint,
+  flag tinyint,
+  active boolean,
+  hidden int
+);
+
+insert into measurements values (1, 10000000000, 0.5, 1.5, 3, 7, true, 42);
+insert into measurements values (2, null, null, null, null, null, null, null);
@@ -0,0 +1,47 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.primitive_result_mapping;
+
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+
+public interface Mapper {
+
+  @Select("select * from measurements where id = #{id}")
+  Measurement selectAutoMapped(int id);
+
+  @Select("select id, total, ratio, weight, rank, flag, active, hidden from measurements where id = #{id}")
+  @Results({
+      @Result(property = "id", column = "id"),
+      @Result(property = "total", column = "total"),
+      @Result(property = "ratio", column = "ratio"),
+      @Result(property = "weight", column = "weight"),
+      @Result(property = "rank", column = "rank"),
+      @Result(property = "flag", column = "flag"),
+      @Result(property = "active", column = "active"),
+      @Result(property = "hidden", column = "hidden")
+  })
+  Measurement selectWithResultMap(int id);
+
+  @Select("select id, hidden from measurements where id = #{id}")
+  @Results({
+      @Result(property = "id", column = "id"),
+      @Result(property = "hidden", column = "hidden", typeHandler = PlusOneHundredTypeHandler.class)
+  })
+  Measurement selectWithCustomTypeHandler(int id);
+
+}
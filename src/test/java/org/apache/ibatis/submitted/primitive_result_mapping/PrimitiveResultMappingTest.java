@@ -0,0 +1,97 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.primitive_result_mapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class PrimitiveResultMappingTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/primitive_result_mapping/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/primitive_result_mapping/CreateDB.sql");
+  }
+
+  @Test
+  void shouldAutoMapPrimitiveProperties() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertValues(sqlSession.getMapper(Mapper.class).selectAutoMapped(1));
+    }
+  }
+
+  @Test
+  void shouldMapPrimitivePropertiesWithResultMap() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertValues(sqlSession.getMapper(Mapper.class).selectWithResultMap(1));
+    }
+  }
+
+  @Test
+  void shouldKeepDefaultValuesForNullColumns() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertDefaults(mapper.selectAutoMapped(2));
+      assertDefaults(mapper.selectWithResultMap(2));
+    }
+  }
+
+  @Test
+  void shouldNotBypassOverriddenTypeHandler() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Measurement measurement = sqlSession.getMapper(Mapper.class).selectWithCustomTypeHandler(1);
+      assertEquals(1, measurement.getId());
+      assertEquals(142, measurement.getHidden());
+    }
+  }
+
+  private void assertValues(Measurement measurement) {
+    assertEquals(1, measurement.getId());
+    assertEquals(10000000000L, measurement.getTotal());
+    assertEquals(0.5, measurement.getRatio());
+    assertEquals(1.5f, measurement.getWeight());
+    assertEquals(3, measurement.getRank());
+    assertEquals(7, measurement.getFlag());
+    assertTrue(measurement.isActive());
+    assertEquals(42, measurement.getHidden());
+  }
+
+  private void assertDefaults(Measurement measurement) {
+    assertEquals(2, measurement.getId());
+    assertEquals(0L, measurement.getTotal());
+    assertEquals(0.0, measurement.getRatio());
+    assertEquals(0.0f, measurement.getWeight());
+    assertEquals(0, measurement.getRank());
+    assertEquals(0, measurement.getFlag());
+    assertFalse(measurement.isActive());
+    assertEquals(0, measurement.getHidden());
+  }
+
+}
@@ -0,0 +1,38 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.reusable_result_objects;
+
+import java.util.Map;
+
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.ResultHandler;
+
+public interface Mapper {
+
+  @Select("select * from users order by id")
+  @ResultType(User.class)
+  void selectUsers(ResultHandler<User> handler);
+
+  @Select("select * from users order by id")
+  @ResultType(Map.class)
+  void selectMaps(ResultHandler<Map<String, Object>> handler);
+
+  @Select("select name from users order by id")
+  @ResultType(String.class)
+  void selectNames(ResultHandler<String> handler);
+
+}
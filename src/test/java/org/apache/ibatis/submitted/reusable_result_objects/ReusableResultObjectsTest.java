@@ -0,0 +1,95 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.reusable_result_objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ReusableResultHandler;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ReusableResultObjectsTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/reusable_result_objects/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/reusable_result_objects/CreateDB.sql");
+  }
+
+  @Test
+  void shouldReuseAndResetResultObject() {
+    Set<Object> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<String> rows = new ArrayList<>();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).selectUsers((ReusableResultHandler<User>) context -> {
+        User user = context.getResultObject();
+        instances.add(user);
+        rows.add(user.getId() + ":" + user.getName() + ":" + user.getAge());
+      });
+    }
+    assertEquals(1, instances.size());
+    assertEquals(Arrays.asList("1:User1:30", "2:null:0", "3:User3:40"), rows);
+  }
+
+  @Test
+  void shouldReuseMapResults() {
+    Set<Object> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<Map<String, Object>> rows = new ArrayList<>();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).selectMaps((ReusableResultHandler<Map<String, Object>>) context -> {
+        instances.add(context.getResultObject());
+        rows.add(new HashMap<>(context.getResultObject()));
+      });
+    }
+    assertEquals(1, instances.size());
+    assertEquals("User1", rows.get(0).get("NAME"));
+    assertNull(rows.get(1).get("NAME"));
+    assertEquals(40, rows.get(2).get("AGE"));
+  }
+
+  @Test
+  void shouldCreateResultObjectPerRowForOtherHandlers() {
+    Set<Object> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<String> names = new ArrayList<>();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).selectUsers(context -> instances.add(context.getResultObject()));
+      sqlSession.getMapper(Mapper.class).selectNames((ReusableResultHandler<String>) context -> names.add(context.getResultObject()));
+    }
+    assertEquals(3, instances.size());
+    assertEquals(Arrays.asList("User1", null, "User3"), names);
+  }
+
+}
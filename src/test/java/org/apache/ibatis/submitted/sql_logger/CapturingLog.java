@@ -0,0 +1,62 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.sql_logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.logging.Log;
+
+public class CapturingLog implements Log {
+
+  static final List<String> LINES = new ArrayList<>();
+
+  public CapturingLog(String clazz) {
+  }
+
+  @Override
+  public boolean isDebugEnabled() {
+    return true;
+  }
+
+  @Override
+  public boolean isTraceEnabled() {
+    return false;
+  }
+
+  @Override
+  public void error(String s, Throwable e) {
+  }
+
+  @Override
+  public void error(String s) {
+  }
+
+  @Override
+  public void debug(String s) {
+    synchronized (LINES) {
+      LINES.add(s);
+    }
+  }
+
+  @Override
+  public void trace(String s) {
+  }
+
+  @Override
+  public void warn(String s) {
+  }
+}
@@ -0,0 +1,98 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.sql_logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.Iterator;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SqlLoggerTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/sql_logger/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/sql_logger/CreateDB.sql");
+  }
+
+  @AfterAll
+  static void tearDown() {
+    LogFactory.useNoLogging();
+  }
+
+  @BeforeEach
+  void clearLines() {
+    synchronized (CapturingLog.LINES) {
+      CapturingLog.LINES.clear();
+    }
+  }
+
+  @Test
+  void shouldLogParameterValuesAsBound() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      User user = new User(3, "User3");
+      assertEquals(1, sqlSession.getMapper(Mapper.class).insertUser(user));
+      // the key selected after the insert must not show up in the logged parameters
+      assertEquals(Integer.valueOf(30), user.getId());
+      sqlSession.rollback(true);
+    }
+    String line = findLine("insert into users");
+    assertTrue(line.endsWith("| Parameters: 3(Integer), User3(String) | Updates: 1"), line);
+  }
+
+  @Test
+  void shouldLogCursorQueries() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession();
+         Cursor<User> cursor = sqlSession.getMapper(Mapper.class).selectAll()) {
+      Iterator<User> iterator = cursor.iterator();
+      assertEquals(Integer.valueOf(1), iterator.next().getId());
+      assertEquals(Integer.valueOf(2), iterator.next().getId());
+    }
+    String line = findLine("select * from users");
+    assertTrue(line.startsWith("==> Executed ("), line);
+    assertTrue(line.endsWith("select * from users order by id | Parameters: "), line);
+  }
+
+  private static String findLine(String sql) {
+    synchronized (CapturingLog.LINES) {
+      for (String line : CapturingLog.LINES) {
+        if (line.contains(sql)) {
+          return line;
+        }
+      }
+    }
+    throw new AssertionError("No log line for " + sql + " in " + CapturingLog.LINES);
+  }
+
+}
@@ -0,0 +1,124 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.statement_metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import javax.management.ObjectName;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.metrics.DefaultMetricsRegistry;
+import org.apache.ibatis.metrics.ExecutionPhase;
+import org.apache.ibatis.metrics.StatementMetrics;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StatementMetricsTest {
+
+  private static final String SELECT_ALL = Mapper.class.getName() + ".selectAll";
+  private static final String UPDATE_NAME = Mapper.class.getName() + ".updateName";
+
+  private static SqlSessionFactory sqlSessionFactory;
+  private static DefaultMetricsRegistry registry;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/statement_metrics/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    registry = (DefaultMetricsRegistry) sqlSessionFactory.getConfiguration().getMetricsRegistry();
+  }
+
+  @AfterAll
+  static void tearDown() {
+    registry.unregisterMBean();
+  }
+
+  @BeforeEach
+  void resetDatabase() throws Exception {
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/statement_metrics/CreateDB.sql");
+    sqlSessionFactory.getConfiguration().getCache(Mapper.class.getName()).clear();
+    registry.reset();
+  }
+
+  @Test
+  void shouldRecordPhasesRowsAndCacheAccesses() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(3, sqlSession.getMapper(Mapper.class).selectAll().size());
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(3, sqlSession.getMapper(Mapper.class).selectAll().size());
+    }
+    StatementMetrics metrics = registry.getStatementMetrics(SELECT_ALL);
+    assertEquals(1, metrics.getExecutions().getCount());
+    for (ExecutionPhase phase : ExecutionPhase.values()) {
+      assertEquals(1, metrics.getPhase(phase).getCount(), phase.name());
+    }
+    assertEquals(3, metrics.getRows().getTotal());
+    assertEquals(1, metrics.getCacheHits());
+    assertEquals(1, metrics.getCacheMisses());
+  }
+
+  @Test
+  void shouldRecordUpdatedRows() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(1, sqlSession.getMapper(Mapper.class).updateName(1, "Updated"));
+      sqlSession.rollback(true);
+    }
+    StatementMetrics metrics = registry.getStatementMetrics(UPDATE_NAME);
+    assertEquals(1, metrics.getExecutions().getCount());
+    assertEquals(1, metrics.getPhase(ExecutionPhase.EXECUTE).getCount());
+    assertEquals(0, metrics.getPhase(ExecutionPhase.FETCH).getCount());
+    assertEquals(1, metrics.getRows().getTotal());
+  }
+
+  @Test
+  void shouldCaptureSlowQueries() {
+    registry.setSlowQueryThreshold(0);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).selectAll();
+    }
+    assertTrue(registry.getSlowQueries().isEmpty());
+    // the threshold is in milliseconds, report an execution above it directly
+    registry.setSlowQueryThreshold(1);
+    registry.recordExecution(SELECT_ALL, sqlSessionFactory.getConfiguration().getMappedStatement(SELECT_ALL).getBoundSql(null), 2000000);
+    assertEquals(1, registry.getSlowQueries().size());
+    assertEquals("select * from users order by id", registry.getSlowQueries().get(0).getBoundSql().getSql());
+    assertTrue(registry.getSlowQueryLog()[0].startsWith(SELECT_ALL + " (2 ms): select"));
+  }
+
+  @Test
+  void shouldExposeMetricsThroughJmx() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).selectAll();
+    }
+    ObjectName name = new ObjectName("org.apache.ibatis:type=MetricsRegistry,name=" + ObjectName.quote("statement_metrics"));
+    String[] ids = (String[]) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "StatementIds");
+    assertEquals(Arrays.asList(SELECT_ALL), Arrays.asList(ids));
+  }
+
+}
@@ -0,0 +1,148 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.table_cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TableCacheTest {
+
+  private static final String PERSON_MAPPER = "org.apache.ibatis.submitted.table_cache.PersonMapper.";
+  private static final String REPORT_MAPPER = "org.apache.ibatis.submitted.table_cache.ReportMapper.";
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/table_cache/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/table_cache/CreateDB.sql");
+  }
+
+  @Test
+  void shouldOnlyInvalidateEntriesTaggedWithWrittenTables() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals("Jane", firstName(sqlSession.selectList(PERSON_MAPPER + "selectPersons")));
+      assertEquals(1, sqlSession.selectList(PERSON_MAPPER + "selectPets").size());
+      assertEquals("Jane", firstName(sqlSession.selectList(PERSON_MAPPER + "selectPersonsWithPets")));
+      assertEquals(1, (int) sqlSession.selectOne(REPORT_MAPPER + "countPersons", "Jane"));
+      assertEquals(1, (int) sqlSession.selectOne(REPORT_MAPPER + "countPets"));
+    }
+
+    // change the database behind the cache to see which entries are reloaded
+    executeJdbc("update person set name = 'Janet' where id = 1");
+
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.insert(PERSON_MAPPER + "insertPet", pet(2, 2, "Tom"));
+      sqlSession.commit();
+    }
+
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals("Jane", firstName(sqlSession.selectList(PERSON_MAPPER + "selectPersons")));
+      assertEquals(2, sqlSession.selectList(PERSON_MAPPER + "selectPets").size());
+      assertEquals("Janet", firstName(sqlSession.selectList(PERSON_MAPPER + "selectPersonsWithPets")));
+      assertEquals(1, (int) sqlSession.selectOne(REPORT_MAPPER + "countPersons", "Jane"));
+      assertEquals(2, (int) sqlSession.selectOne(REPORT_MAPPER + "countPets"));
+    }
+
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Map<String, Object> param = new HashMap<>();
+      param.put("id", 2);
+      param.put("name", "Jim");
+      sqlSession.update(PERSON_MAPPER + "renamePerson", param);
+      sqlSession.commit();
+    }
+
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals("Janet", firstName(sqlSession.selectList(PERSON_MAPPER + "selectPersons")));
+      assertEquals(0, (int) sqlSession.selectOne(REPORT_MAPPER + "countPersons", "Jane"));
+      assertEquals(2, (int) sqlSession.selectOne(REPORT_MAPPER + "countPets"));
+    }
+  }
+
+  @Test
+  void shouldNotUseInvalidatedEntriesBeforeCommit() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(1, sqlSession.selectList(PERSON_MAPPER + "selectPets").size());
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.insert(PERSON_MAPPER + "insertPet", pet(2, 2, "Tom"));
+      assertEquals(2, sqlSession.selectList(PERSON_MAPPER + "selectPets").size());
+      sqlSession.rollback();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(1, sqlSession.selectList(PERSON_MAPPER + "selectPets").size());
+    }
+  }
+
+  @Test
+  void shouldCountStaleEntriesAsMisses() {
+    for (int i = 0; i < 2; i++) {
+      try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        assertEquals(1, sqlSession.selectList(PERSON_MAPPER + "selectPets").size());
+      }
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.insert(PERSON_MAPPER + "insertPet", pet(2, 2, "Tom"));
+      sqlSession.commit();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(2, sqlSession.selectList(PERSON_MAPPER + "selectPets").size());
+    }
+    CacheStatistics statistics = sqlSessionFactory.getConfiguration().getCacheStatisticsRegistry()
+        .getStatistics("org.apache.ibatis.submitted.table_cache.PersonMapper");
+    assertEquals(1, statistics.getHits());
+    assertEquals(2, statistics.getMisses());
+    assertEquals(1, statistics.getStaleReads());
+  }
+
+  private void executeJdbc(String sql) throws Exception {
+    try (Connection connection = sqlSessionFactory.getConfiguration().getEnvironment().getDataSource().getConnection();
+         Statement statement = connection.createStatement()) {
+      statement.executeUpdate(sql);
+    }
+  }
+
+  private static Map<String, Object> pet(int id, int ownerId, String name) {
+    Map<String, Object> pet = new HashMap<>();
+    pet.put("id", id);
+    pet.put("ownerId", ownerId);
+    pet.put("name", name);
+    return pet;
+  }
+
+  private static String firstName(List<Map<String, Object>> rows) {
+    return (String) rows.get(0).get("NAME");
+  }
+
+}
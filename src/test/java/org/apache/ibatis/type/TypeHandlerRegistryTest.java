@@ -215,4 +215,18 @@ class TypeHandlerRegistryTest {
     typeHandlerRegistry.register(Address.class, StringTypeHandler.class);
     assertTrue(typeHandlerRegistry.hasTypeHandler(Address.class));
   }
+
+  @Test
+  void shouldResolveAgainAfterRegistration() {
+    class Address {
+    }
+    assertNull(typeHandlerRegistry.getTypeHandler(Address.class, JdbcType.VARCHAR));
+    typeHandlerRegistry.register(Address.class, StringTypeHandler.class);
+    assertSame(StringTypeHandler.class, typeHandlerRegistry.getTypeHandler(Address.class, JdbcType.VARCHAR).getClass());
+    assertSame(typeHandlerRegistry.getTypeHandler(Address.class, JdbcType.VARCHAR),
+        typeHandlerRegistry.getTypeHandler(Address.class, JdbcType.VARCHAR));
+    typeHandlerRegistry.register(Address.class, JdbcType.CLOB, ClobTypeHandler.class);
+    assertSame(ClobTypeHandler.class, typeHandlerRegistry.getTypeHandler(Address.class, JdbcType.CLOB).getClass());
+    assertSame(StringTypeHandler.class, typeHandlerRegistry.getTypeHandler(Address.class, JdbcType.VARCHAR).getClass());
+  }
 }